@@ -0,0 +1,131 @@
+package com.suhoi.adapters.binance;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.suhoi.api.adapter.SymbolCache;
+import com.suhoi.api.adapter.TickView;
+import com.suhoi.api.adapter.TickViewHandler;
+import com.suhoi.market.MarketKind;
+import com.suhoi.util.Clocks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import static com.suhoi.adapters.binance.BinanceJson.MAPPER;
+
+/**
+ * Разбор кадров @bookTicker: прежний путь ({@code readTree} + {@code path(...)}) против
+ * {@link BinanceBookTickerParser}. Кадры корпуса {@code frames/binance-bookTicker.jsonl}
+ * (spot и futures вперемешку) перебираются по кругу — время указано на один кадр.
+ * {@link #streamingWithDepth()} — тот же парсер с кэшем depth5 на корпусе
+ * {@code frames/binance-bookTicker-depth5.jsonl} (перед каждым bookTicker — кадр depth5 символа):
+ * разбор уровней и расчёт depthUsd50.
+ * Запуск: {@code ./gradlew :modules:adapters:binance-adapter:jmh -Pjmh.includes=BinanceParserBenchmark}
+ * (для сравнения аллокаций — с {@code -prof gc}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BinanceParserBenchmark {
+
+    private String[] frames;
+    private int cursor;
+    private final TickView view = new TickView();
+    private final Map<String, String> assets = new HashMap<>();
+    private String[] depthFrames;
+    private int depthCursor;
+    private BinanceBookTickerParser parser;
+    private BinanceBookTickerParser depthParser;
+    private long acc;
+    private final TickViewHandler sink = v -> acc += v.midMantissa();
+    private final TickViewHandler depthSink = v -> acc += v.midMantissa() + (long) v.depthUsd50();
+
+    @Setup
+    public void setup() {
+        frames = frames("binance-bookTicker.jsonl");
+        depthFrames = frames("binance-bookTicker-depth5.jsonl");
+        var symbols = subscribed("BINANCE", MarketKind.PERP, BinanceSymbols::extractBaseOrThrow, frames, depthFrames);
+        parser = new BinanceBookTickerParser("BINANCE", "PERP", symbols);
+        depthParser = new BinanceBookTickerParser("BINANCE", "PERP", symbols, new BinanceDepthBook(),
+                new DepthCoverage(AbstractBinanceWsClient.MAX_DEPTH_AGE.toNanos()));
+    }
+
+    @Benchmark
+    public long treeModel() throws IOException {
+        JsonNode node = MAPPER.readTree(next());
+        JsonNode payload = node.has("data") ? node.get("data") : node;
+        String symbolUpper = payload.path("s").asText(payload.path("symbol").asText("")).toUpperCase();
+        if (!symbolUpper.endsWith("USDT")) return acc;
+        String bStr = payload.path("b").asText(payload.path("bestBid").asText(null));
+        String aStr = payload.path("a").asText(payload.path("bestAsk").asText(null));
+        if (bStr == null || aStr == null) return acc;
+        view.clear()
+                .market(assets.computeIfAbsent(symbolUpper, BinanceSymbols::extractBaseOrThrow), "BINANCE", "PERP", symbolUpper)
+                .ts(payload.path("E").asLong(Clocks.coarseMillis()))
+                .bid(bStr)
+                .ask(aStr)
+                .completeMid();
+        sink.onTick(view);
+        return acc;
+    }
+
+    @Benchmark
+    public long streaming() {
+        parser.parse(next(), view, sink);
+        return acc;
+    }
+
+    @Benchmark
+    public long streamingWithDepth() {
+        String f = depthFrames[depthCursor];
+        depthCursor = depthCursor + 1 == depthFrames.length ? 0 : depthCursor + 1;
+        depthParser.parse(f, view, depthSink);
+        return acc;
+    }
+
+    private String next() {
+        String f = frames[cursor];
+        cursor = cursor + 1 == frames.length ? 0 : cursor + 1;
+        return f;
+    }
+
+    static String[] frames(String name) {
+        try (InputStream in = BinanceParserBenchmark.class.getResourceAsStream("/frames/" + name)) {
+            if (in == null) throw new IllegalStateException("corpus not found: " + name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toArray(String[]::new);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final Pattern SYMBOL = Pattern.compile("\"(?:s|symbol|instId)\":\"([A-Za-z0-9_]+)\"");
+
+    /** Символы корпуса — как подписка клиента (парсер находит только их). */
+    static SymbolCache subscribed(String venue, MarketKind kind, Function<String, String> assetOf, String[]... corpora) {
+        var found = new LinkedHashSet<String>();
+        var m = SYMBOL.matcher("");
+        for (String[] frames : corpora) {
+            for (String f : frames) {
+                m.reset(f);
+                while (m.find()) found.add(m.group(1));
+            }
+        }
+        var symbols = new SymbolCache(venue, kind, assetOf);
+        symbols.add(found);
+        return symbols;
+    }
+}
@@ -1,10 +1,13 @@
 package com.suhoi.adapters.binance;
 
 
+import com.suhoi.adapters.common.Transport;
 import com.suhoi.api.adapter.DiscoveryClient;
 import com.suhoi.api.adapter.ExchangeAdapter;
 import com.suhoi.api.adapter.StreamClient;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * Композит для Binance: discovery + два потоковых клиента (SPOT и PERP).
  * Использование:
@@ -12,20 +15,51 @@ import com.suhoi.api.adapter.StreamClient;
  *  var spot = adapter.spotStream().subscribeBookTicker(List.of("BTCUSDT", "ETHUSDT"), handler);
  *  ...
  *  spot.close(); adapter.close();
+ * Покрытие тиков глубиной — {@link #spotDepthCoverage()} / {@link #perpDepthCoverage()}.
  */
-public final class BinanceAdapter implements ExchangeAdapter, AutoCloseable {
-    private final BinanceDiscoveryClient discovery = new BinanceDiscoveryClient();
-    private final BinanceSpotStreamClient spot = new BinanceSpotStreamClient();
-    private final BinanceFuturesStreamClient perp = new BinanceFuturesStreamClient();
+public final class BinanceAdapter implements ExchangeAdapter {
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final Transport transport;
+    private final BinanceDiscoveryClient discovery;
+    private final BinanceSpotStreamClient spot;
+    private final BinanceFuturesStreamClient perp;
+    private final BinanceBulkPollStreamClient spotPoll;
+    private final BinanceBulkPollStreamClient perpPoll;
+
+    public BinanceAdapter() {
+        this(Transport.shared());
+    }
+
+    /** Забирает ссылку на {@code transport} и отпускает её в {@link #close()}; потоковым клиентам — свои ссылки. */
+    public BinanceAdapter(Transport transport) {
+        this.transport = transport;
+        this.discovery = new BinanceDiscoveryClient(transport);
+        this.spot = new BinanceSpotStreamClient(transport.retain());
+        this.perp = new BinanceFuturesStreamClient(transport.retain());
+        this.spotPoll = BinanceBulkPollStreamClient.spot(transport.retain());
+        this.perpPoll = BinanceBulkPollStreamClient.perp(transport.retain());
+    }
 
     @Override public String venue() { return "BINANCE"; }
     @Override public DiscoveryClient discovery() { return discovery; }
     @Override public StreamClient spotStream() { return spot; }
     @Override public StreamClient perpStream() { return perp; }
+    @Override public StreamClient spotPollStream() { return spotPoll; }
+    @Override public StreamClient perpPollStream() { return perpPoll; }
+
+    /** Покрытие SPOT-тиков глубиной depth5 (fresh/stale/missing, символы со старым снимком). */
+    public DepthCoverage spotDepthCoverage() { return spot.depthCoverage(); }
+
+    /** Покрытие PERP-тиков глубиной depth5 (fresh/stale/missing, символы со старым снимком). */
+    public DepthCoverage perpDepthCoverage() { return perp.depthCoverage(); }
 
     @Override public void close() {
+        if (!closed.compareAndSet(false, true)) return;
         spot.close();
         perp.close();
+        spotPoll.close();
+        perpPoll.close();
+        transport.close();
     }
 }
 
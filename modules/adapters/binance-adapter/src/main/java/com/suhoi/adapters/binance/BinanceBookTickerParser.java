@@ -0,0 +1,146 @@
+package com.suhoi.adapters.binance;
+
+import com.suhoi.api.adapter.JsonScanner;
+import com.suhoi.api.adapter.SymbolCache;
+import com.suhoi.api.adapter.TickView;
+import com.suhoi.api.adapter.TickViewHandler;
+import com.suhoi.math.FixedPoint;
+import com.suhoi.util.Clocks;
+
+/**
+ * Потоковый разбор кадра @bookTicker: wrapper {"stream":"...","data":{...}} или raw {"e":"bookTicker", ...}.
+ * Из кадра берутся только s/symbol, b/bestBid, a/bestAsk, E (eventTime) — по токенам, без дерева.
+ * <p>
+ * С {@link BinanceDepthBook} парсер понимает и кадры {@code @depth5} того же combined-потока:
+ * spot {@code {"stream":"btcusdt@depth5@100ms","data":{"bids":[[p,q],..],"asks":[..]}}} (символ —
+ * из имени потока) и futures {@code {"e":"depthUpdate","s":"BTCUSDT","b":[[p,q],..],"a":[..]}}
+ * (b/a — массивы уровней, а не цены). Такие кадры только обновляют кэш глубины; тик bookTicker
+ * получает {@code depthUsd50} — нотионал уровней в пределах {@value #DEPTH_BAND_BPS} б.п. от mid,
+ * если снимок не старше предела {@link DepthCoverage} (иначе глубины в тике нет, тик учитывается
+ * как stale/missing).
+ * </p>
+ * Один экземпляр на соединение (не потокобезопасен).
+ */
+final class BinanceBookTickerParser {
+    /** Полоса вокруг mid для depthUsd50, б.п. */
+    static final double DEPTH_BAND_BPS = 50;
+
+    private final String venue;
+    private final String kind;
+    private final JsonScanner js = new JsonScanner();
+    private final SymbolCache symbols; // общий у соединений клиента
+
+    private final BinanceDepthBook depth;   // null — без depth-потока
+    private final DepthCoverage coverage;
+    // уровни текущего depth-кадра
+    private final double[] bidPx = new double[BinanceDepthBook.LEVELS];
+    private final double[] bidQty = new double[BinanceDepthBook.LEVELS];
+    private final double[] askPx = new double[BinanceDepthBook.LEVELS];
+    private final double[] askQty = new double[BinanceDepthBook.LEVELS];
+
+    BinanceBookTickerParser(String venue, String kind, SymbolCache symbols) {
+        this(venue, kind, symbols, null, null);
+    }
+
+    BinanceBookTickerParser(String venue, String kind, SymbolCache symbols, BinanceDepthBook depth, DepthCoverage coverage) {
+        if ((depth == null) != (coverage == null)) throw new IllegalArgumentException("depth and coverage go together");
+        this.venue = venue;
+        this.kind = kind;
+        this.symbols = symbols;
+        this.depth = depth;
+        this.coverage = coverage;
+    }
+
+    /** @return число тиков, отданных в handler (0 — служебный/чужой/битый кадр или кадр depth) */
+    int parse(CharSequence frame, TickView view, TickViewHandler handler) {
+        js.reset(frame);
+        int symOff = -1, symLen = 0, bidOff = -1, bidLen = 0, askOff = -1, askLen = 0;
+        int streamOff = -1, streamLen = 0;
+        int bids = -1, asks = -1; // >= 0 — кадр depth
+        long eventTime = 0;
+        boolean hasTime = false;
+        int t;
+        while ((t = js.next()) != JsonScanner.EOF) {
+            // поля тикера — в корне (raw) или в data (combined); вложенные объекты не наши
+            if (t != JsonScanner.FIELD || js.depth() > 2) continue;
+            if (js.is("stream")) {
+                if (js.next() == JsonScanner.STRING) { streamOff = js.start(); streamLen = js.length(); }
+            } else if (js.is("s") || js.is("symbol")) {
+                if (js.next() == JsonScanner.STRING) { symOff = js.start(); symLen = js.length(); }
+            } else if (js.is("b") || js.is("bestBid") || js.is("bids")) {
+                if (js.next() == JsonScanner.START_ARRAY) bids = levels(frame, bidPx, bidQty);
+                else if (js.isScalar() && js.length() > 0) { bidOff = js.start(); bidLen = js.length(); }
+            } else if (js.is("a") || js.is("bestAsk") || js.is("asks")) {
+                if (js.next() == JsonScanner.START_ARRAY) asks = levels(frame, askPx, askQty);
+                else if (js.isScalar() && js.length() > 0) { askOff = js.start(); askLen = js.length(); }
+            } else if (js.is("E")) {
+                if (js.next() == JsonScanner.NUMBER) { eventTime = js.longValue(); hasTime = true; }
+            }
+        }
+        if (bids >= 0 || asks >= 0) {
+            onDepth(frame, symOff, symLen, streamOff, streamLen, Math.max(bids, 0), Math.max(asks, 0));
+            return 0;
+        }
+        if (symOff < 0 || bidOff < 0 || askOff < 0) return 0;
+
+        SymbolCache.Entry sym = symbols.get(frame, symOff, symLen);
+        if (sym == null) return 0; // не из подписки
+        view.clear()
+                .market(sym.asset(), venue, kind, sym.symbol()) // asset = BASE
+                .ts(hasTime ? eventTime : Clocks.coarseMillis()) // heartbeatTs = eventTime
+                .bid(frame, bidOff, bidLen)
+                .ask(frame, askOff, askLen)
+                .completeMid();
+        if (depth != null && view.hasMid()
+                && coverage.record(sym.symbol(), depth.ageNanos(sym, Clocks.monotonicNanos()))) {
+            view.depthUsd50(depth.notionalWithin(sym, view.midDouble(), DEPTH_BAND_BPS));
+        }
+        // marketId неизвестен адаптеру
+        handler.onTick(view);
+        return 1;
+    }
+
+    private void onDepth(CharSequence frame, int symOff, int symLen, int streamOff, int streamLen, int bids, int asks) {
+        if (depth == null) return;
+        if (symOff < 0) {
+            // spot depth5 без "s": символ — имя потока до '@' ("btcusdt@depth5@100ms")
+            if (streamOff < 0) return;
+            symLen = 0;
+            while (symLen < streamLen && frame.charAt(streamOff + symLen) != '@') symLen++;
+            symOff = streamOff;
+        }
+        SymbolCache.Entry sym = symbols.get(frame, symOff, symLen);
+        if (sym == null) return;
+        depth.update(sym, bidPx, bidQty, bids, askPx, askQty, asks, Clocks.monotonicNanos());
+    }
+
+    /**
+     * Читает массив уровней {@code [["price","qty"],...]} (сканер стоит на его START_ARRAY) —
+     * первые {@link BinanceDepthBook#LEVELS}, остальные пропускаются.
+     *
+     * @return число прочитанных уровней
+     */
+    private int levels(CharSequence frame, double[] px, double[] qty) {
+        int outer = js.depth();
+        int n = 0;
+        int t;
+        while ((t = js.next()) != JsonScanner.EOF && js.depth() >= outer) {
+            if (t != JsonScanner.START_ARRAY || js.depth() != outer + 1 || n == px.length) continue;
+            js.next();
+            if (!js.isScalar()) continue;
+            double p = number(frame);
+            js.next();
+            if (!js.isScalar()) continue;
+            px[n] = p;
+            qty[n] = number(frame);
+            n++;
+        }
+        return n;
+    }
+
+    private double number(CharSequence frame) {
+        int off = js.start(), len = js.length();
+        int scale = FixedPoint.scaleOf(frame, off, len);
+        return FixedPoint.toDouble(FixedPoint.parse(frame, off, len, scale), scale);
+    }
+}
@@ -0,0 +1,50 @@
+package com.suhoi.adapters.binance;
+
+import com.suhoi.adapters.common.AbstractBulkPollStreamClient;
+import com.suhoi.adapters.common.BulkPollSpec;
+import com.suhoi.adapters.common.Transport;
+import com.suhoi.market.MarketKind;
+
+import java.time.Duration;
+
+/**
+ * bookTicker всех символов Binance одним REST-запросом — long-tail и fast-poll fallback. <br>
+ * SPOT: GET https://api.binance.com/api/v3/ticker/bookTicker (вес 4 из 6000/мин — не чаще 320 мс) <br>
+ * PERP: GET https://fapi.binance.com/fapi/v1/ticker/bookTicker (вес 5 из 2400/мин — не чаще 1с) <br>
+ * Нижняя граница — доля лимита по весу, см. {@link BulkPollSpec}.
+ */
+public final class BinanceBulkPollStreamClient extends AbstractBulkPollStreamClient {
+    public static final BulkPollSpec SPOT = BulkPollSpec.builder("BINANCE", MarketKind.SPOT, "https://api.binance.com/api/v3/ticker/bookTicker")
+            .assetOf(s -> s.endsWith("USDT") ? BinanceSymbols.extractBaseOrThrow(s) : null)
+            .fields("symbol", "bidPrice", "askPrice", null)
+            .limit(6000, Duration.ofMinutes(1), 4)
+            .build();
+
+    public static final BulkPollSpec PERP = BulkPollSpec.builder("BINANCE", MarketKind.PERP, "https://fapi.binance.com/fapi/v1/ticker/bookTicker")
+            .assetOf(s -> s.endsWith("USDT") ? BinanceSymbols.extractBaseOrThrow(s) : null)
+            .fields("symbol", "bidPrice", "askPrice", "time")
+            .limit(2400, Duration.ofMinutes(1), 5)
+            .build();
+
+    private BinanceBulkPollStreamClient(Transport transport, BulkPollSpec spec, Duration interval) {
+        super(transport, spec, interval);
+    }
+
+    /** Забирает ссылку на {@code transport}; отпускает в {@link #close()}. */
+    public static BinanceBulkPollStreamClient spot(Transport transport) {
+        return spot(transport, DEFAULT_INTERVAL);
+    }
+
+    public static BinanceBulkPollStreamClient spot(Transport transport, Duration interval) {
+        return new BinanceBulkPollStreamClient(transport, SPOT, interval);
+    }
+
+    /** Забирает ссылку на {@code transport}; отпускает в {@link #close()}. */
+    public static BinanceBulkPollStreamClient perp(Transport transport) {
+        return perp(transport, DEFAULT_INTERVAL);
+    }
+
+    public static BinanceBulkPollStreamClient perp(Transport transport, Duration interval) {
+        return new BinanceBulkPollStreamClient(transport, PERP, interval);
+    }
+}
@@ -0,0 +1,135 @@
+package com.suhoi.adapters.binance;
+
+import com.suhoi.api.adapter.SymbolCache;
+
+import java.util.Arrays;
+
+/**
+ * Последние уровни {@code @depth5} по символам одного соединения — в плоских примитивных массивах.
+ * <p>
+ * Слот символа ищется по строке символа {@link SymbolCache.Entry#symbol()}, а не по записи: при
+ * отписке и повторной подписке запись пересоздаётся, а слот символа остаётся прежним — таблица
+ * ограничена числом разных символов соединения, а не числом циклов подписки; на слот — {@value #LEVELS} bid и {@value #LEVELS} ask уровней (цена, количество
+ * в double) и момент получения по монотонным часам. Обновление — перезапись слота целиком
+ * (depth5 — частичный снимок, а не дельта).
+ * </p>
+ * Не потокобезопасен: один экземпляр на соединение, как и парсер.
+ */
+final class BinanceDepthBook {
+    static final int LEVELS = 5;
+    /** Предел символов на соединение (у нас их ≤ 100); сверх — снимки не хранятся. */
+    static final int MAX_SYMBOLS = 4096;
+    private static final int STRIDE = 2 * LEVELS; // bid[0..4], ask[5..9]
+
+    private String[] keys = new String[64];
+    private int[] slots = new int[64];
+    private int size;
+
+    private double[] px = new double[32 * STRIDE];
+    private double[] qty = new double[32 * STRIDE];
+    private int[] bidCount = new int[32];
+    private int[] askCount = new int[32];
+    private long[] receivedNanos = new long[32];
+
+    /** Записывает снимок уровней символа (массивы — буфер парсера, копируются). */
+    void update(SymbolCache.Entry sym, double[] bidPx, double[] bidQty, int bids,
+                double[] askPx, double[] askQty, int asks, long nowNanos) {
+        int s = slotFor(sym);
+        if (s < 0) return;
+        int base = s * STRIDE;
+        bids = Math.min(bids, LEVELS);
+        asks = Math.min(asks, LEVELS);
+        System.arraycopy(bidPx, 0, px, base, bids);
+        System.arraycopy(bidQty, 0, qty, base, bids);
+        System.arraycopy(askPx, 0, px, base + LEVELS, asks);
+        System.arraycopy(askQty, 0, qty, base + LEVELS, asks);
+        bidCount[s] = bids;
+        askCount[s] = asks;
+        receivedNanos[s] = nowNanos;
+    }
+
+    /** Возраст последнего снимка символа, нс; {@code -1} — снимка ещё не было. */
+    long ageNanos(SymbolCache.Entry sym, long nowNanos) {
+        int s = find(sym);
+        return s < 0 ? -1 : Math.max(0, nowNanos - receivedNanos[s]);
+    }
+
+    /**
+     * Нотионал (в валюте котировки — USDT ≈ USD) уровней не дальше {@code bps} б.п. от {@code mid},
+     * обе стороны; {@code NaN} — снимка нет.
+     */
+    double notionalWithin(SymbolCache.Entry sym, double mid, double bps) {
+        int s = find(sym);
+        if (s < 0) return Double.NaN;
+        double lo = mid * (1 - bps / 10_000d);
+        double hi = mid * (1 + bps / 10_000d);
+        int base = s * STRIDE;
+        double usd = 0;
+        for (int i = base, end = base + bidCount[s]; i < end; i++) {
+            if (px[i] < lo) break; // bids по убыванию цены
+            usd += px[i] * qty[i];
+        }
+        for (int i = base + LEVELS, end = base + LEVELS + askCount[s]; i < end; i++) {
+            if (px[i] > hi) break; // asks по возрастанию цены
+            usd += px[i] * qty[i];
+        }
+        return usd;
+    }
+
+    int size() { return size; }
+
+    private int find(SymbolCache.Entry sym) {
+        String symbol = sym.symbol();
+        int mask = keys.length - 1;
+        for (int i = hash(symbol) & mask; ; i = (i + 1) & mask) {
+            String k = keys[i];
+            if (k == null) return -1;
+            if (k == symbol || k.equals(symbol)) return slots[i];
+        }
+    }
+
+    private int slotFor(SymbolCache.Entry sym) {
+        int s = find(sym);
+        if (s >= 0) return s;
+        String symbol = sym.symbol();
+        if (size >= MAX_SYMBOLS) return -1;
+        if ((size + 1) * 2 > keys.length) rehash();
+        s = size++;
+        if (s == receivedNanos.length) growSlots();
+        int mask = keys.length - 1;
+        int i = hash(symbol) & mask;
+        while (keys[i] != null) i = (i + 1) & mask;
+        keys[i] = symbol;
+        slots[i] = s;
+        return s;
+    }
+
+    private void rehash() {
+        String[] oldKeys = keys;
+        int[] oldSlots = slots;
+        keys = new String[oldKeys.length * 2];
+        slots = new int[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == null) continue;
+            int i = hash(oldKeys[j]) & mask;
+            while (keys[i] != null) i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            slots[i] = oldSlots[j];
+        }
+    }
+
+    private void growSlots() {
+        int n = receivedNanos.length * 2;
+        px = Arrays.copyOf(px, n * STRIDE);
+        qty = Arrays.copyOf(qty, n * STRIDE);
+        bidCount = Arrays.copyOf(bidCount, n);
+        askCount = Arrays.copyOf(askCount, n);
+        receivedNanos = Arrays.copyOf(receivedNanos, n);
+    }
+
+    private static int hash(String symbol) {
+        int h = symbol.hashCode();
+        return h ^ (h >>> 16);
+    }
+}
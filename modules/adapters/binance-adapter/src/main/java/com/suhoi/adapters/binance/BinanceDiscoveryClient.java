@@ -1,10 +1,10 @@
 package com.suhoi.adapters.binance;
 
-import com.suhoi.api.adapter.DiscoveryClient;
+import com.suhoi.adapters.common.AbstractDiscoveryClient;
+import com.suhoi.adapters.common.Transport;
 import com.suhoi.api.adapter.VenueListing;
 
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
@@ -25,24 +25,33 @@ import static com.suhoi.adapters.binance.BinanceJson.MAPPER;
  *  - Статус фильтруем по "TRADING". <br>
  *  - priceScale/qtyScale берём из PRICE_FILTER и LOT_SIZE. <br>
  */
-public final class BinanceDiscoveryClient implements DiscoveryClient {
+public final class BinanceDiscoveryClient extends AbstractDiscoveryClient {
 
     private static final String VENUE = "BINANCE";
     private static final String KIND_SPOT = "SPOT";
     private static final String KIND_PERP = "PERP";
 
-    private final HttpClient http = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(10))
-            .build();
 
-    private final String spotRestBase;   // https://api.binance.com
-    private final String futuresRestBase;// https://fapi.binance.com  (USDT-M)
+    private static final String SPOT_REST = "https://api.binance.com";
+    private static final String FUTURES_REST = "https://fapi.binance.com"; // USDT-M
 
+    private final String spotRestBase;
+    private final String futuresRestBase;
+
+    /** На общем контексте процесса; ссылку на него отпускает {@link #close()}. */
     public BinanceDiscoveryClient() {
-        this("https://api.binance.com", "https://fapi.binance.com");
+        super();
+        this.spotRestBase = SPOT_REST;
+        this.futuresRestBase = FUTURES_REST;
+    }
+
+    /** Контекст не забирается: клиент живёт, пока жив его владелец. */
+    public BinanceDiscoveryClient(Transport transport) {
+        this(transport, SPOT_REST, FUTURES_REST);
     }
 
-    public BinanceDiscoveryClient(String spotRestBase, String futuresRestBase) {
+    public BinanceDiscoveryClient(Transport transport, String spotRestBase, String futuresRestBase) {
+        super(transport);
         this.spotRestBase = Objects.requireNonNull(spotRestBase);
         this.futuresRestBase = Objects.requireNonNull(futuresRestBase);
     }
@@ -64,7 +73,7 @@ public final class BinanceDiscoveryClient implements DiscoveryClient {
                     .timeout(Duration.ofSeconds(15))
                     .build();
 
-            var resp = http.send(req, HttpResponse.BodyHandlers.ofString());
+            var resp = transport().http(req.uri()).send(req, HttpResponse.BodyHandlers.ofString());
             if (resp.statusCode() / 100 != 2) {
                 throw new IllegalStateException("HTTP " + resp.statusCode() + " for " + url);
             }
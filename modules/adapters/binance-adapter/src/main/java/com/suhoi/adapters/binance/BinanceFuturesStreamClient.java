@@ -1,12 +1,19 @@
 package com.suhoi.adapters.binance;
 
+import com.suhoi.adapters.common.Transport;
+
 /**
  * Futures (USDT-M) WS streams клиент.
  * Базовый эндпоинт комбинированных потоков: wss://fstream.binance.com/stream :contentReference[oaicite:12]{index=12}
  */
 public final class BinanceFuturesStreamClient extends AbstractBinanceWsClient {
     public BinanceFuturesStreamClient() {
-        super("BINANCE", "PERP", "wss://fstream.binance.com/stream");
+        this(Transport.shared());
+    }
+
+    /** Забирает ссылку на {@code transport}; отпускает в {@link #close()}. */
+    public BinanceFuturesStreamClient(Transport transport) {
+        super(transport, "BINANCE", "PERP", "wss://fstream.binance.com/stream");
     }
 }
 
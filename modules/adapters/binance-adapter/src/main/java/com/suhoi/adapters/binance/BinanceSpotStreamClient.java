@@ -1,12 +1,19 @@
 package com.suhoi.adapters.binance;
 
+import com.suhoi.adapters.common.Transport;
+
 /**
  * Spot WS streams клиент. <br>
  * Базовый эндпоинт комбинированных потоков: wss://stream.binance.com/stream
  */
 public final class BinanceSpotStreamClient extends AbstractBinanceWsClient {
     public BinanceSpotStreamClient() {
-        super("BINANCE", "SPOT", "wss://stream.binance.com/stream");
+        this(Transport.shared());
+    }
+
+    /** Забирает ссылку на {@code transport}; отпускает в {@link #close()}. */
+    public BinanceSpotStreamClient(Transport transport) {
+        super(transport, "BINANCE", "SPOT", "wss://stream.binance.com/stream");
     }
 }
 
@@ -19,6 +19,11 @@ final class BinanceSymbols {
         return nativeSymbolUpper.toLowerCase(Locale.ROOT) + "@bookTicker";
     }
 
+    /** Поток частичного стакана (5 уровней, раз в 100мс) для того же символа. */
+    static String toDepthStream(String nativeSymbolUpper) {
+        return nativeSymbolUpper.toLowerCase(Locale.ROOT) + "@depth5@100ms";
+    }
+
     /**
      * Возвращает BASE, если символ оканчивается на USDT; иначе бросает IllegalArgumentException.
      */
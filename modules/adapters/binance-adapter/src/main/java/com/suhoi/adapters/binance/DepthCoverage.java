@@ -0,0 +1,109 @@
+package com.suhoi.adapters.binance;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Покрытие тиков глубиной ({@code depthUsd50}) у потокового клиента Binance — для метрик
+ * «доля событий без depthUsd50» и DoD (&gt;95% тиков с глубиной).
+ * <p>
+ * На каждый bookTicker-тик — ровно один счётчик: {@link #fresh()} (глубина взята, снимок не старше
+ * предела), {@link #stale()} (снимок старше предела — глубина не отдана), {@link #missing()}
+ * (снимка по символу ещё не было). {@link #maxAgeMillis()} — наибольший возраст снимка среди
+ * отданных тиков с прошлого {@link #resetMaxAge()}. Запись — {@link LongAdder}, без аллокаций;
+ * пишут потоки соединений, читает репортер.
+ * </p>
+ * <p>
+ * {@link #staleSymbols()} — символы, чей последний тик ушёл без глубины из-за старого снимка;
+ * символ уходит из набора со следующим свежим тиком. Строку для лога даёт {@link #report()}.
+ * </p>
+ */
+public final class DepthCoverage {
+    private static final int REPORT_SYMBOLS = 10;
+
+    private final long maxAgeNanos;
+    private final LongAdder fresh = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+    private final LongAdder missing = new LongAdder();
+    private final LongAccumulator maxAgeNanosSeen = new LongAccumulator(Math::max, 0);
+    private final Set<String> staleSymbols = ConcurrentHashMap.newKeySet();
+
+    DepthCoverage(long maxAgeNanos) {
+        this.maxAgeNanos = maxAgeNanos;
+    }
+
+    /**
+     * Учитывает тик символа по возрасту снимка глубины ({@code -1} — снимка нет).
+     *
+     * @return можно ли отдавать глубину в тике
+     */
+    boolean record(String symbol, long ageNanos) {
+        if (ageNanos < 0) {
+            missing.increment();
+            return false;
+        }
+        if (ageNanos > maxAgeNanos) {
+            stale.increment();
+            staleSymbols.add(symbol);
+            return false;
+        }
+        fresh.increment();
+        if (!staleSymbols.isEmpty()) staleSymbols.remove(symbol);
+        maxAgeNanosSeen.accumulate(ageNanos);
+        return true;
+    }
+
+    /** Предел возраста снимка, мс: старше — тик уходит без глубины. */
+    public long maxAllowedAgeMillis() { return TimeUnit.NANOSECONDS.toMillis(maxAgeNanos); }
+
+    public long fresh() { return fresh.sum(); }
+
+    public long stale() { return stale.sum(); }
+
+    public long missing() { return missing.sum(); }
+
+    /** Доля тиков с глубиной; {@code NaN}, пока тиков не было. */
+    public double fillRatio() {
+        long f = fresh.sum();
+        long total = f + stale.sum() + missing.sum();
+        return total == 0 ? Double.NaN : (double) f / total;
+    }
+
+    public long maxAgeMillis() { return TimeUnit.NANOSECONDS.toMillis(maxAgeNanosSeen.get()); }
+
+    /** Сбрасывает {@link #maxAgeMillis()} — репортер зовёт после снятия значения. */
+    public void resetMaxAge() { maxAgeNanosSeen.reset(); }
+
+    /** Символы, чей последний тик ушёл без глубины из-за старого снимка (копия, по алфавиту). */
+    public List<String> staleSymbols() {
+        return staleSymbols.stream().sorted().toList();
+    }
+
+    /**
+     * Строка для периодического лога: счётчики и до {@value #REPORT_SYMBOLS} символов со старым
+     * снимком; сбрасывает {@link #maxAgeMillis()}.
+     *
+     * @return строка отчёта или {@code null}, пока тиков не было
+     */
+    public String report() {
+        if (fresh() + stale() + missing() == 0) return null;
+        String line = toString();
+        resetMaxAge();
+        return line;
+    }
+
+    @Override
+    public String toString() {
+        var lagging = staleSymbols();
+        return String.format(Locale.ROOT,
+                "DepthCoverage[fresh=%d, stale=%d, missing=%d, fill=%.3f, maxAge=%dms, staleSymbols=%s%s]",
+                fresh(), stale(), missing(), fillRatio(), maxAgeMillis(),
+                lagging.subList(0, Math.min(lagging.size(), REPORT_SYMBOLS)),
+                lagging.size() > REPORT_SYMBOLS ? " +" + (lagging.size() - REPORT_SYMBOLS) : "");
+    }
+}
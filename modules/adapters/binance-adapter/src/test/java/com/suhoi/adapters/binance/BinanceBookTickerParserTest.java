@@ -0,0 +1,101 @@
+package com.suhoi.adapters.binance;
+
+import com.suhoi.api.adapter.SymbolCache;
+import com.suhoi.api.adapter.TickView;
+import com.suhoi.events.Price;
+import com.suhoi.events.Tick;
+import com.suhoi.market.MarketKind;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Разбор кадров @bookTicker: combined и raw формы, лишние и вложенные поля, пропуски, края чисел.
+ */
+class BinanceBookTickerParserTest {
+
+    private final SymbolCache symbols = new SymbolCache("BINANCE", MarketKind.PERP,
+            s -> s.endsWith("USDT") ? BinanceSymbols.extractBaseOrThrow(s) : null);
+    private final BinanceBookTickerParser parser = new BinanceBookTickerParser("BINANCE", "PERP", symbols);
+    private final TickView view = new TickView();
+    private final List<Tick> ticks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        symbols.add(List.of("BTCUSDT", "ETHUSDT", "1000PEPEUSDT"));
+    }
+
+    @Test
+    void combinedAndRawFramesGiveTheSameTick() {
+        assertEquals(1, parse("{\"stream\":\"btcusdt@bookTicker\",\"data\":{\"e\":\"bookTicker\",\"u\":1,"
+                + "\"s\":\"BTCUSDT\",\"b\":\"67124.20\",\"B\":\"17.013\",\"a\":\"67124.40\",\"A\":\"7.775\","
+                + "\"T\":1760637683491,\"E\":1760637683493}}"));
+        assertEquals(1, parse("{\"e\":\"bookTicker\",\"u\":1,\"s\":\"BTCUSDT\",\"b\":\"67124.20\",\"B\":\"17.013\","
+                + "\"a\":\"67124.40\",\"A\":\"7.775\",\"T\":1760637683491,\"E\":1760637683493}"));
+
+        for (Tick t : ticks) {
+            assertEquals("BTC", t.asset());
+            assertEquals("BINANCE", t.venue());
+            assertEquals("PERP", t.kind());
+            assertEquals("BTCUSDT", t.nativeSymbol());
+            assertEquals(Price.of(6_712_420, 2), t.bid());
+            assertEquals(Price.of(6_712_440, 2), t.ask());
+            assertEquals(Price.of(6_712_430, 2), t.mid());
+            assertEquals(1_760_637_683_493L, t.ts().toEpochMilli(), "время — E");
+        }
+    }
+
+    @Test
+    void longFieldNamesAndLowerCaseSymbol() {
+        assertEquals(1, parse("{\"symbol\":\"ethusdt\",\"bestBid\":\"3522.63\",\"bestAsk\":\"3522.66\"}"));
+        assertEquals("ETHUSDT", ticks.get(0).nativeSymbol(), "символ — канонический из подписки");
+        assertEquals(Price.of(3_522_645, 3), ticks.get(0).mid());
+    }
+
+    @Test
+    void nestedObjectsDoNotOverrideTopLevelFields() {
+        assertEquals(1, parse("{\"stream\":\"btcusdt@bookTicker\",\"data\":{\"s\":\"BTCUSDT\",\"b\":\"100.0\","
+                + "\"meta\":{\"s\":\"ETHUSDT\",\"b\":\"1\",\"a\":\"2\",\"E\":1},\"a\":\"100.2\",\"E\":1760637683493}}"));
+        Tick t = ticks.get(0);
+        assertEquals("BTCUSDT", t.nativeSymbol());
+        assertEquals(Price.of(1000, 1), t.bid());
+        assertEquals(Price.of(1002, 1), t.ask());
+        assertEquals(1_760_637_683_493L, t.ts().toEpochMilli());
+    }
+
+    @Test
+    void framesWithMissingFieldsAreSkipped() {
+        assertEquals(0, parse("{\"result\":null,\"id\":1}"), "ответ на подписку");
+        assertEquals(0, parse("{\"s\":\"BTCUSDT\",\"b\":\"100.0\"}"), "нет ask");
+        assertEquals(0, parse("{\"s\":\"BTCUSDT\",\"b\":\"\",\"a\":\"100.2\"}"), "пустой bid");
+        assertEquals(0, parse("{\"b\":\"100.0\",\"a\":\"100.2\"}"), "нет символа");
+        assertEquals(0, parse("{\"s\":\"SOLUSDT\",\"b\":\"100.0\",\"a\":\"100.2\"}"), "не из подписки");
+        assertTrue(ticks.isEmpty());
+    }
+
+    @Test
+    void numericEdgeCases() {
+        assertEquals(1, parse("{\"s\":\"1000PEPEUSDT\",\"b\":\"0.0000123400\",\"a\":\"1.2345e-5\"}"));
+        Tick t = ticks.get(0);
+        assertEquals("1000PEPE", t.asset());
+        assertEquals(Price.of(1234, 8), t.bid());
+        assertEquals(10, t.bid().scale(), "хвостовые нули сохраняют масштаб записи");
+        assertEquals(0, t.ask().compareTo(Price.of(12_345, 9)), "экспонента");
+
+        assertEquals(1, parse("{\"s\":\"BTCUSDT\",\"b\":67124,\"a\":67124.5}"), "числа JSON вместо строк");
+        assertEquals(Price.of(671_245, 1), ticks.get(1).ask());
+
+        assertThrows(NumberFormatException.class,
+                () -> parse("{\"s\":\"BTCUSDT\",\"b\":\"1e30\",\"a\":\"1\"}"),
+                "вне long — исключение, кадр пропускает сессия");
+        assertThrows(NumberFormatException.class, () -> parse("{\"s\":\"BTCUSDT\",\"b\":\"1.2.3\",\"a\":\"1\"}"));
+    }
+
+    private int parse(String frame) {
+        return parser.parse(frame, view, v -> ticks.add(v.toTick()));
+    }
+}
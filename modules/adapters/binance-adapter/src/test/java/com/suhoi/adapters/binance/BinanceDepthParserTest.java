@@ -0,0 +1,136 @@
+package com.suhoi.adapters.binance;
+
+import com.suhoi.api.adapter.SymbolCache;
+import com.suhoi.api.adapter.TickView;
+import com.suhoi.market.MarketKind;
+import com.suhoi.util.Clocks;
+import com.suhoi.util.VirtualTimeSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * depthUsd50 из кадров {@code @depth5} combined-потока (без сети, на виртуальном времени).
+ */
+class BinanceDepthParserTest {
+
+    private static final String SPOT_DEPTH = "{\"stream\":\"btcusdt@depth5@100ms\",\"data\":{\"lastUpdateId\":1,"
+            + "\"bids\":[[\"100.0\",\"2\"],[\"99.8\",\"1\"],[\"99.0\",\"50\"]],"
+            + "\"asks\":[[\"100.2\",\"3\"],[\"100.4\",\"1.5\"],[\"101.0\",\"50\"]]}}";
+    private static final String SPOT_TICKER = "{\"stream\":\"btcusdt@bookTicker\",\"data\":{\"u\":2,\"s\":\"BTCUSDT\","
+            + "\"b\":\"100.0\",\"B\":\"2\",\"a\":\"100.2\",\"A\":\"3\"}}";
+    private static final String PERP_DEPTH = "{\"stream\":\"ethusdt@depth5@100ms\",\"data\":{\"e\":\"depthUpdate\","
+            + "\"E\":1760637683492,\"s\":\"ETHUSDT\",\"b\":[[\"2000.0\",\"1\"]],\"a\":[[\"2001.0\",\"2\"]]}}";
+    private static final String PERP_TICKER = "{\"stream\":\"ethusdt@bookTicker\",\"data\":{\"e\":\"bookTicker\","
+            + "\"s\":\"ETHUSDT\",\"b\":\"2000.0\",\"B\":\"1\",\"a\":\"2001.0\",\"A\":\"2\",\"E\":1760637683493}}";
+
+    private final VirtualTimeSource time = new VirtualTimeSource(1_760_000_000_000_000_000L);
+    private final DepthCoverage coverage = new DepthCoverage(AbstractBinanceWsClient.MAX_DEPTH_AGE.toNanos());
+    private final SymbolCache symbols = new SymbolCache("BINANCE", MarketKind.SPOT, BinanceSymbols::extractBaseOrThrow);
+    private final BinanceDepthBook book = new BinanceDepthBook();
+    private final BinanceBookTickerParser parser =
+            new BinanceBookTickerParser("BINANCE", "SPOT", symbols, book, coverage);
+    private final TickView view = new TickView();
+    private final List<Double> depths = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Clocks.set(time);
+        symbols.add(List.of("BTCUSDT", "ETHUSDT"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        Clocks.reset();
+    }
+
+    @Test
+    void spotDepthFromStreamNameWithinBand() {
+        assertEquals(0, parse(SPOT_DEPTH), "кадр depth тиков не даёт");
+        assertEquals(1, parse(SPOT_TICKER));
+
+        // mid = 100.1, полоса ±50 б.п. = [99.5995, 100.6005]: уровни 99.0 и 101.0 не входят
+        double expected = 100.0 * 2 + 99.8 * 1 + 100.2 * 3 + 100.4 * 1.5;
+        assertEquals(expected, depths.get(0), 1e-9);
+        assertEquals(1, coverage.fresh());
+    }
+
+    @Test
+    void futuresDepthUsesArraysUnderBAndA() {
+        parse(PERP_DEPTH);
+        parse(PERP_TICKER);
+
+        assertEquals(2000.0 + 2001.0 * 2, depths.get(0), 1e-9);
+        assertEquals("ETH", view.asset());
+    }
+
+    @Test
+    void missingAndStaleDepthAreReportedAndNotEmitted() {
+        parse(SPOT_TICKER);
+        assertTrue(Double.isNaN(depths.get(0)));
+        assertEquals(1, coverage.missing());
+
+        parse(SPOT_DEPTH);
+        time.advance(AbstractBinanceWsClient.MAX_DEPTH_AGE.plus(Duration.ofMillis(1)));
+        parse(SPOT_TICKER);
+        assertTrue(Double.isNaN(depths.get(1)));
+        assertEquals(1, coverage.stale());
+        assertEquals(List.of("BTCUSDT"), coverage.staleSymbols());
+        assertTrue(coverage.report().contains("staleSymbols=[BTCUSDT]"), coverage.toString());
+
+        parse(SPOT_DEPTH);
+        time.advance(Duration.ofMillis(250));
+        parse(SPOT_TICKER);
+        assertFalse(Double.isNaN(depths.get(2)));
+        assertEquals(250, coverage.maxAgeMillis());
+        assertEquals(1 / 3d, coverage.fillRatio(), 1e-9);
+        assertEquals(List.of(), coverage.staleSymbols(), "свежий тик снимает символ из отчёта");
+        assertTrue(coverage.report().contains("maxAge=250ms"));
+        assertEquals(0, coverage.maxAgeMillis(), "отчёт сбрасывает maxAge");
+    }
+
+    @Test
+    void reportIsEmptyUntilFirstTick() {
+        assertNull(coverage.report());
+    }
+
+    @Test
+    void resubscribeChurnKeepsOneSlotPerSymbol() {
+        for (int i = 0; i <= BinanceDepthBook.MAX_SYMBOLS; i++) {
+            symbols.remove(List.of("BTCUSDT"));
+            symbols.add(List.of("BTCUSDT")); // новая SymbolCache.Entry на каждом цикле
+            parse(SPOT_DEPTH);
+            assertEquals(1, parse(SPOT_TICKER));
+        }
+        assertEquals(1, book.size(), "цикл отписки/подписки не занимает новый слот");
+        assertEquals(0, coverage.missing());
+        assertEquals(BinanceDepthBook.MAX_SYMBOLS + 1, coverage.fresh());
+        assertFalse(Double.isNaN(depths.get(depths.size() - 1)));
+    }
+
+    @Test
+    void tickerWithoutDepthBookIsUnchanged() {
+        var plain = new BinanceBookTickerParser("BINANCE", "SPOT", symbols);
+        assertEquals(0, plain.parse(SPOT_DEPTH, view, v -> fail("depth frame must not emit")));
+        assertEquals(1, plain.parse(SPOT_TICKER, view, v -> depths.add(v.depthUsd50())));
+        assertTrue(Double.isNaN(depths.get(0)));
+    }
+
+    @Test
+    void framesOutsideSubscriptionAreSkipped() {
+        symbols.remove(List.of("ethusdt"));
+        assertEquals(0, parse(PERP_DEPTH));
+        assertEquals(0, parse(PERP_TICKER), "символ не из подписки — кадр пропускается");
+        assertEquals(1, parse(SPOT_TICKER));
+    }
+
+    private int parse(String frame) {
+        return parser.parse(frame, view, v -> depths.add(v.depthUsd50()));
+    }
+}
@@ -0,0 +1,121 @@
+package com.suhoi.adapters.bitget;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.suhoi.api.adapter.SymbolCache;
+import com.suhoi.api.adapter.TickView;
+import com.suhoi.api.adapter.TickViewHandler;
+import com.suhoi.market.MarketKind;
+import com.suhoi.util.Clocks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import static com.suhoi.adapters.bitget.BitgetJson.MAPPER;
+
+/**
+ * Разбор кадров Bitget v2 {@code ticker}: прежний путь ({@code readTree} + {@code path(...)})
+ * против {@link BitgetTickerParser}. Кадры корпуса {@code frames/bitget-ticker.jsonl}
+ * (1–3 элемента data, ack, "pong") перебираются по кругу — время указано на один кадр.
+ * Запуск: {@code ./gradlew :modules:adapters:bitget-adapter:jmh -Pjmh.includes=BitgetParserBenchmark}
+ * (для сравнения аллокаций — с {@code -prof gc}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BitgetParserBenchmark {
+
+    private String[] frames;
+    private int cursor;
+    private final TickView view = new TickView();
+    private final Map<String, String> assets = new HashMap<>();
+    private BitgetTickerParser parser;
+    private long acc;
+    private final TickViewHandler sink = v -> acc += v.midMantissa();
+
+    @Setup
+    public void setup() {
+        frames = frames("bitget-ticker.jsonl");
+        parser = new BitgetTickerParser("BITGET", "PERP",
+                subscribed("BITGET", MarketKind.PERP, BitgetSymbols::extractBaseOrThrow, frames));
+    }
+
+    @Benchmark
+    public long treeModel() throws IOException {
+        String txt = next();
+        if ("pong".equalsIgnoreCase(txt)) return acc;
+        JsonNode root = MAPPER.readTree(txt);
+        if (!"ticker".equalsIgnoreCase(root.path("arg").path("channel").asText(""))) return acc;
+        long tsMs = root.path("ts").asLong(Clocks.coarseMillis());
+        JsonNode arr = root.path("data");
+        if (!arr.isArray() || arr.size() == 0) return acc;
+        for (JsonNode d : arr) {
+            String symbolUpper = d.path("instId").asText("").toUpperCase(Locale.ROOT);
+            if (!symbolUpper.endsWith("USDT")) continue;
+            String bStr = d.path("bidPr").asText(null);
+            String aStr = d.path("askPr").asText(null);
+            view.clear()
+                    .market(assets.computeIfAbsent(symbolUpper, BitgetSymbols::extractBaseOrThrow), "BITGET", "PERP", symbolUpper)
+                    .ts(tsMs);
+            if (bStr != null && !bStr.isEmpty()) view.bid(bStr);
+            if (aStr != null && !aStr.isEmpty()) view.ask(aStr);
+            if (view.completeMid()) sink.onTick(view);
+        }
+        return acc;
+    }
+
+    @Benchmark
+    public long streaming() {
+        String txt = next();
+        if (txt.length() == 4 && "pong".equalsIgnoreCase(txt)) return acc; // как в клиенте
+        parser.parse(txt, view, sink);
+        return acc;
+    }
+
+    private String next() {
+        String f = frames[cursor];
+        cursor = cursor + 1 == frames.length ? 0 : cursor + 1;
+        return f;
+    }
+
+    static String[] frames(String name) {
+        try (InputStream in = BitgetParserBenchmark.class.getResourceAsStream("/frames/" + name)) {
+            if (in == null) throw new IllegalStateException("corpus not found: " + name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toArray(String[]::new);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final Pattern SYMBOL = Pattern.compile("\"(?:s|symbol|instId)\":\"([A-Za-z0-9_]+)\"");
+
+    /** Символы корпуса — как подписка клиента (парсер находит только их). */
+    static SymbolCache subscribed(String venue, MarketKind kind, Function<String, String> assetOf, String[]... corpora) {
+        var found = new LinkedHashSet<String>();
+        var m = SYMBOL.matcher("");
+        for (String[] frames : corpora) {
+            for (String f : frames) {
+                m.reset(f);
+                while (m.find()) found.add(m.group(1));
+            }
+        }
+        var symbols = new SymbolCache(venue, kind, assetOf);
+        symbols.add(found);
+        return symbols;
+    }
+}
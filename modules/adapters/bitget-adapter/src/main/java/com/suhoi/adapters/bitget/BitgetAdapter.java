@@ -1,10 +1,13 @@
 package com.suhoi.adapters.bitget;
 
+import com.suhoi.adapters.common.Transport;
 import com.suhoi.api.adapter.DiscoveryClient;
 import com.suhoi.api.adapter.ExchangeAdapter;
 import com.suhoi.api.adapter.StreamClient;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * Композит Bitget: discovery + два потоковых клиента (SPOT и USDT-FUTURES).
  * <pre>
@@ -13,10 +16,28 @@ import lombok.extern.slf4j.Slf4j;
  *   var perpSub = adapter.perpStream().subscribeBookTicker(List.of("BTCUSDT"), handler);
  * </pre>
  */
-public final class BitgetAdapter implements ExchangeAdapter, AutoCloseable {
-    private final BitgetDiscoveryClient discovery = new BitgetDiscoveryClient();
-    private final BitgetSpotTickerStreamClient spot = new BitgetSpotTickerStreamClient();
-    private final BitgetPerpTickerStreamClient perp = new BitgetPerpTickerStreamClient();
+public final class BitgetAdapter implements ExchangeAdapter {
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final Transport transport;
+    private final BitgetDiscoveryClient discovery;
+    private final BitgetSpotTickerStreamClient spot;
+    private final BitgetPerpTickerStreamClient perp;
+    private final BitgetBulkPollStreamClient spotPoll;
+    private final BitgetBulkPollStreamClient perpPoll;
+
+    public BitgetAdapter() {
+        this(Transport.shared());
+    }
+
+    /** Забирает ссылку на {@code transport} и отпускает её в {@link #close()}; потоковым клиентам — свои ссылки. */
+    public BitgetAdapter(Transport transport) {
+        this.transport = transport;
+        this.discovery = new BitgetDiscoveryClient(transport);
+        this.spot = new BitgetSpotTickerStreamClient(transport.retain());
+        this.perp = new BitgetPerpTickerStreamClient(transport.retain());
+        this.spotPoll = BitgetBulkPollStreamClient.spot(transport.retain());
+        this.perpPoll = BitgetBulkPollStreamClient.perp(transport.retain());
+    }
 
     @Override
     public String venue() {
@@ -38,8 +59,19 @@ public final class BitgetAdapter implements ExchangeAdapter, AutoCloseable {
         return perp;
     }
 
+    @Override
+    public StreamClient spotPollStream() {
+        return spotPoll;
+    }
+
+    @Override
+    public StreamClient perpPollStream() {
+        return perpPoll;
+    }
+
     @Override
     public void close() {
+        if (!closed.compareAndSet(false, true)) return;
         try {
             spot.close();
         } catch (Exception ignore) {
@@ -48,6 +80,15 @@ public final class BitgetAdapter implements ExchangeAdapter, AutoCloseable {
             perp.close();
         } catch (Exception ignore) {
         }
+        try {
+            spotPoll.close();
+        } catch (Exception ignore) {
+        }
+        try {
+            perpPoll.close();
+        } catch (Exception ignore) {
+        }
+        transport.close();
     }
 }
 
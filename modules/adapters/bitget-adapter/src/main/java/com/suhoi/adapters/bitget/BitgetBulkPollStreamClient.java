@@ -0,0 +1,50 @@
+package com.suhoi.adapters.bitget;
+
+import com.suhoi.adapters.common.AbstractBulkPollStreamClient;
+import com.suhoi.adapters.common.BulkPollSpec;
+import com.suhoi.adapters.common.Transport;
+import com.suhoi.market.MarketKind;
+
+import java.time.Duration;
+
+/**
+ * Лучшие bid/ask всех символов Bitget одним REST-запросом — long-tail и fast-poll fallback. <br>
+ * SPOT: GET https://api.bitget.com/api/v2/spot/market/tickers <br>
+ * PERP: GET https://api.bitget.com/api/v2/mix/market/tickers?productType=USDT-FUTURES <br>
+ * Строки — в {@code data} (bidPr, askPr, ts). Лимит — 20 запросов/с на IP: не чаще 400 мс.
+ */
+public final class BitgetBulkPollStreamClient extends AbstractBulkPollStreamClient {
+    public static final BulkPollSpec SPOT = BulkPollSpec.builder("BITGET", MarketKind.SPOT, "https://api.bitget.com/api/v2/spot/market/tickers")
+            .assetOf(s -> s.endsWith("USDT") ? BitgetSymbols.extractBaseOrThrow(s) : null)
+            .fields("symbol", "bidPr", "askPr", "ts")
+            .limit(20, Duration.ofSeconds(1))
+            .build();
+
+    public static final BulkPollSpec PERP = BulkPollSpec.builder("BITGET", MarketKind.PERP, "https://api.bitget.com/api/v2/mix/market/tickers?productType=USDT-FUTURES")
+            .assetOf(s -> s.endsWith("USDT") ? BitgetSymbols.extractBaseOrThrow(s) : null)
+            .fields("symbol", "bidPr", "askPr", "ts")
+            .limit(20, Duration.ofSeconds(1))
+            .build();
+
+    private BitgetBulkPollStreamClient(Transport transport, BulkPollSpec spec, Duration interval) {
+        super(transport, spec, interval);
+    }
+
+    /** Забирает ссылку на {@code transport}; отпускает в {@link #close()}. */
+    public static BitgetBulkPollStreamClient spot(Transport transport) {
+        return spot(transport, DEFAULT_INTERVAL);
+    }
+
+    public static BitgetBulkPollStreamClient spot(Transport transport, Duration interval) {
+        return new BitgetBulkPollStreamClient(transport, SPOT, interval);
+    }
+
+    /** Забирает ссылку на {@code transport}; отпускает в {@link #close()}. */
+    public static BitgetBulkPollStreamClient perp(Transport transport) {
+        return perp(transport, DEFAULT_INTERVAL);
+    }
+
+    public static BitgetBulkPollStreamClient perp(Transport transport, Duration interval) {
+        return new BitgetBulkPollStreamClient(transport, PERP, interval);
+    }
+}
@@ -2,7 +2,8 @@ package com.suhoi.adapters.bitget;
 
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.suhoi.api.adapter.DiscoveryClient;
+import com.suhoi.adapters.common.AbstractDiscoveryClient;
+import com.suhoi.adapters.common.Transport;
 import com.suhoi.api.adapter.VenueListing;
 import lombok.extern.slf4j.Slf4j;
 
@@ -22,15 +23,21 @@ import static com.suhoi.adapters.bitget.BitgetJson.MAPPER;
  * </ul>
  * Поля масштаба берём из pricePrecision/quantityPrecision. См. оф. документацию.
  */
-public final class BitgetDiscoveryClient implements DiscoveryClient {
+public final class BitgetDiscoveryClient extends AbstractDiscoveryClient {
 
-    private final HttpClient http = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(10)).build();
+
+    private static final String REST_BASE = "https://api.bitget.com";
 
     private final String restBase;
 
-    public BitgetDiscoveryClient() { this("https://api.bitget.com"); }
-    public BitgetDiscoveryClient(String restBase) { this.restBase = Objects.requireNonNull(restBase); }
+    /** На общем контексте процесса; ссылку на него отпускает {@link #close()}. */
+    public BitgetDiscoveryClient() { super(); this.restBase = REST_BASE; }
+    /** Контекст не забирается: клиент живёт, пока жив его владелец. */
+    public BitgetDiscoveryClient(Transport transport) { this(transport, REST_BASE); }
+    public BitgetDiscoveryClient(Transport transport, String restBase) {
+        super(transport);
+        this.restBase = Objects.requireNonNull(restBase);
+    }
 
     @Override public List<VenueListing> listSpotUsdt() { return fetchSpot(); }
     @Override public List<VenueListing> listPerpUsdt() { return fetchPerp(); }
@@ -38,8 +45,8 @@ public final class BitgetDiscoveryClient implements DiscoveryClient {
     private List<VenueListing> fetchSpot() {
         String url = restBase + "/api/v2/spot/public/symbols";
         try {
-            var resp = http.send(HttpRequest.newBuilder(URI.create(url)).GET()
-                    .timeout(Duration.ofSeconds(15)).build(), HttpResponse.BodyHandlers.ofString());
+            var req = HttpRequest.newBuilder(URI.create(url)).GET().timeout(Duration.ofSeconds(15)).build();
+            var resp = transport().http(req.uri()).send(req, HttpResponse.BodyHandlers.ofString());
             if (resp.statusCode() / 100 != 2) throw new IllegalStateException("HTTP " + resp.statusCode());
             JsonNode data = MAPPER.readTree(resp.body()).path("data");
             if (!data.isArray()) return List.of();
@@ -69,8 +76,8 @@ public final class BitgetDiscoveryClient implements DiscoveryClient {
     private List<VenueListing> fetchPerp() {
         String url = restBase + "/api/v3/market/instruments?category=USDT-FUTURES";
         try {
-            var resp = http.send(HttpRequest.newBuilder(URI.create(url)).GET()
-                    .timeout(Duration.ofSeconds(15)).build(), HttpResponse.BodyHandlers.ofString());
+            var req = HttpRequest.newBuilder(URI.create(url)).GET().timeout(Duration.ofSeconds(15)).build();
+            var resp = transport().http(req.uri()).send(req, HttpResponse.BodyHandlers.ofString());
             if (resp.statusCode() / 100 != 2) throw new IllegalStateException("HTTP " + resp.statusCode());
             JsonNode data = MAPPER.readTree(resp.body()).path("data");
             if (!data.isArray()) return List.of();
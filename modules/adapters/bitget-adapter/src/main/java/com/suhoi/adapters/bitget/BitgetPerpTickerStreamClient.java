@@ -1,9 +1,16 @@
 package com.suhoi.adapters.bitget;
 
+import com.suhoi.adapters.common.Transport;
+
 /** USDT-FUTURES WS клиент для канала "ticker". */
 public final class BitgetPerpTickerStreamClient extends AbstractBitgetTickerWsClient {
     public BitgetPerpTickerStreamClient() {
-        super("BITGET", "PERP", "USDT-FUTURES", "wss://ws.bitget.com/v2/ws/public");
+        this(Transport.shared());
+    }
+
+    /** Забирает ссылку на {@code transport}; отпускает в {@link #close()}. */
+    public BitgetPerpTickerStreamClient(Transport transport) {
+        super(transport, "BITGET", "PERP", "USDT-FUTURES", "wss://ws.bitget.com/v2/ws/public");
     }
 }
 
@@ -1,9 +1,16 @@
 package com.suhoi.adapters.bitget;
 
+import com.suhoi.adapters.common.Transport;
+
 /** SPOT WS клиент для канала "ticker". */
 public final class BitgetSpotTickerStreamClient extends AbstractBitgetTickerWsClient {
     public BitgetSpotTickerStreamClient() {
-        super("BITGET", "SPOT", "SPOT", "wss://ws.bitget.com/v2/ws/public");
+        this(Transport.shared());
+    }
+
+    /** Забирает ссылку на {@code transport}; отпускает в {@link #close()}. */
+    public BitgetSpotTickerStreamClient(Transport transport) {
+        super(transport, "BITGET", "SPOT", "SPOT", "wss://ws.bitget.com/v2/ws/public");
     }
 }
 
@@ -0,0 +1,110 @@
+package com.suhoi.adapters.bitget;
+
+import com.suhoi.api.adapter.JsonScanner;
+import com.suhoi.api.adapter.SymbolCache;
+import com.suhoi.api.adapter.TickView;
+import com.suhoi.api.adapter.TickViewHandler;
+import com.suhoi.util.Clocks;
+
+import java.util.Arrays;
+
+/**
+ * Потоковый разбор push-кадров Bitget v2 канала {@code ticker}:
+ * {"action":"snapshot|update","arg":{"channel":"ticker",...},"data":[{"instId":...,"bidPr":...,"askPr":...},...],"ts":...}.
+ * <p>
+ * В одном кадре может быть несколько элементов data, а общий {@code ts} идёт после массива —
+ * поэтому границы instId/bidPr/askPr элементов сначала собираются в буфер парсера, а тики
+ * отдаются после прохода по кадру. Строку "pong" клиент отсекает до парсера.
+ * </p>
+ * Один экземпляр на соединение (не потокобезопасен).
+ */
+final class BitgetTickerParser {
+    private static final int SYM = 0, BID = 2, ASK = 4, STRIDE = 6; // пары (off, len); off = -1 — нет
+
+    private final String venue;
+    private final String kind;
+    private final JsonScanner js = new JsonScanner();
+    private final SymbolCache symbols; // общий у соединений клиента
+    private int[] items = new int[STRIDE * 8];
+
+    BitgetTickerParser(String venue, String kind, SymbolCache symbols) {
+        this.venue = venue;
+        this.kind = kind;
+        this.symbols = symbols;
+    }
+
+    /** @return число тиков, отданных в handler */
+    int parse(CharSequence frame, TickView view, TickViewHandler handler) {
+        js.reset(frame);
+        boolean ticker = false;
+        long ts = 0;
+        boolean hasTs = false;
+        boolean inData = false;
+        int n = 0;
+        int t;
+        while ((t = js.next()) != JsonScanner.EOF) {
+            int d = js.depth();
+            if (t == JsonScanner.START_OBJECT && inData && d == 3) {
+                n = newItem(n);
+            } else if (t == JsonScanner.END_ARRAY && d == 1) {
+                inData = false;
+            } else if (t == JsonScanner.FIELD) {
+                if (d == 1) {
+                    if (js.is("data")) {
+                        inData = js.next() == JsonScanner.START_ARRAY;
+                    } else if (js.is("ts")) {
+                        js.next();
+                        if (js.isScalar()) { ts = js.longValue(); hasTs = true; }
+                    }
+                } else if (d == 2 && !inData) {
+                    if (js.is("channel")) ticker = js.next() == JsonScanner.STRING && js.isIgnoreCase("ticker");
+                } else if (d == 3 && inData && n > 0) {
+                    int base = (n - 1) * STRIDE;
+                    if (js.is("instId")) {
+                        if (js.next() == JsonScanner.STRING) mark(base + SYM);
+                    } else if (js.is("bidPr")) {
+                        if (nonEmpty()) mark(base + BID);
+                    } else if (js.is("askPr")) {
+                        if (nonEmpty()) mark(base + ASK);
+                    }
+                }
+            }
+        }
+        if (!ticker || n == 0) return 0;
+
+        long tsMs = hasTs ? ts : Clocks.coarseMillis();
+        int emitted = 0;
+        for (int i = 0; i < n; i++) {
+            int base = i * STRIDE;
+            if (items[base + SYM] < 0) continue;
+            SymbolCache.Entry sym = symbols.get(frame, items[base + SYM], items[base + SYM + 1]);
+            if (sym == null) continue; // не из подписки
+            view.clear()
+                    .market(sym.asset(), venue, kind, sym.symbol())
+                    .ts(tsMs);
+            if (items[base + BID] >= 0) view.bid(frame, items[base + BID], items[base + BID + 1]);
+            if (items[base + ASK] >= 0) view.ask(frame, items[base + ASK], items[base + ASK + 1]);
+            if (!view.completeMid()) continue; // ни bid, ни ask; depthUsd50 — недоступно в этом канале
+            handler.onTick(view);
+            emitted++;
+        }
+        return emitted;
+    }
+
+    private int newItem(int n) {
+        if ((n + 1) * STRIDE > items.length) items = Arrays.copyOf(items, items.length * 2);
+        int base = n * STRIDE;
+        items[base + SYM] = items[base + BID] = items[base + ASK] = -1;
+        return n + 1;
+    }
+
+    private void mark(int slot) {
+        items[slot] = js.start();
+        items[slot + 1] = js.length();
+    }
+
+    private boolean nonEmpty() {
+        js.next();
+        return js.isScalar() && js.length() > 0;
+    }
+}
@@ -0,0 +1,96 @@
+package com.suhoi.adapters.bitget;
+
+import com.suhoi.api.adapter.SymbolCache;
+import com.suhoi.api.adapter.TickView;
+import com.suhoi.events.Price;
+import com.suhoi.events.Tick;
+import com.suhoi.market.MarketKind;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Разбор push-кадров канала {@code ticker}: несколько элементов data с общим ts после массива,
+ * вложенные объекты, неполные элементы, служебные кадры.
+ */
+class BitgetTickerParserTest {
+
+    private final SymbolCache symbols = new SymbolCache("BITGET", MarketKind.PERP,
+            s -> s.endsWith("USDT") ? BitgetSymbols.extractBaseOrThrow(s) : null);
+    private final BitgetTickerParser parser = new BitgetTickerParser("BITGET", "PERP", symbols);
+    private final TickView view = new TickView();
+    private final List<Tick> ticks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        symbols.add(List.of("BTCUSDT", "ETHUSDT"));
+    }
+
+    @Test
+    void everyDataElementBecomesTickWithSharedTs() {
+        assertEquals(2, parse("{\"action\":\"snapshot\",\"arg\":{\"instType\":\"USDT-FUTURES\",\"channel\":\"ticker\","
+                + "\"instId\":\"BTCUSDT\"},\"data\":[{\"instId\":\"BTCUSDT\",\"lastPr\":\"67124.3\",\"bidPr\":\"67124.2\","
+                + "\"askPr\":\"67124.4\",\"bidSz\":\"1\"},{\"instId\":\"ETHUSDT\",\"bidPr\":\"3522.63\",\"askPr\":\"3522.66\"}],"
+                + "\"ts\":1760637683493}"));
+        assertEquals("BTCUSDT", ticks.get(0).nativeSymbol());
+        assertEquals(Price.of(671_243, 1), ticks.get(0).mid());
+        assertEquals("ETH", ticks.get(1).asset());
+        assertEquals(Price.of(352_266, 2), ticks.get(1).ask());
+        for (Tick t : ticks) assertEquals(1_760_637_683_493L, t.ts().toEpochMilli(), "ts после массива");
+    }
+
+    @Test
+    void nestedObjectsInsideElementAreIgnored() {
+        assertEquals(1, parse("{\"arg\":{\"channel\":\"ticker\"},\"data\":[{\"instId\":\"BTCUSDT\","
+                + "\"x\":{\"instId\":\"ETHUSDT\",\"bidPr\":\"1\"},\"levels\":[{\"askPr\":\"2\"}],"
+                + "\"bidPr\":\"100.0\",\"askPr\":\"100.2\"}],\"ts\":\"1760637683493\"}"));
+        Tick t = ticks.get(0);
+        assertEquals("BTCUSDT", t.nativeSymbol());
+        assertEquals(Price.of(1000, 1), t.bid());
+        assertEquals(Price.of(1002, 1), t.ask());
+        assertEquals(1_760_637_683_493L, t.ts().toEpochMilli(), "ts строкой");
+    }
+
+    @Test
+    void incompleteAndForeignElementsAreSkippedIndividually() {
+        assertEquals(2, parse("{\"arg\":{\"channel\":\"TICKER\"},\"data\":[{\"bidPr\":\"1\",\"askPr\":\"2\"},"
+                + "{\"instId\":\"SOLUSDT\",\"bidPr\":\"1\",\"askPr\":\"2\"},{\"instId\":\"ETHUSDT\",\"bidPr\":\"\",\"askPr\":\"\"},"
+                + "{\"instId\":\"ETHUSDT\",\"askPr\":\"3522.66\"},{\"instId\":\"btcusdt\",\"bidPr\":\"5\",\"askPr\":\"7\"}],\"ts\":1}"));
+        assertEquals(Price.of(352_266, 2), ticks.get(0).mid(), "одна сторона — mid по ней");
+        assertEquals("BTCUSDT", ticks.get(1).nativeSymbol());
+        assertEquals(Price.of(6, 0), ticks.get(1).mid());
+    }
+
+    @Test
+    void serviceFramesAndOtherChannelsGiveNothing() {
+        assertEquals(0, parse("{\"event\":\"subscribe\",\"arg\":{\"channel\":\"ticker\",\"instId\":\"BTCUSDT\"}}"));
+        assertEquals(0, parse("{\"event\":\"error\",\"code\":30001,\"msg\":\"instType:USDT-FUTURES doesn't exist\"}"));
+        assertEquals(0, parse("{\"arg\":{\"channel\":\"books1\"},\"data\":[{\"instId\":\"BTCUSDT\",\"bidPr\":\"1\","
+                + "\"askPr\":\"2\"}],\"ts\":1}"));
+        assertEquals(0, parse("{\"arg\":{\"channel\":\"ticker\"},\"data\":[],\"ts\":1}"));
+        assertTrue(ticks.isEmpty());
+    }
+
+    @Test
+    void manyElementsGrowTheBuffer() {
+        symbols.add(List.of("A0USDT", "A1USDT", "A2USDT", "A3USDT", "A4USDT", "A5USDT", "A6USDT", "A7USDT",
+                "A8USDT", "A9USDT"));
+        var frame = new StringBuilder("{\"arg\":{\"channel\":\"ticker\"},\"data\":[");
+        for (int i = 0; i < 10; i++) {
+            if (i > 0) frame.append(',');
+            frame.append("{\"instId\":\"A").append(i).append("USDT\",\"bidPr\":\"").append(i)
+                    .append("\",\"askPr\":\"").append(i + 2).append("\"}");
+        }
+        frame.append("],\"ts\":1}");
+        assertEquals(10, parse(frame.toString()));
+        assertEquals(Price.of(10, 0), ticks.get(9).mid());
+    }
+
+    private int parse(String frame) {
+        return parser.parse(frame, view, v -> ticks.add(v.toTick()));
+    }
+}
@@ -0,0 +1,164 @@
+package com.suhoi.adapters.bybit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.suhoi.api.adapter.SymbolCache;
+import com.suhoi.api.adapter.TickView;
+import com.suhoi.api.adapter.TickViewHandler;
+import com.suhoi.market.MarketKind;
+import com.suhoi.util.Clocks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import static com.suhoi.adapters.bybit.BybitJson.MAPPER;
+
+/**
+ * Разбор кадров Bybit v5: прежний путь ({@code readTree} + {@code path(...)}) против
+ * {@link BybitTickerParser} (корпус {@code frames/bybit-tickers.jsonl}: snapshot/delta, ack, pong)
+ * и {@link BybitOrderbookL1Parser} ({@code frames/bybit-orderbook1.jsonl}).
+ * Кадры перебираются по кругу — время указано на один кадр.
+ * Запуск: {@code ./gradlew :modules:adapters:bybit-adapter:jmh -Pjmh.includes=BybitParserBenchmark}
+ * (для сравнения аллокаций — с {@code -prof gc}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BybitParserBenchmark {
+
+    private String[] tickers;
+    private String[] books;
+    private int tickerCursor;
+    private int bookCursor;
+    private final TickView view = new TickView();
+    private final Map<String, String> assets = new HashMap<>();
+    private BybitTickerParser tickerParser;
+    private BybitOrderbookL1Parser bookParser;
+    private long acc;
+    private final TickViewHandler sink = v -> acc += v.midMantissa();
+
+    @Setup
+    public void setup() {
+        tickers = frames("bybit-tickers.jsonl");
+        books = frames("bybit-orderbook1.jsonl");
+        tickerParser = new BybitTickerParser("BYBIT", "PERP",
+                subscribed("BYBIT", MarketKind.PERP, BybitSymbols::extractBaseOrThrow, tickers));
+        bookParser = new BybitOrderbookL1Parser("BYBIT", "SPOT",
+                subscribed("BYBIT", MarketKind.SPOT, BybitSymbols::extractBaseOrThrow, books));
+    }
+
+    // ---- tickers.{symbol} ----
+
+    @Benchmark
+    public long tickersTreeModel() throws IOException {
+        JsonNode root = MAPPER.readTree(nextTicker());
+        if ("pong".equalsIgnoreCase(root.path("op").asText())) return acc;
+        if (!root.path("topic").asText("").startsWith("tickers.")) return acc;
+        JsonNode d = root.get("data");
+        if (d == null || d.isNull()) return acc;
+        if (d.isArray() && d.size() > 0) d = d.get(0);
+        String symbolUpper = d.path("symbol").asText("").toUpperCase(Locale.ROOT);
+        if (!symbolUpper.endsWith("USDT")) return acc;
+        String bStr = d.path("bid1Price").asText(null);
+        String aStr = d.path("ask1Price").asText(null);
+        view.clear()
+                .market(assets.computeIfAbsent(symbolUpper, BybitSymbols::extractBaseOrThrow), "BYBIT", "PERP", symbolUpper)
+                .ts(root.path("ts").asLong(Clocks.coarseMillis()));
+        if (bStr != null && !bStr.isEmpty()) view.bid(bStr);
+        if (aStr != null && !aStr.isEmpty()) view.ask(aStr);
+        if (view.completeMid()) sink.onTick(view);
+        return acc;
+    }
+
+    @Benchmark
+    public long tickersStreaming() {
+        tickerParser.parse(nextTicker(), view, sink);
+        return acc;
+    }
+
+    // ---- orderbook.1.{symbol} ----
+
+    @Benchmark
+    public long orderbookTreeModel() throws IOException {
+        JsonNode n = MAPPER.readTree(nextBook());
+        if ("pong".equalsIgnoreCase(n.path("op").asText())) return acc;
+        if (!n.path("topic").asText("").startsWith("orderbook.1.")) return acc;
+        JsonNode d = n.path("data");
+        if (!d.isObject()) return acc;
+        JsonNode bids = d.path("b");
+        JsonNode asks = d.path("a");
+        if (!bids.isArray() || bids.size() == 0 || !asks.isArray() || asks.size() == 0) return acc;
+        JsonNode b0 = bids.get(0).get(0);
+        JsonNode a0 = asks.get(0).get(0);
+        if (b0 == null || !b0.isTextual() || a0 == null || !a0.isTextual()) return acc;
+        String symbolUpper = d.path("s").asText("").toUpperCase(Locale.ROOT);
+        if (!symbolUpper.endsWith("USDT")) return acc;
+        view.clear()
+                .market(assets.computeIfAbsent(symbolUpper, BybitSymbols::extractBaseOrThrow), "BYBIT", "SPOT", symbolUpper)
+                .ts(n.path("ts").asLong(Clocks.coarseMillis()))
+                .bid(b0.asText())
+                .ask(a0.asText())
+                .completeMid();
+        sink.onTick(view);
+        return acc;
+    }
+
+    @Benchmark
+    public long orderbookStreaming() {
+        bookParser.parse(nextBook(), view, sink);
+        return acc;
+    }
+
+    private String nextTicker() {
+        String f = tickers[tickerCursor];
+        tickerCursor = tickerCursor + 1 == tickers.length ? 0 : tickerCursor + 1;
+        return f;
+    }
+
+    private String nextBook() {
+        String f = books[bookCursor];
+        bookCursor = bookCursor + 1 == books.length ? 0 : bookCursor + 1;
+        return f;
+    }
+
+    static String[] frames(String name) {
+        try (InputStream in = BybitParserBenchmark.class.getResourceAsStream("/frames/" + name)) {
+            if (in == null) throw new IllegalStateException("corpus not found: " + name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toArray(String[]::new);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final Pattern SYMBOL = Pattern.compile("\"(?:s|symbol|instId)\":\"([A-Za-z0-9_]+)\"");
+
+    /** Символы корпуса — как подписка клиента (парсер находит только их). */
+    static SymbolCache subscribed(String venue, MarketKind kind, Function<String, String> assetOf, String[]... corpora) {
+        var found = new LinkedHashSet<String>();
+        var m = SYMBOL.matcher("");
+        for (String[] frames : corpora) {
+            for (String f : frames) {
+                m.reset(f);
+                while (m.find()) found.add(m.group(1));
+            }
+        }
+        var symbols = new SymbolCache(venue, kind, assetOf);
+        symbols.add(found);
+        return symbols;
+    }
+}
@@ -1,28 +1,55 @@
 package com.suhoi.adapters.bybit;
 
+import com.suhoi.adapters.common.Transport;
 import com.suhoi.api.adapter.DiscoveryClient;
 import com.suhoi.api.adapter.ExchangeAdapter;
 import com.suhoi.api.adapter.StreamClient;
 
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * Композит Bybit v5: discovery + два потоковых клиента
  *  - SPOT: orderbook L1 (best bid/ask) → mid
  *  - PERP (linear): tickers → bid1/ask1 → mid
  */
-public final class BybitAdapter implements ExchangeAdapter, AutoCloseable {
-    private final BybitDiscoveryClient discovery = new BybitDiscoveryClient();
-    private final BybitSpotOrderbookL1StreamClient spot = new BybitSpotOrderbookL1StreamClient();
-    private final BybitPerpTickersStreamClient perp = new BybitPerpTickersStreamClient();
+public final class BybitAdapter implements ExchangeAdapter {
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final Transport transport;
+    private final BybitDiscoveryClient discovery;
+    private final BybitSpotOrderbookL1StreamClient spot;
+    private final BybitPerpTickersStreamClient perp;
+    private final BybitBulkPollStreamClient spotPoll;
+    private final BybitBulkPollStreamClient perpPoll;
+
+    public BybitAdapter() {
+        this(Transport.shared());
+    }
+
+    /** Забирает ссылку на {@code transport} и отпускает её в {@link #close()}; потоковым клиентам — свои ссылки. */
+    public BybitAdapter(Transport transport) {
+        this.transport = transport;
+        this.discovery = new BybitDiscoveryClient(transport);
+        this.spot = new BybitSpotOrderbookL1StreamClient(transport.retain());
+        this.perp = new BybitPerpTickersStreamClient(transport.retain());
+        this.spotPoll = BybitBulkPollStreamClient.spot(transport.retain());
+        this.perpPoll = BybitBulkPollStreamClient.perp(transport.retain());
+    }
 
     @Override public String venue() { return "BYBIT"; }
     @Override public DiscoveryClient discovery() { return discovery; }
     @Override public StreamClient spotStream() { return spot; }
     @Override public StreamClient perpStream() { return perp; }
+    @Override public StreamClient spotPollStream() { return spotPoll; }
+    @Override public StreamClient perpPollStream() { return perpPoll; }
 
     @Override public void close() {
+        if (!closed.compareAndSet(false, true)) return;
         try { spot.close(); } catch (Exception ignore) {}
         try { perp.close(); } catch (Exception ignore) {}
+        try { spotPoll.close(); } catch (Exception ignore) {}
+        try { perpPoll.close(); } catch (Exception ignore) {}
+        transport.close();
     }
 }
 
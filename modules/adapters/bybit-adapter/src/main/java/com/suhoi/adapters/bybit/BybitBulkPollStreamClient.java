@@ -0,0 +1,50 @@
+package com.suhoi.adapters.bybit;
+
+import com.suhoi.adapters.common.AbstractBulkPollStreamClient;
+import com.suhoi.adapters.common.BulkPollSpec;
+import com.suhoi.adapters.common.Transport;
+import com.suhoi.market.MarketKind;
+
+import java.time.Duration;
+
+/**
+ * Лучшие bid/ask всех символов Bybit одним REST-запросом — long-tail и fast-poll fallback. <br>
+ * SPOT: GET https://api.bybit.com/v5/market/tickers?category=spot <br>
+ * PERP: GET https://api.bybit.com/v5/market/tickers?category=linear <br>
+ * Строки — в {@code result.list}. Лимит публичного REST — 600 запросов за 5с на IP: не чаще 67 мс.
+ */
+public final class BybitBulkPollStreamClient extends AbstractBulkPollStreamClient {
+    public static final BulkPollSpec SPOT = BulkPollSpec.builder("BYBIT", MarketKind.SPOT, "https://api.bybit.com/v5/market/tickers?category=spot")
+            .assetOf(s -> s.endsWith("USDT") ? BybitSymbols.extractBaseOrThrow(s) : null)
+            .fields("symbol", "bid1Price", "ask1Price", null)
+            .limit(600, Duration.ofSeconds(5))
+            .build();
+
+    public static final BulkPollSpec PERP = BulkPollSpec.builder("BYBIT", MarketKind.PERP, "https://api.bybit.com/v5/market/tickers?category=linear")
+            .assetOf(s -> s.endsWith("USDT") ? BybitSymbols.extractBaseOrThrow(s) : null)
+            .fields("symbol", "bid1Price", "ask1Price", null)
+            .limit(600, Duration.ofSeconds(5))
+            .build();
+
+    private BybitBulkPollStreamClient(Transport transport, BulkPollSpec spec, Duration interval) {
+        super(transport, spec, interval);
+    }
+
+    /** Забирает ссылку на {@code transport}; отпускает в {@link #close()}. */
+    public static BybitBulkPollStreamClient spot(Transport transport) {
+        return spot(transport, DEFAULT_INTERVAL);
+    }
+
+    public static BybitBulkPollStreamClient spot(Transport transport, Duration interval) {
+        return new BybitBulkPollStreamClient(transport, SPOT, interval);
+    }
+
+    /** Забирает ссылку на {@code transport}; отпускает в {@link #close()}. */
+    public static BybitBulkPollStreamClient perp(Transport transport) {
+        return perp(transport, DEFAULT_INTERVAL);
+    }
+
+    public static BybitBulkPollStreamClient perp(Transport transport, Duration interval) {
+        return new BybitBulkPollStreamClient(transport, PERP, interval);
+    }
+}
@@ -1,7 +1,8 @@
 package com.suhoi.adapters.bybit;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.suhoi.api.adapter.DiscoveryClient;
+import com.suhoi.adapters.common.AbstractDiscoveryClient;
+import com.suhoi.adapters.common.Transport;
 import com.suhoi.api.adapter.VenueListing;
 
 import java.net.URI;
@@ -18,15 +19,21 @@ import static com.suhoi.adapters.bybit.BybitJson.MAPPER;
  *  - Linear: GET /v5/market/instruments-info?category=linear
  * Фильтр: status=Trading, quote=USDT. scale извлекаем из tickSize/qtyStep.
  */
-public final class BybitDiscoveryClient implements DiscoveryClient {
+public final class BybitDiscoveryClient extends AbstractDiscoveryClient {
 
-    private final HttpClient http = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(10)).build();
+
+    private static final String REST_BASE = "https://api.bybit.com";
 
     private final String restBase;
 
-    public BybitDiscoveryClient() { this("https://api.bybit.com"); }
-    public BybitDiscoveryClient(String restBase) { this.restBase = Objects.requireNonNull(restBase); }
+    /** На общем контексте процесса; ссылку на него отпускает {@link #close()}. */
+    public BybitDiscoveryClient() { super(); this.restBase = REST_BASE; }
+    /** Контекст не забирается: клиент живёт, пока жив его владелец. */
+    public BybitDiscoveryClient(Transport transport) { this(transport, REST_BASE); }
+    public BybitDiscoveryClient(Transport transport, String restBase) {
+        super(transport);
+        this.restBase = Objects.requireNonNull(restBase);
+    }
 
     @Override public List<VenueListing> listSpotUsdt()  { return fetch("spot",   "SPOT"); }
     @Override public List<VenueListing> listPerpUsdt()  { return fetch("linear", "PERP"); }
@@ -34,8 +41,8 @@ public final class BybitDiscoveryClient implements DiscoveryClient {
     private List<VenueListing> fetch(String category, String kind) {
         String url = restBase + "/v5/market/instruments-info?category=" + category;
         try {
-            var resp = http.send(HttpRequest.newBuilder(URI.create(url)).GET()
-                    .timeout(Duration.ofSeconds(15)).build(), HttpResponse.BodyHandlers.ofString());
+            var req = HttpRequest.newBuilder(URI.create(url)).GET().timeout(Duration.ofSeconds(15)).build();
+            var resp = transport().http(req.uri()).send(req, HttpResponse.BodyHandlers.ofString());
             if (resp.statusCode() / 100 != 2) throw new IllegalStateException("HTTP " + resp.statusCode());
 
             JsonNode list = MAPPER.readTree(resp.body()).path("result").path("list");
@@ -0,0 +1,76 @@
+package com.suhoi.adapters.bybit;
+
+import com.suhoi.api.adapter.JsonScanner;
+import com.suhoi.api.adapter.SymbolCache;
+import com.suhoi.api.adapter.TickView;
+import com.suhoi.api.adapter.TickViewHandler;
+import com.suhoi.util.Clocks;
+
+/**
+ * Потоковый разбор кадров Bybit v5 {@code orderbook.1.{symbol}}:
+ * {"topic":"orderbook.1.BTCUSDT","ts":...,"data":{"s":"BTCUSDT","b":[["price","size"]],"a":[["price","size"]],...}}.
+ * Берутся topic/ts корня, s и первые цены b/a; пустая сторона — кадр пропускается.
+ * Один экземпляр на соединение (не потокобезопасен).
+ */
+final class BybitOrderbookL1Parser {
+    private final String venue;
+    private final String kind;
+    private final JsonScanner js = new JsonScanner();
+    private final SymbolCache symbols; // общий у соединений клиента
+
+    BybitOrderbookL1Parser(String venue, String kind, SymbolCache symbols) {
+        this.venue = venue;
+        this.kind = kind;
+        this.symbols = symbols;
+    }
+
+    /** @return число тиков, отданных в handler */
+    int parse(CharSequence frame, TickView view, TickViewHandler handler) {
+        js.reset(frame);
+        boolean orderbook = false;
+        long ts = 0;
+        boolean hasTs = false;
+        int symOff = -1, symLen = 0, bidOff = -1, bidLen = 0, askOff = -1, askLen = 0;
+        int t;
+        while ((t = js.next()) != JsonScanner.EOF) {
+            if (t != JsonScanner.FIELD) continue;
+            int d = js.depth();
+            if (d == 1) {
+                if (js.is("topic")) {
+                    orderbook = js.next() == JsonScanner.STRING && js.startsWith("orderbook.1.");
+                } else if (js.is("ts")) {
+                    if (js.next() == JsonScanner.NUMBER) { ts = js.longValue(); hasTs = true; }
+                }
+            } else if (d == 2) {
+                if (js.is("s")) {
+                    if (js.next() == JsonScanner.STRING) { symOff = js.start(); symLen = js.length(); }
+                } else if (js.is("b")) {
+                    if (firstLevelPrice()) { bidOff = js.start(); bidLen = js.length(); }
+                } else if (js.is("a")) {
+                    if (firstLevelPrice()) { askOff = js.start(); askLen = js.length(); }
+                }
+            }
+        }
+        if (!orderbook || symOff < 0 || bidOff < 0 || askOff < 0) return 0;
+
+        SymbolCache.Entry sym = symbols.get(frame, symOff, symLen);
+        if (sym == null) return 0; // не из подписки
+        view.clear()
+                .market(sym.asset(), venue, kind, sym.symbol())
+                .ts(hasTs ? ts : Clocks.coarseMillis())
+                .bid(frame, bidOff, bidLen)
+                .ask(frame, askOff, askLen)
+                .completeMid();
+        // depthUsd50 отсутствует в этом канале
+        handler.onTick(view);
+        return 1;
+    }
+
+    /** b/a — {@code [[price, size], ...]}: встаёт на цену первого уровня; false — сторона пуста. */
+    private boolean firstLevelPrice() {
+        if (js.next() != JsonScanner.START_ARRAY) return false;
+        if (js.next() != JsonScanner.START_ARRAY) return false;
+        js.next();
+        return js.isScalar() && js.length() > 0;
+    }
+}
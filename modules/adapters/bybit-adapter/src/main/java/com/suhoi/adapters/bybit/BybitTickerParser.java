@@ -0,0 +1,83 @@
+package com.suhoi.adapters.bybit;
+
+import com.suhoi.api.adapter.JsonScanner;
+import com.suhoi.api.adapter.SymbolCache;
+import com.suhoi.api.adapter.TickView;
+import com.suhoi.api.adapter.TickViewHandler;
+import com.suhoi.util.Clocks;
+
+/**
+ * Потоковый разбор кадров Bybit v5 по топику {@code tickers.{symbol}}:
+ * {"topic":"tickers.BTCUSDT","ts":...,"type":"snapshot|delta","data":{"symbol":...,"bid1Price":...,"ask1Price":...}}.
+ * <p>
+ * Берутся только topic/ts корня и symbol/bid1Price/ask1Price из data (объект или первый элемент
+ * массива). В delta может не быть одной из цен — тогда mid = доступной котировке.
+ * Подтверждения подписки и pong (нет topic) пропускаются.
+ * </p>
+ * Один экземпляр на соединение (не потокобезопасен).
+ */
+final class BybitTickerParser {
+    private final String venue;
+    private final String kind;
+    private final JsonScanner js = new JsonScanner();
+    private final SymbolCache symbols; // общий у соединений клиента
+
+    BybitTickerParser(String venue, String kind, SymbolCache symbols) {
+        this.venue = venue;
+        this.kind = kind;
+        this.symbols = symbols;
+    }
+
+    /** @return число тиков, отданных в handler */
+    int parse(CharSequence frame, TickView view, TickViewHandler handler) {
+        js.reset(frame);
+        boolean tickers = false;
+        long ts = 0;
+        boolean hasTs = false;
+        int dataDepth = -1;
+        int symOff = -1, symLen = 0, bidOff = -1, bidLen = 0, askOff = -1, askLen = 0;
+        int t;
+        while ((t = js.next()) != JsonScanner.EOF) {
+            if (t != JsonScanner.FIELD) continue;
+            int d = js.depth();
+            if (d == 1) {
+                if (js.is("topic")) {
+                    tickers = js.next() == JsonScanner.STRING && js.startsWith("tickers.");
+                } else if (js.is("ts")) {
+                    if (js.next() == JsonScanner.NUMBER) { ts = js.longValue(); hasTs = true; }
+                } else if (js.is("data")) {
+                    int v = js.next();
+                    if (v == JsonScanner.START_OBJECT) dataDepth = 2;
+                    else if (v == JsonScanner.START_ARRAY) dataDepth = 3; // иногда массив на один элемент
+                }
+            } else if (d == dataDepth) {
+                // у массива берём первый элемент: уже найденные поля не перезаписываются
+                if (js.is("symbol")) {
+                    if (js.next() == JsonScanner.STRING && symOff < 0) { symOff = js.start(); symLen = js.length(); }
+                } else if (js.is("bid1Price")) {
+                    if (nonEmpty() && bidOff < 0) { bidOff = js.start(); bidLen = js.length(); }
+                } else if (js.is("ask1Price")) {
+                    if (nonEmpty() && askOff < 0) { askOff = js.start(); askLen = js.length(); }
+                }
+            }
+        }
+        if (!tickers || symOff < 0) return 0;
+
+        SymbolCache.Entry sym = symbols.get(frame, symOff, symLen);
+        if (sym == null) return 0; // не из подписки
+        view.clear()
+                .market(sym.asset(), venue, kind, sym.symbol()) // asset = BASE
+                .ts(hasTs ? ts : Clocks.coarseMillis()); // heartbeatTs = ts
+        if (bidOff >= 0) view.bid(frame, bidOff, bidLen);
+        if (askOff >= 0) view.ask(frame, askOff, askLen);
+        // если один прайс отсутствует — mid = доступной котировке; depthUsd50 нет в топике tickers
+        if (!view.completeMid()) return 0;
+        handler.onTick(view);
+        return 1;
+    }
+
+    private boolean nonEmpty() {
+        js.next();
+        return js.isScalar() && js.length() > 0;
+    }
+}
@@ -0,0 +1,61 @@
+package com.suhoi.adapters.bybit;
+
+import com.suhoi.api.adapter.SymbolCache;
+import com.suhoi.api.adapter.TickView;
+import com.suhoi.events.Price;
+import com.suhoi.events.Tick;
+import com.suhoi.market.MarketKind;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Разбор кадров {@code orderbook.1.{symbol}}: цена первого уровня b/a, пустая сторона, чужие топики.
+ */
+class BybitOrderbookL1ParserTest {
+
+    private final SymbolCache symbols = new SymbolCache("BYBIT", MarketKind.SPOT,
+            s -> s.endsWith("USDT") ? BybitSymbols.extractBaseOrThrow(s) : null);
+    private final BybitOrderbookL1Parser parser = new BybitOrderbookL1Parser("BYBIT", "SPOT", symbols);
+    private final TickView view = new TickView();
+    private final List<Tick> ticks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        symbols.add(List.of("BTCUSDT"));
+    }
+
+    @Test
+    void firstLevelPricesAndRootTs() {
+        assertEquals(1, parse("{\"topic\":\"orderbook.1.BTCUSDT\",\"type\":\"snapshot\",\"ts\":1760637683493,"
+                + "\"data\":{\"s\":\"BTCUSDT\",\"b\":[[\"67124.2\",\"1.5\"]],\"a\":[[\"67124.4\",\"0.7\"]],\"u\":1,\"seq\":2},"
+                + "\"cts\":1760637683490}"));
+        Tick t = ticks.get(0);
+        assertEquals("BTC", t.asset());
+        assertEquals("SPOT", t.kind());
+        assertEquals(Price.of(671_242, 1), t.bid());
+        assertEquals(Price.of(671_244, 1), t.ask());
+        assertEquals(Price.of(671_243, 1), t.mid());
+        assertEquals(1_760_637_683_493L, t.ts().toEpochMilli());
+    }
+
+    @Test
+    void emptySideOrMalformedLevelSkipsFrame() {
+        assertEquals(0, parse("{\"topic\":\"orderbook.1.BTCUSDT\",\"ts\":1,\"data\":{\"s\":\"BTCUSDT\","
+                + "\"b\":[],\"a\":[[\"67124.4\",\"0.7\"]]}}"), "delta с пустой стороной");
+        assertEquals(0, parse("{\"topic\":\"orderbook.1.BTCUSDT\",\"ts\":1,\"data\":{\"s\":\"BTCUSDT\","
+                + "\"b\":\"67124.2\",\"a\":[[\"67124.4\",\"0.7\"]]}}"), "b — не массив уровней");
+        assertEquals(0, parse("{\"topic\":\"orderbook.50.BTCUSDT\",\"ts\":1,\"data\":{\"s\":\"BTCUSDT\","
+                + "\"b\":[[\"1\",\"1\"]],\"a\":[[\"2\",\"1\"]]}}"), "не L1");
+        assertEquals(0, parse("{\"success\":true,\"op\":\"subscribe\"}"));
+        assertTrue(ticks.isEmpty());
+    }
+
+    private int parse(String frame) {
+        return parser.parse(frame, view, v -> ticks.add(v.toTick()));
+    }
+}
@@ -0,0 +1,91 @@
+package com.suhoi.adapters.bybit;
+
+import com.suhoi.api.adapter.SymbolCache;
+import com.suhoi.api.adapter.TickView;
+import com.suhoi.events.Price;
+import com.suhoi.events.Tick;
+import com.suhoi.market.MarketKind;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Разбор кадров {@code tickers.{symbol}}: snapshot/delta, data-объект и data-массив, вложенные объекты,
+ * служебные кадры, края чисел.
+ */
+class BybitTickerParserTest {
+
+    private final SymbolCache symbols = new SymbolCache("BYBIT", MarketKind.PERP,
+            s -> s.endsWith("USDT") ? BybitSymbols.extractBaseOrThrow(s) : null);
+    private final BybitTickerParser parser = new BybitTickerParser("BYBIT", "PERP", symbols);
+    private final TickView view = new TickView();
+    private final List<Tick> ticks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        symbols.add(List.of("BTCUSDT", "ETHUSDT"));
+    }
+
+    @Test
+    void snapshotWithDataObject() {
+        assertEquals(1, parse("{\"topic\":\"tickers.BTCUSDT\",\"type\":\"snapshot\",\"data\":{\"symbol\":\"BTCUSDT\","
+                + "\"tickDirection\":\"PlusTick\",\"lastPrice\":\"67124.30\",\"bid1Price\":\"67124.20\",\"bid1Size\":\"1.5\","
+                + "\"ask1Price\":\"67124.40\",\"ask1Size\":\"0.7\"},\"cs\":24987956059,\"ts\":1760637683493}"));
+        Tick t = ticks.get(0);
+        assertEquals("BTC", t.asset());
+        assertEquals("BTCUSDT", t.nativeSymbol());
+        assertEquals(Price.of(6_712_420, 2), t.bid());
+        assertEquals(Price.of(6_712_440, 2), t.ask());
+        assertEquals(Price.of(6_712_430, 2), t.mid());
+        assertEquals(1_760_637_683_493L, t.ts().toEpochMilli(), "ts корня — даже после data");
+    }
+
+    @Test
+    void deltaWithOneSideUsesItAsMid() {
+        assertEquals(1, parse("{\"topic\":\"tickers.ETHUSDT\",\"type\":\"delta\",\"data\":{\"symbol\":\"ETHUSDT\","
+                + "\"bid1Price\":\"3522.63\"},\"ts\":1}"));
+        assertNull(ticks.get(0).ask());
+        assertEquals(Price.of(352_263, 2), ticks.get(0).mid());
+        assertEquals(0, parse("{\"topic\":\"tickers.ETHUSDT\",\"type\":\"delta\",\"data\":{\"symbol\":\"ETHUSDT\","
+                + "\"bid1Price\":\"\",\"openInterest\":\"1\"},\"ts\":2}"), "ни одной цены — тика нет");
+    }
+
+    @Test
+    void dataArrayTakesFirstElementAndIgnoresNestedObjects() {
+        assertEquals(1, parse("{\"topic\":\"tickers.BTCUSDT\",\"ts\":5,\"data\":[{\"symbol\":\"BTCUSDT\","
+                + "\"extra\":{\"symbol\":\"ETHUSDT\",\"bid1Price\":\"1\"},\"bid1Price\":\"100.5\",\"ask1Price\":\"100.7\"},"
+                + "{\"symbol\":\"ETHUSDT\",\"bid1Price\":\"2\",\"ask1Price\":\"3\"}]}"));
+        Tick t = ticks.get(0);
+        assertEquals("BTCUSDT", t.nativeSymbol());
+        assertEquals(Price.of(1005, 1), t.bid());
+        assertEquals(Price.of(1007, 1), t.ask());
+    }
+
+    @Test
+    void serviceAndForeignFramesAreSkipped() {
+        assertEquals(0, parse("{\"success\":true,\"ret_msg\":\"pong\",\"conn_id\":\"x\",\"op\":\"ping\"}"));
+        assertEquals(0, parse("{\"success\":true,\"ret_msg\":\"\",\"op\":\"subscribe\",\"conn_id\":\"x\"}"));
+        assertEquals(0, parse("{\"topic\":\"orderbook.1.BTCUSDT\",\"data\":{\"symbol\":\"BTCUSDT\",\"bid1Price\":\"1\"}}"));
+        assertEquals(0, parse("{\"topic\":\"tickers.SOLUSDT\",\"data\":{\"symbol\":\"SOLUSDT\",\"bid1Price\":\"1\"}}"),
+                "не из подписки");
+        assertEquals(0, parse("{\"topic\":\"tickers.BTCUSDT\",\"data\":{\"bid1Price\":\"1\"}}"), "нет символа");
+        assertTrue(ticks.isEmpty());
+    }
+
+    @Test
+    void numericEdgeCases() {
+        assertEquals(1, parse("{\"topic\":\"tickers.ETHUSDT\",\"data\":{\"symbol\":\"ETHUSDT\","
+                + "\"bid1Price\":\"0.000000000000000001\",\"ask1Price\":\"3\"}}"));
+        assertEquals(Price.of(1, 18), ticks.get(0).bid(), "18 знаков — предел масштаба");
+        assertThrows(NumberFormatException.class, () -> parse("{\"topic\":\"tickers.ETHUSDT\",\"data\":"
+                + "{\"symbol\":\"ETHUSDT\",\"bid1Price\":\"NaN\"}}"));
+    }
+
+    private int parse(String frame) {
+        return parser.parse(frame, view, v -> ticks.add(v.toTick()));
+    }
+}
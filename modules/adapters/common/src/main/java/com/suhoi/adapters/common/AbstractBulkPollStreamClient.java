@@ -0,0 +1,303 @@
+package com.suhoi.adapters.common;
+
+import com.suhoi.api.adapter.StreamClient;
+import com.suhoi.api.adapter.StreamSubscription;
+import com.suhoi.api.adapter.TickHandler;
+import com.suhoi.api.adapter.TickView;
+import com.suhoi.api.adapter.TickViewHandler;
+import com.suhoi.util.Clocks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Каркас «стрима» bookTicker через bulk-REST: один запрос на такт отдаёт лучшие bid/ask всех
+ * символов площадки — long-tail рынки и fast-poll fallback без сотен WS-сокетов.
+ * <p>
+ * Снимок разбирается {@link BulkTickerParser} и сравнивается с доской котировок (последние bid/ask
+ * по символу, mantissa+scale): подписчикам уходят только изменившиеся тики. Новая подписка (и
+ * символы, добавленные в неё на ходу) сразу получает всю доску по своим символам — первым же
+ * ответом (опрос запускается немедленно), без ожидания изменений.
+ * </p>
+ * <p>
+ * Такт — на планировщике {@link Transport} с фиксированной задержкой, запрос — на виртуальном потоке
+ * контекста; запросы не пересекаются. Интервал не короче {@link BulkPollSpec#minInterval()} — доли
+ * документированного лимита площадки. На 429/418 опрос встаёт на {@code Retry-After} (секунды или
+ * HTTP-дата, {@link RetryAfter}; без заголовка — backoff), на
+ * прочие ошибки — на растущий {@link Backoff}. Опрос идёт, только пока есть подписки.
+ * Клиент забирает одну ссылку на {@link Transport} и отпускает её в {@link #close()}.
+ * </p>
+ */
+public abstract class AbstractBulkPollStreamClient implements StreamClient {
+    private static final Logger log = LoggerFactory.getLogger(AbstractBulkPollStreamClient.class);
+    public static final Duration DEFAULT_INTERVAL = Duration.ofSeconds(1);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final Backoff BACKOFF = new Backoff(Duration.ofSeconds(1), Duration.ofMinutes(1));
+    private static final Sub[] NONE = new Sub[0];
+
+    private final Transport transport;
+    private final String name;
+    private final HttpRequest request;
+    private final long intervalMillis;
+    private final BulkTickerParser parser;
+    private final boolean scheduled;
+
+    private final CopyOnWriteArrayList<Sub> subs = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean inFlight = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private ScheduledFuture<?> task; // под this
+
+    // только поток опроса (запросы не пересекаются)
+    private final Map<String, Quote> board = new HashMap<>();
+    private final TickView view = new TickView();
+    private Sub[] polling = NONE;
+    private int failures;
+    private volatile long pausedUntilNanos;
+
+    /**
+     * @param spec     эндпоинт, поля и лимит площадки
+     * @param interval желаемый интервал опроса (не короче {@link BulkPollSpec#minInterval()})
+     */
+    protected AbstractBulkPollStreamClient(Transport transport, BulkPollSpec spec, Duration interval) {
+        this(transport, spec, interval, true);
+    }
+
+    /** {@code scheduled = false} — такт не запускается (тесты зовут {@link #poll}/{@link #onSnapshot} сами). */
+    AbstractBulkPollStreamClient(Transport transport, BulkPollSpec spec, Duration interval, boolean scheduled) {
+        this.transport = Objects.requireNonNull(transport);
+        this.name = spec.clientName();
+        this.request = HttpRequest.newBuilder(spec.uri()).GET().timeout(REQUEST_TIMEOUT).build();
+        this.intervalMillis = Math.max(interval.toMillis(), spec.minInterval().toMillis());
+        this.parser = spec.newParser();
+        this.scheduled = scheduled;
+    }
+
+    @Override
+    public StreamSubscription subscribeBookTicker(Collection<String> nativeSymbols, TickHandler handler) {
+        return subscribeBookTickerView(nativeSymbols, TickViewHandler.copying(handler));
+    }
+
+    @Override
+    public StreamSubscription subscribeBookTickerView(Collection<String> nativeSymbols, TickViewHandler handler) {
+        if (nativeSymbols == null || nativeSymbols.isEmpty())
+            throw new IllegalArgumentException("symbols empty");
+        if (closed.get()) throw new IllegalStateException(name + " closed");
+
+        var sub = new Sub(Objects.requireNonNull(handler));
+        sub.symbols(nativeSymbols);
+        subs.add(sub);
+        synchronized (this) {
+            if (!scheduled) return sub;
+            if (task == null) {
+                task = transport.scheduler().scheduleWithFixedDelay(this::tick, 0, intervalMillis, TimeUnit.MILLISECONDS);
+            } else {
+                pollSoon();
+            }
+        }
+        return sub;
+    }
+
+    /** Засеять доской сейчас, не ждать такта. */
+    private void pollSoon() {
+        if (!scheduled) return;
+        try {
+            transport.scheduler().execute(this::tick);
+        } catch (RejectedExecutionException ignore) {
+            // контекст закрыт
+        }
+    }
+
+    /** Интервал опроса, мс (с учётом нижней границы площадки). */
+    public long intervalMillis() { return intervalMillis; }
+
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) return;
+        subs.clear();
+        synchronized (this) {
+            if (task != null) task.cancel(false);
+            task = null;
+        }
+        transport.close();
+    }
+
+    private void tick() {
+        if (subs.isEmpty() || Clocks.monotonicNanos() < pausedUntilNanos) return;
+        if (!inFlight.compareAndSet(false, true)) return; // предыдущий ещё не вернулся
+        try {
+            transport.blocking().execute(() -> {
+                try { poll(); } finally { inFlight.set(false); }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.set(false); // контекст закрыт
+        }
+    }
+
+    /** Один запрос снимка; открыт пакету для тестов без такта. */
+    void poll() {
+        try {
+            var resp = transport.http(request.uri()).send(request, HttpResponse.BodyHandlers.ofString());
+            int code = resp.statusCode();
+            if (code == 429 || code == 418) {
+                long delay = RetryAfter.millis(resp.headers(), Clocks.epochMillis());
+                pause(delay > 0 ? delay : BACKOFF.delayMillis(failures++), "HTTP " + code);
+                return;
+            }
+            if (code / 100 != 2) {
+                pause(BACKOFF.delayMillis(failures++), "HTTP " + code);
+                return;
+            }
+            failures = 0;
+            onSnapshot(resp.body(), Clocks.coarseMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            pause(BACKOFF.delayMillis(failures++), e.toString());
+        }
+    }
+
+    private void pause(long millis, String reason) {
+        pausedUntilNanos = Clocks.monotonicNanos() + TimeUnit.MILLISECONDS.toNanos(millis);
+        log.warn("Poll {}: {}, pause {} ms (failures in a row: {})", name, reason, millis, failures);
+    }
+
+    /**
+     * Разбирает снимок и раздаёт изменившиеся тики (новым подпискам — все свои).
+     * Зовётся из потока опроса; открыт пакету для тестов без сети.
+     *
+     * @return число тиков в снимке
+     */
+    int onSnapshot(CharSequence body, long receivedMillis) {
+        polling = subs.toArray(NONE);
+        try {
+            return parser.parse(body, receivedMillis, view, this::onRow);
+        } finally {
+            polling = NONE;
+        }
+    }
+
+    private void onRow(TickView v) {
+        String sym = v.nativeSymbol();
+        Quote q = board.get(sym);
+        boolean changed;
+        if (q == null) {
+            board.put(sym, q = new Quote());
+            changed = true;
+        } else {
+            changed = !q.same(v);
+        }
+        if (changed) q.set(v);
+
+        for (Sub s : polling) {
+            if (s.closed || !s.symbols.contains(sym)) continue;
+            if (s.unseeded.remove(sym) | changed) {
+                try {
+                    s.handler.onTick(v);
+                } catch (RuntimeException e) {
+                    log.debug("Poll {}: handler failed on {}: {}", name, sym, e.toString());
+                }
+            }
+        }
+    }
+
+    /** Остаток паузы опроса, мс ({@code 0} — не на паузе). */
+    long pausedMillis() {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(pausedUntilNanos - Clocks.monotonicNanos()));
+    }
+
+    /** Размер доски котировок (символов в последних снимках). */
+    int boardSize() { return board.size(); }
+
+    /** Последние bid/ask символа — примитивы, без аллокаций на опрос. */
+    private static final class Quote {
+        long bidMantissa, askMantissa;
+        int bidScale, askScale;
+
+        boolean same(TickView v) {
+            return bidMantissa == v.bidMantissa() && bidScale == v.bidScale()
+                    && askMantissa == v.askMantissa() && askScale == v.askScale();
+        }
+
+        void set(TickView v) {
+            bidMantissa = v.bidMantissa();
+            bidScale = v.bidScale();
+            askMantissa = v.askMantissa();
+            askScale = v.askScale();
+        }
+    }
+
+    private final class Sub implements StreamSubscription {
+        final Set<String> symbols = ConcurrentHashMap.newKeySet();
+        final Set<String> unseeded = ConcurrentHashMap.newKeySet(); // ждут засева доской
+        final TickViewHandler handler;
+        volatile boolean closed;
+
+        Sub(TickViewHandler handler) {
+            this.handler = handler;
+        }
+
+        /** Добавляет символы (и в поиск парсера); новые получают текущую доску ближайшим снимком. */
+        synchronized boolean symbols(Collection<String> nativeSymbols) {
+            var added = new ArrayList<String>();
+            for (String s : nativeSymbols) {
+                String u = s.toUpperCase(Locale.ROOT);
+                if (symbols.add(u)) {
+                    unseeded.add(u);
+                    added.add(u);
+                }
+            }
+            parser.symbols().add(added);
+            return !added.isEmpty();
+        }
+
+        @Override
+        public void add(Collection<String> nativeSymbols) {
+            if (closed) throw new IllegalStateException("subscription closed");
+            if (symbols(nativeSymbols)) pollSoon();
+        }
+
+        @Override
+        public synchronized void remove(Collection<String> nativeSymbols) {
+            if (closed) return;
+            var removed = new ArrayList<String>();
+            for (String s : nativeSymbols) {
+                String u = s.toUpperCase(Locale.ROOT);
+                if (symbols.remove(u)) removed.add(u);
+                unseeded.remove(u);
+            }
+            parser.symbols().remove(removed);
+        }
+
+        @Override
+        public void close() {
+            synchronized (this) {
+                if (closed) return;
+                closed = true;
+                parser.symbols().remove(symbols);
+            }
+            subs.remove(this);
+            synchronized (AbstractBulkPollStreamClient.this) {
+                if (subs.isEmpty() && task != null) {
+                    task.cancel(false);
+                    task = null;
+                }
+            }
+        }
+    }
+}
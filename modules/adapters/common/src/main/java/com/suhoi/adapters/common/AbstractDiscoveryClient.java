@@ -0,0 +1,43 @@
+package com.suhoi.adapters.common;
+
+import com.suhoi.api.adapter.DiscoveryClient;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Общая часть REST discovery-клиентов: HTTP через {@link Transport}.
+ * <p>
+ * Переданный контекст клиент только использует — им владеет вызывающий (обычно адаптер).
+ * Клиент, созданный конструктором без контекста, сам берёт ссылку на {@link Transport#shared()} и
+ * отпускает её в {@link #close()}, иначе общий контекст процесса (планировщик, I/O-потоки,
+ * HTTP-клиенты) не остановился бы никогда.
+ * </p>
+ */
+public abstract class AbstractDiscoveryClient implements DiscoveryClient {
+
+    private final Transport transport;
+    private final AtomicBoolean owned; // true — ссылка наша и ещё не отпущена
+
+    /** На общем контексте процесса: ссылка берётся здесь и отпускается в {@link #close()}. */
+    protected AbstractDiscoveryClient() {
+        this.transport = Transport.shared();
+        this.owned = new AtomicBoolean(true);
+    }
+
+    /** На контексте вызывающего: клиент его не забирает и не закрывает. */
+    protected AbstractDiscoveryClient(Transport transport) {
+        this.transport = Objects.requireNonNull(transport, "transport");
+        this.owned = new AtomicBoolean(false);
+    }
+
+    protected final Transport transport() {
+        return transport;
+    }
+
+    /** Отпускает ссылку на общий контекст, если клиент брал её сам. Идемпотентен. */
+    @Override
+    public void close() {
+        if (owned.compareAndSet(true, false)) transport.close();
+    }
+}
@@ -0,0 +1,213 @@
+package com.suhoi.adapters.common;
+
+import com.suhoi.api.adapter.StreamClient;
+import com.suhoi.api.adapter.StreamSubscription;
+import com.suhoi.api.adapter.SymbolCache;
+import com.suhoi.api.adapter.TickHandler;
+import com.suhoi.api.adapter.TickViewHandler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Общий каркас WS-клиента bookTicker: чанкинг символов по сессиям, составная подписка с
+ * изменением набора символов на ходу, мост {@link TickHandler} → {@link TickViewHandler}, закрытие.
+ * <p>
+ * Наследник задаёт описание сессии (URL, ping, парсер) и сообщения subscribe/unsubscribe площадки.
+ * Символы подписки живут по сессиям: {@link StreamSubscription#add} сначала дописывает неполные
+ * живые сессии (subscribe в открытый сокет), новые сессии — только под остаток;
+ * {@link StreamSubscription#remove} шлёт unsubscribe, опустевшая сессия закрывается. При
+ * переподключении подписка строится из текущего набора символов сессии.
+ * </p>
+ * <p>
+ * Символы всех подписок клиента ведутся в {@link SymbolCache} ({@link #symbols()}): символ попадает
+ * в поиск до отправки subscribe и уходит из него, когда его отпустили все подписки. Парсеры
+ * соединений ищут символ кадра только в нём.
+ * </p>
+ * Символы сравниваются в верхнем регистре. Клиент забирает одну ссылку на {@link Transport}
+ * и отпускает её в {@link #close()}.
+ */
+public abstract class AbstractWsStreamClient implements StreamClient {
+
+    private final Transport transport;
+    private final WsSessionManager sessions;
+    private final int maxSymbolsPerSession;
+    private final SymbolCache symbols;
+    private final Set<StreamSubscription> live = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    protected AbstractWsStreamClient(Transport transport, String name, ConnectBudget budget, int maxSymbolsPerSession,
+                                     SymbolCache symbols) {
+        if (maxSymbolsPerSession <= 0) throw new IllegalArgumentException("maxSymbolsPerSession must be > 0");
+        this.transport = transport;
+        this.sessions = new WsSessionManager(name, transport, budget);
+        this.sessions.report(this::report);
+        this.maxSymbolsPerSession = maxSymbolsPerSession;
+        this.symbols = Objects.requireNonNull(symbols);
+    }
+
+    /** Символы подписок клиента — поиск символа кадра для парсеров соединений. */
+    protected final SymbolCache symbols() {
+        return symbols;
+    }
+
+    /** Описание сессии без подписки: URL, ping, порог тишины и кадры с {@code handler}. */
+    protected abstract WsSessionSpec.Builder session(TickViewHandler handler);
+
+    /** Сообщения подписки на символы (верхний регистр, непустой список, не больше сессии). */
+    protected abstract List<String> subscribeMessages(List<String> symbols);
+
+    /** Сообщения отписки от символов (верхний регистр, непустой список). */
+    protected abstract List<String> unsubscribeMessages(List<String> symbols);
+
+    /** Строка состояния клиента для периодического лога сессий; {@code null} — нечего сообщать. */
+    protected String report() {
+        return null;
+    }
+
+    @Override
+    public StreamSubscription subscribeBookTicker(Collection<String> nativeSymbols, TickHandler handler) {
+        return subscribeBookTickerView(nativeSymbols, TickViewHandler.copying(handler));
+    }
+
+    @Override
+    public StreamSubscription subscribeBookTickerView(Collection<String> nativeSymbols, TickViewHandler handler) {
+        if (nativeSymbols == null || nativeSymbols.isEmpty())
+            throw new IllegalArgumentException("symbols empty");
+
+        var sub = new LiveSub(handler);
+        sub.add(nativeSymbols);
+        live.add(sub);
+        return sub;
+    }
+
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) return;
+        live.forEach(StreamSubscription::close);
+        live.clear();
+        sessions.close();
+        transport.close();
+    }
+
+    protected static <T> List<List<T>> chunk(Collection<T> all, int size) {
+        var it = all.iterator();
+        var out = new ArrayList<List<T>>();
+        while (it.hasNext()) {
+            var b = new ArrayList<T>(Math.min(size, all.size()));
+            for (int i = 0; i < size && it.hasNext(); i++) b.add(it.next());
+            out.add(List.copyOf(b));
+        }
+        return out;
+    }
+
+    /** Символы одной сессии. */
+    private static final class Chunk {
+        final Set<String> symbols = new LinkedHashSet<>();
+        WsSession session;
+    }
+
+    /** Несколько WS-сессий одного handler как один StreamSubscription; изменения — под this. */
+    private final class LiveSub implements StreamSubscription {
+        private final TickViewHandler handler;
+        private final List<Chunk> chunks = new ArrayList<>();
+        private final Map<String, Chunk> bySymbol = new HashMap<>();
+        private boolean closed;
+
+        LiveSub(TickViewHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public synchronized void add(Collection<String> nativeSymbols) {
+            if (closed) throw new IllegalStateException("subscription closed");
+            var fresh = new ArrayList<String>();
+            for (String s : new LinkedHashSet<>(upper(nativeSymbols))) {
+                if (!bySymbol.containsKey(s)) fresh.add(s);
+            }
+            symbols.add(fresh); // до subscribe: первые кадры уже найдут символ
+            int i = 0;
+            // сначала — в неполные живые сессии
+            for (Chunk c : chunks) {
+                int room = maxSymbolsPerSession - c.symbols.size();
+                if (room <= 0 || i == fresh.size()) continue;
+                var part = List.copyOf(fresh.subList(i, Math.min(fresh.size(), i + room)));
+                i += part.size();
+                for (String s : part) bySymbol.put(s, c);
+                c.symbols.addAll(part);
+                c.session.send(subscribeMessages(part));
+            }
+            // остаток — новыми сессиями
+            for (var part : chunk(fresh.subList(i, fresh.size()), maxSymbolsPerSession)) {
+                var c = new Chunk();
+                c.symbols.addAll(part);
+                for (String s : part) bySymbol.put(s, c);
+                c.session = sessions.open(session(handler).subscribe(() -> subscribeNow(c)).build());
+                chunks.add(c);
+            }
+        }
+
+        @Override
+        public synchronized void remove(Collection<String> nativeSymbols) {
+            if (closed) return;
+            var byChunk = new IdentityHashMap<Chunk, List<String>>();
+            for (String s : upper(nativeSymbols)) {
+                Chunk c = bySymbol.remove(s);
+                if (c == null) continue;
+                c.symbols.remove(s);
+                byChunk.computeIfAbsent(c, k -> new ArrayList<>()).add(s);
+            }
+            byChunk.forEach((c, gone) -> {
+                if (c.symbols.isEmpty()) {
+                    chunks.remove(c);
+                    c.session.close();
+                } else {
+                    c.session.send(unsubscribeMessages(gone));
+                }
+                symbols.remove(gone);
+            });
+        }
+
+        @Override
+        public void close() {
+            List<Chunk> all;
+            synchronized (this) {
+                if (closed) return;
+                closed = true;
+                all = List.copyOf(chunks);
+                chunks.clear();
+                bySymbol.clear();
+            }
+            all.forEach(c -> {
+                c.session.close();
+                symbols.remove(c.symbols);
+            });
+            live.remove(this);
+        }
+
+        /** Подписка на момент подключения сессии — из текущего набора её символов. */
+        private List<String> subscribeNow(Chunk c) {
+            List<String> symbols;
+            synchronized (this) {
+                symbols = List.copyOf(c.symbols);
+            }
+            return symbols.isEmpty() ? List.of() : subscribeMessages(symbols);
+        }
+
+        private static List<String> upper(Collection<String> symbols) {
+            var out = new ArrayList<String>(symbols.size());
+            for (String s : symbols) out.add(s.toUpperCase(Locale.ROOT));
+            return out;
+        }
+    }
+}
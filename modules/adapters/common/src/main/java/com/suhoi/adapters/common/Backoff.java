@@ -0,0 +1,42 @@
+package com.suhoi.adapters.common;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Экспоненциальная задержка переподключения с jitter ("equal jitter"):
+ * {@code d = min(cap, base * 2^attempt)}, ждём {@code d/2 + random(0..d/2)}.
+ * <p>
+ * Половина — гарантированная пауза, половина — случайная: соединения одной площадки,
+ * упавшие разом (рестарт биржи, сеть), не возвращаются одной волной.
+ * </p>
+ * Иммутабелен, потокобезопасен.
+ */
+public final class Backoff {
+
+    /** 0.5с → 1с → 2с … до 30с. */
+    public static final Backoff DEFAULT = new Backoff(Duration.ofMillis(500), Duration.ofSeconds(30));
+
+    private final long baseMillis;
+    private final long capMillis;
+
+    public Backoff(Duration base, Duration cap) {
+        this.baseMillis = Math.max(1, base.toMillis());
+        this.capMillis = Math.max(baseMillis, cap.toMillis());
+    }
+
+    /**
+     * @param attempt номер неудачной попытки подряд (0 — первая)
+     * @return задержка перед следующей попыткой, мс
+     */
+    public long delayMillis(int attempt) {
+        int shift = Math.min(Math.max(attempt, 0), 30);
+        long d = baseMillis << shift;
+        if (d <= 0 || d > capMillis) d = capMillis;
+        long half = d >>> 1;
+        return half + ThreadLocalRandom.current().nextLong(d - half + 1);
+    }
+
+    public long baseMillis() { return baseMillis; }
+    public long capMillis() { return capMillis; }
+}
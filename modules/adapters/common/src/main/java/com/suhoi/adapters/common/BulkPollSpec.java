@@ -0,0 +1,136 @@
+package com.suhoi.adapters.common;
+
+import com.suhoi.api.adapter.SymbolCache;
+import com.suhoi.market.MarketKind;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Описание bulk-эндпоинта площадки: что адаптер отдаёт {@link AbstractBulkPollStreamClient}.
+ * <p>
+ * URL, имена полей строки, извлечение базового актива и документированный лимит площадки.
+ * Нижняя граница интервала выводится из лимита: опрос берёт не больше {@code 1/}{@link #LIMIT_SHARE}
+ * бюджета — остальное остаётся discovery, REST-снимкам и прочим клиентам на том же IP.
+ * Например, MEXC contract (20 за 2с) — не чаще 800 мс, Bybit (600 за 5с) — 67 мс.
+ * </p>
+ * Пример:
+ * <pre>{@code
+ * BulkPollSpec.builder("BYBIT", MarketKind.PERP, "https://api.bybit.com/v5/market/tickers?category=linear")
+ *     .assetOf(s -> s.endsWith("USDT") ? BybitSymbols.extractBaseOrThrow(s) : null)
+ *     .fields("symbol", "bid1Price", "ask1Price", null)
+ *     .limit(600, Duration.ofSeconds(5))
+ *     .build();
+ * }</pre>
+ */
+public final class BulkPollSpec {
+
+    /** Опрос занимает не больше 1/8 лимита площадки. */
+    public static final int LIMIT_SHARE = 8;
+
+    private final String venue;
+    private final MarketKind kind;
+    private final URI uri;
+    private final Function<String, String> assetOf;
+    private final String symbolField;
+    private final String bidField;
+    private final String askField;
+    private final String tsField; // null — времени в строке нет
+    private final Duration minInterval;
+
+    private BulkPollSpec(Builder b) {
+        this.venue = b.venue;
+        this.kind = b.kind;
+        this.uri = b.uri;
+        this.assetOf = b.assetOf;
+        this.symbolField = b.symbolField;
+        this.bidField = b.bidField;
+        this.askField = b.askField;
+        this.tsField = b.tsField;
+        this.minInterval = b.minInterval;
+    }
+
+    public static Builder builder(String venue, MarketKind kind, String url) {
+        return new Builder(venue, kind, URI.create(url));
+    }
+
+    public String venue() { return venue; }
+    public MarketKind kind() { return kind; }
+    public URI uri() { return uri; }
+
+    /** Нижняя граница интервала опроса по лимиту площадки. */
+    public Duration minInterval() { return minInterval; }
+
+    /** Имя клиента для логов: {@code mexc-perp-poll}. */
+    String clientName() {
+        return venue.toLowerCase(Locale.ROOT) + "-" + kind.name().toLowerCase(Locale.ROOT) + "-poll";
+    }
+
+    /** Новый парсер со своим {@link SymbolCache} — по одному на клиента. */
+    BulkTickerParser newParser() {
+        return new BulkTickerParser(venue, kind.name(), new SymbolCache(venue, kind, assetOf),
+                symbolField, bidField, askField, tsField);
+    }
+
+    public static final class Builder {
+        private final String venue;
+        private final MarketKind kind;
+        private final URI uri;
+        private Function<String, String> assetOf;
+        private String symbolField;
+        private String bidField;
+        private String askField;
+        private String tsField;
+        private Duration minInterval;
+
+        private Builder(String venue, MarketKind kind, URI uri) {
+            this.venue = Objects.requireNonNull(venue, "venue");
+            this.kind = Objects.requireNonNull(kind, "kind");
+            this.uri = Objects.requireNonNull(uri, "uri");
+        }
+
+        /** Базовый актив по нативному символу; {@code null} — символ не наш (не USDT и т.п.). */
+        public Builder assetOf(Function<String, String> assetOf) {
+            this.assetOf = Objects.requireNonNull(assetOf);
+            return this;
+        }
+
+        /**
+         * Имена полей строки ответа.
+         *
+         * @param tsField поле времени строки (epoch millis), {@code null} — нет
+         */
+        public Builder fields(String symbolField, String bidField, String askField, String tsField) {
+            this.symbolField = Objects.requireNonNull(symbolField);
+            this.bidField = Objects.requireNonNull(bidField);
+            this.askField = Objects.requireNonNull(askField);
+            this.tsField = tsField;
+            return this;
+        }
+
+        /** Лимит площадки: {@code requests} запросов за {@code window}. */
+        public Builder limit(int requests, Duration window) {
+            return limit(requests, window, 1);
+        }
+
+        /** Лимит по весу: {@code budget} веса за {@code window}, запрос стоит {@code weight}. */
+        public Builder limit(int budget, Duration window, int weight) {
+            if (budget <= 0 || weight <= 0) throw new IllegalArgumentException("budget and weight must be > 0");
+            long w = window.toMillis();
+            if (w <= 0) throw new IllegalArgumentException("window must be > 0");
+            long num = w * weight * LIMIT_SHARE;
+            this.minInterval = Duration.ofMillis((num + budget - 1) / budget);
+            return this;
+        }
+
+        public BulkPollSpec build() {
+            if (assetOf == null) throw new IllegalStateException("assetOf is required");
+            if (symbolField == null) throw new IllegalStateException("fields are required");
+            if (minInterval == null) throw new IllegalStateException("limit is required");
+            return new BulkPollSpec(this);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.suhoi.adapters.common;
+
+import com.suhoi.api.adapter.JsonScanner;
+import com.suhoi.api.adapter.SymbolCache;
+import com.suhoi.api.adapter.TickView;
+import com.suhoi.api.adapter.TickViewHandler;
+
+import java.util.Objects;
+
+/**
+ * Потоковый разбор bulk-ответа REST «все тикеры площадки одним запросом»: массив плоских объектов-строк
+ * где угодно в ответе ({@code [{...},...]}, {@code {"data":[...]}}, {@code {"result":{"list":[...]}}}).
+ * <p>
+ * Строка — любой объект, в котором нашлись поле символа и хотя бы одна из цен; имена полей задаёт
+ * площадка. Состояние строки ведётся по глубине объекта, поэтому вложенные объекты внутри строки
+ * (например, {@code riseFallRates} у MEXC) её не сбивают. Пустая цена ({@code ""}) — стороны нет;
+ * без bid и ask строка пропускается. Время — из поля строки, если оно задано и есть, иначе
+ * {@code defaultTs} (момент ответа).
+ * </p>
+ * Строки символов вне {@link SymbolCache} поллера (не из подписок) пропускаются до разбора цен.
+ * Один экземпляр на поллер (не потокобезопасен); view переиспользуется, как в WS-парсерах.
+ */
+public final class BulkTickerParser {
+    private static final int MAX_DEPTH = 8;
+
+    private final String venue;
+    private final String kind;
+    private final String symbolField;
+    private final String bidField;
+    private final String askField;
+    private final String tsField; // null — времени в строке нет
+    private final JsonScanner js = new JsonScanner();
+    private final SymbolCache symbols;
+
+    // состояние строки по глубине объекта
+    private final int[] symOff = new int[MAX_DEPTH + 1];
+    private final int[] symLen = new int[MAX_DEPTH + 1];
+    private final int[] bidOff = new int[MAX_DEPTH + 1];
+    private final int[] bidLen = new int[MAX_DEPTH + 1];
+    private final int[] askOff = new int[MAX_DEPTH + 1];
+    private final int[] askLen = new int[MAX_DEPTH + 1];
+    private final long[] ts = new long[MAX_DEPTH + 1];
+
+    /**
+     * @param symbols символы подписок поллера
+     * @param tsField поле времени строки (epoch millis), {@code null} — нет
+     */
+    public BulkTickerParser(String venue, String kind, SymbolCache symbols,
+                            String symbolField, String bidField, String askField, String tsField) {
+        this.venue = Objects.requireNonNull(venue);
+        this.kind = Objects.requireNonNull(kind);
+        this.symbols = Objects.requireNonNull(symbols);
+        this.symbolField = Objects.requireNonNull(symbolField);
+        this.bidField = Objects.requireNonNull(bidField);
+        this.askField = Objects.requireNonNull(askField);
+        this.tsField = tsField;
+    }
+
+    SymbolCache symbols() {
+        return symbols;
+    }
+
+    /** @return число строк, отданных в handler */
+    public int parse(CharSequence body, long defaultTs, TickView view, TickViewHandler handler) {
+        js.reset(body);
+        int rows = 0;
+        int t;
+        while ((t = js.next()) != JsonScanner.EOF) {
+            int d = js.depth();
+            if (t == JsonScanner.START_OBJECT) {
+                if (d <= MAX_DEPTH) {
+                    symOff[d] = bidOff[d] = askOff[d] = -1;
+                    ts[d] = 0;
+                }
+            } else if (t == JsonScanner.END_OBJECT) {
+                int closed = d + 1;
+                if (closed <= MAX_DEPTH && symOff[closed] >= 0 && (bidOff[closed] >= 0 || askOff[closed] >= 0)) {
+                    rows += emit(body, closed, defaultTs, view, handler);
+                }
+            } else if (t == JsonScanner.FIELD && d <= MAX_DEPTH) {
+                field(d);
+            }
+        }
+        return rows;
+    }
+
+    private void field(int d) {
+        if (js.is(symbolField)) {
+            if (js.next() == JsonScanner.STRING && js.length() > 0) { symOff[d] = js.start(); symLen[d] = js.length(); }
+        } else if (js.is(bidField)) {
+            js.next();
+            if (js.isScalar() && js.length() > 0) { bidOff[d] = js.start(); bidLen[d] = js.length(); }
+        } else if (js.is(askField)) {
+            js.next();
+            if (js.isScalar() && js.length() > 0) { askOff[d] = js.start(); askLen[d] = js.length(); }
+        } else if (tsField != null && js.is(tsField)) {
+            js.next();
+            if (js.isScalar() && js.length() > 0) {
+                try {
+                    ts[d] = js.longValue();
+                } catch (NumberFormatException | ArithmeticException ignore) {
+                    // время не число — возьмём момент ответа
+                }
+            }
+        }
+    }
+
+    private int emit(CharSequence body, int d, long defaultTs, TickView view, TickViewHandler handler) {
+        SymbolCache.Entry sym = symbols.get(body, symOff[d], symLen[d]);
+        if (sym == null) return 0; // не из подписок
+        view.clear()
+                .market(sym.asset(), venue, kind, sym.symbol())
+                .ts(ts[d] > 0 ? ts[d] : defaultTs);
+        if (bidOff[d] >= 0) view.bid(body, bidOff[d], bidLen[d]);
+        if (askOff[d] >= 0) view.ask(body, askOff[d], askLen[d]);
+        if (!view.completeMid()) return 0;
+        handler.onTick(view);
+        return 1;
+    }
+}
@@ -0,0 +1,74 @@
+package com.suhoi.adapters.common;
+
+import com.suhoi.util.Clocks;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Бюджет WS-подключений площадки: не больше {@code permits} попыток за {@code window}
+ * (лимиты бирж считаются на IP, поэтому бюджет общий для всех клиентов venue — см. {@link #shared}).
+ * <p>
+ * GCRA (virtual scheduling): попытки равномерно разнесены на {@code window/permits},
+ * допускается всплеск до {@code permits} подряд. {@link #reserve(long)} не блокирует —
+ * возвращает момент, когда попытку можно сделать; вызывающий планирует её на это время.
+ * При массовом реконнекте это растягивает волну подключений, а не отбрасывает их.
+ * </p>
+ */
+public final class ConnectBudget {
+
+    private static final Map<String, ConnectBudget> SHARED = new ConcurrentHashMap<>();
+
+    private final int permits;
+    private final long intervalNanos;  // T = window / permits
+    private final long toleranceNanos; // tau = window - T: глубина всплеска
+    private long tat;                  // theoretical arrival time
+    private boolean started;
+
+    public ConnectBudget(int permits, Duration window) {
+        if (permits <= 0) throw new IllegalArgumentException("permits must be > 0");
+        long w = window.toNanos();
+        if (w <= 0) throw new IllegalArgumentException("window must be > 0");
+        this.permits = permits;
+        this.intervalNanos = Math.max(1, w / permits);
+        this.toleranceNanos = w - intervalNanos;
+    }
+
+    /**
+     * Общий бюджет venue в пределах процесса: первый вызов задаёт лимит, последующие
+     * получают тот же экземпляр (параметры повторных вызовов игнорируются — побеждает первый).
+     * <p>
+     * Ключ — только {@code venue}: у Binance SPOT и PERP один ключ {@code "BINANCE"} (лимит
+     * подключений считается на IP), и лимит общего бюджета задаёт клиент, созданный первым.
+     * Клиентам одной площадки следует передавать одинаковые {@code permits}/{@code window}.
+     * </p>
+     */
+    public static ConnectBudget shared(String venue, int permits, Duration window) {
+        return SHARED.computeIfAbsent(venue, v -> new ConnectBudget(permits, window));
+    }
+
+    /**
+     * Резервирует попытку не раньше {@code notBeforeNanos} (шкала {@link Clocks#monotonicNanos()}).
+     *
+     * @return момент (та же шкала), начиная с которого попытка укладывается в бюджет
+     */
+    public synchronized long reserve(long notBeforeNanos) {
+        if (!started) {
+            tat = notBeforeNanos;
+            started = true;
+        }
+        long t = Math.max(tat, notBeforeNanos);
+        long allowedAt = Math.max(notBeforeNanos, t - toleranceNanos);
+        tat = t + intervalNanos;
+        return allowedAt;
+    }
+
+    /** Резервирует попытку «как можно скорее»; @return задержка от текущего момента, нс. */
+    public long reserveNow() {
+        long now = Clocks.monotonicNanos();
+        return reserve(now) - now;
+    }
+
+    public int permits() { return permits; }
+}
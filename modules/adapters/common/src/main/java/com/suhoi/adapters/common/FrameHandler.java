@@ -0,0 +1,20 @@
+package com.suhoi.adapters.common;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Обработчик целых WS-кадров одного соединения (фрагменты уже склеены {@link WsSession}).
+ * <p>
+ * Вызывается последовательно из потока соединения; кадр валиден только на время вызова —
+ * парсер не должен сохранять ссылку на него. Исключения глотаются сессией (кадр пропускается).
+ * </p>
+ */
+@FunctionalInterface
+public interface FrameHandler {
+
+    void onText(CharSequence frame);
+
+    /** Бинарные кадры (protobuf и т.п.); по умолчанию игнорируются. */
+    default void onBinary(ByteBuffer frame) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.suhoi.adapters.common;
+
+import java.net.http.HttpHeaders;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Заголовок {@code Retry-After} ответов 429/418/503 (RFC 9110 §10.2.3): число секунд
+ * ({@code "120"}) или HTTP-дата ({@code "Wed, 21 Oct 2026 07:28:00 GMT"}).
+ * <p>
+ * Поллеры встают на паузу по этому значению; не разобранный заголовок — {@code -1}, вызывающий
+ * берёт свой backoff.
+ * </p>
+ */
+public final class RetryAfter {
+    private static final long MAX_SECONDS = Long.MAX_VALUE / 1000;
+
+    private RetryAfter() {}
+
+    /**
+     * @param nowEpochMillis текущее время, мс эпохи — точка отсчёта для HTTP-даты
+     * @return пауза, мс; {@code -1} — заголовка нет или он не разобран
+     */
+    public static long millis(HttpHeaders headers, long nowEpochMillis) {
+        return headers.firstValue("Retry-After").map(v -> millis(v, nowEpochMillis)).orElse(-1L);
+    }
+
+    /**
+     * @param value значение заголовка
+     * @return пауза, мс ({@code 0} — дата уже прошла); {@code -1} — значение не разобрано
+     */
+    public static long millis(String value, long nowEpochMillis) {
+        String v = value.trim();
+        if (v.isEmpty()) return -1;
+        if (isDigits(v)) {
+            // 19+ цифр — заведомо больше любой разумной паузы
+            long seconds = v.length() > 18 ? MAX_SECONDS : Math.min(Long.parseLong(v), MAX_SECONDS);
+            return seconds * 1000;
+        }
+        try {
+            long at = ZonedDateTime.parse(v, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return Math.max(0, at - nowEpochMillis);
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    private static boolean isDigits(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,139 @@
+package com.suhoi.adapters.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Общий транспортный контекст адаптеров: то, что раньше каждый клиент заводил себе сам.
+ * <ul>
+ *   <li>{@link #http(URI)} — один HTTP/2 {@link HttpClient} на хост площадки: общий пул
+ *       соединений, TLS-сессии и selector-поток вместо своего клиента в каждом discovery/stream;</li>
+ *   <li>{@link #scheduler()} — ограниченный планировщик ({@link #TIMER_THREADS} daemon-потока)
+ *       для таймеров: подключения по расписанию, обход WS-сессий, такты поллинга. Задачи на нём
+ *       должны быть короткими — блокирующий I/O уходит в {@link #blocking()};</li>
+ *   <li>{@link #blocking()} — виртуальные потоки для блокирующего REST ({@code HttpClient.send}).</li>
+ * </ul>
+ * Контекст со счётчиком ссылок: {@link #retain()} берёт ссылку, {@link #close()} отпускает;
+ * на последней ссылке останавливаются потоки и HTTP-клиенты. Конструктор адаптера или
+ * stream-клиента, принимающий {@code Transport}, забирает одну ссылку и отпускает её в своём
+ * {@code close()}; discovery-клиенты переданный контекст только используют, а созданные без него
+ * берут ссылку на {@link #shared()} и отпускают её в {@code close()} ({@link AbstractDiscoveryClient}).
+ * <pre>
+ *   var transport = Transport.shared();            // или Transport.create("router")
+ *   var binance = new BinanceAdapter(transport.retain());
+ *   var gate = new GateAdapter(transport.retain());
+ *   ...
+ *   binance.close(); gate.close(); transport.close();
+ * </pre>
+ */
+public final class Transport implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(Transport.class);
+
+    /** Потоков планировщика: таймеры лёгкие, больше двух не нужно даже на шесть площадок. */
+    public static final int TIMER_THREADS = 2;
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(8);
+
+    private static Transport shared; // guarded by Transport.class
+
+    private final String name;
+    private final AtomicInteger refs = new AtomicInteger(1);
+    private final ConcurrentHashMap<String, HttpClient> clients = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final ExecutorService blocking;
+
+    private Transport(String name) {
+        this.name = name;
+        var seq = new AtomicInteger();
+        this.scheduler = new ScheduledThreadPoolExecutor(TIMER_THREADS, r -> {
+            var t = new Thread(r, name + "-timer-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.setRemoveOnCancelPolicy(true); // отменённые подписки не копятся в очереди
+        this.blocking = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-io-", 0).factory());
+    }
+
+    /** Новый контекст с одной ссылкой у вызывающего. */
+    public static Transport create(String name) {
+        return new Transport(name);
+    }
+
+    /**
+     * Общий контекст процесса (ссылка уже взята для вызывающего). После того как все ссылки
+     * отпущены, следующий вызов создаёт контекст заново.
+     */
+    public static synchronized Transport shared() {
+        if (shared == null || !shared.tryRetain()) shared = new Transport("adapters");
+        return shared;
+    }
+
+    /** Берёт ещё одну ссылку на контекст. */
+    public Transport retain() {
+        if (!tryRetain()) throw new IllegalStateException(name + ": transport closed");
+        return this;
+    }
+
+    private boolean tryRetain() {
+        for (;;) {
+            int n = refs.get();
+            if (n == 0) return false;
+            if (refs.compareAndSet(n, n + 1)) return true;
+        }
+    }
+
+    /**
+     * HTTP-клиент хоста (схема и порт не различаются: http/ws и https/wss на одном хосте
+     * делят клиент). HTTP/2 с откатом на HTTP/1.1; WebSocket JDK всегда поднимает через HTTP/1.1.
+     */
+    public HttpClient http(URI uri) {
+        if (refs.get() == 0) throw new IllegalStateException(name + ": transport closed");
+        String host = uri.getHost() == null ? "" : uri.getHost().toLowerCase(Locale.ROOT);
+        return clients.computeIfAbsent(host, h -> HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(CONNECT_TIMEOUT)
+                .build());
+    }
+
+    public ScheduledExecutorService scheduler() { return scheduler; }
+
+    public ExecutorService blocking() { return blocking; }
+
+    public boolean isClosed() { return refs.get() == 0; }
+
+    /** Отпускает ссылку; на последней — останавливает планировщик, I/O-потоки и HTTP-клиенты. */
+    @Override
+    public void close() {
+        for (;;) {
+            int n = refs.get();
+            if (n == 0) return;
+            if (refs.compareAndSet(n, n - 1)) {
+                if (n == 1) shutdown();
+                return;
+            }
+        }
+    }
+
+    private void shutdown() {
+        scheduler.shutdownNow();
+        blocking.shutdownNow();
+        clients.values().forEach(HttpClient::shutdownNow);
+        log.debug("Transport {}: closed ({} http clients)", name, clients.size());
+        clients.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "Transport[" + name + ", refs=" + refs.get() + ", hosts=" + clients.keySet() + "]";
+    }
+}
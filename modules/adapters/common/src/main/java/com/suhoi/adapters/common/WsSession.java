@@ -0,0 +1,332 @@
+package com.suhoi.adapters.common;
+
+import com.suhoi.util.Clocks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Долгоживущая WS-сессия: одно логическое подключение, которое переживает разрывы.
+ * <ul>
+ *   <li>кадры, пришедшие фрагментами ({@code last=false}), склеиваются и отдаются целиком;
+ *       целый кадр отдаётся как есть, без копии;</li>
+ *   <li>спрос запрашивается пачкой ({@link #DEMAND}) и доливается на половине, а не
+ *       {@code request(1)} на каждый кадр;</li>
+ *   <li>разрыв, ошибка или «тишина» дольше {@link WsSessionSpec#staleAfter()} → переподключение
+ *       с {@link Backoff} (jitter), попытка проходит через {@link ConnectBudget} площадки;</li>
+ *   <li>после каждого подключения подписка отправляется заново; ping — по расписанию менеджера;</li>
+ *   <li>изменения подписки на ходу ({@link #send}) уходят в текущее подключение.</li>
+ * </ul>
+ * Исходящие сообщения (подписка, ping) выстраиваются в цепочку: {@code sendText}
+ * не допускает параллельных отправок.
+ * <p>
+ * Сессия — транспорт, а не подписка на символы: набор символов ведёт владелец
+ * ({@code AbstractWsStreamClient}) и отдаёт его через {@link WsSessionSpec#subscribe()} и {@link #send}.
+ * </p>
+ */
+public final class WsSession implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(WsSession.class);
+
+    /** Пачка спроса на кадры; доливается, когда остаётся половина. */
+    static final int DEMAND = 64;
+    /** Предел склеиваемого сообщения — защита от бесконечной фрагментированной отправки. */
+    static final int MAX_MESSAGE_CHARS = 8 << 20;
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private final WsSessionManager manager;
+    private final WsSessionSpec spec;
+    private final long pingNanos;  // 0 — без ping
+    private final long staleNanos; // 0 — без контроля тишины
+
+    private volatile boolean closed;
+    private volatile Connection current;
+    private ScheduledFuture<?> pendingConnect; // guarded by this
+    private int failures;                      // подряд, guarded by this
+
+    WsSession(WsSessionManager manager, WsSessionSpec spec) {
+        this.manager = manager;
+        this.spec = spec;
+        this.pingNanos = spec.pingInterval() == null ? 0 : spec.pingInterval().toNanos();
+        this.staleNanos = spec.staleAfter() == null ? 0 : spec.staleAfter().toNanos();
+    }
+
+    public String name() { return spec.name(); }
+
+    public boolean isConnected() { return current != null; }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        synchronized (this) {
+            if (pendingConnect != null) pendingConnect.cancel(false);
+        }
+        Connection c = current;
+        current = null;
+        if (c != null) c.shutdown();
+        manager.remove(this);
+    }
+
+    /**
+     * Отправляет сообщения (subscribe/unsubscribe на ходу) в живое подключение, в общей цепочке
+     * исходящих. Без подключения — ничего: при подключении подписка строится заново
+     * из {@link WsSessionSpec#subscribe()}.
+     */
+    void send(List<String> messages) {
+        Connection c = current;
+        if (c == null || closed) return;
+        for (String msg : messages) c.send(msg);
+    }
+
+    void start() {
+        scheduleConnect(0);
+    }
+
+    /** Периодическая проверка из менеджера: тишина → переподключение, иначе ping по расписанию. */
+    void check(long nowNanos) {
+        Connection c = current;
+        if (c == null || closed) return;
+        long quiet = nowNanos - c.lastFrameNanos;
+        if (staleNanos > 0 && quiet > staleNanos) {
+            c.fail("stale: no frames for " + TimeUnit.NANOSECONDS.toSeconds(quiet) + "s", null);
+        } else if (pingNanos > 0 && nowNanos - c.lastPingNanos >= pingNanos) {
+            c.ping(nowNanos);
+        }
+    }
+
+    private synchronized void scheduleConnect(long delayMillis) {
+        if (closed) return;
+        long now = Clocks.monotonicNanos();
+        long at = manager.budget().reserve(now + TimeUnit.MILLISECONDS.toNanos(delayMillis));
+        pendingConnect = manager.scheduler().schedule(this::connect, at - now, TimeUnit.NANOSECONDS);
+    }
+
+    private void connect() {
+        if (closed) return;
+        Connection c = new Connection(spec.frames().get());
+        manager.http(spec.uri()).newWebSocketBuilder()
+                .connectTimeout(CONNECT_TIMEOUT)
+                .buildAsync(spec.uri(), c)
+                .orTimeout(15, TimeUnit.SECONDS)
+                .whenComplete((ws, err) -> {
+                    if (err != null) c.fail("connect failed", err);
+                });
+    }
+
+    private void reconnect(String reason, Throwable err) {
+        if (closed) return;
+        int n;
+        synchronized (this) {
+            n = failures++;
+        }
+        long delay = manager.backoff().delayMillis(n);
+        if (err != null) {
+            log.warn("WS {}: {} ({}), reconnect #{} in {} ms", spec.name(), reason, err.toString(), n + 1, delay);
+        } else {
+            log.warn("WS {}: {}, reconnect #{} in {} ms", spec.name(), reason, n + 1, delay);
+        }
+        scheduleConnect(delay);
+    }
+
+    private synchronized void healthy() {
+        failures = 0;
+    }
+
+    /** Одно физическое подключение; callbacks JDK WebSocket приходят последовательно. */
+    final class Connection implements WebSocket.Listener {
+        private final FrameHandler frames;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private volatile WebSocket ws;
+        volatile long lastFrameNanos;
+        volatile long lastPingNanos;
+
+        // поток соединения
+        private long demand;
+        private boolean seenFrame;
+        private StringBuilder text;
+        private ByteBuffer binary;
+
+        private CompletableFuture<?> sends = CompletableFuture.completedFuture(null); // guarded by this
+
+        Connection(FrameHandler frames) {
+            this.frames = frames;
+        }
+
+        @Override
+        public void onOpen(WebSocket ws) {
+            this.ws = ws;
+            long now = Clocks.monotonicNanos();
+            lastFrameNanos = now;
+            lastPingNanos = now;
+            if (closed) {
+                shutdown();
+                return;
+            }
+            current = this;
+            for (String msg : spec.subscribe().get()) send(msg);
+            demand = DEMAND;
+            ws.request(DEMAND);
+            log.info("WS {}: connected {}", spec.name(), spec.uri());
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket ws, CharSequence data, boolean last) {
+            touch();
+            if (last && (text == null || text.isEmpty())) {
+                dispatchText(data);
+            } else {
+                if (text == null) text = new StringBuilder(Math.max(1024, data.length() * 2));
+                text.append(data);
+                if (last) {
+                    dispatchText(text);
+                    text.setLength(0);
+                } else if (text.length() > MAX_MESSAGE_CHARS) {
+                    fail("message exceeds " + MAX_MESSAGE_CHARS + " chars", null);
+                    return null;
+                }
+            }
+            consumed(ws);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onBinary(WebSocket ws, ByteBuffer data, boolean last) {
+            touch();
+            if (last && (binary == null || binary.position() == 0)) {
+                dispatchBinary(data);
+            } else {
+                binary = append(binary, data);
+                if (last) {
+                    binary.flip();
+                    dispatchBinary(binary);
+                    binary.clear();
+                } else if (binary.position() > MAX_MESSAGE_CHARS) {
+                    fail("message exceeds " + MAX_MESSAGE_CHARS + " bytes", null);
+                    return null;
+                }
+            }
+            consumed(ws);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onPing(WebSocket ws, ByteBuffer message) {
+            touch();
+            ws.sendPong(message);
+            consumed(ws);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onPong(WebSocket ws, ByteBuffer message) {
+            touch();
+            consumed(ws);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket ws, int statusCode, String reason) {
+            fail("closed by server " + statusCode + (reason == null || reason.isEmpty() ? "" : " " + reason), null);
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket ws, Throwable error) {
+            fail("error", error);
+        }
+
+        /** Разрыв по любой причине: первая причина закрывает сокет и планирует реконнект. */
+        void fail(String reason, Throwable err) {
+            if (!done.compareAndSet(false, true)) return;
+            if (current == this) current = null;
+            WebSocket w = ws;
+            if (w != null) w.abort();
+            reconnect(reason, err);
+        }
+
+        /** Штатное закрытие без реконнекта. */
+        void shutdown() {
+            if (!done.compareAndSet(false, true)) return;
+            WebSocket w = ws;
+            if (w == null) return;
+            try {
+                w.sendClose(WebSocket.NORMAL_CLOSURE, "bye")
+                        .orTimeout(2, TimeUnit.SECONDS)
+                        .exceptionally(ex -> { w.abort(); return null; });
+            } catch (Exception e) {
+                w.abort();
+            }
+        }
+
+        void ping(long nowNanos) {
+            lastPingNanos = nowNanos;
+            if (spec.pingText() != null) {
+                send(spec.pingText().get());
+                return;
+            }
+            WebSocket w = ws;
+            if (w == null || done.get()) return;
+            try {
+                w.sendPing(EMPTY.duplicate()).exceptionally(ex -> null);
+            } catch (Exception ignore) { /* предыдущий ping ещё в полёте */ }
+        }
+
+        synchronized void send(String msg) {
+            WebSocket w = ws;
+            if (w == null || done.get()) return;
+            sends = sends.handle((r, e) -> null).thenCompose(x -> w.sendText(msg, true));
+        }
+
+        private void touch() {
+            lastFrameNanos = Clocks.monotonicNanos();
+            if (!seenFrame) {
+                seenFrame = true;
+                healthy();
+            }
+        }
+
+        private void consumed(WebSocket ws) {
+            if (--demand <= DEMAND / 2) {
+                ws.request(DEMAND - demand);
+                demand = DEMAND;
+            }
+        }
+
+        private void dispatchText(CharSequence frame) {
+            try {
+                frames.onText(frame);
+            } catch (Exception e) {
+                if (log.isDebugEnabled()) log.debug("WS {}: frame skipped: {}", spec.name(), e.toString());
+            }
+        }
+
+        private void dispatchBinary(ByteBuffer frame) {
+            try {
+                frames.onBinary(frame);
+            } catch (Exception e) {
+                if (log.isDebugEnabled()) log.debug("WS {}: frame skipped: {}", spec.name(), e.toString());
+            }
+        }
+
+        private static ByteBuffer append(ByteBuffer acc, ByteBuffer data) {
+            if (acc == null) acc = ByteBuffer.allocate(Math.max(4096, data.remaining() * 2));
+            if (acc.remaining() < data.remaining()) {
+                ByteBuffer bigger = ByteBuffer.allocate(Math.max(acc.capacity() * 2, acc.position() + data.remaining()));
+                acc.flip();
+                bigger.put(acc);
+                acc = bigger;
+            }
+            return acc.put(data);
+        }
+    }
+}
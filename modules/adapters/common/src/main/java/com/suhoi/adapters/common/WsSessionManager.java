@@ -0,0 +1,107 @@
+package com.suhoi.adapters.common;
+
+import com.suhoi.util.Clocks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Владелец WS-сессий одного потокового клиента: подключения по расписанию, ping, контроль
+ * тишины (общий обход раз в секунду, без задачи на каждую сессию) и бюджет подключений площадки.
+ * HTTP-клиент хоста и планировщик берутся из {@link Transport}; менеджер контекстом не владеет
+ * и при закрытии снимает только свой обход и сессии.
+ * <p>
+ * Кадры обрабатываются в потоках HttpClient; планировщик их не касается.
+ * </p>
+ * <p>
+ * Раз в минуту обход пишет в лог строку состояния клиента ({@link #report(Supplier)}).
+ * </p>
+ */
+public final class WsSessionManager implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(WsSessionManager.class);
+    private static final long SWEEP_MILLIS = 1000;
+    private static final long REPORT_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final String name;
+    private final ConnectBudget budget;
+    private final Backoff backoff;
+    private final Transport transport;
+    private final ScheduledFuture<?> sweep;
+    private final Set<WsSession> sessions = ConcurrentHashMap.newKeySet();
+    private volatile Supplier<String> report = () -> null;
+    private long lastReportNanos = Clocks.monotonicNanos(); // только поток обхода
+    private volatile boolean closed;
+
+    public WsSessionManager(String name, Transport transport, ConnectBudget budget) {
+        this(name, transport, budget, Backoff.DEFAULT);
+    }
+
+    public WsSessionManager(String name, Transport transport, ConnectBudget budget, Backoff backoff) {
+        this.name = name;
+        this.transport = transport;
+        this.budget = budget;
+        this.backoff = backoff;
+        this.sweep = transport.scheduler()
+                .scheduleWithFixedDelay(this::sweep, SWEEP_MILLIS, SWEEP_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /** Открывает сессию; подключение асинхронное (через бюджет), ошибки уходят в реконнект. */
+    public WsSession open(WsSessionSpec spec) {
+        if (closed) throw new IllegalStateException(name + ": session manager closed");
+        var s = new WsSession(this, spec);
+        sessions.add(s);
+        s.start();
+        return s;
+    }
+
+    public int sessionCount() { return sessions.size(); }
+
+    /** Строка состояния для лога на обходе раз в минуту; {@code null} из поставщика — пропуск. */
+    public void report(Supplier<String> report) {
+        this.report = Objects.requireNonNull(report);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        sessions.forEach(WsSession::close);
+        sessions.clear();
+        sweep.cancel(false);
+    }
+
+    private void sweep() {
+        long now = Clocks.monotonicNanos();
+        for (WsSession s : sessions) {
+            try {
+                s.check(now);
+            } catch (Throwable t) {
+                log.warn("WS {}: check failed: {}", s.name(), t.toString(), t);
+            }
+        }
+        if (now - lastReportNanos >= REPORT_NANOS) {
+            lastReportNanos = now;
+            try {
+                String line = report.get();
+                if (line != null) log.info("WS {}: {}", name, line);
+            } catch (Throwable t) {
+                log.warn("WS {}: report failed: {}", name, t.toString(), t);
+            }
+        }
+    }
+
+    void remove(WsSession s) { sessions.remove(s); }
+
+    HttpClient http(URI uri) { return transport.http(uri); }
+    ScheduledExecutorService scheduler() { return transport.scheduler(); }
+    ConnectBudget budget() { return budget; }
+    Backoff backoff() { return backoff; }
+}
@@ -0,0 +1,113 @@
+package com.suhoi.adapters.common;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Описание одной WS-сессии: что адаптер отдаёт {@link WsSessionManager}.
+ * <p>
+ * Всё, что зависит от площадки, — здесь: URL, сообщения подписки (пересылаются на каждом
+ * подключении, в т.ч. после реконнекта), ping (текстовый или control-фрейм), порог «тишины»
+ * и фабрика {@link FrameHandler} (парсер + view создаются заново на каждое подключение).
+ * </p>
+ * Пример:
+ * <pre>{@code
+ * WsSessionSpec.builder("bybit-perp", "wss://stream.bybit.com/v5/public/linear")
+ *     .subscribe(() -> List.of(subscribeJson))
+ *     .ping("{\"op\":\"ping\"}", Duration.ofSeconds(20))
+ *     .staleAfter(Duration.ofSeconds(60))
+ *     .frames(() -> { var view = new TickView(); var p = new BybitTickerParser(VENUE, KIND);
+ *                     return frame -> p.parse(frame, view, handler); })
+ *     .build();
+ * }</pre>
+ */
+public final class WsSessionSpec {
+
+    private final String name;
+    private final URI uri;
+    private final Supplier<List<String>> subscribe;
+    private final Supplier<String> pingText;   // null — control ping или без ping
+    private final Duration pingInterval;       // null — без ping
+    private final Duration staleAfter;         // null — без контроля тишины
+    private final Supplier<FrameHandler> frames;
+
+    private WsSessionSpec(Builder b) {
+        this.name = b.name;
+        this.uri = b.uri;
+        this.subscribe = b.subscribe;
+        this.pingText = b.pingText;
+        this.pingInterval = b.pingInterval;
+        this.staleAfter = b.staleAfter;
+        this.frames = b.frames;
+    }
+
+    public static Builder builder(String name, String url) {
+        return new Builder(name, URI.create(url));
+    }
+
+    public String name() { return name; }
+    public URI uri() { return uri; }
+    public Supplier<List<String>> subscribe() { return subscribe; }
+    public Supplier<String> pingText() { return pingText; }
+    public Duration pingInterval() { return pingInterval; }
+    public Duration staleAfter() { return staleAfter; }
+    public Supplier<FrameHandler> frames() { return frames; }
+
+    public static final class Builder {
+        private final String name;
+        private final URI uri;
+        private Supplier<List<String>> subscribe = List::of;
+        private Supplier<String> pingText;
+        private Duration pingInterval;
+        private Duration staleAfter;
+        private Supplier<FrameHandler> frames;
+
+        private Builder(String name, URI uri) {
+            this.name = Objects.requireNonNull(name, "name");
+            this.uri = Objects.requireNonNull(uri, "uri");
+        }
+
+        /** Сообщения подписки; вызывается на каждом подключении (можно вшивать время). */
+        public Builder subscribe(Supplier<List<String>> messages) {
+            this.subscribe = Objects.requireNonNull(messages);
+            return this;
+        }
+
+        /** Текстовый ping площадки с периодом {@code every}. */
+        public Builder ping(String text, Duration every) {
+            return ping(() -> text, every);
+        }
+
+        public Builder ping(Supplier<String> text, Duration every) {
+            this.pingText = Objects.requireNonNull(text);
+            this.pingInterval = Objects.requireNonNull(every);
+            return this;
+        }
+
+        /** Control-фрейм Ping (RFC 6455) — для площадок без прикладного ping. */
+        public Builder controlPing(Duration every) {
+            this.pingText = null;
+            this.pingInterval = Objects.requireNonNull(every);
+            return this;
+        }
+
+        /** Поток считается зависшим, если за {@code quiet} не пришло ни одного кадра (включая pong). */
+        public Builder staleAfter(Duration quiet) {
+            this.staleAfter = Objects.requireNonNull(quiet);
+            return this;
+        }
+
+        public Builder frames(Supplier<FrameHandler> factory) {
+            this.frames = Objects.requireNonNull(factory);
+            return this;
+        }
+
+        public WsSessionSpec build() {
+            if (frames == null) throw new IllegalStateException("frames handler is required");
+            return new WsSessionSpec(this);
+        }
+    }
+}
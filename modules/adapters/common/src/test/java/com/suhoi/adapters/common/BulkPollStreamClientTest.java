@@ -0,0 +1,162 @@
+package com.suhoi.adapters.common;
+
+import com.suhoi.api.adapter.SymbolCache;
+import com.suhoi.api.adapter.TickView;
+import com.suhoi.market.MarketKind;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bulk-поллинг: разбор снимка, diff с доской котировок, засев новой подписки (снимки — без сети,
+ * такт опроса не запускается), пауза по {@code Retry-After} против локального HTTP-сервера.
+ */
+class BulkPollStreamClientTest {
+
+    private static final String SNAPSHOT_1 = "{\"retCode\":0,\"result\":{\"category\":\"spot\",\"list\":["
+            + "{\"symbol\":\"BTCUSDT\",\"bid1Price\":\"100.1\",\"ask1Price\":\"100.2\",\"ext\":{\"symbol\":\"X\"}},"
+            + "{\"symbol\":\"ETHUSDT\",\"bid1Price\":\"2000\",\"ask1Price\":\"2001\"},"
+            + "{\"symbol\":\"ETHBTC\",\"bid1Price\":\"0.05\",\"ask1Price\":\"0.051\"},"
+            + "{\"symbol\":\"NEWUSDT\",\"bid1Price\":\"\",\"ask1Price\":\"\"}]},\"time\":1760000000000}";
+    private static final String SNAPSHOT_2 = SNAPSHOT_1.replace("\"2001\"", "\"2001.5\"");
+
+    private final Transport transport = Transport.create("test");
+    private final TestClient client = new TestClient(transport, "http://127.0.0.1:9/tickers");
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+    }
+
+    @Test
+    void parserFindsRowsAtAnyDepthAndSkipsForeignOrEmpty() {
+        var symbols = new SymbolCache("MEXC", MarketKind.PERP, s -> s.endsWith("_USDT") ? s.substring(0, s.indexOf('_')) : null);
+        symbols.add(List.of("BTC_USDT", "ETH_USDC"));
+        var parser = new BulkTickerParser("MEXC", "PERP", symbols, "symbol", "bid1", "ask1", "timestamp");
+        String body = "{\"success\":true,\"code\":0,\"data\":[{\"symbol\":\"BTC_USDT\",\"bid1\":65000.5,"
+                + "\"riseFallRates\":{\"r\":0.01,\"zone\":\"UTC+8\"},\"ask1\":65001,\"timestamp\":1760000000123},"
+                + "{\"symbol\":\"ETH_USDC\",\"bid1\":1,\"ask1\":2}]}";
+        var view = new TickView();
+
+        assertEquals(1, parser.parse(body, 42, view, v -> {}));
+        assertEquals("BTC", view.asset());
+        assertEquals("BTC_USDT", view.nativeSymbol());
+        assertEquals(1760000000123L, view.tsMillis());
+        assertEquals(65000.75, view.midDouble(), 1e-9);
+    }
+
+    @Test
+    void emitsOnlyChangesAfterSeed() {
+        var seen = new ArrayList<String>();
+        client.subscribeBookTickerView(List.of("btcusdt", "ETHUSDT", "NEWUSDT"), v -> seen.add(v.nativeSymbol()));
+
+        assertEquals(2, client.onSnapshot(SNAPSHOT_1, 1L));
+        assertEquals(List.of("BTCUSDT", "ETHUSDT"), seen);
+
+        seen.clear();
+        client.onSnapshot(SNAPSHOT_1, 2L);
+        assertEquals(List.of(), seen, "без изменений — тишина");
+
+        client.onSnapshot(SNAPSHOT_2, 3L);
+        assertEquals(List.of("ETHUSDT"), seen);
+    }
+
+    @Test
+    void newSubscriptionIsSeededWithFullBoard() {
+        var first = new ArrayList<String>();
+        var second = new ArrayList<String>();
+        client.subscribeBookTickerView(List.of("BTCUSDT", "ETHUSDT"), v -> first.add(v.nativeSymbol()));
+        client.onSnapshot(SNAPSHOT_1, 1L);
+        first.clear();
+
+        var sub = client.subscribeBookTickerView(List.of("BTCUSDT"), v -> second.add(v.nativeSymbol()));
+        client.onSnapshot(SNAPSHOT_1, 2L);
+        assertEquals(List.of(), first);
+        assertEquals(List.of("BTCUSDT"), second, "засев: вся доска по своим символам");
+
+        sub.close();
+        client.onSnapshot(SNAPSHOT_2, 3L);
+        assertEquals(List.of("ETHUSDT"), first);
+        assertEquals(List.of("BTCUSDT"), second, "закрытая подписка ничего не получает");
+    }
+
+    @Test
+    void symbolsAddedOnTheFlyAreSeededAndRemovedGoQuiet() {
+        var seen = new ArrayList<String>();
+        var sub = client.subscribeBookTickerView(List.of("BTCUSDT"), v -> seen.add(v.nativeSymbol()));
+        client.onSnapshot(SNAPSHOT_1, 1L);
+        seen.clear();
+
+        sub.add(List.of("ethusdt", "BTCUSDT"));
+        client.onSnapshot(SNAPSHOT_1, 2L);
+        assertEquals(List.of("ETHUSDT"), seen, "засев только добавленного символа");
+
+        seen.clear();
+        sub.remove(List.of("ETHUSDT"));
+        client.onSnapshot(SNAPSHOT_2, 3L);
+        assertEquals(List.of(), seen);
+    }
+
+    @Test
+    void rateLimitPausesOnRetryAfterHttpDate() throws IOException {
+        String until = ZonedDateTime.now(ZoneOffset.UTC).plusMinutes(5).format(DateTimeFormatter.RFC_1123_DATE_TIME);
+        var server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/tickers", ex -> {
+            ex.getResponseHeaders().add("Retry-After", until);
+            ex.sendResponseHeaders(429, -1);
+            ex.close();
+        });
+        server.start();
+        try (var limited = new TestClient(transport.retain(), "http://127.0.0.1:" + server.getAddress().getPort() + "/tickers")) {
+            limited.poll();
+            long paused = limited.pausedMillis();
+            assertTrue(paused > 240_000 && paused <= 300_000, "пауза до даты Retry-After, а не backoff: " + paused);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void intervalIsNotShorterThanVenueMinimum() {
+        assertEquals(500, client.intervalMillis());
+    }
+
+    @Test
+    void minIntervalIsShareOfDocumentedLimit() {
+        assertEquals(Duration.ofMillis(800), spec().limit(20, Duration.ofSeconds(2)).build().minInterval(), "MEXC contract");
+        assertEquals(Duration.ofMillis(67), spec().limit(600, Duration.ofSeconds(5)).build().minInterval(), "Bybit");
+        assertEquals(Duration.ofSeconds(1), spec().limit(2400, Duration.ofMinutes(1), 5).build().minInterval(), "Binance по весу");
+        assertThrows(IllegalStateException.class, () -> spec().build());
+        assertThrows(IllegalArgumentException.class, () -> spec().limit(0, Duration.ofSeconds(1)));
+    }
+
+    private static BulkPollSpec.Builder spec() {
+        return spec("http://127.0.0.1:9/tickers");
+    }
+
+    private static BulkPollSpec.Builder spec(String uri) {
+        return BulkPollSpec.builder("BYBIT", MarketKind.SPOT, uri)
+                .assetOf(s -> s.endsWith("USDT") ? s.substring(0, s.length() - 4) : null)
+                .fields("symbol", "bid1Price", "ask1Price", null);
+    }
+
+    /** Такт не запускается: снимки и запросы тест подаёт сам. */
+    private static final class TestClient extends AbstractBulkPollStreamClient {
+        TestClient(Transport transport, String uri) {
+            // 16 запросов/с → доля лимита 500 мс
+            super(transport, spec(uri).limit(16, Duration.ofSeconds(1)).build(), Duration.ofMillis(100), false);
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.suhoi.adapters.common;
+
+import com.suhoi.api.adapter.SymbolCache;
+import com.suhoi.api.adapter.TickViewHandler;
+import com.suhoi.market.MarketKind;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Составная подписка {@link AbstractWsStreamClient} против локального WS-сервера: дозаполнение
+ * живых сессий, новые сессии под остаток, закрытие опустевшей сессии, подписка после
+ * переподключения из текущего набора символов, переподключение молчащего сервера по тишине.
+ */
+class LiveSubscriptionTest {
+
+    private static final int PER_SESSION = 2;
+
+    private LocalWsServer server;
+    private TestClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new LocalWsServer();
+        client = new TestClient("ws://127.0.0.1:" + server.port());
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    void addFillsPartialSessionsBeforeOpeningNewOnes() {
+        var sub = client.subscribeBookTickerView(List.of("a", "b", "c"), v -> {});
+        awaitTrue(() -> server.connections().size() == 2 && server.received().size() == 2);
+        assertEquals(List.of("SUB A,B", "SUB C"), sorted(server.received()));
+
+        sub.add(List.of("D", "E", "a"));
+        awaitTrue(() -> server.connections().size() == 3);
+        var withC = server.connectionWith("SUB C");
+        awaitTrue(() -> withC.messages.size() == 2);
+        assertEquals(List.of("SUB C", "SUB D"), withC.messages, "D — в неполную живую сессию");
+        var third = server.connections().get(2);
+        awaitTrue(() -> !third.messages.isEmpty());
+        assertEquals(List.of("SUB E"), third.messages, "остаток — новой сессией");
+        assertEquals(5, client.symbols().size(), "уже подписанный A не дублируется");
+    }
+
+    @Test
+    void removeUnsubscribesAndClosesEmptiedSession() {
+        var sub = client.subscribeBookTickerView(List.of("A", "B", "C"), v -> {});
+        awaitTrue(() -> server.received().size() == 2);
+        var withAb = server.connectionWith("SUB A,B");
+        var withC = server.connectionWith("SUB C");
+
+        sub.remove(List.of("b", "C", "unknown"));
+        awaitTrue(() -> withC.closed);
+        awaitTrue(() -> withAb.messages.size() == 2);
+        assertEquals(List.of("SUB A,B", "UNSUB B"), withAb.messages);
+        assertFalse(withAb.closed);
+        assertEquals(1, client.symbols().size());
+        assertNull(client.symbols().get("C"), "символ отпущен — кадры по нему пропускаются");
+
+        sub.close();
+        awaitTrue(() -> withAb.closed);
+        assertEquals(0, client.symbols().size());
+    }
+
+    @Test
+    void reconnectResubscribesCurrentSymbols() {
+        var sub = client.subscribeBookTickerView(List.of("A", "B"), v -> {});
+        awaitTrue(() -> server.received().size() == 1);
+        var first = server.connections().get(0);
+        sub.remove(List.of("A"));
+        sub.add(List.of("X"));
+        awaitTrue(() -> first.messages.size() == 3);
+        assertEquals(List.of("SUB A,B", "UNSUB A", "SUB X"), first.messages);
+
+        first.drop();
+        awaitTrue(() -> server.connections().size() == 2);
+        var second = server.connections().get(1);
+        awaitTrue(() -> !second.messages.isEmpty());
+        assertEquals(List.of("SUB B,X"), second.messages);
+    }
+
+    @Test
+    void silentServerTripsStaleTimeoutAndSessionResubscribes() {
+        try (var quiet = new TestClient("ws://127.0.0.1:" + server.port(), Duration.ofSeconds(1))) {
+            long start = System.nanoTime();
+            quiet.subscribeBookTickerView(List.of("A"), v -> {});
+            awaitTrue(() -> server.received().size() == 1);
+            var first = server.connections().get(0);
+
+            // сервер ничего не шлёт: обход раз в секунду видит тишину > 1с и рвёт сокет сам
+            awaitTrue(() -> first.closed);
+            assertTrue(System.nanoTime() - start >= Duration.ofSeconds(1).toNanos(), "не раньше порога тишины");
+            awaitTrue(() -> server.connections().size() == 2);
+            var second = server.connections().get(1);
+            awaitTrue(() -> !second.messages.isEmpty());
+            assertEquals(List.of("SUB A"), second.messages);
+        }
+    }
+
+    private static List<String> sorted(List<String> in) {
+        var out = new ArrayList<>(in);
+        out.sort(null);
+        return out;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("condition not met in 10s");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    /** Клиент без площадки: {@code SUB A,B} / {@code UNSUB A}, по два символа на сессию. */
+    private static final class TestClient extends AbstractWsStreamClient {
+        private final String url;
+        private final Duration staleAfter; // null — без контроля тишины
+
+        TestClient(String url) {
+            this(url, null);
+        }
+
+        TestClient(String url, Duration staleAfter) {
+            super(Transport.create("test"), "test", new ConnectBudget(100, Duration.ofSeconds(1)), PER_SESSION,
+                    new SymbolCache("TEST", MarketKind.SPOT, s -> s));
+            this.url = url;
+            this.staleAfter = staleAfter;
+        }
+
+        @Override
+        protected WsSessionSpec.Builder session(TickViewHandler handler) {
+            var b = WsSessionSpec.builder("test", url).frames(() -> frame -> {});
+            return staleAfter == null ? b : b.staleAfter(staleAfter);
+        }
+
+        @Override
+        protected List<String> subscribeMessages(List<String> symbols) {
+            return List.of("SUB " + String.join(",", symbols));
+        }
+
+        @Override
+        protected List<String> unsubscribeMessages(List<String> symbols) {
+            return List.of("UNSUB " + String.join(",", symbols));
+        }
+    }
+
+    /**
+     * Минимальный WS-сервер (RFC 6455): handshake, текстовые кадры клиента, close. Запоминает
+     * соединения в порядке подключения и текст, пришедший в каждое.
+     */
+    private static final class LocalWsServer implements AutoCloseable {
+        private static final String GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+        private final ServerSocket socket;
+        private final List<Conn> connections = new CopyOnWriteArrayList<>();
+
+        LocalWsServer() throws IOException {
+            socket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            var t = new Thread(this::acceptLoop, "ws-test-accept");
+            t.setDaemon(true);
+            t.start();
+        }
+
+        int port() { return socket.getLocalPort(); }
+
+        List<Conn> connections() { return connections; }
+
+        List<String> received() {
+            var out = new ArrayList<String>();
+            for (Conn c : connections) out.addAll(c.messages);
+            return out;
+        }
+
+        Conn connectionWith(String message) {
+            for (Conn c : connections) if (c.messages.contains(message)) return c;
+            throw new AssertionError("no connection received " + message + ": " + received());
+        }
+
+        @Override
+        public void close() {
+            try {
+                socket.close();
+            } catch (IOException ignore) { }
+            connections.forEach(Conn::drop);
+        }
+
+        private void acceptLoop() {
+            while (!socket.isClosed()) {
+                try {
+                    var c = new Conn(socket.accept());
+                    var t = new Thread(c::serve, "ws-test-conn");
+                    t.setDaemon(true);
+                    t.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        final class Conn {
+            final List<String> messages = new CopyOnWriteArrayList<>();
+            volatile boolean closed;
+            private final Socket s;
+
+            Conn(Socket s) {
+                this.s = s;
+            }
+
+            /** Обрыв со стороны сервера, без close-кадра. */
+            void drop() {
+                try {
+                    s.close();
+                } catch (IOException ignore) { }
+            }
+
+            void serve() {
+                try (s) {
+                    var in = new DataInputStream(s.getInputStream());
+                    var out = s.getOutputStream();
+                    handshake(in, out);
+                    connections.add(this);
+                    while (true) {
+                        int b0 = in.readUnsignedByte();
+                        int b1 = in.readUnsignedByte();
+                        long len = b1 & 0x7F;
+                        if (len == 126) len = in.readUnsignedShort();
+                        else if (len == 127) len = in.readLong();
+                        byte[] mask = new byte[4];
+                        if ((b1 & 0x80) != 0) in.readFully(mask);
+                        byte[] payload = new byte[(int) len];
+                        in.readFully(payload);
+                        for (int i = 0; i < payload.length; i++) payload[i] ^= mask[i & 3];
+                        int opcode = b0 & 0x0F;
+                        if (opcode == 0x1) {
+                            messages.add(new String(payload, StandardCharsets.UTF_8));
+                        } else if (opcode == 0x8) {
+                            out.write(new byte[]{(byte) 0x88, 0});
+                            out.flush();
+                            return;
+                        }
+                    }
+                } catch (IOException ignore) {
+                    // обрыв
+                } finally {
+                    closed = true;
+                }
+            }
+
+            private static void handshake(InputStream in, OutputStream out) throws IOException {
+                String key = null;
+                for (String line; !(line = readLine(in)).isEmpty(); ) {
+                    if (line.toLowerCase(Locale.ROOT).startsWith("sec-websocket-key:")) key = line.substring(18).trim();
+                }
+                if (key == null) throw new IOException("not a websocket upgrade");
+                String accept;
+                try {
+                    accept = Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-1")
+                            .digest((key + GUID).getBytes(StandardCharsets.US_ASCII)));
+                } catch (Exception e) {
+                    throw new IOException(e);
+                }
+                out.write(("HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\nConnection: Upgrade\r\n"
+                        + "Sec-WebSocket-Accept: " + accept + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+            }
+
+            private static String readLine(InputStream in) throws IOException {
+                var sb = new StringBuilder();
+                for (int c; (c = in.read()) != '\n'; ) {
+                    if (c < 0) throw new IOException("eof in handshake");
+                    if (c != '\r') sb.append((char) c);
+                }
+                return sb.toString();
+            }
+        }
+    }
+}
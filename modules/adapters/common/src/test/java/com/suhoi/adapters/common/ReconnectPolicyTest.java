@@ -0,0 +1,129 @@
+package com.suhoi.adapters.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link Backoff}, {@link ConnectBudget} и {@link RetryAfter}: границы задержки, разнесение попыток,
+ * пауза по ответу площадки; реконнект {@link WsSession} на сервер, рвущий каждое подключение.
+ */
+class ReconnectPolicyTest {
+
+    @Test
+    void backoffGrowsWithJitterAndIsCapped() {
+        var b = new Backoff(Duration.ofMillis(100), Duration.ofSeconds(5));
+        for (int i = 0; i < 1000; i++) {
+            long d0 = b.delayMillis(0);
+            assertTrue(d0 >= 50 && d0 <= 100, "attempt 0: " + d0);
+            long d3 = b.delayMillis(3);
+            assertTrue(d3 >= 400 && d3 <= 800, "attempt 3: " + d3);
+            long dMax = b.delayMillis(1_000);
+            assertTrue(dMax >= 2_500 && dMax <= 5_000, "cap: " + dMax);
+        }
+    }
+
+    @Test
+    void budgetAllowsBurstThenSpacesAttempts() {
+        long s = 1_000_000_000L;
+        var budget = new ConnectBudget(3, Duration.ofSeconds(3)); // 3 попытки, далее раз в секунду
+        long t0 = 42 * s;
+
+        assertEquals(t0, budget.reserve(t0));
+        assertEquals(t0, budget.reserve(t0));
+        assertEquals(t0, budget.reserve(t0));
+        assertEquals(t0 + s, budget.reserve(t0));
+        assertEquals(t0 + 2 * s, budget.reserve(t0));
+    }
+
+    @Test
+    void budgetRefillsAfterIdle() {
+        long s = 1_000_000_000L;
+        var budget = new ConnectBudget(2, Duration.ofSeconds(2));
+        long t0 = 0;
+        budget.reserve(t0);
+        budget.reserve(t0);
+        assertEquals(t0 + s, budget.reserve(t0));
+
+        long later = t0 + 60 * s;
+        assertEquals(later, budget.reserve(later));
+        assertEquals(later, budget.reserve(later));
+    }
+
+    @Test
+    void retryAfterAcceptsSecondsAndHttpDate() {
+        long now = 1_760_000_000_000L; // 2025-10-09T08:53:20Z
+        assertEquals(120_000, RetryAfter.millis("120", now));
+        assertEquals(0, RetryAfter.millis(" 0 ", now));
+        assertEquals(40_000, RetryAfter.millis("Thu, 9 Oct 2025 08:54:00 GMT", now));
+        assertEquals(0, RetryAfter.millis("Thu, 9 Oct 2025 08:00:00 GMT", now), "дата в прошлом — без паузы");
+        assertEquals(-1, RetryAfter.millis("soon", now));
+        assertEquals(-1, RetryAfter.millis("-5", now));
+        assertEquals(-1, RetryAfter.millis("", now));
+        assertTrue(RetryAfter.millis("99999999999999999999", now) > 0, "переполнение не даёт отрицательной паузы");
+    }
+
+    @Test
+    void failedConnectsWaitOutBackoffAndBudget() throws Exception {
+        var accepted = new CopyOnWriteArrayList<Long>();
+        long opened;
+        try (var server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+             var transport = Transport.create("test")) {
+            var t = new Thread(() -> {
+                while (!server.isClosed()) {
+                    try (var s = server.accept()) {
+                        accepted.add(System.nanoTime());
+                        // отказ в handshake ответом, а не обрывом: обрыв HttpClient повторяет сам
+                        var in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.US_ASCII));
+                        for (String line; (line = in.readLine()) != null && !line.isEmpty(); ) { }
+                        s.getOutputStream().write("HTTP/1.1 400 Bad Request\r\nContent-Length: 0\r\nConnection: close\r\n\r\n"
+                                .getBytes(StandardCharsets.US_ASCII));
+                    } catch (IOException e) {
+                        return;
+                    }
+                }
+            }, "reconnect-test-accept");
+            t.setDaemon(true);
+            t.start();
+
+            // backoff 100..200 мс на первой ошибке, 200..400 дальше (≤ 1с на три ошибки);
+            // бюджет — всплеск 2, затем раз в 2с: третья и четвёртая попытки ждут уже его
+            var backoff = new Backoff(Duration.ofMillis(200), Duration.ofMillis(400));
+            var budget = new ConnectBudget(2, Duration.ofSeconds(4));
+            try (var manager = new WsSessionManager("test", transport, budget, backoff)) {
+                opened = System.nanoTime();
+                manager.open(WsSessionSpec.builder("test", "ws://127.0.0.1:" + server.getLocalPort())
+                        .frames(() -> frame -> { })
+                        .build());
+                long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+                while (accepted.size() < 4 && System.nanoTime() < deadline) Thread.sleep(10);
+            }
+        }
+        assertTrue(accepted.size() >= 4, "попытки: " + accepted.size());
+        List<Long> at = accepted.subList(0, 4);
+        long ms = 1_000_000L;
+        // backoff — от провала предыдущей попытки (после её accept); бюджет — от первой резервации (не раньше open)
+        assertTrue(at.get(1) - at.get(0) >= 100 * ms, "вторая ждёт backoff: " + (at.get(1) - at.get(0)) / ms);
+        assertTrue(at.get(2) - opened >= 2_000 * ms, "третья ждёт бюджет: " + (at.get(2) - opened) / ms);
+        assertTrue(at.get(3) - opened >= 4_000 * ms, "четвёртая ждёт бюджет: " + (at.get(3) - opened) / ms);
+    }
+
+    @Test
+    void sharedBudgetIsPerVenue() {
+        var a = ConnectBudget.shared("TEST-VENUE", 5, Duration.ofMinutes(1));
+        var b = ConnectBudget.shared("TEST-VENUE", 99, Duration.ofSeconds(1));
+        assertSame(a, b);
+        assertEquals(5, b.permits());
+        assertNotSame(a, ConnectBudget.shared("OTHER-VENUE", 5, Duration.ofMinutes(1)));
+    }
+}
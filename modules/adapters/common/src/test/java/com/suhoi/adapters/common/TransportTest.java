@@ -0,0 +1,142 @@
+package com.suhoi.adapters.common;
+
+import com.suhoi.api.adapter.SymbolCache;
+import com.suhoi.api.adapter.TickViewHandler;
+import com.suhoi.api.adapter.VenueListing;
+import com.suhoi.market.MarketKind;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link Transport}: один клиент на хост, счётчик ссылок, пересоздание общего контекста.
+ */
+class TransportTest {
+
+    @Test
+    void oneHttp2ClientPerHost() {
+        try (var t = Transport.create("test")) {
+            HttpClient rest = t.http(URI.create("https://api.binance.com/api/v3/exchangeInfo"));
+            assertSame(rest, t.http(URI.create("wss://API.binance.com/ws")));
+            assertNotSame(rest, t.http(URI.create("https://fapi.binance.com/fapi/v1/exchangeInfo")));
+            assertEquals(HttpClient.Version.HTTP_2, rest.version());
+        }
+    }
+
+    @Test
+    void lastReleaseShutsDown() {
+        var t = Transport.create("test");
+        t.retain();
+        t.close();
+        assertFalse(t.isClosed());
+        assertFalse(t.scheduler().isShutdown());
+
+        t.close();
+        assertTrue(t.isClosed());
+        assertTrue(t.scheduler().isShutdown());
+        assertTrue(t.blocking().isShutdown());
+        assertThrows(IllegalStateException.class, t::retain);
+        assertThrows(IllegalStateException.class, () -> t.http(URI.create("https://api.gateio.ws")));
+
+        t.close(); // лишний close безопасен
+        assertTrue(t.isClosed());
+    }
+
+    @Test
+    void sharedIsReusedWhileHeldAndRecreatedAfterRelease() {
+        var a = Transport.shared();
+        var b = Transport.shared();
+        assertSame(a, b);
+        a.close();
+        assertFalse(b.isClosed());
+        b.close();
+        assertTrue(b.isClosed());
+
+        var c = Transport.shared();
+        try {
+            assertNotSame(b, c);
+            assertFalse(c.isClosed());
+        } finally {
+            c.close();
+        }
+    }
+
+    @Test
+    void defaultDiscoveryClientReleasesSharedOnClose() {
+        var client = new TestDiscovery();
+        Transport shared = client.transport();
+        assertSame(shared, Transport.shared(), "клиент держит общий контекст");
+        shared.close(); // ссылка теста
+
+        assertFalse(shared.isClosed());
+        client.close();
+        client.close();
+        assertTrue(shared.isClosed());
+        assertTrue(shared.scheduler().isShutdown());
+        assertTrue(shared.blocking().isShutdown());
+    }
+
+    @Test
+    void discoveryClientOnCallersTransportDoesNotReleaseIt() {
+        try (var t = Transport.create("test")) {
+            new TestDiscovery(t).close();
+            assertFalse(t.isClosed());
+        }
+    }
+
+    @Test
+    void discoveryClientRejectsNullTransport() {
+        assertThrows(NullPointerException.class, () -> new TestDiscovery(null));
+    }
+
+    @Test
+    void streamClientReleasesItsReferenceOnce() {
+        var t = Transport.create("test");
+        var client = new AbstractWsStreamClient(t.retain(), "test", new ConnectBudget(1, Duration.ofSeconds(1)), 10,
+                new SymbolCache("TEST", MarketKind.SPOT, s -> s)) {
+            @Override
+            protected WsSessionSpec.Builder session(TickViewHandler handler) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            protected List<String> subscribeMessages(List<String> symbols) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            protected List<String> unsubscribeMessages(List<String> symbols) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        client.close();
+        client.close();
+        assertFalse(t.isClosed());
+        t.close();
+        assertTrue(t.isClosed());
+    }
+
+    private static final class TestDiscovery extends AbstractDiscoveryClient {
+        TestDiscovery() {
+        }
+
+        TestDiscovery(Transport transport) {
+            super(transport);
+        }
+
+        @Override
+        public List<VenueListing> listSpotUsdt() {
+            return List.of();
+        }
+
+        @Override
+        public List<VenueListing> listPerpUsdt() {
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.suhoi.adapters.common;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Поведение соединения {@link WsSession} на поддельном WebSocket (без сети):
+ * склейка фрагментов, пачки спроса, подписка при открытии, обрыв по тишине.
+ */
+class WsSessionTest {
+
+    private final Transport transport = Transport.create("test");
+    private final WsSessionManager manager =
+            new WsSessionManager("test", transport, new ConnectBudget(10, Duration.ofSeconds(1)));
+
+    @AfterEach
+    void tearDown() {
+        manager.close();
+        transport.close();
+    }
+
+    @Test
+    void wholeFrameIsPassedAsIsAndFragmentsAreJoined() {
+        var frames = new ArrayList<CharSequence>();
+        var texts = new ArrayList<String>();
+        var c = connection(List.of(), frame -> { frames.add(frame); texts.add(frame.toString()); });
+        var ws = new FakeWebSocket();
+        c.onOpen(ws);
+
+        String whole = "{\"a\":1}";
+        c.onText(ws, whole, true);
+        c.onText(ws, "{\"b\":", false);
+        c.onText(ws, "[1,", false);
+        c.onText(ws, "2]}", true);
+        c.onText(ws, "{\"c\":3}", true);
+
+        assertEquals(List.of("{\"a\":1}", "{\"b\":[1,2]}", "{\"c\":3}"), texts);
+        assertSame(whole, frames.get(0), "целый кадр отдаётся без копии");
+    }
+
+    @Test
+    void binaryFragmentsAreJoined() {
+        var got = new ArrayList<String>();
+        FrameHandler h = new FrameHandler() {
+            @Override public void onText(CharSequence frame) { }
+            @Override public void onBinary(ByteBuffer frame) {
+                got.add(StandardCharsets.US_ASCII.decode(frame).toString());
+            }
+        };
+        var c = connection(List.of(), h);
+        var ws = new FakeWebSocket();
+        c.onOpen(ws);
+
+        c.onBinary(ws, ascii("abc"), false);
+        c.onBinary(ws, ascii("def"), true);
+        c.onBinary(ws, ascii("xyz"), true);
+
+        assertEquals(List.of("abcdef", "xyz"), got);
+    }
+
+    @Test
+    void demandIsRequestedInBatches() {
+        var c = connection(List.of(), frame -> { });
+        var ws = new FakeWebSocket();
+        c.onOpen(ws);
+        assertEquals(List.of((long) WsSession.DEMAND), ws.requests);
+
+        for (int i = 0; i < WsSession.DEMAND * 2; i++) c.onText(ws, "{}", true);
+
+        long total = ws.requests.stream().mapToLong(Long::longValue).sum();
+        assertTrue(ws.requests.size() <= 5, "request(n) пачками, а не на каждый кадр: " + ws.requests);
+        assertTrue(total >= WsSession.DEMAND * 2L, "спрос не должен иссякать: " + ws.requests);
+    }
+
+    @Test
+    void subscribeMessagesAreSentInOrderOnOpen() {
+        var c = connection(List.of("sub-1", "sub-2", "sub-3"), frame -> { });
+        var ws = new FakeWebSocket();
+        c.onOpen(ws);
+
+        assertEquals(List.of("sub-1", "sub-2", "sub-3"), ws.sent);
+    }
+
+    @Test
+    void handlerExceptionSkipsFrameOnly() {
+        var texts = new ArrayList<String>();
+        var c = connection(List.of(), frame -> {
+            if (frame.charAt(0) == 'x') throw new IllegalArgumentException("garbage");
+            texts.add(frame.toString());
+        });
+        var ws = new FakeWebSocket();
+        c.onOpen(ws);
+
+        c.onText(ws, "x", true);
+        c.onText(ws, "ok", true);
+
+        assertEquals(List.of("ok"), texts);
+        assertFalse(ws.aborted);
+    }
+
+    @Test
+    void quietConnectionIsAbortedOnlyAfterStaleThreshold() {
+        var spec = WsSessionSpec.builder("test", "wss://example.invalid/ws")
+                .staleAfter(Duration.ofSeconds(5))
+                .frames(() -> frame -> { })
+                .build();
+        var session = new WsSession(manager, spec);
+        var c = session.new Connection(spec.frames().get());
+        var ws = new FakeWebSocket();
+        try {
+            c.onOpen(ws);
+            assertTrue(session.isConnected());
+            long opened = c.lastFrameNanos;
+
+            session.check(opened + Duration.ofSeconds(5).toNanos());
+            assertFalse(ws.aborted, "ровно на пороге — ещё не тишина");
+
+            c.onText(ws, "{}", true);
+            session.check(c.lastFrameNanos + Duration.ofSeconds(4).toNanos());
+            assertFalse(ws.aborted, "кадр сдвигает отсчёт тишины");
+
+            session.check(c.lastFrameNanos + Duration.ofSeconds(6).toNanos());
+            assertTrue(ws.aborted);
+            assertFalse(session.isConnected(), "сокет брошен, реконнект запланирован");
+        } finally {
+            session.close();
+        }
+    }
+
+    private WsSession.Connection connection(List<String> subscribe, FrameHandler handler) {
+        var spec = WsSessionSpec.builder("test", "wss://example.invalid/ws")
+                .subscribe(() -> subscribe)
+                .frames(() -> handler)
+                .build();
+        var session = new WsSession(manager, spec);
+        return session.new Connection(handler);
+    }
+
+    private static ByteBuffer ascii(String s) {
+        return ByteBuffer.wrap(s.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /** Поддельный WebSocket: запоминает request(n) и отправленный текст. */
+    private static final class FakeWebSocket implements WebSocket {
+        final List<Long> requests = new ArrayList<>();
+        final List<String> sent = new ArrayList<>();
+        boolean aborted;
+
+        @Override public CompletableFuture<WebSocket> sendText(CharSequence data, boolean last) {
+            sent.add(data.toString());
+            return CompletableFuture.completedFuture(this);
+        }
+        @Override public CompletableFuture<WebSocket> sendBinary(ByteBuffer data, boolean last) { return CompletableFuture.completedFuture(this); }
+        @Override public CompletableFuture<WebSocket> sendPing(ByteBuffer message) { return CompletableFuture.completedFuture(this); }
+        @Override public CompletableFuture<WebSocket> sendPong(ByteBuffer message) { return CompletableFuture.completedFuture(this); }
+        @Override public CompletableFuture<WebSocket> sendClose(int statusCode, String reason) { return CompletableFuture.completedFuture(this); }
+        @Override public void request(long n) { requests.add(n); }
+        @Override public String getSubprotocol() { return ""; }
+        @Override public boolean isOutputClosed() { return false; }
+        @Override public boolean isInputClosed() { return false; }
+        @Override public void abort() { aborted = true; }
+    }
+}
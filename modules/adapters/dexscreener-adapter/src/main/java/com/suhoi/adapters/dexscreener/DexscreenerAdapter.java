@@ -1,16 +1,32 @@
 package com.suhoi.adapters.dexscreener;
 
+import com.suhoi.adapters.common.Transport;
 import com.suhoi.api.adapter.DiscoveryClient;
 import com.suhoi.api.adapter.ExchangeAdapter;
 import com.suhoi.api.adapter.StreamClient;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * Композит DexScreener: Discovery + PollStream (DEX).
  */
-public final class DexscreenerAdapter implements ExchangeAdapter, AutoCloseable {
+public final class DexscreenerAdapter implements ExchangeAdapter {
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final Transport transport;
+    private final DexscreenerDiscoveryClient discovery;
+    private final DexscreenerPollStreamClient stream;
 
-    private final DexscreenerDiscoveryClient discovery = new DexscreenerDiscoveryClient();
-    private final DexscreenerPollStreamClient stream   = new DexscreenerPollStreamClient();
+    public DexscreenerAdapter() {
+        this(Transport.shared());
+    }
+
+    /** Забирает ссылку на {@code transport} и отпускает её в {@link #close()}; поллеру — своя ссылка. */
+    public DexscreenerAdapter(Transport transport) {
+        this.transport = transport;
+        this.discovery = new DexscreenerDiscoveryClient(transport);
+        this.stream    = new DexscreenerPollStreamClient(transport.retain());
+    }
 
     @Override public String venue() { return "DEXSCREENER"; }
     @Override public DiscoveryClient discovery() { return discovery; }
@@ -18,6 +34,8 @@ public final class DexscreenerAdapter implements ExchangeAdapter, AutoCloseable
     @Override public StreamClient perpStream() { return stream; } // нет перпов, для совместимости вернем тот же поллер
 
     @Override public void close() {
+        if (!closed.compareAndSet(false, true)) return;
         stream.close();
+        transport.close();
     }
 }
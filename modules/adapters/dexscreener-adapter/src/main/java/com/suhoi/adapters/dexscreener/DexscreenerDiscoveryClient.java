@@ -1,16 +1,17 @@
 package com.suhoi.adapters.dexscreener;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.suhoi.api.adapter.DiscoveryClient;
+import com.suhoi.adapters.common.AbstractDiscoveryClient;
+import com.suhoi.adapters.common.Transport;
 import com.suhoi.api.adapter.VenueListing;
 
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static com.suhoi.adapters.dexscreener.DexscreenerJson.MAPPER;
@@ -28,10 +29,11 @@ import static com.suhoi.adapters.dexscreener.DexscreenerJson.MAPPER;
  *  - priceScale эвристикой из priceUsd (кол-во десятичных).<br>
  *<br>
  * Документация:<br>
- *  - Search:  GET https://api.dexscreener.com/latest/dex/search?q=SOL/USDT (RL 300 rpm)<br>
- *  - Pair(s): GET https://api.dexscreener.com/latest/dex/pairs/{chainId}/{pairId}<br>
+ *  - Search:  GET https://api.dexscreener.com/latest/dex/search?q=SOL/USDT (RL 300 rpm, бюджет
+ *    общий с поллером — {@link DexscreenerLimits#requests()})<br>
+ *  - Pair(s): GET https://api.dexscreener.com/latest/dex/pairs/{chainId}/{pairId1},{pairId2},...<br>
  */
-public final class DexscreenerDiscoveryClient implements DiscoveryClient {
+public final class DexscreenerDiscoveryClient extends AbstractDiscoveryClient {
 
     private static final String VENUE = "DEXSCREENER";
     private static final String KIND = "DEX";
@@ -41,15 +43,22 @@ public final class DexscreenerDiscoveryClient implements DiscoveryClient {
     private final double minVol24hUsd    = 20_000.0;
     private final long   minAgeMs        = Duration.ofHours(24).toMillis();
 
-    private final HttpClient http = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(8)).build();
+
+    private static final String API_BASE = "https://api.dexscreener.com";
 
     private final String apiBase;
 
+    /** На общем контексте процесса; ссылку на него отпускает {@link #close()}. */
     public DexscreenerDiscoveryClient() {
-        this("https://api.dexscreener.com");
+        super();
+        this.apiBase = API_BASE;
+    }
+    /** Контекст не забирается: клиент живёт, пока жив его владелец. */
+    public DexscreenerDiscoveryClient(Transport transport) {
+        this(transport, API_BASE);
     }
-    public DexscreenerDiscoveryClient(String apiBase) {
+    public DexscreenerDiscoveryClient(Transport transport, String apiBase) {
+        super(transport);
         this.apiBase = Objects.requireNonNull(apiBase);
     }
 
@@ -74,7 +83,10 @@ public final class DexscreenerDiscoveryClient implements DiscoveryClient {
             var q = baseSymbolUpper + "/USDT";
             var url = apiBase + "/latest/dex/search?q=" + java.net.URLEncoder.encode(q, java.nio.charset.StandardCharsets.UTF_8);
             var req = HttpRequest.newBuilder(URI.create(url)).GET().timeout(Duration.ofSeconds(10)).build();
-            var resp = http.send(req, HttpResponse.BodyHandlers.ofString());
+            // общий с поллером бюджет 300 rpm: ждём своей очереди, а не ловим 429
+            long waitNanos = DexscreenerLimits.requests().reserveNow();
+            if (waitNanos > 0) TimeUnit.NANOSECONDS.sleep(waitNanos);
+            var resp = transport().http(req.uri()).send(req, HttpResponse.BodyHandlers.ofString());
             if (resp.statusCode() / 100 != 2) return List.of();
 
             JsonNode root = MAPPER.readTree(resp.body());
@@ -0,0 +1,20 @@
+package com.suhoi.adapters.dexscreener;
+
+import com.suhoi.adapters.common.ConnectBudget;
+
+import java.time.Duration;
+
+/**
+ * Лимиты REST DexScreener: /latest/dex/pairs и /latest/dex/search — 300 запросов в минуту на IP.
+ * Один бюджет на процесс — и для поллера, и для discovery.
+ */
+final class DexscreenerLimits {
+    static final int REQUESTS_PER_MINUTE = 300;
+
+    private DexscreenerLimits() {}
+
+    /** Общий бюджет запросов DexScreener (GCRA, как у WS-подключений бирж). */
+    static ConnectBudget requests() {
+        return ConnectBudget.shared("DEXSCREENER", REQUESTS_PER_MINUTE, Duration.ofMinutes(1));
+    }
+}
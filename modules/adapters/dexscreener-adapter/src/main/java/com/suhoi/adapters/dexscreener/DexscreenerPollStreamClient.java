@@ -2,130 +2,393 @@ package com.suhoi.adapters.dexscreener;
 
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.suhoi.adapters.common.Backoff;
+import com.suhoi.adapters.common.ConnectBudget;
+import com.suhoi.adapters.common.RetryAfter;
+import com.suhoi.adapters.common.Transport;
 import com.suhoi.api.adapter.StreamClient;
 import com.suhoi.api.adapter.StreamSubscription;
 import com.suhoi.api.adapter.TickHandler;
-import com.suhoi.events.Tick;
+import com.suhoi.api.adapter.TickView;
+import com.suhoi.api.adapter.TickViewHandler;
+import com.suhoi.util.Clocks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.math.BigDecimal;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
-import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.function.Function;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.suhoi.adapters.dexscreener.DexscreenerJson.MAPPER;
 import static com.suhoi.adapters.dexscreener.DexscreenerSymbols.*;
 
 /**
- * "Стрим" для DexScreener через быстрый REST-поллинг. <br>
- * Для каждого nativeSymbol (= chainId:pairAddress) опрашивает:<br>
- *   GET /latest/dex/pairs/{chainId}/{pairId}<br>
- * и формирует Tick (mid = priceUsd; bid=ask=mid; depth=null).<br>
+ * "Стрим" для DexScreener через быстрый REST-поллинг пачками. <br>
+ * Пары (nativeSymbol = chainId:pairAddress) одной сети опрашиваются одним запросом:<br>
+ *   GET /latest/dex/pairs/{chainId}/{pairId1},{pairId2},... (до {@value #MAX_PAIRS_PER_REQUEST} адресов)<br>
+ * и на каждую пару ответа формируется Tick (mid = priceUsd; bid=ask=mid; depth=null).<br>
  *<br>
- * Rate-limit DexScreener: 300 rpm (≈5 rps). По-умолчанию поллим каждые 2с на пул.<br>
+ * Rate-limit DexScreener: 300 rpm (≈5 rps) на IP — все запросы (и поиск discovery) идут через
+ * общий бюджет {@link DexscreenerLimits#requests()}; одновременно в полёте не больше
+ * {@value #MAX_IN_FLIGHT} запросов. На 429 — пауза по Retry-After (секунды или HTTP-дата,
+ * {@link RetryAfter}; иначе backoff).<br>
+ *<br>
+ * Очерёдность — взвешенный round-robin: у пары срок следующего опроса {@code интервал / priority}
+ * (приоритет 1..{@value #MAX_PRIORITY}, по умолчанию 1, см. {@link #priority}); в запрос идёт
+ * самая просроченная пара и добор пар той же сети, чей срок почти настал. При нехватке бюджета
+ * сроки сдвигаются у всех, а доли опросов сохраняются пропорционально приоритету.<br>
+ *<br>
+ * Такт — на общем планировщике {@link Transport}, блокирующий запрос — на виртуальном потоке
+ * контекста. Клиент забирает ссылку на контекст и отпускает её в {@link #close()}.<br>
  */
 public final class DexscreenerPollStreamClient implements StreamClient {
+    private static final Logger log = LoggerFactory.getLogger(DexscreenerPollStreamClient.class);
 
     private static final String VENUE = "DEXSCREENER";
     private static final String KIND  = "DEX";
 
-    private final HttpClient http = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(6)).build();
+    /** Предел адресов в одном запросе /latest/dex/pairs. */
+    static final int MAX_PAIRS_PER_REQUEST = 30;
+    static final int MAX_PRIORITY = 10;
+    private static final int MAX_IN_FLIGHT = 2;
+    private static final long PUMP_MILLIS = 50;
+    private static final Backoff BACKOFF = new Backoff(Duration.ofSeconds(1), Duration.ofMinutes(1));
 
+    private final Transport transport;
     private final String apiBase;
     private final long pollIntervalMs;
+    private final ConnectBudget budget;
+    private final boolean pumping;
 
-    // Пул потоков под опрос (1–2 потока достаточно)
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2, r -> {
-        var t = new Thread(r, "dexscr-poller");
-        t.setDaemon(true); return t;
-    });
+    // состояние опроса — под this
+    private final Map<String, Pair> pairs = new HashMap<>();        // ключ — chainId:pairAddress в нижнем регистре
+    private final Map<String, Integer> priorities = new HashMap<>(); // тот же ключ
+    private final Set<PollSub> subs = new HashSet<>();
+    private ScheduledFuture<?> pump;
+    private int inFlight;
+    private int failures;
+    private long pausedUntilNanos;
 
-    // Активные задачи по символу
-    private final Map<String, ScheduledFuture<?>> tasks = new ConcurrentHashMap<>();
+    private final AtomicBoolean closed = new AtomicBoolean();
 
     public DexscreenerPollStreamClient() {
-        this("https://api.dexscreener.com", 2000L);
+        this(Transport.shared());
+    }
+    public DexscreenerPollStreamClient(Transport transport) {
+        this(transport, "https://api.dexscreener.com", 2000L);
+    }
+    public DexscreenerPollStreamClient(Transport transport, String apiBase, long pollIntervalMs) {
+        this(transport, apiBase, pollIntervalMs, DexscreenerLimits.requests(), true);
     }
-    public DexscreenerPollStreamClient(String apiBase, long pollIntervalMs) {
+    /** {@code pumping = false} — такт не запускается (тесты зовут {@link #nextBatch}/{@link #onResponse} сами). */
+    DexscreenerPollStreamClient(Transport transport, String apiBase, long pollIntervalMs, ConnectBudget budget, boolean pumping) {
+        this.transport = Objects.requireNonNull(transport);
         this.apiBase = Objects.requireNonNull(apiBase);
         this.pollIntervalMs = Math.max(500L, pollIntervalMs); // защита от слишком частого опроса
+        this.budget = Objects.requireNonNull(budget);
+        this.pumping = pumping;
     }
 
     @Override
     public StreamSubscription subscribeBookTicker(Collection<String> nativeSymbols, TickHandler handler) {
+        return subscribeBookTickerView(nativeSymbols, TickViewHandler.copying(handler));
+    }
+
+    @Override
+    public StreamSubscription subscribeBookTickerView(Collection<String> nativeSymbols, TickViewHandler handler) {
         if (nativeSymbols == null || nativeSymbols.isEmpty())
             throw new IllegalArgumentException("symbols empty");
 
-        var subs = new ArrayList<ScheduledFuture<?>>();
+        var sub = new PollSub(Objects.requireNonNull(handler));
+        synchronized (this) {
+            // до регистрации пар: закрытый клиент не должен оставить их в пачках
+            if (closed.get()) throw new IllegalStateException("dexscreener poller closed");
+            sub.add(nativeSymbols);
+            subs.add(sub);
+            if (pump == null && pumping) {
+                pump = transport.scheduler().scheduleWithFixedDelay(this::pump, 0, PUMP_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        }
+        return sub;
+    }
+
+    /**
+     * Приоритет опроса пар: {@code priority} раз чаще базового интервала (1..{@value #MAX_PRIORITY}).
+     * Действует и для пар, на которые подпишутся позже.
+     */
+    public synchronized void priority(Collection<String> nativeSymbols, int priority) {
+        int p = Math.max(1, Math.min(MAX_PRIORITY, priority));
         for (String nativeSymbol : nativeSymbols) {
-            String chain = chainFromNative(nativeSymbol);
-            String pair  = pairFromNative(nativeSymbol);
-            String url   = apiBase + "/latest/dex/pairs/" + chain + "/" + pair;
+            String key = key(nativeSymbol);
+            priorities.put(key, p);
+            Pair pair = pairs.get(key);
+            if (pair != null) pair.priority = p;
+        }
+    }
 
-            // Стартуем опрос
-            ScheduledFuture<?> f = scheduler.scheduleAtFixedRate(() -> pollOne(url, nativeSymbol, handler),
-                    0, pollIntervalMs, TimeUnit.MILLISECONDS);
-            subs.add(f);
-            tasks.put(nativeSymbol, f);
+    /** Такт: если есть просроченные пары и место в полёте — резервирует запрос в бюджете. */
+    private void pump() {
+        Batch batch;
+        long delayNanos;
+        synchronized (this) {
+            long now = Clocks.monotonicNanos();
+            if (inFlight >= MAX_IN_FLIGHT || now < pausedUntilNanos) return;
+            batch = nextBatch(now);
+            if (batch == null) return;
+            inFlight++;
+            delayNanos = budget.reserve(now) - now;
         }
+        try {
+            transport.scheduler().schedule(() -> submit(batch), Math.max(0, delayNanos), TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            done(); // контекст закрыт
+        }
+    }
 
-        return () -> {
-            for (var f : subs) { try { f.cancel(true); } catch (Exception ignore) {} }
-            for (String k : nativeSymbols) tasks.remove(k);
-        };
+    private void submit(Batch batch) {
+        try {
+            transport.blocking().execute(() -> poll(batch));
+        } catch (RejectedExecutionException e) {
+            done(); // контекст закрыт
+        }
+    }
+
+    /**
+     * Следующая пачка: самая просроченная пара и до {@value #MAX_PAIRS_PER_REQUEST} пар её сети,
+     * срок которых настанет в пределах полуинтервала (по возрастанию срока). Выбранным парам
+     * назначается следующий срок.
+     *
+     * @return {@code null} — просроченных пар нет
+     */
+    synchronized Batch nextBatch(long nowNanos) {
+        Pair first = null;
+        for (Pair p : pairs.values()) {
+            if (first == null || p.dueNanos < first.dueNanos) first = p;
+        }
+        if (first == null || first.dueNanos > nowNanos) return null;
+
+        long horizon = nowNanos + TimeUnit.MILLISECONDS.toNanos(pollIntervalMs) / 2;
+        var sameChain = new ArrayList<Pair>();
+        for (Pair p : pairs.values()) {
+            if (p != first && p.chain.equals(first.chain) && p.dueNanos <= horizon) sameChain.add(p);
+        }
+        sameChain.sort(Comparator.comparingLong(p -> p.dueNanos));
+
+        var batch = new ArrayList<Pair>(Math.min(MAX_PAIRS_PER_REQUEST, sameChain.size() + 1));
+        batch.add(first);
+        for (int i = 0; i < sameChain.size() && batch.size() < MAX_PAIRS_PER_REQUEST; i++) batch.add(sameChain.get(i));
+        for (Pair p : batch) {
+            p.dueNanos = nowNanos + TimeUnit.MILLISECONDS.toNanos(pollIntervalMs) / p.priority;
+        }
+        return new Batch(first.chain, List.copyOf(batch));
     }
 
-    private void pollOne(String url, String nativeSymbol, TickHandler handler) {
+    private void poll(Batch batch) {
         try {
-            var req = HttpRequest.newBuilder(URI.create(url)).GET().timeout(Duration.ofSeconds(5)).build();
-            var resp = http.send(req, HttpResponse.BodyHandlers.ofString());
-            if (resp.statusCode() / 100 != 2) return;
+            var req = HttpRequest.newBuilder(URI.create(apiBase + "/latest/dex/pairs/" + batch.chain + "/" + batch.addresses()))
+                    .GET().timeout(Duration.ofSeconds(10)).build();
+            var resp = transport.http(req.uri()).send(req, HttpResponse.BodyHandlers.ofString());
+            int code = resp.statusCode();
+            if (code == 429) {
+                long retryMs = RetryAfter.millis(resp.headers(), Clocks.epochMillis());
+                pause(retryMs > 0 ? retryMs : -1, "HTTP 429");
+                return;
+            }
+            if (code / 100 != 2) {
+                pause(-1, "HTTP " + code);
+                return;
+            }
+            synchronized (this) {
+                failures = 0;
+            }
+            onResponse(resp.body());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // сетевые/парсинг — терпим при поллинге, но не долбим площадку
+            pause(-1, e.toString());
+        } finally {
+            done();
+        }
+    }
 
-            JsonNode root = MAPPER.readTree(resp.body());
-            JsonNode pairs = root.get("pairs");
-            if (pairs == null || !pairs.isArray() || pairs.isEmpty()) return;
+    /**
+     * Разбирает ответ {@code {"pairs":[...]}} и раздаёт тики подписчикам пар.
+     *
+     * @return число тиков
+     */
+    int onResponse(String body) throws Exception {
+        JsonNode arr = MAPPER.readTree(body).get("pairs");
+        if (arr == null || !arr.isArray()) return 0;
 
-            JsonNode p = pairs.get(0);
+        var view = new TickView(); // одна на ответ: ответы обрабатываются параллельно
+        long now = Clocks.coarseMillis();
+        int ticks = 0;
+        for (JsonNode p : arr) {
             String priceUsdStr = p.path("priceUsd").asText(null);
-            if (priceUsdStr == null) return;
+            if (priceUsdStr == null) continue;
+            Pair pair;
+            List<PollSub> targets;
+            synchronized (this) {
+                pair = pairs.get(key(p.path("chainId").asText(""), p.path("pairAddress").asText("")));
+                if (pair == null) continue; // отписались, пока запрос был в полёте
+                targets = List.copyOf(pair.subs);
+            }
 
             String baseSym = p.path("baseToken").path("symbol").asText("");
             long tsMs = p.path("updatedAt").asLong(0L);
-            if (tsMs == 0L) tsMs = System.currentTimeMillis();
-
-            BigDecimal mid = new BigDecimal(priceUsdStr);
-            var ts = Instant.ofEpochMilli(tsMs);
-
-            var tick = new Tick(
-                    ts,
-                    assetFromBaseSymbol(baseSym),
-                    VENUE,
-                    KIND,
-                    mid,             // bid (нет — принимаем mid)
-                    mid,             // ask (нет — принимаем mid)
-                    mid,
-                    null,            // depthUsd50 недоступен
-                    ts,
-                    null,
-                    nativeSymbol
-            );
-            handler.onTick(tick);
-        } catch (Exception ignore) {
-            // сетевые/парсинг — терпим при поллинге
+            if (tsMs == 0L) tsMs = now;
+
+            view.clear()
+                    .market(assetFromBaseSymbol(baseSym), VENUE, KIND, pair.nativeSymbol)
+                    .ts(tsMs)
+                    .mid(priceUsdStr);
+            // bid/ask нет — принимаем mid; depthUsd50 недоступен
+            view.bid(view.midMantissa(), view.midScale()).ask(view.midMantissa(), view.midScale());
+            for (PollSub s : targets) {
+                try {
+                    s.handler.onTick(view);
+                } catch (RuntimeException e) {
+                    log.debug("DexScreener: handler failed on {}: {}", pair.nativeSymbol, e.toString());
+                }
+            }
+            ticks++;
         }
+        return ticks;
+    }
+
+    private synchronized void pause(long millis, String reason) {
+        if (millis < 0) millis = BACKOFF.delayMillis(failures);
+        failures++;
+        pausedUntilNanos = Math.max(pausedUntilNanos, Clocks.monotonicNanos() + TimeUnit.MILLISECONDS.toNanos(millis));
+        log.warn("DexScreener poll: {}, pause {} ms (failures in a row: {})", reason, millis, failures);
+    }
+
+    private synchronized void done() {
+        inFlight--;
     }
 
     @Override
     public void close() {
-        for (var f : tasks.values()) { try { f.cancel(true); } catch (Exception ignore) {} }
-        tasks.clear();
-        scheduler.shutdownNow();
+        if (!closed.compareAndSet(false, true)) return;
+        synchronized (this) {
+            if (pump != null) pump.cancel(false);
+            pump = null;
+            subs.clear();
+            pairs.clear();
+        }
+        transport.close();
     }
-}
 
+    /** Число отслеживаемых пар (всех подписок). */
+    synchronized int pairCount() { return pairs.size(); }
+
+    private static String key(String nativeSymbol) {
+        return key(chainFromNative(nativeSymbol), pairFromNative(nativeSymbol));
+    }
+
+    private static String key(String chainId, String pairAddress) {
+        // EVM-адреса в ответе могут прийти в checksum-регистре
+        return (chainId + ":" + pairAddress).toLowerCase(Locale.ROOT);
+    }
+
+    /** Пара в опросе и её подписчики. */
+    static final class Pair {
+        final String nativeSymbol;
+        final String chain;
+        final String address;
+        final Set<PollSub> subs = new HashSet<>();
+        int priority;
+        long dueNanos;
+
+        Pair(String nativeSymbol, int priority, long dueNanos) {
+            this.nativeSymbol = nativeSymbol;
+            this.chain = chainFromNative(nativeSymbol);
+            this.address = pairFromNative(nativeSymbol);
+            this.priority = priority;
+            this.dueNanos = dueNanos;
+        }
+    }
+
+    /** Запрос: одна сеть, до {@value #MAX_PAIRS_PER_REQUEST} пар. */
+    record Batch(String chain, List<Pair> pairs) {
+        String addresses() {
+            var sb = new StringBuilder(pairs.size() * 48);
+            for (Pair p : pairs) {
+                if (!sb.isEmpty()) sb.append(',');
+                sb.append(p.address);
+            }
+            return sb.toString();
+        }
+
+        List<String> nativeSymbols() {
+            var out = new ArrayList<String>(pairs.size());
+            for (Pair p : pairs) out.add(p.nativeSymbol);
+            return out;
+        }
+    }
+
+    /** Пары одной подписки; символы добавляются и убираются на ходу. */
+    private final class PollSub implements StreamSubscription {
+        private final TickViewHandler handler;
+        private final Set<String> own = new HashSet<>(); // ключи пар, под DexscreenerPollStreamClient.this
+        private boolean closed;
+
+        PollSub(TickViewHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void add(Collection<String> nativeSymbols) {
+            synchronized (DexscreenerPollStreamClient.this) {
+                if (closed) throw new IllegalStateException("subscription closed");
+                long now = Clocks.monotonicNanos();
+                for (String nativeSymbol : nativeSymbols) {
+                    String key = key(nativeSymbol);
+                    if (!own.add(key)) continue;
+                    // новая пара — в опрос сразу (срок «сейчас»)
+                    pairs.computeIfAbsent(key, k -> new Pair(nativeSymbol, priorities.getOrDefault(k, 1), now))
+                            .subs.add(this);
+                }
+            }
+        }
+
+        @Override
+        public void remove(Collection<String> nativeSymbols) {
+            synchronized (DexscreenerPollStreamClient.this) {
+                for (String nativeSymbol : nativeSymbols) {
+                    String key = key(nativeSymbol);
+                    if (!own.remove(key)) continue;
+                    Pair pair = pairs.get(key);
+                    if (pair == null) continue;
+                    pair.subs.remove(this);
+                    if (pair.subs.isEmpty()) pairs.remove(key);
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            synchronized (DexscreenerPollStreamClient.this) {
+                if (closed) return;
+                closed = true;
+                for (String key : own) {
+                    Pair pair = pairs.get(key);
+                    if (pair == null) continue;
+                    pair.subs.remove(this);
+                    if (pair.subs.isEmpty()) pairs.remove(key);
+                }
+                own.clear();
+                subs.remove(this);
+                if (subs.isEmpty() && pump != null) {
+                    pump.cancel(false);
+                    pump = null;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.suhoi.adapters.dexscreener;
+
+import com.suhoi.adapters.common.ConnectBudget;
+import com.suhoi.adapters.common.Transport;
+import com.suhoi.util.Clocks;
+import com.suhoi.util.VirtualTimeSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Пачки по сети, взвешенный round-robin и раздача ответа — без сети и без такта.
+ */
+class DexscreenerBatchingTest {
+
+    private static final long INTERVAL_MS = 2000;
+    private static final long INTERVAL_NS = TimeUnit.MILLISECONDS.toNanos(INTERVAL_MS);
+
+    private final VirtualTimeSource time = new VirtualTimeSource(0L);
+    private final DexscreenerPollStreamClient client = new DexscreenerPollStreamClient(
+            Transport.create("test"), "http://127.0.0.1:9", INTERVAL_MS,
+            new ConnectBudget(300, Duration.ofMinutes(1)), false);
+
+    @BeforeEach
+    void setUp() {
+        Clocks.set(time);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        Clocks.reset();
+    }
+
+    @Test
+    void subscribeOnClosedClientRegistersNothing() {
+        client.close();
+        assertThrows(IllegalStateException.class,
+                () -> client.subscribeBookTickerView(List.of("solana:Pool1"), v -> {}));
+        assertEquals(0, client.pairCount());
+        assertNull(client.nextBatch(0));
+    }
+
+    @Test
+    void pairsAreGroupedByChainUpToApiMaximum() {
+        var symbols = new ArrayList<String>();
+        for (int i = 0; i < 40; i++) symbols.add("solana:Pool" + i);
+        symbols.add("ethereum:0xabc");
+        client.subscribeBookTickerView(symbols, v -> {});
+
+        long now = 0;
+        var first = client.nextBatch(now);
+        assertEquals(DexscreenerPollStreamClient.MAX_PAIRS_PER_REQUEST, first.pairs().size());
+        var second = client.nextBatch(now);
+        var third = client.nextBatch(now);
+        assertNull(client.nextBatch(now), "все пары уже в опросе");
+
+        int solana = 0, ethereum = 0;
+        for (var b : List.of(first, second, third)) {
+            for (String s : b.nativeSymbols()) assertTrue(s.startsWith(b.chain() + ":"), "одна сеть на запрос");
+            if (b.chain().equals("solana")) solana += b.pairs().size(); else ethereum += b.pairs().size();
+        }
+        assertEquals(40, solana);
+        assertEquals(1, ethereum);
+        assertTrue(first.addresses().contains(","), "адреса через запятую");
+    }
+
+    @Test
+    void higherPriorityIsPolledProportionallyMoreOften() {
+        // пары разных сетей, чтобы каждая шла своим запросом; тактов хватает на всех
+        client.subscribeBookTickerView(List.of("solana:Hot", "ethereum:0xcold", "bsc:0xcold2"), v -> {});
+        client.priority(List.of("solana:Hot"), 4);
+
+        Map<String, Integer> polls = new HashMap<>();
+        for (long now = 0; now < 200 * INTERVAL_NS; now += INTERVAL_NS / 8) {
+            var b = client.nextBatch(now);
+            if (b != null) polls.merge(b.chain(), 1, Integer::sum);
+        }
+        assertEquals(4.0, polls.get("solana") / (double) polls.get("ethereum"), 0.2);
+        assertEquals(polls.get("ethereum"), polls.get("bsc"), 1);
+    }
+
+    @Test
+    void responseIsDispatchedByChainAndAddressIgnoringCase() throws Exception {
+        var seen = new ArrayList<String>();
+        var sub = client.subscribeBookTickerView(List.of("ethereum:0xabcdef", "solana:JUPyiw"), v ->
+                seen.add(v.nativeSymbol() + "=" + v.midDouble() + "/" + v.asset()));
+        String body = "{\"schemaVersion\":\"1.0.0\",\"pairs\":["
+                + "{\"chainId\":\"ethereum\",\"pairAddress\":\"0xABCdef\",\"baseToken\":{\"symbol\":\"weth\"},"
+                + "\"priceUsd\":\"2500.5\",\"updatedAt\":1760000000000},"
+                + "{\"chainId\":\"solana\",\"pairAddress\":\"JUPyiw\",\"baseToken\":{\"symbol\":\"JUP\"},\"priceUsd\":\"0.9\"},"
+                + "{\"chainId\":\"bsc\",\"pairAddress\":\"0xother\",\"priceUsd\":\"1\"}]}";
+
+        assertEquals(2, client.onResponse(body));
+        assertEquals(List.of("ethereum:0xabcdef=2500.5/WETH", "solana:JUPyiw=0.9/JUP"), seen);
+
+        seen.clear();
+        sub.remove(List.of("solana:JUPyiw"));
+        assertEquals(1, client.pairCount());
+        assertEquals(1, client.onResponse(body), "отписанная пара из ответа пропускается");
+
+        sub.close();
+        assertEquals(0, client.pairCount());
+    }
+}
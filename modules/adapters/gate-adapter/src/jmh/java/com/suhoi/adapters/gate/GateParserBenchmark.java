@@ -0,0 +1,117 @@
+package com.suhoi.adapters.gate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.suhoi.api.adapter.SymbolCache;
+import com.suhoi.api.adapter.TickView;
+import com.suhoi.api.adapter.TickViewHandler;
+import com.suhoi.market.MarketKind;
+import com.suhoi.util.Clocks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import static com.suhoi.adapters.gate.GateJson.MAPPER;
+
+/**
+ * Разбор кадров Gate {@code spot.book_ticker}: прежний путь ({@code readTree} + {@code path(...)})
+ * против {@link GateBookTickerParser}. Кадры корпуса {@code frames/gate-book_ticker.jsonl}
+ * перебираются по кругу — время указано на один кадр.
+ * Запуск: {@code ./gradlew :modules:adapters:gate-adapter:jmh -Pjmh.includes=GateParserBenchmark}
+ * (для сравнения аллокаций — с {@code -prof gc}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GateParserBenchmark {
+
+    private static final String CHANNEL = "spot.book_ticker";
+
+    private String[] frames;
+    private int cursor;
+    private final TickView view = new TickView();
+    private final Map<String, String> assets = new HashMap<>();
+    private GateBookTickerParser parser;
+    private long acc;
+    private final TickViewHandler sink = v -> acc += v.midMantissa();
+
+    @Setup
+    public void setup() {
+        frames = frames("gate-book_ticker.jsonl");
+        parser = new GateBookTickerParser("GATE", "SPOT",
+                subscribed("GATE", MarketKind.SPOT, GateSymbols::extractBaseOrThrow, frames), CHANNEL);
+    }
+
+    @Benchmark
+    public long treeModel() throws IOException {
+        JsonNode root = MAPPER.readTree(next());
+        String event = root.path("event").asText("");
+        if (!CHANNEL.equals(root.path("channel").asText("")) || !"update".equalsIgnoreCase(event)) return acc;
+        JsonNode result = root.path("result");
+        if (result.isMissingNode()) return acc;
+        String symbol = result.path("s").asText(result.path("currency_pair").asText("")).toUpperCase();
+        if (!symbol.endsWith("_USDT")) return acc;
+        String bStr = result.path("b").asText(result.path("best_bid").asText(null));
+        String aStr = result.path("a").asText(result.path("best_ask").asText(null));
+        if (bStr == null || aStr == null) return acc;
+        view.clear()
+                .market(assets.computeIfAbsent(symbol, GateSymbols::extractBaseOrThrow), "GATE", "SPOT", symbol)
+                .ts(GateBookTickerParser.epochMillis(result.path("t").asLong(Clocks.coarseMillis())))
+                .bid(bStr)
+                .ask(aStr);
+        if (view.completeMid()) sink.onTick(view);
+        return acc;
+    }
+
+    @Benchmark
+    public long streaming() {
+        parser.parse(next(), view, sink);
+        return acc;
+    }
+
+    private String next() {
+        String f = frames[cursor];
+        cursor = cursor + 1 == frames.length ? 0 : cursor + 1;
+        return f;
+    }
+
+    static String[] frames(String name) {
+        try (InputStream in = GateParserBenchmark.class.getResourceAsStream("/frames/" + name)) {
+            if (in == null) throw new IllegalStateException("corpus not found: " + name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toArray(String[]::new);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final Pattern SYMBOL = Pattern.compile("\"(?:s|symbol|instId)\":\"([A-Za-z0-9_]+)\"");
+
+    /** Символы корпуса — как подписка клиента (парсер находит только их). */
+    static SymbolCache subscribed(String venue, MarketKind kind, Function<String, String> assetOf, String[]... corpora) {
+        var found = new LinkedHashSet<String>();
+        var m = SYMBOL.matcher("");
+        for (String[] frames : corpora) {
+            for (String f : frames) {
+                m.reset(f);
+                while (m.find()) found.add(m.group(1));
+            }
+        }
+        var symbols = new SymbolCache(venue, kind, assetOf);
+        symbols.add(found);
+        return symbols;
+    }
+}
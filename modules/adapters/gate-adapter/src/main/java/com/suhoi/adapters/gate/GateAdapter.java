@@ -1,9 +1,12 @@
 package com.suhoi.adapters.gate;
 
+import com.suhoi.adapters.common.Transport;
 import com.suhoi.api.adapter.DiscoveryClient;
 import com.suhoi.api.adapter.ExchangeAdapter;
 import com.suhoi.api.adapter.StreamClient;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * Композит для Gate: discovery + два потоковых клиента (SPOT и PERP).
  * Использование:
@@ -12,10 +15,28 @@ import com.suhoi.api.adapter.StreamClient;
  * ...
  * sub.close(); adapter.close();
  */
-public final class GateAdapter implements ExchangeAdapter, AutoCloseable {
-    private final GateDiscoveryClient discovery = new GateDiscoveryClient();
-    private final GateSpotStreamClient spot = new GateSpotStreamClient();
-    private final GatePerpStreamClient perp = new GatePerpStreamClient();
+public final class GateAdapter implements ExchangeAdapter {
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final Transport transport;
+    private final GateDiscoveryClient discovery;
+    private final GateSpotStreamClient spot;
+    private final GatePerpStreamClient perp;
+    private final GateBulkPollStreamClient spotPoll;
+    private final GateBulkPollStreamClient perpPoll;
+
+    public GateAdapter() {
+        this(Transport.shared());
+    }
+
+    /** Забирает ссылку на {@code transport} и отпускает её в {@link #close()}; потоковым клиентам — свои ссылки. */
+    public GateAdapter(Transport transport) {
+        this.transport = transport;
+        this.discovery = new GateDiscoveryClient(transport);
+        this.spot = new GateSpotStreamClient(transport.retain());
+        this.perp = new GatePerpStreamClient(transport.retain());
+        this.spotPoll = GateBulkPollStreamClient.spot(transport.retain());
+        this.perpPoll = GateBulkPollStreamClient.perp(transport.retain());
+    }
 
     @Override
     public String venue() {
@@ -37,9 +58,23 @@ public final class GateAdapter implements ExchangeAdapter, AutoCloseable {
         return perp;
     }
 
+    @Override
+    public StreamClient spotPollStream() {
+        return spotPoll;
+    }
+
+    @Override
+    public StreamClient perpPollStream() {
+        return perpPoll;
+    }
+
     @Override
     public void close() {
+        if (!closed.compareAndSet(false, true)) return;
         spot.close();
         perp.close();
+        spotPoll.close();
+        perpPoll.close();
+        transport.close();
     }
 }
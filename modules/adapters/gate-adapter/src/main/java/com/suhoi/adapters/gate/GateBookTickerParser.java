@@ -0,0 +1,84 @@
+package com.suhoi.adapters.gate;
+
+import com.suhoi.api.adapter.JsonScanner;
+import com.suhoi.api.adapter.SymbolCache;
+import com.suhoi.api.adapter.TickView;
+import com.suhoi.api.adapter.TickViewHandler;
+import com.suhoi.util.Clocks;
+
+/**
+ * Потоковый разбор кадров Gate WS v4 {@code spot.book_ticker} / {@code futures.book_ticker}:
+ * {"time":...,"channel":"spot.book_ticker","event":"update","result":{"t":...,"s":"BTC_USDT","b":"...","a":"...",...}}.
+ * <p>
+ * Берутся channel/event корня и s (или currency_pair), b/best_bid, a/best_ask, t из result;
+ * у spot и futures поля совпадают. Ответы на подписку ({@code event != update}) пропускаются.
+ * </p>
+ * Один экземпляр на соединение (не потокобезопасен).
+ */
+final class GateBookTickerParser {
+    private final String venue;
+    private final String kind;
+    private final String channel;
+    private final JsonScanner js = new JsonScanner();
+    private final SymbolCache symbols; // общий у соединений клиента
+
+    GateBookTickerParser(String venue, String kind, SymbolCache symbols, String channel) {
+        this.venue = venue;
+        this.kind = kind;
+        this.symbols = symbols;
+        this.channel = channel;
+    }
+
+    /** @return число тиков, отданных в handler */
+    int parse(CharSequence frame, TickView view, TickViewHandler handler) {
+        js.reset(frame);
+        boolean ours = false, update = false;
+        long t = 0;
+        boolean hasT = false;
+        int symOff = -1, symLen = 0, bidOff = -1, bidLen = 0, askOff = -1, askLen = 0;
+        int tok;
+        while ((tok = js.next()) != JsonScanner.EOF) {
+            if (tok != JsonScanner.FIELD) continue;
+            int d = js.depth();
+            if (d == 1) {
+                if (js.is("channel")) {
+                    ours = js.next() == JsonScanner.STRING && js.is(channel);
+                } else if (js.is("event")) {
+                    update = js.next() == JsonScanner.STRING && js.isIgnoreCase("update");
+                }
+            } else if (d == 2) {
+                if (js.is("s") || js.is("currency_pair")) {
+                    if (js.next() == JsonScanner.STRING) { symOff = js.start(); symLen = js.length(); }
+                } else if (js.is("b") || js.is("best_bid")) {
+                    if (scalar()) { bidOff = js.start(); bidLen = js.length(); }
+                } else if (js.is("a") || js.is("best_ask")) {
+                    if (scalar()) { askOff = js.start(); askLen = js.length(); }
+                } else if (js.is("t")) {
+                    if (js.next() == JsonScanner.NUMBER) { t = js.longValue(); hasT = true; }
+                }
+            }
+        }
+        if (!ours || !update || symOff < 0 || bidOff < 0 || askOff < 0) return 0;
+
+        SymbolCache.Entry sym = symbols.get(frame, symOff, symLen);
+        if (sym == null) return 0; // не из подписки
+        view.clear()
+                .market(sym.asset(), venue, kind, sym.symbol())
+                .ts(epochMillis(hasT ? t : Clocks.coarseMillis())) // heartbeat = ts
+                .bid(frame, bidOff, bidLen)
+                .ask(frame, askOff, askLen);
+        if (!view.completeMid()) return 0; // depthUsd50 отсутствует в этом стриме
+        handler.onTick(view);
+        return 1;
+    }
+
+    /** Время Gate: секунды или миллисекунды (по величине) → epoch millis. */
+    static long epochMillis(long t) {
+        return t > 9_999_999_999L ? t : t * 1000;
+    }
+
+    private boolean scalar() {
+        js.next();
+        return js.isScalar() && js.length() > 0;
+    }
+}
@@ -0,0 +1,50 @@
+package com.suhoi.adapters.gate;
+
+import com.suhoi.adapters.common.AbstractBulkPollStreamClient;
+import com.suhoi.adapters.common.BulkPollSpec;
+import com.suhoi.adapters.common.Transport;
+import com.suhoi.market.MarketKind;
+
+import java.time.Duration;
+
+/**
+ * Лучшие bid/ask всех пар Gate одним REST-запросом — long-tail и fast-poll fallback. <br>
+ * SPOT: GET https://api.gateio.ws/api/v4/spot/tickers (currency_pair, highest_bid, lowest_ask) <br>
+ * PERP: GET https://api.gateio.ws/api/v4/futures/usdt/tickers (contract, highest_bid, lowest_ask) <br>
+ * Лимит публичных эндпоинтов — 200 запросов за 10с на эндпоинт: не чаще 400 мс.
+ */
+public final class GateBulkPollStreamClient extends AbstractBulkPollStreamClient {
+    public static final BulkPollSpec SPOT = BulkPollSpec.builder("GATE", MarketKind.SPOT, "https://api.gateio.ws/api/v4/spot/tickers")
+            .assetOf(s -> s.endsWith("_USDT") ? GateSymbols.extractBaseOrThrow(s) : null)
+            .fields("currency_pair", "highest_bid", "lowest_ask", null)
+            .limit(200, Duration.ofSeconds(10))
+            .build();
+
+    public static final BulkPollSpec PERP = BulkPollSpec.builder("GATE", MarketKind.PERP, "https://api.gateio.ws/api/v4/futures/usdt/tickers")
+            .assetOf(s -> s.endsWith("_USDT") ? GateSymbols.extractBaseOrThrow(s) : null)
+            .fields("contract", "highest_bid", "lowest_ask", null)
+            .limit(200, Duration.ofSeconds(10))
+            .build();
+
+    private GateBulkPollStreamClient(Transport transport, BulkPollSpec spec, Duration interval) {
+        super(transport, spec, interval);
+    }
+
+    /** Забирает ссылку на {@code transport}; отпускает в {@link #close()}. */
+    public static GateBulkPollStreamClient spot(Transport transport) {
+        return spot(transport, DEFAULT_INTERVAL);
+    }
+
+    public static GateBulkPollStreamClient spot(Transport transport, Duration interval) {
+        return new GateBulkPollStreamClient(transport, SPOT, interval);
+    }
+
+    /** Забирает ссылку на {@code transport}; отпускает в {@link #close()}. */
+    public static GateBulkPollStreamClient perp(Transport transport) {
+        return perp(transport, DEFAULT_INTERVAL);
+    }
+
+    public static GateBulkPollStreamClient perp(Transport transport, Duration interval) {
+        return new GateBulkPollStreamClient(transport, PERP, interval);
+    }
+}
@@ -1,11 +1,11 @@
 package com.suhoi.adapters.gate;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.suhoi.api.adapter.DiscoveryClient;
+import com.suhoi.adapters.common.AbstractDiscoveryClient;
+import com.suhoi.adapters.common.Transport;
 import com.suhoi.api.adapter.VenueListing;
 
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
@@ -24,21 +24,25 @@ import static com.suhoi.adapters.gate.GateSymbols.decimalsOf;
  *  - В поли полей spot используем: id, base, quote, precision (price), amount_precision (qty), trade_status.<br>
  *  - Для futures шкалы оцениваем эвристически: priceScale из order_price_round (если есть), qtyScale из order_size_round / order_size_min.<br>
  */
-public final class GateDiscoveryClient implements DiscoveryClient {
+public final class GateDiscoveryClient extends AbstractDiscoveryClient {
 
     private static final String VENUE = "GATE";
     private static final String KIND_SPOT = "SPOT";
     private static final String KIND_PERP = "PERP";
 
-    private final HttpClient http = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(10))
-            .build();
 
-    private final String restBase; // https://api.gateio.ws
+    private static final String REST_BASE = "https://api.gateio.ws";
 
-    public GateDiscoveryClient() { this("https://api.gateio.ws"); }
+    private final String restBase;
 
-    public GateDiscoveryClient(String restBase) {
+    /** На общем контексте процесса; ссылку на него отпускает {@link #close()}. */
+    public GateDiscoveryClient() { super(); this.restBase = REST_BASE; }
+
+    /** Контекст не забирается: клиент живёт, пока жив его владелец. */
+    public GateDiscoveryClient(Transport transport) { this(transport, REST_BASE); }
+
+    public GateDiscoveryClient(Transport transport, String restBase) {
+        super(transport);
         this.restBase = Objects.requireNonNull(restBase);
     }
 
@@ -47,7 +51,7 @@ public final class GateDiscoveryClient implements DiscoveryClient {
         String url = restBase + "/api/v4/spot/currency_pairs";
         try {
             var req = HttpRequest.newBuilder(URI.create(url)).GET().timeout(Duration.ofSeconds(15)).build();
-            var resp = http.send(req, HttpResponse.BodyHandlers.ofString());
+            var resp = transport().http(req.uri()).send(req, HttpResponse.BodyHandlers.ofString());
             if (resp.statusCode() / 100 != 2) throw new IllegalStateException("HTTP " + resp.statusCode());
 
             JsonNode arr = MAPPER.readTree(resp.body());
@@ -82,7 +86,7 @@ public final class GateDiscoveryClient implements DiscoveryClient {
         String url = restBase + "/api/v4/futures/usdt/contracts";
         try {
             var req = HttpRequest.newBuilder(URI.create(url)).GET().timeout(Duration.ofSeconds(15)).build();
-            var resp = http.send(req, HttpResponse.BodyHandlers.ofString());
+            var resp = transport().http(req.uri()).send(req, HttpResponse.BodyHandlers.ofString());
             if (resp.statusCode() / 100 != 2) throw new IllegalStateException("HTTP " + resp.statusCode());
 
             JsonNode arr = MAPPER.readTree(resp.body());
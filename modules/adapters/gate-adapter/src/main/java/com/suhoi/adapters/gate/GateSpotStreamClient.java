@@ -1,12 +1,6 @@
 package com.suhoi.adapters.gate;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.suhoi.events.Tick;
-
-import java.math.BigDecimal;
-import java.time.Instant;
-
-import static com.suhoi.adapters.gate.GateSymbols.extractBaseOrThrow;
+import com.suhoi.adapters.common.Transport;
 
 /**
  * Spot WS клиент Gate: канал {@code spot.book_ticker}
@@ -14,35 +8,11 @@ import static com.suhoi.adapters.gate.GateSymbols.extractBaseOrThrow;
  */
 public final class GateSpotStreamClient extends AbstractGateWsClient {
     public GateSpotStreamClient() {
-        super("GATE", "SPOT", "wss://api.gateio.ws/ws/v4/", "spot.book_ticker");
+        this(Transport.shared());
     }
 
-    @Override
-    protected Tick parseTick(JsonNode result, String venue, String kind) {
-        String symbol = result.path("s").asText(result.path("currency_pair").asText("")).toUpperCase();
-        if (!symbol.endsWith("_USDT")) return null;
-
-        String bStr = result.path("b").asText(result.path("best_bid").asText(null));
-        String aStr = result.path("a").asText(result.path("best_ask").asText(null));
-        if (bStr == null || aStr == null) return null;
-
-        var bid = new BigDecimal(bStr);
-        var ask = new BigDecimal(aStr);
-        var mid = bid.add(ask).divide(java.math.BigDecimal.valueOf(2));
-
-        long t = result.path("t").asLong(System.currentTimeMillis());
-        Instant ts = (String.valueOf(t).length() > 10) ? Instant.ofEpochMilli(t) : Instant.ofEpochSecond(t);
-
-        return new com.suhoi.events.Tick(
-                ts,
-                extractBaseOrThrow(symbol), // asset
-                venue,
-                kind,
-                bid, ask, mid,
-                null,           // depthUsd50 отсутствует в этом стриме
-                ts,             // heartbeat = ts
-                null,           // marketId неизвестен адаптеру
-                symbol          // nativeSymbol
-        );
+    /** Забирает ссылку на {@code transport}; отпускает в {@link #close()}. */
+    public GateSpotStreamClient(Transport transport) {
+        super(transport, "GATE", "SPOT", "wss://api.gateio.ws/ws/v4/", "spot.book_ticker");
     }
 }
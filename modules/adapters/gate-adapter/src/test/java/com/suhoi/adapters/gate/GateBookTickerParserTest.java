@@ -0,0 +1,86 @@
+package com.suhoi.adapters.gate;
+
+import com.suhoi.api.adapter.SymbolCache;
+import com.suhoi.api.adapter.TickView;
+import com.suhoi.events.Price;
+import com.suhoi.events.Tick;
+import com.suhoi.market.MarketKind;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Разбор кадров {@code *.book_ticker}: spot и futures формы, время в секундах и миллисекундах,
+ * ответы на подписку, вложенные объекты, пропуски цен.
+ */
+class GateBookTickerParserTest {
+
+    private final SymbolCache symbols = new SymbolCache("GATE", MarketKind.PERP,
+            s -> s.endsWith("_USDT") ? GateSymbols.extractBaseOrThrow(s) : null);
+    private final GateBookTickerParser parser =
+            new GateBookTickerParser("GATE", "PERP", symbols, "futures.book_ticker");
+    private final TickView view = new TickView();
+    private final List<Tick> ticks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        symbols.add(List.of("BTC_USDT", "ETH_USDT"));
+    }
+
+    @Test
+    void futuresUpdateWithMillisTime() {
+        assertEquals(1, parse("{\"time\":1760637683,\"time_ms\":1760637683493,\"channel\":\"futures.book_ticker\","
+                + "\"event\":\"update\",\"result\":{\"t\":1760637683491,\"u\":1,\"s\":\"BTC_USDT\",\"b\":\"67124.2\","
+                + "\"B\":15,\"a\":\"67124.4\",\"A\":7}}"));
+        Tick t = ticks.get(0);
+        assertEquals("BTC", t.asset());
+        assertEquals("BTC_USDT", t.nativeSymbol());
+        assertEquals(Price.of(671_243, 1), t.mid());
+        assertEquals(1_760_637_683_491L, t.ts().toEpochMilli());
+    }
+
+    @Test
+    void spotFieldNamesAndSecondsTime() {
+        var spot = new GateBookTickerParser("GATE", "PERP", symbols, "spot.book_ticker");
+        assertEquals(1, spot.parse("{\"time\":1760637683,\"channel\":\"spot.book_ticker\",\"event\":\"update\","
+                + "\"result\":{\"t\":1760637683,\"currency_pair\":\"eth_usdt\",\"best_bid\":\"3522.63\","
+                + "\"best_ask\":\"3522.66\"}}", view, v -> ticks.add(v.toTick())));
+        assertEquals("ETH_USDT", ticks.get(0).nativeSymbol());
+        assertEquals(1_760_637_683_000L, ticks.get(0).ts().toEpochMilli(), "секунды → миллисекунды");
+    }
+
+    @Test
+    void nestedObjectsInResultAreIgnored() {
+        assertEquals(1, parse("{\"channel\":\"futures.book_ticker\",\"event\":\"update\",\"result\":{\"s\":\"BTC_USDT\","
+                + "\"b\":\"100.0\",\"extra\":{\"s\":\"ETH_USDT\",\"b\":\"1\",\"a\":\"2\"},\"a\":\"100.2\",\"t\":1760637683491}}"));
+        assertEquals("BTC_USDT", ticks.get(0).nativeSymbol());
+        assertEquals(Price.of(1001, 1), ticks.get(0).mid());
+    }
+
+    @Test
+    void acksForeignChannelsAndMissingPricesAreSkipped() {
+        assertEquals(0, parse("{\"time\":1,\"channel\":\"futures.book_ticker\",\"event\":\"subscribe\","
+                + "\"result\":{\"status\":\"success\"}}"));
+        assertEquals(0, parse("{\"channel\":\"spot.book_ticker\",\"event\":\"update\",\"result\":{\"s\":\"BTC_USDT\","
+                + "\"b\":\"1\",\"a\":\"2\"}}"), "канал другого парсера");
+        assertEquals(0, parse("{\"channel\":\"futures.book_ticker\",\"event\":\"update\",\"result\":{\"s\":\"BTC_USDT\","
+                + "\"b\":\"\",\"a\":\"2\"}}"), "пустой bid");
+        assertEquals(0, parse("{\"channel\":\"futures.book_ticker\",\"event\":\"update\",\"result\":{\"s\":\"SOL_USDT\","
+                + "\"b\":\"1\",\"a\":\"2\"}}"), "не из подписки");
+        assertTrue(ticks.isEmpty());
+    }
+
+    @Test
+    void epochMillisBoundary() {
+        assertEquals(9_999_999_999_000L, GateBookTickerParser.epochMillis(9_999_999_999L));
+        assertEquals(10_000_000_000L, GateBookTickerParser.epochMillis(10_000_000_000L));
+    }
+
+    private int parse(String frame) {
+        return parser.parse(frame, view, v -> ticks.add(v.toTick()));
+    }
+}
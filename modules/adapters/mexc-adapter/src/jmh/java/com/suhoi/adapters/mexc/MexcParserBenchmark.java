@@ -0,0 +1,116 @@
+package com.suhoi.adapters.mexc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.suhoi.api.adapter.SymbolCache;
+import com.suhoi.api.adapter.TickView;
+import com.suhoi.api.adapter.TickViewHandler;
+import com.suhoi.market.MarketKind;
+import com.suhoi.util.Clocks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import static com.suhoi.adapters.mexc.MexcJson.MAPPER;
+
+/**
+ * Разбор кадров MEXC Futures {@code push.ticker}: прежний путь ({@code readTree} + {@code path(...)})
+ * против {@link MexcTickerParser}. Кадры корпуса {@code frames/mexc-ticker.jsonl}
+ * (тикеры, pong, rs.sub.ticker) перебираются по кругу — время указано на один кадр.
+ * Запуск: {@code ./gradlew :modules:adapters:mexc-adapter:jmh -Pjmh.includes=MexcParserBenchmark}
+ * (для сравнения аллокаций — с {@code -prof gc}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MexcParserBenchmark {
+
+    private String[] frames;
+    private int cursor;
+    private final TickView view = new TickView();
+    private final Map<String, String> assets = new HashMap<>();
+    private MexcTickerParser parser;
+    private long acc;
+    private final TickViewHandler sink = v -> acc += v.midMantissa();
+
+    @Setup
+    public void setup() {
+        frames = frames("mexc-ticker.jsonl");
+        parser = new MexcTickerParser("MEXC", "PERP",
+                subscribed("MEXC", MarketKind.PERP, MexcSymbols::extractPerpBaseOrThrow, frames));
+    }
+
+    @Benchmark
+    public long treeModel() throws IOException {
+        JsonNode node = MAPPER.readTree(next());
+        if (!"push.ticker".equals(node.path("channel").asText(""))) return acc;
+        String symbol = node.path("symbol").asText(node.path("data").path("symbol").asText(""));
+        JsonNode d = node.get("data");
+        if (d == null) return acc;
+        String bStr = d.path("bid1").asText(null);
+        String aStr = d.path("ask1").asText(null);
+        if (bStr == null || aStr == null || symbol.isEmpty()) return acc;
+        long tsMillis = node.path("ts").asLong(Clocks.coarseMillis());
+        if (tsMillis == 0L) tsMillis = d.path("timestamp").asLong(Clocks.coarseMillis());
+        view.clear()
+                .market(assets.computeIfAbsent(symbol, MexcSymbols::extractPerpBaseOrThrow), "MEXC", "PERP", symbol)
+                .ts(tsMillis)
+                .bid(bStr)
+                .ask(aStr)
+                .completeMid();
+        sink.onTick(view);
+        return acc;
+    }
+
+    @Benchmark
+    public long streaming() {
+        parser.parse(next(), view, sink);
+        return acc;
+    }
+
+    private String next() {
+        String f = frames[cursor];
+        cursor = cursor + 1 == frames.length ? 0 : cursor + 1;
+        return f;
+    }
+
+    static String[] frames(String name) {
+        try (InputStream in = MexcParserBenchmark.class.getResourceAsStream("/frames/" + name)) {
+            if (in == null) throw new IllegalStateException("corpus not found: " + name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toArray(String[]::new);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final Pattern SYMBOL = Pattern.compile("\"(?:s|symbol|instId)\":\"([A-Za-z0-9_]+)\"");
+
+    /** Символы корпуса — как подписка клиента (парсер находит только их). */
+    static SymbolCache subscribed(String venue, MarketKind kind, Function<String, String> assetOf, String[]... corpora) {
+        var found = new LinkedHashSet<String>();
+        var m = SYMBOL.matcher("");
+        for (String[] frames : corpora) {
+            for (String f : frames) {
+                m.reset(f);
+                while (m.find()) found.add(m.group(1));
+            }
+        }
+        var symbols = new SymbolCache(venue, kind, assetOf);
+        symbols.add(found);
+        return symbols;
+    }
+}
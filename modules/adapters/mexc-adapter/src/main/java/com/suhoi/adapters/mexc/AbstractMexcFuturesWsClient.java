@@ -1,139 +1,73 @@
 package com.suhoi.adapters.mexc;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.suhoi.api.adapter.StreamClient;
-import com.suhoi.api.adapter.StreamSubscription;
-import com.suhoi.api.adapter.TickHandler;
-import com.suhoi.events.Tick;
+import com.suhoi.adapters.common.AbstractWsStreamClient;
+import com.suhoi.adapters.common.ConnectBudget;
+import com.suhoi.adapters.common.Transport;
+import com.suhoi.adapters.common.WsSessionManager;
+import com.suhoi.adapters.common.WsSessionSpec;
+import com.suhoi.api.adapter.SymbolCache;
+import com.suhoi.api.adapter.TickView;
+import com.suhoi.api.adapter.TickViewHandler;
+import com.suhoi.market.MarketKind;
 
-import java.math.BigDecimal;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.WebSocket;
-import java.nio.ByteBuffer;
 import java.time.Duration;
-import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.*;
-
-import static com.suhoi.adapters.mexc.MexcJson.MAPPER;
-import static com.suhoi.adapters.mexc.MexcSymbols.extractPerpBaseOrThrow;
 
 /**
  * PERP (USDT-M) WS клиент «ticker» для MEXC Futures.
  *
  * Базовый эндпойнт: wss://contract.mexc.com/edge
- * Подписка на каждый символ отдельным сообщением:
+ * Подписка на каждый символ отдельным сообщением (все символы — одно соединение):
  *   {"method":"sub.ticker","param":{"symbol":"BTC_USDT"}}
+ * Символы добавляются/убираются на живом сокете тем же форматом ({@code unsub.ticker}).
  * Ответ событие: channel: "push.ticker", data: { bid1, ask1, ... }, symbol: "BTC_USDT", ts: <ms>
  *
- * Пинг: {"method":"ping"} — сервер отвечает {"channel":"pong", "data":<ts>}
+ * Пинг: {"method":"ping"} каждые 15с — сервер отвечает {"channel":"pong", "data":<ts>};
+ * тишина дольше 60с — реконнект (сессии ведёт {@link WsSessionManager}, подписка повторяется).
+ * Кадры разбираются потоково ({@link MexcTickerParser}).
  */
-abstract class AbstractMexcFuturesWsClient implements StreamClient {
+abstract class AbstractMexcFuturesWsClient extends AbstractWsStreamClient {
     private static final String VENUE = "MEXC";
     private static final String KIND = "PERP";
 
     private final String wsBase;
-    private final HttpClient http = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(8)).build();
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1, r -> {
-        var t = new Thread(r, "mexc-perp-ws");
-        t.setDaemon(true); return t;
-    });
-
-    private volatile StreamSubscription current;
 
-    protected AbstractMexcFuturesWsClient(String wsBase) {
+    protected AbstractMexcFuturesWsClient(Transport transport, String wsBase) {
+        // лимит частоты подключений MEXC не опубликован — держим консервативный
+        super(transport, "mexc-perp", ConnectBudget.shared(VENUE, 100, Duration.ofMinutes(5)), Integer.MAX_VALUE,
+                new SymbolCache(VENUE, MarketKind.PERP, MexcSymbols::extractPerpBaseOrThrow));
         this.wsBase = Objects.requireNonNull(wsBase);
     }
 
     @Override
-    public StreamSubscription subscribeBookTicker(Collection<String> nativeSymbols, TickHandler handler) {
-        if (nativeSymbols == null || nativeSymbols.isEmpty())
-            throw new IllegalArgumentException("symbols empty");
-
-        String url = wsBase;
-        var listener = new WebSocket.Listener() {
-            @Override public void onOpen(WebSocket ws) {
-                // Подписываемся на каждый контракт
-                for (String s : nativeSymbols) {
-                    String sym = s.toUpperCase(Locale.ROOT); // "BTC_USDT"
-                    String sub = "{\"method\":\"sub.ticker\",\"param\":{\"symbol\":\"" + sym + "\"}}";
-                    ws.sendText(sub, true);
-                }
-                ws.request(1);
-            }
-
-            @Override public CompletionStage<?> onText(WebSocket ws, CharSequence data, boolean last) {
-                try {
-                    JsonNode node = MAPPER.readTree(data.toString());
-                    String channel = node.path("channel").asText("");
-                    if ("push.ticker".equals(channel)) {
-                        String symbol = node.path("symbol").asText(node.path("data").path("symbol").asText(""));
-                        JsonNode d = node.get("data");
-                        if (d != null) {
-                            String bStr = d.path("bid1").asText(null);
-                            String aStr = d.path("ask1").asText(null);
-                            if (bStr != null && aStr != null && !symbol.isEmpty()) {
-                                BigDecimal bid = new BigDecimal(bStr);
-                                BigDecimal ask = new BigDecimal(aStr);
-                                BigDecimal mid = bid.add(ask).divide(BigDecimal.valueOf(2));
-
-                                long tsMillis = node.path("ts").asLong(System.currentTimeMillis());
-                                if (tsMillis == 0L) tsMillis = d.path("timestamp").asLong(System.currentTimeMillis());
-                                Instant ts = Instant.ofEpochMilli(tsMillis);
-
-                                var tick = new Tick(
-                                        ts,
-                                        extractPerpBaseOrThrow(symbol),
-                                        VENUE,
-                                        KIND,
-                                        bid, ask, mid,
-                                        null,
-                                        ts,
-                                        null,
-                                        symbol
-                                );
-                                handler.onTick(tick);
-                            }
-                        }
-                    }
-                } catch (Exception ignore) { }
-                ws.request(1);
-                return null;
-            }
-
-            @Override public CompletionStage<?> onBinary(WebSocket ws, ByteBuffer data, boolean last) {
-                ws.request(1); return null;
-            }
-            @Override public CompletionStage<?> onPing(WebSocket ws, ByteBuffer msg) {
-                ws.sendPong(msg); ws.request(1); return null;
-            }
-            @Override public CompletionStage<?> onClose(WebSocket ws, int status, String reason) { return null; }
-            @Override public void onError(WebSocket ws, Throwable error) { /* при необходимости добавим reconnect */ }
-        };
-
-        var ws = http.newWebSocketBuilder()
-                .connectTimeout(Duration.ofSeconds(10))
-                .buildAsync(URI.create(url), listener)
-                .orTimeout(15, TimeUnit.SECONDS)
-                .join();
+    protected WsSessionSpec.Builder session(TickViewHandler handler) {
+        return WsSessionSpec.builder("mexc-perp", wsBase)
+                .ping("{\"method\":\"ping\"}", Duration.ofSeconds(15))
+                .staleAfter(Duration.ofSeconds(60))
+                .frames(() -> {
+                    // принадлежат соединению: view переиспользуется; символы — общие у клиента
+                    var view = new TickView();
+                    var parser = new MexcTickerParser(VENUE, KIND, symbols());
+                    return frame -> parser.parse(frame, view, handler);
+                });
+    }
 
-        // периодический ping
-        var pingTask = scheduler.scheduleAtFixedRate(() -> {
-            try { ws.sendText("{\"method\":\"ping\"}", true); } catch (Exception ignore) {}
-        }, 15, 15, TimeUnit.SECONDS);
+    @Override
+    protected List<String> subscribeMessages(List<String> symbols) {
+        return methodMessages("sub.ticker", symbols);
+    }
 
-        var sub = new WsSubscriptionWithPing(ws, pingTask);
-        current = sub;
-        return sub;
+    @Override
+    protected List<String> unsubscribeMessages(List<String> symbols) {
+        return methodMessages("unsub.ticker", symbols);
     }
 
-    @Override public void close() {
-        try {
-            if (current != null) current.close();
-        } finally {
-            scheduler.shutdownNow();
+    private static List<String> methodMessages(String method, List<String> symbols) {
+        var messages = new ArrayList<String>(symbols.size());
+        for (String s : symbols) {
+            String sym = s.toUpperCase(Locale.ROOT); // "BTC_USDT"
+            messages.add("{\"method\":\"" + method + "\",\"param\":{\"symbol\":\"" + sym + "\"}}");
         }
+        return List.copyOf(messages);
     }
 }
@@ -1,25 +1,52 @@
 package com.suhoi.adapters.mexc;
 
 
+import com.suhoi.adapters.common.Transport;
 import com.suhoi.api.adapter.DiscoveryClient;
 import com.suhoi.api.adapter.ExchangeAdapter;
 import com.suhoi.api.adapter.StreamClient;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * Композитный адаптер MEXC: discovery + потоковые клиенты (SPOT и PERP).
  */
-public final class MexcAdapter implements ExchangeAdapter, AutoCloseable {
-    private final MexcDiscoveryClient discovery = new MexcDiscoveryClient();
-    private final MexcSpotPbStreamClient spot = new MexcSpotPbStreamClient();
-    private final MexcFuturesStreamClient perp = new MexcFuturesStreamClient();
+public final class MexcAdapter implements ExchangeAdapter {
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final Transport transport;
+    private final MexcDiscoveryClient discovery;
+    private final MexcSpotPbStreamClient spot;
+    private final MexcFuturesStreamClient perp;
+    private final MexcBulkPollStreamClient spotPoll;
+    private final MexcBulkPollStreamClient perpPoll;
+
+    public MexcAdapter() {
+        this(Transport.shared());
+    }
+
+    /** Забирает ссылку на {@code transport} и отпускает её в {@link #close()}; потоковым клиентам — свои ссылки. */
+    public MexcAdapter(Transport transport) {
+        this.transport = transport;
+        this.discovery = new MexcDiscoveryClient(transport);
+        this.spot = new MexcSpotPbStreamClient(transport.retain());
+        this.perp = new MexcFuturesStreamClient(transport.retain());
+        this.spotPoll = MexcBulkPollStreamClient.spot(transport.retain());
+        this.perpPoll = MexcBulkPollStreamClient.perp(transport.retain());
+    }
 
     @Override public String venue() { return "MEXC"; }
     @Override public DiscoveryClient discovery() { return discovery; }
     @Override public StreamClient spotStream() { return spot; }
     @Override public StreamClient perpStream() { return perp; }
+    @Override public StreamClient spotPollStream() { return spotPoll; }
+    @Override public StreamClient perpPollStream() { return perpPoll; }
 
     @Override public void close() {
+        if (!closed.compareAndSet(false, true)) return;
         try { spot.close(); } catch (Exception ignored) {}
         try { perp.close(); } catch (Exception ignored) {}
+        try { spotPoll.close(); } catch (Exception ignored) {}
+        try { perpPoll.close(); } catch (Exception ignored) {}
+        transport.close();
     }
 }
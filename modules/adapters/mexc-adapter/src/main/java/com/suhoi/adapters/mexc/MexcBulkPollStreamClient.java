@@ -0,0 +1,50 @@
+package com.suhoi.adapters.mexc;
+
+import com.suhoi.adapters.common.AbstractBulkPollStreamClient;
+import com.suhoi.adapters.common.BulkPollSpec;
+import com.suhoi.adapters.common.Transport;
+import com.suhoi.market.MarketKind;
+
+import java.time.Duration;
+
+/**
+ * Лучшие bid/ask всех символов MEXC одним REST-запросом — long-tail и fast-poll fallback. <br>
+ * SPOT: GET https://api.mexc.com/api/v3/ticker/bookTicker (BTCUSDT) <br>
+ * PERP: GET https://contract.mexc.com/api/v1/contract/ticker (BTC_USDT; строки в {@code data}: bid1, ask1, timestamp) <br>
+ * Лимиты — 500 запросов за 10с (spot, не чаще 160 мс) и 20 за 2с (contract, не чаще 800 мс).
+ */
+public final class MexcBulkPollStreamClient extends AbstractBulkPollStreamClient {
+    public static final BulkPollSpec SPOT = BulkPollSpec.builder("MEXC", MarketKind.SPOT, "https://api.mexc.com/api/v3/ticker/bookTicker")
+            .assetOf(MexcSymbols::extractSpotBaseOrThrow)
+            .fields("symbol", "bidPrice", "askPrice", null)
+            .limit(500, Duration.ofSeconds(10))
+            .build();
+
+    public static final BulkPollSpec PERP = BulkPollSpec.builder("MEXC", MarketKind.PERP, "https://contract.mexc.com/api/v1/contract/ticker")
+            .assetOf(MexcSymbols::extractPerpBaseOrThrow)
+            .fields("symbol", "bid1", "ask1", "timestamp")
+            .limit(20, Duration.ofSeconds(2))
+            .build();
+
+    private MexcBulkPollStreamClient(Transport transport, BulkPollSpec spec, Duration interval) {
+        super(transport, spec, interval);
+    }
+
+    /** Забирает ссылку на {@code transport}; отпускает в {@link #close()}. */
+    public static MexcBulkPollStreamClient spot(Transport transport) {
+        return spot(transport, DEFAULT_INTERVAL);
+    }
+
+    public static MexcBulkPollStreamClient spot(Transport transport, Duration interval) {
+        return new MexcBulkPollStreamClient(transport, SPOT, interval);
+    }
+
+    /** Забирает ссылку на {@code transport}; отпускает в {@link #close()}. */
+    public static MexcBulkPollStreamClient perp(Transport transport) {
+        return perp(transport, DEFAULT_INTERVAL);
+    }
+
+    public static MexcBulkPollStreamClient perp(Transport transport, Duration interval) {
+        return new MexcBulkPollStreamClient(transport, PERP, interval);
+    }
+}
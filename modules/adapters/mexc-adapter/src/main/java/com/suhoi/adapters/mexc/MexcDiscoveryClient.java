@@ -1,11 +1,11 @@
 package com.suhoi.adapters.mexc;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.suhoi.api.adapter.DiscoveryClient;
+import com.suhoi.adapters.common.AbstractDiscoveryClient;
+import com.suhoi.adapters.common.Transport;
 import com.suhoi.api.adapter.VenueListing;
 
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
@@ -25,23 +25,33 @@ import static com.suhoi.adapters.mexc.MexcJson.MAPPER;
  *  - Spot exchangeInfo: /api-docs/spot-v3/market-data-endpoints → "Exchange Information".
  *  - Futures contract detail: /api-docs/futures/market-endpoints → "Get the contract information".
  */
-public final class MexcDiscoveryClient implements DiscoveryClient {
+public final class MexcDiscoveryClient extends AbstractDiscoveryClient {
 
     private static final String VENUE = "MEXC";
     private static final String KIND_SPOT = "SPOT";
     private static final String KIND_PERP = "PERP";
 
-    private final HttpClient http = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(10)).build();
 
-    private final String spotBase;     // https://api.mexc.com
-    private final String futuresBase;  // https://contract.mexc.com
+    private static final String SPOT_BASE = "https://api.mexc.com";
+    private static final String FUTURES_BASE = "https://contract.mexc.com";
 
+    private final String spotBase;
+    private final String futuresBase;
+
+    /** На общем контексте процесса; ссылку на него отпускает {@link #close()}. */
     public MexcDiscoveryClient() {
-        this("https://api.mexc.com", "https://contract.mexc.com");
+        super();
+        this.spotBase = SPOT_BASE;
+        this.futuresBase = FUTURES_BASE;
+    }
+
+    /** Контекст не забирается: клиент живёт, пока жив его владелец. */
+    public MexcDiscoveryClient(Transport transport) {
+        this(transport, SPOT_BASE, FUTURES_BASE);
     }
 
-    public MexcDiscoveryClient(String spotBase, String futuresBase) {
+    public MexcDiscoveryClient(Transport transport, String spotBase, String futuresBase) {
+        super(transport);
         this.spotBase = Objects.requireNonNull(spotBase);
         this.futuresBase = Objects.requireNonNull(futuresBase);
     }
@@ -51,7 +61,7 @@ public final class MexcDiscoveryClient implements DiscoveryClient {
         String url = spotBase + "/api/v3/exchangeInfo";
         try {
             var req = HttpRequest.newBuilder(URI.create(url)).GET().timeout(Duration.ofSeconds(15)).build();
-            var resp = http.send(req, HttpResponse.BodyHandlers.ofString());
+            var resp = transport().http(req.uri()).send(req, HttpResponse.BodyHandlers.ofString());
             if (resp.statusCode() / 100 != 2) throw new IllegalStateException("HTTP " + resp.statusCode());
 
             JsonNode root = MAPPER.readTree(resp.body());
@@ -90,7 +100,7 @@ public final class MexcDiscoveryClient implements DiscoveryClient {
         String url = futuresBase + "/api/v1/contract/detail";
         try {
             var req = HttpRequest.newBuilder(URI.create(url)).GET().timeout(Duration.ofSeconds(15)).build();
-            var resp = http.send(req, HttpResponse.BodyHandlers.ofString());
+            var resp = transport().http(req.uri()).send(req, HttpResponse.BodyHandlers.ofString());
             if (resp.statusCode() / 100 != 2) throw new IllegalStateException("HTTP " + resp.statusCode());
 
             JsonNode root = MAPPER.readTree(resp.body());
@@ -1,8 +1,15 @@
 package com.suhoi.adapters.mexc;
 
+import com.suhoi.adapters.common.Transport;
+
 /** PERP (USDT-M) WS клиент для MEXC. */
 public final class MexcFuturesStreamClient extends AbstractMexcFuturesWsClient {
     public MexcFuturesStreamClient() {
-        super("wss://contract.mexc.com/edge");
+        this(Transport.shared());
+    }
+
+    /** Забирает ссылку на {@code transport}; отпускает в {@link #close()}. */
+    public MexcFuturesStreamClient(Transport transport) {
+        super(transport, "wss://contract.mexc.com/edge");
     }
 }
@@ -2,36 +2,39 @@ package com.suhoi.adapters.mexc;
 
 import com.mxc.push.common.protobuf.PublicAggreBookTickerV3Api;
 import com.mxc.push.common.protobuf.PushDataV3ApiWrapper;
-import com.suhoi.api.adapter.StreamClient;
-import com.suhoi.api.adapter.StreamSubscription;
-import com.suhoi.api.adapter.TickHandler;
-import com.suhoi.events.Tick;
-
-import java.math.BigDecimal;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.WebSocket;
+import com.suhoi.adapters.common.AbstractWsStreamClient;
+import com.suhoi.adapters.common.ConnectBudget;
+import com.suhoi.adapters.common.FrameHandler;
+import com.suhoi.adapters.common.Transport;
+import com.suhoi.adapters.common.WsSessionManager;
+import com.suhoi.adapters.common.WsSessionSpec;
+import com.suhoi.api.adapter.SymbolCache;
+import com.suhoi.api.adapter.TickView;
+import com.suhoi.api.adapter.TickViewHandler;
+import com.suhoi.market.MarketKind;
+import com.suhoi.util.Clocks;
+
 import java.nio.ByteBuffer;
 import java.time.Duration;
-import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.*;
-import java.util.stream.Collectors;
 
 /**
  * MEXC SPOT (v3) WebSocket клиент, декодирующий protobuf-пуши bookTicker.
  * <p>
  * Важное:
  * - endpoint: wss://wbs-api.mexc.com/ws
- * - подписка текстом: {"method":"SUBSCRIPTION","params":["spot@public.aggre.bookTicker.v3.api.pb@100ms@BTCUSDT", ...]}
+ * - подписка текстом: {"method":"SUBSCRIPTION","params":["spot@public.aggre.bookTicker.v3.api.pb@100ms@BTCUSDT", ...]},
+ *   на живом сокете символы добавляются/убираются так же (UNSUBSCRIPTION)
  * - ответы приходят в BINARY (protobuf), а НЕ в JSON-тексте
  * - для декодирования используются классы, сгенерированные из официальных .proto
+ * - сессии ведёт {@link WsSessionManager}: склейка фрагментов бинарных кадров, реконнект с
+ *   backoff+jitter и повторной подпиской, ping {"method":"PING"} каждые 20с, тишина дольше 60с — реконнект
  *
  * Требуются сгенерённые классы из .proto (см. README в модуле и build.gradle/protobuf).
  * Ниже импорты указаны через FQN в месте вызова parseFrom(...) — чтобы тебе было проще подправить пакет,
  * если у официальных .proto другой java_package.
  */
-public final class MexcSpotPbStreamClient implements StreamClient {
+public final class MexcSpotPbStreamClient extends AbstractWsStreamClient {
 
     private static final String VENUE = "MEXC";
     private static final String KIND  = "SPOT";
@@ -40,138 +43,88 @@ public final class MexcSpotPbStreamClient implements StreamClient {
     // безопасный лимит подписок на одно соединение (в доке рекомендуют ~30)
     private static final int MAX_CHANNELS_PER_WS = 30;
 
-    private final HttpClient http = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(8))
-            .build();
-
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1, r -> {
-        var t = new Thread(r, "mexc-spotpb-ws");
-        t.setDaemon(true);
-        return t;
-    });
+    public MexcSpotPbStreamClient() {
+        this(Transport.shared());
+    }
 
-    private final Set<StreamSubscription> live = ConcurrentHashMap.newKeySet();
+    /** Забирает ссылку на {@code transport}; отпускает в {@link #close()}. */
+    public MexcSpotPbStreamClient(Transport transport) {
+        // лимит частоты подключений MEXC не опубликован — держим консервативный
+        super(transport, "mexc-spot", ConnectBudget.shared(VENUE, 100, Duration.ofMinutes(5)), MAX_CHANNELS_PER_WS,
+                new SymbolCache(VENUE, MarketKind.SPOT, MexcSymbols::extractSpotBaseOrThrow));
+    }
 
     @Override
-    public StreamSubscription subscribeBookTicker(Collection<String> nativeSymbols, TickHandler handler) {
-        if (nativeSymbols == null || nativeSymbols.isEmpty())
-            throw new IllegalArgumentException("symbols empty");
-
-        // Каналы строго верхним регистром
-        List<String> channels = nativeSymbols.stream()
-                .map(sym -> "spot@public.aggre.bookTicker.v3.api.pb@100ms@" + sym.toUpperCase(Locale.ROOT))
-                .collect(Collectors.toList());
-
-        var composite = new CompositeSub();
-        for (var chunk : chunk(channels, MAX_CHANNELS_PER_WS)) {
-            composite.add(openOne(WS_URL, handler, chunk));
-        }
-        live.add(composite);
-        return composite;
+    protected WsSessionSpec.Builder session(TickViewHandler handler) {
+        return WsSessionSpec.builder("mexc-spot", WS_URL)
+                .ping("{\"method\":\"PING\"}", Duration.ofSeconds(20))
+                .staleAfter(Duration.ofSeconds(60))
+                .frames(() -> new PbFrames(symbols(), handler));
     }
 
     @Override
-    public void close() {
-        live.forEach(StreamSubscription::close);
-        live.clear();
-        scheduler.shutdownNow();
+    protected List<String> subscribeMessages(List<String> symbols) {
+        return List.of(channelsMessage("SUBSCRIPTION", symbols));
     }
 
-    private StreamSubscription openOne(String url, TickHandler handler, List<String> channels) {
-        var listener = new WebSocket.Listener() {
-            private ScheduledFuture<?> pingTask;
+    @Override
+    protected List<String> unsubscribeMessages(List<String> symbols) {
+        return List.of(channelsMessage("UNSUBSCRIPTION", symbols));
+    }
 
-            @Override
-            public void onOpen(WebSocket ws) {
-                // Текстовая подписка
-                String sub = "{\"method\":\"SUBSCRIPTION\",\"params\":" + toJsonArray(channels) + "}";
-                ws.sendText(sub, true);
+    private static String channelsMessage(String method, List<String> symbols) {
+        // Каналы строго верхним регистром
+        var channels = new ArrayList<String>(symbols.size());
+        for (var sym : symbols) channels.add("spot@public.aggre.bookTicker.v3.api.pb@100ms@" + sym.toUpperCase(Locale.ROOT));
+        return "{\"method\":\"" + method + "\",\"params\":" + toJsonArray(channels) + "}";
+    }
 
-                // Периодический keepalive
-                pingTask = scheduler.scheduleAtFixedRate(() -> {
-                    try { ws.sendText("{\"method\":\"PING\"}", true); } catch (Exception ignore) {}
-                }, 20, 20, TimeUnit.SECONDS);
+    /** Кадры одного соединения: текст — только ответы SUBSCRIPTION/PING, данные — protobuf. */
+    private static final class PbFrames implements FrameHandler {
+        private final SymbolCache symbols; // общие у клиента
+        private final TickViewHandler handler;
+        private final TickView view = new TickView(); // принадлежит соединению
 
-                ws.request(1);
-            }
+        PbFrames(SymbolCache symbols, TickViewHandler handler) {
+            this.symbols = symbols;
+            this.handler = handler;
+        }
 
-            @Override
-            public CompletionStage<?> onText(WebSocket ws, CharSequence data, boolean last) {
-                // На SPOT-v3 полезные данные идут BINARY-протобафом; текст тут — только SUBSCRIPTION/PING ответы.
-                ws.request(1);
-                return null;
-            }
+        @Override
+        public void onText(CharSequence frame) {
+            // На SPOT-v3 полезные данные идут BINARY-протобафом; текст тут — только SUBSCRIPTION/PING ответы.
+        }
 
-            @Override
-            public CompletionStage<?> onBinary(WebSocket ws, ByteBuffer bb, boolean last) {
-                try {
-                    // Считываем все байты
-                    byte[] bytes = new byte[bb.remaining()];
-                    bb.get(bytes);
-
-                    PushDataV3ApiWrapper wrapper = PushDataV3ApiWrapper.parseFrom(bytes);
-                    String symbol = wrapper.getSymbol();
-                    long sendTs = wrapper.getSendTime();
-                    String bidStr = null;
-                    String askStr = null;
-                    if (wrapper.hasPublicAggreBookTicker()) {
-                        PublicAggreBookTickerV3Api publicAggreBookTicker = wrapper.getPublicAggreBookTicker();
-                        bidStr = publicAggreBookTicker.getBidPrice();
-                        askStr = publicAggreBookTicker.getAskPrice();
-                    }
-                    if (symbol == null || symbol.isEmpty() || bidStr == null || askStr == null) {
-                        ws.request(1);
-                        return null;
-                    }
-
-                    BigDecimal bid = new BigDecimal(bidStr);
-                    BigDecimal ask = new BigDecimal(askStr);
-                    BigDecimal mid = bid.add(ask).divide(BigDecimal.valueOf(2));
-
-                    Instant ts = Instant.ofEpochMilli(sendTs == 0 ? System.currentTimeMillis() : sendTs);
-
-                    var tick = new Tick(
-                            ts,
-                            MexcSymbols.extractSpotBaseOrThrow(symbol.toUpperCase(Locale.ROOT)),
-                            VENUE,
-                            KIND,
-                            bid, ask, mid,
-                            null,       // depthUsd50 нет в этом канале
-                            ts,         // heartbeat
-                            null,       // marketId неизвестен адаптеру
-                            symbol.toUpperCase(Locale.ROOT)
-                    );
-                    handler.onTick(tick);
-                } catch (Exception ignore) {
-                    // В случае несовпадений версий .proto будет исключение parseFrom(...).
-                    // Проверь FQN классов и актуальность .proto из официального репозитория.
+        @Override
+        public void onBinary(ByteBuffer bb) {
+            try {
+                PushDataV3ApiWrapper wrapper = PushDataV3ApiWrapper.parseFrom(bb);
+                String symbol = wrapper.getSymbol();
+                long sendTs = wrapper.getSendTime();
+                String bidStr = null;
+                String askStr = null;
+                if (wrapper.hasPublicAggreBookTicker()) {
+                    PublicAggreBookTickerV3Api publicAggreBookTicker = wrapper.getPublicAggreBookTicker();
+                    bidStr = publicAggreBookTicker.getBidPrice();
+                    askStr = publicAggreBookTicker.getAskPrice();
                 }
-                ws.request(1);
-                return null;
-            }
-
-            @Override public CompletionStage<?> onPing(WebSocket ws, ByteBuffer msg) {
-                ws.sendPong(msg); ws.request(1); return null;
+                if (symbol == null || symbol.isEmpty() || bidStr == null || askStr == null) return;
+
+                SymbolCache.Entry sym = symbols.get(symbol);
+                if (sym == null) return; // не из подписки
+                view.clear()
+                        .market(sym.asset(), VENUE, KIND, sym.symbol())
+                        .ts(sendTs == 0 ? Clocks.coarseMillis() : sendTs) // heartbeat
+                        .bid(bidStr)
+                        .ask(askStr)
+                        .completeMid();
+                // depthUsd50 нет в этом канале, marketId неизвестен адаптеру
+                handler.onTick(view);
+            } catch (Exception ignore) {
+                // В случае несовпадений версий .proto будет исключение parseFrom(...).
+                // Проверь FQN классов и актуальность .proto из официального репозитория.
             }
-            @Override public CompletionStage<?> onClose(WebSocket ws, int status, String reason) {
-                if (pingTask != null) pingTask.cancel(true);
-                // можно добавить auto-reconnect при желании
-                return null;
-            }
-            @Override public void onError(WebSocket ws, Throwable error) {
-                if (pingTask != null) pingTask.cancel(true);
-                // можно добавить auto-reconnect при желании
-            }
-        };
-
-        var ws = http.newWebSocketBuilder()
-                .connectTimeout(Duration.ofSeconds(10))
-                .buildAsync(URI.create(url), listener)
-                .orTimeout(15, TimeUnit.SECONDS)
-                .join();
-
-        // Подписка с пингом уже управляется внутри listener (через ScheduledExecutorService)
-        return new WsSubscriptionWithPing(ws, null);
+        }
     }
 
     private static String toJsonArray(List<String> list) {
@@ -182,21 +135,4 @@ public final class MexcSpotPbStreamClient implements StreamClient {
         }
         return sb.append(']').toString();
     }
-
-    private static <T> List<List<T>> chunk(Collection<T> all, int size) {
-        var it = all.iterator(); var out = new ArrayList<List<T>>();
-        while (it.hasNext()) {
-            var b = new ArrayList<T>(size);
-            for (int i=0; i<size && it.hasNext(); i++) b.add(it.next());
-            out.add(b);
-        }
-        return out;
-    }
-
-    /** Несколько WS-сессий как один StreamSubscription. */
-    private static final class CompositeSub implements StreamSubscription {
-        private final List<StreamSubscription> list = new CopyOnWriteArrayList<>();
-        void add(StreamSubscription s) { list.add(s); }
-        @Override public void close() { list.forEach(StreamSubscription::close); list.clear(); }
-    }
 }
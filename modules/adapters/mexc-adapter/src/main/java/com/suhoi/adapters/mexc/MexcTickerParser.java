@@ -0,0 +1,81 @@
+package com.suhoi.adapters.mexc;
+
+import com.suhoi.api.adapter.JsonScanner;
+import com.suhoi.api.adapter.SymbolCache;
+import com.suhoi.api.adapter.TickView;
+import com.suhoi.api.adapter.TickViewHandler;
+import com.suhoi.util.Clocks;
+
+/**
+ * Потоковый разбор кадров MEXC Futures {@code push.ticker}:
+ * {"channel":"push.ticker","data":{"bid1":...,"ask1":...,"symbol":"BTC_USDT","timestamp":...},"symbol":"BTC_USDT","ts":...}.
+ * <p>
+ * Берутся channel/symbol/ts корня и bid1/ask1/symbol/timestamp из data (цены — числа JSON,
+ * разбираются прямо из текста). Pong и ответы на подписку ({@code rs.sub.ticker}) пропускаются.
+ * </p>
+ * Один экземпляр на соединение (не потокобезопасен).
+ */
+final class MexcTickerParser {
+    private final String venue;
+    private final String kind;
+    private final JsonScanner js = new JsonScanner();
+    private final SymbolCache symbols; // общий у соединений клиента
+
+    MexcTickerParser(String venue, String kind, SymbolCache symbols) {
+        this.venue = venue;
+        this.kind = kind;
+        this.symbols = symbols;
+    }
+
+    /** @return число тиков, отданных в handler */
+    int parse(CharSequence frame, TickView view, TickViewHandler handler) {
+        js.reset(frame);
+        boolean ticker = false;
+        long ts = 0, timestamp = 0;
+        int symOff = -1, symLen = 0, dataSymOff = -1, dataSymLen = 0;
+        int bidOff = -1, bidLen = 0, askOff = -1, askLen = 0;
+        int t;
+        while ((t = js.next()) != JsonScanner.EOF) {
+            if (t != JsonScanner.FIELD) continue;
+            int d = js.depth();
+            if (d == 1) {
+                if (js.is("channel")) {
+                    ticker = js.next() == JsonScanner.STRING && js.is("push.ticker");
+                } else if (js.is("symbol")) {
+                    if (js.next() == JsonScanner.STRING && js.length() > 0) { symOff = js.start(); symLen = js.length(); }
+                } else if (js.is("ts")) {
+                    if (js.next() == JsonScanner.NUMBER) ts = js.longValue();
+                }
+            } else if (d == 2) {
+                if (js.is("bid1")) {
+                    if (scalar()) { bidOff = js.start(); bidLen = js.length(); }
+                } else if (js.is("ask1")) {
+                    if (scalar()) { askOff = js.start(); askLen = js.length(); }
+                } else if (js.is("symbol")) {
+                    if (js.next() == JsonScanner.STRING && js.length() > 0) { dataSymOff = js.start(); dataSymLen = js.length(); }
+                } else if (js.is("timestamp")) {
+                    if (js.next() == JsonScanner.NUMBER) timestamp = js.longValue();
+                }
+            }
+        }
+        if (symOff < 0) { symOff = dataSymOff; symLen = dataSymLen; }
+        if (!ticker || symOff < 0 || bidOff < 0 || askOff < 0) return 0;
+
+        SymbolCache.Entry sym = symbols.get(frame, symOff, symLen);
+        if (sym == null) return 0; // не из подписки
+        long tsMillis = ts != 0 ? ts : timestamp != 0 ? timestamp : Clocks.coarseMillis();
+        view.clear()
+                .market(sym.asset(), venue, kind, sym.symbol())
+                .ts(tsMillis)
+                .bid(frame, bidOff, bidLen)
+                .ask(frame, askOff, askLen)
+                .completeMid();
+        handler.onTick(view);
+        return 1;
+    }
+
+    private boolean scalar() {
+        js.next();
+        return js.isScalar() && js.length() > 0;
+    }
+}
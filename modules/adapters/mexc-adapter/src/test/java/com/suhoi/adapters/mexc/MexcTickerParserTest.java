@@ -0,0 +1,81 @@
+package com.suhoi.adapters.mexc;
+
+import com.suhoi.api.adapter.SymbolCache;
+import com.suhoi.api.adapter.TickView;
+import com.suhoi.events.Price;
+import com.suhoi.events.Tick;
+import com.suhoi.market.MarketKind;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Разбор кадров MEXC Futures {@code push.ticker}: цены числами JSON, символ и время из корня или data,
+ * служебные кадры, края чисел.
+ */
+class MexcTickerParserTest {
+
+    private final SymbolCache symbols = new SymbolCache("MEXC", MarketKind.PERP, MexcSymbols::extractPerpBaseOrThrow);
+    private final MexcTickerParser parser = new MexcTickerParser("MEXC", "PERP", symbols);
+    private final TickView view = new TickView();
+    private final List<Tick> ticks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        symbols.add(List.of("BTC_USDT", "ETH_USDT"));
+    }
+
+    @Test
+    void numericPricesFromData() {
+        assertEquals(1, parse("{\"channel\":\"push.ticker\",\"data\":{\"ask1\":67124.4,\"bid1\":67124.2,"
+                + "\"fairPrice\":67124.3,\"riseFallRates\":{\"r\":0.01},\"symbol\":\"BTC_USDT\",\"timestamp\":1760637683490},"
+                + "\"symbol\":\"BTC_USDT\",\"ts\":1760637683493}"));
+        Tick t = ticks.get(0);
+        assertEquals("BTC", t.asset());
+        assertEquals(Price.of(671_242, 1), t.bid());
+        assertEquals(Price.of(671_244, 1), t.ask());
+        assertEquals(1_760_637_683_493L, t.ts().toEpochMilli(), "ts корня важнее timestamp из data");
+    }
+
+    @Test
+    void symbolAndTimeFallBackToData() {
+        assertEquals(1, parse("{\"channel\":\"push.ticker\",\"data\":{\"bid1\":3522.63,\"ask1\":3522.66,"
+                + "\"symbol\":\"ETH_USDT\",\"timestamp\":1760637683490}}"));
+        assertEquals("ETH_USDT", ticks.get(0).nativeSymbol());
+        assertEquals(1_760_637_683_490L, ticks.get(0).ts().toEpochMilli());
+    }
+
+    @Test
+    void serviceFramesAndMissingFieldsAreSkipped() {
+        assertEquals(0, parse("{\"channel\":\"pong\",\"data\":1760637683493}"));
+        assertEquals(0, parse("{\"channel\":\"rs.sub.ticker\",\"data\":\"success\",\"ts\":1}"));
+        assertEquals(0, parse("{\"channel\":\"push.ticker\",\"data\":{\"bid1\":1,\"symbol\":\"BTC_USDT\"}}"), "нет ask");
+        assertEquals(0, parse("{\"channel\":\"push.ticker\",\"data\":{\"bid1\":1,\"ask1\":2},\"symbol\":\"\"}"),
+                "пустой символ");
+        assertEquals(0, parse("{\"channel\":\"push.ticker\",\"data\":{\"bid1\":1,\"ask1\":2,\"symbol\":\"SOL_USDT\"}}"),
+                "не из подписки");
+        assertTrue(ticks.isEmpty());
+    }
+
+    @Test
+    void numericEdgeCases() {
+        assertEquals(1, parse("{\"channel\":\"push.ticker\",\"data\":{\"bid1\":1.2E-5,\"ask1\":0.0000125,"
+                + "\"symbol\":\"BTC_USDT\"}}"));
+        Tick t = ticks.get(0);
+        assertEquals(0, t.bid().compareTo(Price.of(12, 6)), "экспонента в числе JSON");
+        assertEquals(Price.of(1225, 8), t.mid());
+        assertEquals(1, parse("{\"channel\":\"push.ticker\",\"data\":{\"bid1\":67124,\"ask1\":67125,"
+                + "\"symbol\":\"BTC_USDT\"}}"), "целые");
+        assertEquals(Price.of(671_245, 1), ticks.get(1).mid());
+        assertThrows(NumberFormatException.class, () -> parse("{\"channel\":\"push.ticker\",\"data\":{\"bid1\":1e40,"
+                + "\"ask1\":1,\"symbol\":\"BTC_USDT\"}}"));
+    }
+
+    private int parse(String frame) {
+        return parser.parse(frame, view, v -> ticks.add(v.toTick()));
+    }
+}
@@ -1,6 +1,7 @@
 package com.suhoi.apiservice.config;
 
 import com.suhoi.bus.EventBus;
+import com.suhoi.bus.inproc.InProcessEventBus;
 import com.suhoi.bus.nats.NatsEventBus;
 import com.suhoi.bus.nats.NatsEventBusConfig;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,19 +11,28 @@ import org.springframework.context.annotation.Configuration;
 import java.time.Duration;
 
 /**
- * Конфигурация EventBus (NATS) для api-service.
+ * Конфигурация EventBus для api-service.
  * <p>Создаёт singleton-бин {@link EventBus}. Закрывается автоматически при остановке приложения.</p>
+ * <p>{@code bus.type}: {@code nats} (по умолчанию) или {@code in-process} — all-in-one JVM и CI
+ * без брокера ({@link InProcessEventBus}); настройки {@code nats.*} тогда не используются.</p>
  */
 @Configuration
 public class NatsConfig {
 
     @Bean(destroyMethod = "close")
-    public EventBus eventBus(@Value("${nats.url}") String url,
+    public EventBus eventBus(@Value("${bus.type:nats}") String type,
+                             @Value("${nats.url}") String url,
                              @Value("${nats.connectTimeoutMs:3000}") int connectTimeoutMs,
                              @Value("${nats.reconnectWaitMs:500}") int reconnectWaitMs,
                              @Value("${nats.maxReconnects:-1}") int maxReconnects,
                              @Value("${nats.pingIntervalSec:10}") int pingIntervalSec,
                              @Value("${nats.flushOnClose:true}") boolean flushOnClose) {
+        if ("in-process".equalsIgnoreCase(type)) {
+            return new InProcessEventBus();
+        }
+        if (!"nats".equalsIgnoreCase(type)) {
+            throw new IllegalArgumentException("Unknown bus.type: " + type);
+        }
         return new NatsEventBus(
                 NatsEventBusConfig.builder()
                         .server(url)
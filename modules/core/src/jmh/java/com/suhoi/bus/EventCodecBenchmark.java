@@ -0,0 +1,65 @@
+package com.suhoi.bus;
+
+import com.suhoi.events.Price;
+import com.suhoi.events.Tick;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JacksonJsonCodec vs BinaryEventCodec на типичном Tick.
+ * Запуск: {@code ./gradlew :modules:core:jmh -Pjmh.includes=EventCodecBenchmark}
+ * (для сравнения аллокаций — с {@code -prof gc}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EventCodecBenchmark {
+
+    private JacksonJsonCodec json;
+    private BinaryEventCodec binary;
+    private Tick tick;
+    private byte[] jsonBytes;
+    private byte[] binaryBytes;
+
+    @Setup
+    public void setup() {
+        json = new JacksonJsonCodec();
+        binary = new BinaryEventCodec(CodecDictionary.of(List.of("BTC", "ETH", "SOL")));
+        Instant now = Instant.parse("2025-10-16T18:01:23.456789Z");
+        tick = new Tick(now, "BTC", "BINANCE", "PERP",
+                Price.parse("60123.40"), Price.parse("60123.60"), Price.parse("60123.50"),
+                new BigDecimal("48.7"), now, "123", "BTCUSDT");
+        jsonBytes = json.toBytes(tick);
+        binaryBytes = binary.toBytes(tick);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() {
+        return json.toBytes(tick);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return binary.toBytes(tick);
+    }
+
+    @Benchmark
+    public Tick decodeJson() {
+        return json.fromBytes(jsonBytes, Tick.class);
+    }
+
+    @Benchmark
+    public Tick decodeBinary() {
+        return binary.fromBytes(binaryBytes, Tick.class);
+    }
+}
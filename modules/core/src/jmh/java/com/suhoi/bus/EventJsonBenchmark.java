@@ -0,0 +1,133 @@
+package com.suhoi.bus;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.suhoi.events.AlertEvent;
+import com.suhoi.events.FairSnap;
+import com.suhoi.events.Price;
+import com.suhoi.events.Tick;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON событий: прежний путь (общий ObjectMapper на рефлексии, {@code readValue(bytes, type)}
+ * с поиском десериализатора на каждом вызове) против {@link JacksonJsonCodec}
+ * (готовые reader/writer, Blackbird, рукописные сериализаторы).
+ * Запуск: {@code ./gradlew :modules:core:jmh -Pjmh.includes=EventJsonBenchmark}
+ * (для сравнения аллокаций — с {@code -prof gc}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EventJsonBenchmark {
+
+    private ObjectMapper plain;
+    private JacksonJsonCodec codec;
+    private Tick tick;
+    private FairSnap snap;
+    private AlertEvent alert;
+    private byte[] tickBytes;
+    private byte[] snapBytes;
+    private byte[] alertBytes;
+
+    @Setup
+    public void setup() {
+        plain = new ObjectMapper();
+        plain.registerModule(new JavaTimeModule());
+        plain.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        plain.setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
+        codec = new JacksonJsonCodec();
+
+        Instant now = Instant.parse("2025-10-16T18:01:23.456789Z");
+        tick = new Tick(now, "BTC", "BINANCE", "PERP",
+                Price.parse("60123.40"), Price.parse("60123.60"), Price.parse("60123.50"),
+                new BigDecimal("48.7"), now, "123", "BTCUSDT");
+        snap = new FairSnap(Instant.parse("2025-10-16T18:01:24Z"), "BTC", Price.parse("60123.52"), List.of(
+                new FairSnap.Source("101", Price.parse("60123.5"), new BigDecimal("0.62")),
+                new FairSnap.Source("202", Price.parse("60123.6"), new BigDecimal("0.38"))));
+        alert = new AlertEvent(now, "BTC", "101", new BigDecimal("0.0342"),
+                Price.parse("60020.0"), Price.parse("62020.0"), new BigDecimal("-50.0"),
+                new BigDecimal("0.03"), "OPEN");
+        tickBytes = codec.toBytes(tick);
+        snapBytes = codec.toBytes(snap);
+        alertBytes = codec.toBytes(alert);
+    }
+
+    // ---- Tick ----
+
+    @Benchmark
+    public byte[] tickEncodePlain() throws Exception {
+        return plain.writeValueAsBytes(tick);
+    }
+
+    @Benchmark
+    public byte[] tickEncodeCodec() {
+        return codec.toBytes(tick);
+    }
+
+    @Benchmark
+    public Tick tickDecodePlain() throws Exception {
+        return plain.readValue(tickBytes, Tick.class);
+    }
+
+    @Benchmark
+    public Tick tickDecodeCodec() {
+        return codec.fromBytes(tickBytes, Tick.class);
+    }
+
+    // ---- FairSnap ----
+
+    @Benchmark
+    public byte[] snapEncodePlain() throws Exception {
+        return plain.writeValueAsBytes(snap);
+    }
+
+    @Benchmark
+    public byte[] snapEncodeCodec() {
+        return codec.toBytes(snap);
+    }
+
+    @Benchmark
+    public FairSnap snapDecodePlain() throws Exception {
+        return plain.readValue(snapBytes, FairSnap.class);
+    }
+
+    @Benchmark
+    public FairSnap snapDecodeCodec() {
+        return codec.fromBytes(snapBytes, FairSnap.class);
+    }
+
+    // ---- AlertEvent ----
+
+    @Benchmark
+    public byte[] alertEncodePlain() throws Exception {
+        return plain.writeValueAsBytes(alert);
+    }
+
+    @Benchmark
+    public byte[] alertEncodeCodec() {
+        return codec.toBytes(alert);
+    }
+
+    @Benchmark
+    public AlertEvent alertDecodePlain() throws Exception {
+        return plain.readValue(alertBytes, AlertEvent.class);
+    }
+
+    @Benchmark
+    public AlertEvent alertDecodeCodec() {
+        return codec.fromBytes(alertBytes, AlertEvent.class);
+    }
+}
@@ -0,0 +1,42 @@
+package com.suhoi.events;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Путь котировки в адаптере: разбор bid/ask из строки + mid.
+ * BigDecimal (как было) против {@link Price}.
+ * Запуск: {@code ./gradlew :modules:core:jmh -Pjmh.includes=PriceBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PriceBenchmark {
+
+    private final String bid = "60123.40";
+    private final String ask = "60123.60";
+
+    @Benchmark
+    public BigDecimal bigDecimalMid() {
+        BigDecimal b = new BigDecimal(bid);
+        BigDecimal a = new BigDecimal(ask);
+        return b.add(a).divide(BigDecimal.valueOf(2));
+    }
+
+    @Benchmark
+    public Price fixedPointMid() {
+        return Price.mid(Price.parse(bid), Price.parse(ask));
+    }
+
+    @Benchmark
+    public Price fixedPointMidWithScale() {
+        return Price.mid(Price.parse(bid, 2), Price.parse(ask, 2));
+    }
+}
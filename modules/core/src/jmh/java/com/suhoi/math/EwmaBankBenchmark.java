@@ -0,0 +1,78 @@
+package com.suhoi.math;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Обновление bias по тысячам рынков: {@link Ewma} на BigDecimal (объект на рынок) против
+ * {@link EwmaBank}. Результат — нс на одно обновление.
+ * Запуск: {@code ./gradlew :modules:core:jmh -Pjmh.includes=EwmaBankBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EwmaBankBenchmark {
+    private static final int UPDATES = 1024;
+
+    @Param({"4096"})
+    int markets;
+
+    private Ewma[] ewmas;
+    private EwmaBank bank;
+    private int[] marketOf;
+    private double[] xs;
+    private BigDecimal[] xsDecimal;
+    private long ts;
+
+    @Setup
+    public void setup() {
+        var rnd = new SplittableRandom(42);
+        ewmas = new Ewma[markets];
+        for (int i = 0; i < markets; i++) ewmas[i] = new Ewma(new BigDecimal("0.05"), MathContext.DECIMAL64);
+        bank = new EwmaBank(markets, Duration.ofSeconds(60));
+        marketOf = new int[UPDATES];
+        xs = new double[UPDATES];
+        xsDecimal = new BigDecimal[UPDATES];
+        for (int i = 0; i < UPDATES; i++) {
+            marketOf[i] = rnd.nextInt(markets);
+            xs[i] = rnd.nextDouble(-0.002, 0.002); // bias ~ ±20 б.п.
+            xsDecimal[i] = BigDecimal.valueOf(xs[i]);
+        }
+        ts = 1_700_000_000_000L;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(UPDATES)
+    public BigDecimal bigDecimalEwma() {
+        BigDecimal last = null;
+        for (int i = 0; i < UPDATES; i++) last = ewmas[marketOf[i]].update(xsDecimal[i]);
+        return last;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(UPDATES)
+    public double ewmaBank() {
+        double last = 0;
+        long t = ts += 250; // время идёт вперёд: ~4 обновления на мс
+        for (int i = 0; i < UPDATES; i++) last = bank.update(marketOf[i], xs[i], t + (i >> 2));
+        return last;
+    }
+
+    @Benchmark
+    public EwmaBank.Snapshot snapshot() {
+        return bank.snapshot();
+    }
+}
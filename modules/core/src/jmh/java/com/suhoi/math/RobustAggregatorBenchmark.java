@@ -0,0 +1,79 @@
+package com.suhoi.math;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Центр по mids площадок для одного asset: {@link Winsorizer} на BigDecimal (сортировка + среднее)
+ * против {@link RobustAggregator} на double[].
+ * Запуск: {@code ./gradlew :modules:core:jmh -Pjmh.includes=RobustAggregatorBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RobustAggregatorBenchmark {
+
+    @Param({"8", "64"})
+    int venues;
+
+    private double[] mids;
+    private double[] weights;
+    private BigDecimal[] midsDecimal;
+    private final RobustAggregator agg = new RobustAggregator();
+
+    @Setup
+    public void setup() {
+        var rnd = new SplittableRandom(7);
+        mids = new double[venues];
+        weights = new double[venues];
+        midsDecimal = new BigDecimal[venues];
+        for (int i = 0; i < venues; i++) {
+            mids[i] = 60_000 + rnd.nextGaussian() * 15 + (i == 0 ? 900 : 0); // одна площадка «уехала»
+            weights[i] = 1 + rnd.nextInt(50);
+            midsDecimal[i] = BigDecimal.valueOf(mids[i]);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal sortWinsorizeMean() {
+        List<BigDecimal> list = new ArrayList<>(venues);
+        for (BigDecimal m : midsDecimal) list.add(m);
+        Winsorizer.winsorize(list, 0.1, 0.9);
+        BigDecimal sum = BigDecimal.ZERO;
+        for (BigDecimal m : list) sum = sum.add(m);
+        return sum.divide(BigDecimal.valueOf(venues), MathContext.DECIMAL64);
+    }
+
+    @Benchmark
+    public double weightedMedian() {
+        return agg.weightedMedian(mids, weights, venues);
+    }
+
+    @Benchmark
+    public double winsorizedMean() {
+        return agg.winsorizedMean(mids, weights, venues, 0.1);
+    }
+
+    @Benchmark
+    public double trimmedMean() {
+        return agg.trimmedMean(mids, weights, venues, 0.1);
+    }
+
+    @Benchmark
+    public double madMean() {
+        return agg.madMean(mids, weights, venues, 3.0);
+    }
+}
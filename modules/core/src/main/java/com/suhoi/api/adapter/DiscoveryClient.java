@@ -7,7 +7,7 @@ import java.util.List;
  * REST discovery поверх площадки: сбор USDT-спотов и USDT-M перпетуалов.
  * Клиент обязан нормализовать символы к BASE/USDT.
  */
-public interface DiscoveryClient {
+public interface DiscoveryClient extends AutoCloseable {
     /**
      * @return листинги SPOT/USDT в статусе TRADING (или эквивалент).
      */
@@ -17,5 +17,13 @@ public interface DiscoveryClient {
      * @return листинги USDT-M perpetual (перпетуалы/фьючи в статусе TRADING).
      */
     List<VenueListing> listPerpUsdt();
+
+    /**
+     * Отпускает ресурсы, которые клиент взял сам (например, ссылку на общий транспорт).
+     * Клиент из {@link ExchangeAdapter#discovery()} живёт на ресурсах адаптера — закрывать его не нужно.
+     * Должен быть идемпотентным.
+     */
+    @Override
+    default void close() {}
 }
 
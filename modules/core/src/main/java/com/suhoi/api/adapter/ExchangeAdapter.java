@@ -2,9 +2,11 @@ package com.suhoi.api.adapter;
 
 /**
  * Композит для конкретной биржи.
- * Позволяет получить discovery и два потоковых клиента: SPOT и PERP.
+ * Позволяет получить discovery и потоковые клиенты SPOT и PERP (WS и bulk-REST поллинг).
+ * Адаптер владеет потоковыми клиентами и общими транспортными ресурсами (HTTP-клиенты,
+ * планировщик) — {@link #close()} освобождает всё сразу.
  */
-public interface ExchangeAdapter {
+public interface ExchangeAdapter extends AutoCloseable {
     String venue(); // например, "BINANCE"
 
     DiscoveryClient discovery();
@@ -12,5 +14,21 @@ public interface ExchangeAdapter {
     StreamClient spotStream();
 
     StreamClient perpStream();
-}
 
+    /**
+     * SPOT через bulk-REST: все bookTicker площадки одним запросом на такт — для long-tail рынков
+     * и как fast-poll fallback. По умолчанию — {@link #spotStream()} (у площадок без bulk-эндпоинта
+     * или где стрим и так поллинг).
+     */
+    default StreamClient spotPollStream() { return spotStream(); }
+
+    /** PERP через bulk-REST; см. {@link #spotPollStream()}. */
+    default StreamClient perpPollStream() { return perpStream(); }
+
+    /**
+     * Закрывает потоковые клиенты и отпускает транспортные ресурсы адаптера.
+     * Должен быть идемпотентным.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,229 @@
+package com.suhoi.api.adapter;
+
+/**
+ * Потоковый токенайзер JSON прямо по {@link CharSequence} кадра WebSocket — без дерева,
+ * без копии в String и без аллокаций на кадр.
+ * <p>
+ * Токен описывается типом ({@link #next()}), границами в исходном тексте ({@link #start()},
+ * {@link #length()}; у строк — без кавычек) и глубиной вложенности ({@link #depth()}: поля
+ * корневого объекта — глубина 1). Значение читается по месту: {@link #is(String)},
+ * {@link #longValue()}, либо границы передаются дальше (например, в
+ * {@link TickView#bid(CharSequence, int, int)}).
+ * </p>
+ * Это не валидатор: структура проверяется только настолько, чтобы не потерять токены
+ * (запятые и двоеточия пропускаются); escape-последовательности строк не раскрываются —
+ * для символов и цен бирж они не встречаются. Незакрытая строка — {@link IllegalArgumentException}.
+ * <p>Не потокобезопасен: один экземпляр на соединение.</p>
+ */
+public final class JsonScanner {
+    public static final int EOF = 0;
+    public static final int START_OBJECT = 1;
+    public static final int END_OBJECT = 2;
+    public static final int START_ARRAY = 3;
+    public static final int END_ARRAY = 4;
+    /** Имя поля (двоеточие уже пропущено). */
+    public static final int FIELD = 5;
+    public static final int STRING = 6;
+    public static final int NUMBER = 7;
+    public static final int TRUE = 8;
+    public static final int FALSE = 9;
+    public static final int NULL = 10;
+
+    private CharSequence s;
+    private int pos;
+    private int end;
+    private int token;
+    private int start;
+    private int stop;
+    private int depth;
+
+    /** Начать разбор нового кадра. */
+    public JsonScanner reset(CharSequence text) {
+        this.s = text;
+        this.pos = 0;
+        this.end = text.length();
+        this.token = EOF;
+        this.start = this.stop = 0;
+        this.depth = 0;
+        return this;
+    }
+
+    /** Следующий токен. */
+    public int next() {
+        CharSequence s = this.s;
+        int p = pos;
+        char c;
+        while (true) {
+            if (p >= end) {
+                pos = p;
+                start = stop = p;
+                return token = EOF;
+            }
+            c = s.charAt(p);
+            if (c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == ',' || c == ':') p++;
+            else break;
+        }
+        start = p;
+        switch (c) {
+            case '{' -> {
+                depth++;
+                stop = pos = p + 1;
+                return token = START_OBJECT;
+            }
+            case '}' -> {
+                depth--;
+                stop = pos = p + 1;
+                return token = END_OBJECT;
+            }
+            case '[' -> {
+                depth++;
+                stop = pos = p + 1;
+                return token = START_ARRAY;
+            }
+            case ']' -> {
+                depth--;
+                stop = pos = p + 1;
+                return token = END_ARRAY;
+            }
+            case '"' -> {
+                int q = p + 1;
+                while (true) {
+                    if (q >= end) throw new IllegalArgumentException("unterminated string at " + p);
+                    char x = s.charAt(q);
+                    if (x == '"') break;
+                    q += x == '\\' ? 2 : 1;
+                }
+                start = p + 1;
+                stop = q;
+                q++;
+                // имя поля, если дальше двоеточие
+                int r = q;
+                while (r < end && isSpace(s.charAt(r))) r++;
+                if (r < end && s.charAt(r) == ':') {
+                    pos = r + 1;
+                    return token = FIELD;
+                }
+                pos = q;
+                return token = STRING;
+            }
+            case 't' -> {
+                return literal(p, 4, TRUE);
+            }
+            case 'f' -> {
+                return literal(p, 5, FALSE);
+            }
+            case 'n' -> {
+                return literal(p, 4, NULL);
+            }
+            default -> {
+                int q = p;
+                while (q < end && isNumberChar(s.charAt(q))) q++;
+                if (q == p) throw new IllegalArgumentException("unexpected '" + c + "' at " + p);
+                stop = pos = q;
+                return token = NUMBER;
+            }
+        }
+    }
+
+    /**
+     * Пропускает значение: после {@link #FIELD} — значение поля целиком, на {@link #START_OBJECT}/
+     * {@link #START_ARRAY} — всё до парной скобки включительно.
+     */
+    public void skipValue() {
+        int t = token == FIELD ? next() : token;
+        if (t == START_OBJECT || t == START_ARRAY) {
+            int target = depth - 1;
+            while (depth > target && next() != EOF) {
+                // дочитываем вложенное
+            }
+        }
+    }
+
+    public int token() { return token; }
+
+    /** Глубина вложенности: для {@link #FIELD} — глубина объекта, которому принадлежит поле. */
+    public int depth() { return depth; }
+
+    public CharSequence source() { return s; }
+
+    public int start() { return start; }
+
+    public int length() { return stop - start; }
+
+    /** Текущий токен — строка или число (значение, которое можно прочитать). */
+    public boolean isScalar() {
+        return token == STRING || token == NUMBER;
+    }
+
+    /** Текст токена (имя поля, строка без кавычек, число) совпадает с {@code text}. */
+    public boolean is(String text) {
+        int n = stop - start;
+        if (n != text.length()) return false;
+        for (int i = 0; i < n; i++) {
+            if (s.charAt(start + i) != text.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    public boolean isIgnoreCase(String text) {
+        int n = stop - start;
+        return n == text.length() && regionMatchesIgnoreCase(start, text);
+    }
+
+    public boolean startsWith(String prefix) {
+        int n = prefix.length();
+        if (stop - start < n) return false;
+        for (int i = 0; i < n; i++) {
+            if (s.charAt(start + i) != prefix.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Целое из числа или строки с числом ({@code 1695702438018}, {@code "1695702438018"});
+     * дробная часть отбрасывается.
+     *
+     * @throws NumberFormatException если это не число
+     */
+    public long longValue() {
+        int i = start;
+        boolean neg = i < stop && s.charAt(i) == '-';
+        if (neg) i++;
+        if (i >= stop) throw new NumberFormatException("not a number at " + start);
+        long v = 0;
+        for (; i < stop; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                if (c == '.' && i > start) break;
+                throw new NumberFormatException("not an integer at " + start);
+            }
+            v = Math.addExact(Math.multiplyExact(v, 10), c - '0');
+        }
+        return neg ? -v : v;
+    }
+
+    private int literal(int p, int len, int type) {
+        stop = pos = Math.min(p + len, end);
+        return token = type;
+    }
+
+    private boolean regionMatchesIgnoreCase(int off, String text) {
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char a = s.charAt(off + i), b = text.charAt(i);
+            if (a != b && upper(a) != upper(b)) return false;
+        }
+        return true;
+    }
+
+    private static char upper(char c) {
+        return c >= 'a' && c <= 'z' ? (char) (c - 32) : c;
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    private static boolean isNumberChar(char c) {
+        return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E';
+    }
+}
@@ -1,5 +1,6 @@
 package com.suhoi.api.adapter;
 
+import com.suhoi.events.Tick;
 
 import java.util.Collection;
 
@@ -10,10 +11,21 @@ import java.util.Collection;
 public interface StreamClient extends AutoCloseable {
     /**
      * Подписка на множество нативных символов (lowercase/uppercase зависит от venue).
-     * Возвращает дескриптор для управления жизненным циклом подписки.
+     * Возвращает дескриптор для управления жизненным циклом подписки; набор символов
+     * дальше меняется через {@link StreamSubscription#add}/{@link StreamSubscription#remove}.
      */
     StreamSubscription subscribeBookTicker(Collection<String> nativeSymbols, TickHandler handler);
 
+    /**
+     * То же без аллокаций на кадр: handler получает переиспользуемый {@link TickView} потока
+     * соединения. Реализация по умолчанию — мост через {@link Tick} (view на поток); адаптеры
+     * переопределяют её и заполняют view прямо из кадра.
+     */
+    default StreamSubscription subscribeBookTickerView(Collection<String> nativeSymbols, TickViewHandler handler) {
+        ThreadLocal<TickView> views = ThreadLocal.withInitial(TickView::new);
+        return subscribeBookTicker(nativeSymbols, tick -> handler.onTick(views.get().set(tick)));
+    }
+
     /**
      * Закрывает все активные подписки и ресурсы клиента (если ещё не закрыты).
      */
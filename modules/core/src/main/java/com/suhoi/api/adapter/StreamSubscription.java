@@ -1,11 +1,29 @@
 package com.suhoi.api.adapter;
 
 
+import java.util.Collection;
+
 /**
  * Жизненный цикл конкретной подписки на поток (может включать несколько символов).
  * Важно уметь закрыть подписку независимо от клиента.
+ * <p>
+ * Набор символов меняется на ходу ({@link #add}/{@link #remove}): площадке уходят
+ * subscribe/unsubscribe по живым соединениям, остальные символы потока не теряют —
+ * обновление discovery не должно рвать подписку целиком.
+ * </p>
  */
 public interface StreamSubscription extends AutoCloseable {
+    /**
+     * Добавляет символы (уже подписанные пропускаются). Новые соединения открываются,
+     * только если живые заполнены.
+     */
+    void add(Collection<String> nativeSymbols);
+
+    /**
+     * Убирает символы (неизвестные пропускаются); опустевшее соединение закрывается.
+     */
+    void remove(Collection<String> nativeSymbols);
+
     /**
      * Закрывает WS/пуллинг и освобождает ресурсы.
      * Должен быть идемпотентным.
@@ -13,4 +31,3 @@ public interface StreamSubscription extends AutoCloseable {
     @Override
     void close();
 }
-
@@ -0,0 +1,123 @@
+package com.suhoi.api.adapter;
+
+import com.suhoi.market.MarketKind;
+import com.suhoi.market.SymbolDictionary;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Символы подписки клиента: участок кадра ({@code "btcusdt"}, {@code "BTC_USDT"}) → канонический
+ * символ в верхнем регистре и asset.
+ * <p>
+ * Поиск — {@link SymbolDictionary.Table} (идеальный хеш, ASCII без учёта регистра) прямо по тексту
+ * кадра: на кадр ни подстрок, ни {@code toUpperCase}, ни разбора символа. asset считается один раз —
+ * когда символ попадает в подписку ({@link #add}); символ вне подписки (или не USDT-пара) не
+ * находится, {@link #get} отдаёт {@code null} — кадр пропускается.
+ * </p>
+ * Набор меняется подписками ({@link #add}/{@link #remove}, со счётчиком ссылок): словарь
+ * пересобирается и публикуется целиком, парсеры соединений читают его без блокировок. Запись
+ * символа одна и та же, пока символ в наборе; после отписки и повторной подписки — новая запись,
+ * поэтому кэши соединения ключуются строкой {@link Entry#symbol()}, а не ссылкой на запись.
+ */
+public final class SymbolCache {
+
+    /** Символ в верхнем регистре и его asset. */
+    public record Entry(String symbol, String asset) {}
+
+    private final String venue;
+    private final MarketKind kind;
+    private final Function<String, String> assetOf;
+
+    // под this
+    private final Map<String, Integer> refs = new HashMap<>();
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    /**
+     * @param assetOf asset по символу в верхнем регистре; {@code null} или исключение — символ не наш
+     */
+    public SymbolCache(String venue, MarketKind kind, Function<String, String> assetOf) {
+        this.venue = Objects.requireNonNull(venue);
+        this.kind = Objects.requireNonNull(kind);
+        this.assetOf = Objects.requireNonNull(assetOf);
+    }
+
+    /** Символы подписки (регистр не важен); повторное добавление увеличивает счётчик ссылок. */
+    public synchronized void add(Collection<String> nativeSymbols) {
+        boolean changed = false;
+        for (String s : nativeSymbols) {
+            String symbol = s.toUpperCase(Locale.ROOT);
+            if (refs.merge(symbol, 1, Integer::sum) > 1) continue;
+            String asset = assetOf(symbol);
+            if (asset == null) continue;
+            entries.put(symbol, new Entry(symbol, asset));
+            changed = true;
+        }
+        if (changed) publish();
+    }
+
+    /** Отпускает символы; символ уходит из поиска, когда его отпустили все подписки. */
+    public synchronized void remove(Collection<String> nativeSymbols) {
+        boolean changed = false;
+        for (String s : nativeSymbols) {
+            String symbol = s.toUpperCase(Locale.ROOT);
+            Integer n = refs.get(symbol);
+            if (n == null) continue;
+            if (n > 1) {
+                refs.put(symbol, n - 1);
+                continue;
+            }
+            refs.remove(symbol);
+            changed |= entries.remove(symbol) != null;
+        }
+        if (changed) publish();
+    }
+
+    public Entry get(CharSequence s) {
+        return get(s, 0, s.length());
+    }
+
+    /** Запись символа или {@code null}, если символа нет в подписке. */
+    public Entry get(CharSequence s, int off, int len) {
+        Snapshot snap = snapshot;
+        if (snap.table == null) return null;
+        int market = snap.table.find(s, off, len);
+        return market == SymbolDictionary.NONE ? null : snap.byMarket[market];
+    }
+
+    /** Число символов в поиске. */
+    public int size() {
+        return snapshot.byMarket.length;
+    }
+
+    private String assetOf(String symbol) {
+        try {
+            return assetOf.apply(symbol);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private void publish() {
+        if (entries.isEmpty()) {
+            snapshot = Snapshot.EMPTY;
+            return;
+        }
+        SymbolDictionary.Builder b = SymbolDictionary.builder();
+        for (Entry e : entries.values()) b.market(0, e.asset(), venue, kind, e.symbol());
+        SymbolDictionary dict = b.build();
+        Entry[] byMarket = new Entry[dict.size()];
+        for (int m = 0; m < byMarket.length; m++) byMarket[m] = entries.get(dict.nativeSymbolOf(m));
+        snapshot = new Snapshot(dict.table(venue, kind), byMarket);
+    }
+
+    private record Snapshot(SymbolDictionary.Table table, Entry[] byMarket) {
+        static final Snapshot EMPTY = new Snapshot(null, new Entry[0]);
+    }
+}
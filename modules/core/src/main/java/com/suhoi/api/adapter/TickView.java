@@ -0,0 +1,263 @@
+package com.suhoi.api.adapter;
+
+import com.suhoi.events.Price;
+import com.suhoi.events.Tick;
+import com.suhoi.math.FixedPoint;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Переиспользуемое (flyweight) представление тика для {@link TickViewHandler}.
+ * <p>
+ * Один экземпляр на соединение адаптера: поток соединения заполняет его на месте для каждого кадра
+ * и отдаёт в callback. Цены — мантисса/масштаб ({@link FixedPoint}), времена — epoch millis,
+ * строки — ссылки на уже существующие (кэшированные) значения. Никаких аллокаций на кадр.
+ * </p>
+ * <b>Важно:</b> данные валидны только внутри вызова {@link TickViewHandler#onTick(TickView)};
+ * сохранять ссылку на view нельзя — для хранения/передачи в другой поток есть {@link #toTick()}.
+ * <p>Отсутствующая цена — {@link #hasBid()}/{@link #hasAsk()}/{@link #hasMid()} == false;
+ * отсутствующая глубина — {@code NaN}.</p>
+ */
+public final class TickView {
+    private static final int ABSENT = -1;
+
+    private long tsMillis;
+    private long heartbeatMillis;
+    private String asset;
+    private String venue;
+    private String kind;
+    private String marketId;
+    private String nativeSymbol;
+
+    private long bidMantissa;
+    private int bidScale = ABSENT;
+    private long askMantissa;
+    private int askScale = ABSENT;
+    private long midMantissa;
+    private int midScale = ABSENT;
+    private double depthUsd50 = Double.NaN;
+
+    /** Сбрасывает все поля — адаптер зовёт перед заполнением очередного кадра. */
+    public TickView clear() {
+        tsMillis = 0;
+        heartbeatMillis = 0;
+        asset = venue = kind = marketId = nativeSymbol = null;
+        bidScale = askScale = midScale = ABSENT;
+        bidMantissa = askMantissa = midMantissa = 0;
+        depthUsd50 = Double.NaN;
+        return this;
+    }
+
+    // ---- заполнение ----
+
+    public TickView market(String asset, String venue, String kind, String nativeSymbol) {
+        this.asset = asset;
+        this.venue = venue;
+        this.kind = kind;
+        this.nativeSymbol = nativeSymbol;
+        return this;
+    }
+
+    public TickView marketId(String marketId) {
+        this.marketId = marketId;
+        return this;
+    }
+
+    /** Время тика; heartbeat по умолчанию совпадает с ним. */
+    public TickView ts(long epochMillis) {
+        this.tsMillis = epochMillis;
+        this.heartbeatMillis = epochMillis;
+        return this;
+    }
+
+    public TickView heartbeat(long epochMillis) {
+        this.heartbeatMillis = epochMillis;
+        return this;
+    }
+
+    public TickView bid(long mantissa, int scale) {
+        this.bidMantissa = mantissa;
+        this.bidScale = checkScale(scale);
+        return this;
+    }
+
+    public TickView ask(long mantissa, int scale) {
+        this.askMantissa = mantissa;
+        this.askScale = checkScale(scale);
+        return this;
+    }
+
+    public TickView mid(long mantissa, int scale) {
+        this.midMantissa = mantissa;
+        this.midScale = checkScale(scale);
+        return this;
+    }
+
+    /** Разбор bid из текста с масштабом записи (как {@link Price#parse(CharSequence)}). */
+    public TickView bid(CharSequence s) {
+        int scale = FixedPoint.scaleOf(s);
+        return bid(FixedPoint.parse(s, scale), scale);
+    }
+
+    public TickView ask(CharSequence s) {
+        int scale = FixedPoint.scaleOf(s);
+        return ask(FixedPoint.parse(s, scale), scale);
+    }
+
+    public TickView mid(CharSequence s) {
+        int scale = FixedPoint.scaleOf(s);
+        return mid(FixedPoint.parse(s, scale), scale);
+    }
+
+    /** Разбор участка текста кадра (например, границы токена {@link JsonScanner}) без подстроки. */
+    public TickView bid(CharSequence s, int off, int len) {
+        int scale = FixedPoint.scaleOf(s, off, len);
+        return bid(FixedPoint.parse(s, off, len, scale), scale);
+    }
+
+    public TickView ask(CharSequence s, int off, int len) {
+        int scale = FixedPoint.scaleOf(s, off, len);
+        return ask(FixedPoint.parse(s, off, len, scale), scale);
+    }
+
+    /** То же из ASCII-байтов кадра. */
+    public TickView bid(byte[] b, int off, int len) {
+        int scale = FixedPoint.scaleOf(b, off, len);
+        return bid(FixedPoint.parse(b, off, len, scale), scale);
+    }
+
+    public TickView ask(byte[] b, int off, int len) {
+        int scale = FixedPoint.scaleOf(b, off, len);
+        return ask(FixedPoint.parse(b, off, len, scale), scale);
+    }
+
+    public TickView depthUsd50(double usd) {
+        this.depthUsd50 = usd;
+        return this;
+    }
+
+    /**
+     * Досчитывает mid, если он не задан явно: точная середина bid/ask (как {@link Price#mid}),
+     * иначе единственная доступная сторона.
+     *
+     * @return false — ни одной цены нет, тик отдавать нельзя
+     */
+    public boolean completeMid() {
+        if (midScale != ABSENT) return true;
+        if (bidScale != ABSENT && askScale != ABSENT) {
+            int s = Math.max(bidScale, askScale);
+            long x = FixedPoint.rescale(bidMantissa, bidScale, s);
+            long y = FixedPoint.rescale(askMantissa, askScale, s);
+            if (s < FixedPoint.MAX_SCALE) {
+                long m = FixedPoint.midAtNextScale(x, y);
+                if (m % 10 == 0) mid(m / 10, s); else mid(m, s + 1);
+            } else {
+                long sum = Math.addExact(x, y);
+                mid(sum / 2 + (sum % 2), s);
+            }
+        } else if (bidScale != ABSENT) {
+            mid(bidMantissa, bidScale);
+        } else if (askScale != ABSENT) {
+            mid(askMantissa, askScale);
+        }
+        return midScale != ABSENT;
+    }
+
+    /**
+     * Приводит цены к масштабу рынка ({@code VenueListing.priceScale}, см.
+     * {@code SymbolDictionary.priceScaleOf}): bid/ask — к {@code scale} (half-up), mid — к
+     * {@code scale + 1}, где точна середина двух цен рынка. Адаптеры разбирают цену с масштабом
+     * записи (листинга у потока нет), поэтому нормализует тот, кто знает рынок — обычно роутер.
+     *
+     * @param scale масштаб рынка; отрицательный (неизвестен) — цены не трогаются
+     * @throws ArithmeticException если цена не помещается в long на этом масштабе
+     */
+    public TickView priceScale(int scale) {
+        if (scale < 0) return this;
+        checkScale(scale);
+        if (bidScale != ABSENT) bid(FixedPoint.rescale(bidMantissa, bidScale, scale), scale);
+        if (askScale != ABSENT) ask(FixedPoint.rescale(askMantissa, askScale, scale), scale);
+        if (midScale != ABSENT) {
+            int s = Math.min(scale + 1, FixedPoint.MAX_SCALE);
+            mid(FixedPoint.rescale(midMantissa, midScale, s), s);
+        }
+        return this;
+    }
+
+    /** Заполняет view из готового {@link Tick} (мост для клиентов без собственной view-реализации). */
+    public TickView set(Tick t) {
+        clear();
+        market(t.asset(), t.venue(), t.kind(), t.nativeSymbol());
+        marketId(t.marketId());
+        if (t.ts() != null) tsMillis = t.ts().toEpochMilli();
+        if (t.heartbeatTs() != null) heartbeatMillis = t.heartbeatTs().toEpochMilli();
+        if (t.bid() != null) bid(t.bid().mantissa(), t.bid().scale());
+        if (t.ask() != null) ask(t.ask().mantissa(), t.ask().scale());
+        if (t.mid() != null) mid(t.mid().mantissa(), t.mid().scale());
+        if (t.depthUsd50() != null) depthUsd50 = t.depthUsd50().doubleValue();
+        return this;
+    }
+
+    // ---- чтение ----
+
+    public long tsMillis() { return tsMillis; }
+    public long heartbeatMillis() { return heartbeatMillis; }
+    public String asset() { return asset; }
+    public String venue() { return venue; }
+    public String kind() { return kind; }
+    public String marketId() { return marketId; }
+    public String nativeSymbol() { return nativeSymbol; }
+
+    public boolean hasBid() { return bidScale != ABSENT; }
+    public long bidMantissa() { return bidMantissa; }
+    public int bidScale() { return bidScale; }
+
+    public boolean hasAsk() { return askScale != ABSENT; }
+    public long askMantissa() { return askMantissa; }
+    public int askScale() { return askScale; }
+
+    public boolean hasMid() { return midScale != ABSENT; }
+    public long midMantissa() { return midMantissa; }
+    public int midScale() { return midScale; }
+
+    /** mid как double (NaN, если нет) — для статистики без аллокаций. */
+    public double midDouble() {
+        return hasMid() ? FixedPoint.toDouble(midMantissa, midScale) : Double.NaN;
+    }
+
+    public double depthUsd50() { return depthUsd50; }
+
+    /** Иммутабельная копия для хранения и передачи между потоками. */
+    public Tick toTick() {
+        return new Tick(
+                Instant.ofEpochMilli(tsMillis),
+                asset,
+                venue,
+                kind,
+                hasBid() ? Price.of(bidMantissa, bidScale) : null,
+                hasAsk() ? Price.of(askMantissa, askScale) : null,
+                hasMid() ? Price.of(midMantissa, midScale) : null,
+                Double.isNaN(depthUsd50) ? null : BigDecimal.valueOf(depthUsd50),
+                Instant.ofEpochMilli(heartbeatMillis),
+                marketId,
+                nativeSymbol
+        );
+    }
+
+    @Override
+    public String toString() {
+        return "TickView[" + venue + "/" + kind + "/" + nativeSymbol
+                + " bid=" + (hasBid() ? FixedPoint.format(bidMantissa, bidScale) : "-")
+                + " ask=" + (hasAsk() ? FixedPoint.format(askMantissa, askScale) : "-")
+                + " mid=" + (hasMid() ? FixedPoint.format(midMantissa, midScale) : "-")
+                + " ts=" + tsMillis + "]";
+    }
+
+    private static int checkScale(int scale) {
+        if (scale < 0 || scale > FixedPoint.MAX_SCALE) {
+            throw new IllegalArgumentException("price scale out of range: " + scale);
+        }
+        return scale;
+    }
+}
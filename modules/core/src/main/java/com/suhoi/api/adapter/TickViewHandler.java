@@ -0,0 +1,17 @@
+package com.suhoi.api.adapter;
+
+/**
+ * Callback без аллокаций: адаптер отдаёт переиспользуемый {@link TickView}, заполненный на месте.
+ * <p>View принадлежит потоку соединения и валиден только на время вызова; чтобы сохранить тик
+ * или передать его в другой поток — {@link TickView#toTick()}. Реализация не должна блокировать
+ * долго (иначе backpressure).</p>
+ */
+@FunctionalInterface
+public interface TickViewHandler {
+    void onTick(TickView view);
+
+    /** Мост к классическому {@link TickHandler}: копия {@link TickView#toTick()} на каждый тик. */
+    static TickViewHandler copying(TickHandler handler) {
+        return view -> handler.onTick(view.toTick());
+    }
+}
@@ -0,0 +1,43 @@
+package com.suhoi.bus;
+
+import java.util.Objects;
+
+/**
+ * Кодек для смешанного периода миграции JSON → binary.
+ * <p>Пишет выбранным кодеком, а читает оба формата: бинарный кадр узнаётся по magic-байту
+ * {@link BinaryEventCodec} (JSON никогда не начинается с 0xB7), остальное уходит в JSON.</p>
+ */
+public final class AutoDetectCodec implements EventBus.JsonCodec {
+    private final EventBus.JsonCodec writer;
+    private final BinaryEventCodec binary;
+    private final EventBus.JsonCodec json;
+
+    /**
+     * @param writer кодек публикации (обычно binary или json из этой же пары)
+     * @param binary бинарный кодек (словари должны совпадать с публикаторами)
+     * @param json   JSON-кодек для старых публикаторов
+     */
+    public AutoDetectCodec(EventBus.JsonCodec writer, BinaryEventCodec binary, EventBus.JsonCodec json) {
+        this.writer = Objects.requireNonNull(writer, "writer");
+        this.binary = Objects.requireNonNull(binary, "binary");
+        this.json = Objects.requireNonNull(json, "json");
+    }
+
+    @Override public byte[] toBytes(Object value) {
+        return writer.toBytes(value);
+    }
+
+    @Override public <T> T fromBytes(byte[] bytes, Class<T> type) {
+        return BinaryEventCodec.isBinary(bytes) ? binary.fromBytes(bytes, type) : json.fromBytes(bytes, type);
+    }
+
+    @Override public <T> T fromBytes(byte[] bytes, int offset, int length, Class<T> type) {
+        return BinaryEventCodec.isBinary(bytes, offset, length)
+                ? binary.fromBytes(bytes, offset, length, type)
+                : json.fromBytes(bytes, offset, length, type);
+    }
+
+    @Override public String contentType() {
+        return writer.contentType();
+    }
+}
@@ -0,0 +1,335 @@
+package com.suhoi.bus;
+
+import com.suhoi.events.AlertEvent;
+import com.suhoi.events.FairSnap;
+import com.suhoi.events.Price;
+import com.suhoi.events.Tick;
+import com.suhoi.math.FixedPoint;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Компактный бинарный кодек для {@link Tick}, {@link FairSnap} и {@link AlertEvent}
+ * (альтернатива {@link JacksonJsonCodec} на горячем пути ticks.*).
+ *
+ * <h3>Формат (little-endian)</h3>
+ * <pre>
+ * header:  u8 magic=0xB7 | u8 version=1 | u8 type | u8 reserved | i32 dictFingerprint
+ * time:    i64 epoch-nanos (Long.MIN_VALUE = null)
+ * price:   i64 mantissa | i8 scale (scale = -128 → null), значение = mantissa * 10^-scale
+ * ref:     u16 id в словаре; 0xFFFE = null; 0xFFFF = inline-строка следом
+ * string:  u16 длина UTF-8 (0xFFFF = null) | bytes
+ *
+ * Tick:       time ts | time heartbeatTs | ref asset | ref venue | ref kind
+ *             | price bid | price ask | price mid | price depthUsd50 | string marketId | string nativeSymbol
+ * FairSnap:   time ts | ref asset | price fair | u16 n | n × (string marketId | price mid | price weight)
+ * AlertEvent: time ts | ref asset | string marketId | price devPct | price price | price fair
+ *             | price bias | price thresholdPct | ref state
+ * </pre>
+ * Цены, чья мантисса не влезает в long, округляются до 18 значащих цифр.
+ * Потребитель определяет кодировку по заголовку {@link BusHeaders#CONTENT_TYPE}
+ * или по magic-байту (см. {@link AutoDetectCodec}).
+ */
+public final class BinaryEventCodec implements EventBus.JsonCodec {
+    static final byte MAGIC = (byte) 0xB7;
+    static final byte VERSION = 1;
+
+    private static final byte TYPE_TICK = 1;
+    private static final byte TYPE_FAIR_SNAP = 2;
+    private static final byte TYPE_ALERT = 3;
+
+    private static final int REF_NULL = 0xFFFE;
+    private static final int REF_INLINE = 0xFFFF;
+    private static final int STR_NULL = 0xFFFF;
+    private static final byte SCALE_NULL = Byte.MIN_VALUE;
+    private static final long TIME_NULL = Long.MIN_VALUE;
+    private static final MathContext LONG_DIGITS = new MathContext(18);
+
+    private static final CodecDictionary STATES = CodecDictionary.of(List.of("OPEN", "CLOSE"));
+
+    private final CodecDictionary assets;
+    private final CodecDictionary venues;
+    private final CodecDictionary kinds;
+    private final int fingerprint;
+
+    private final ThreadLocal<ByteBuffer> scratch =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(512).order(ByteOrder.LITTLE_ENDIAN));
+
+    /** Кодек без словаря активов: asset всегда inline. */
+    public BinaryEventCodec() {
+        this(CodecDictionary.empty());
+    }
+
+    public BinaryEventCodec(CodecDictionary assets) {
+        this(assets, CodecDictionary.venues(), CodecDictionary.kinds());
+    }
+
+    public BinaryEventCodec(CodecDictionary assets, CodecDictionary venues, CodecDictionary kinds) {
+        this.assets = Objects.requireNonNull(assets, "assets");
+        this.venues = Objects.requireNonNull(venues, "venues");
+        this.kinds = Objects.requireNonNull(kinds, "kinds");
+        this.fingerprint = 31 * (31 * assets.fingerprint() + venues.fingerprint()) + kinds.fingerprint();
+    }
+
+    @Override
+    public String contentType() { return BusHeaders.CONTENT_TYPE_BINARY; }
+
+    /** @return true, если байты начинаются с заголовка этого формата. */
+    public static boolean isBinary(byte[] bytes) {
+        return bytes != null && bytes.length >= 8 && bytes[0] == MAGIC;
+    }
+
+    /** То же для участка массива. */
+    public static boolean isBinary(byte[] bytes, int offset, int length) {
+        return bytes != null && length >= 8 && bytes[offset] == MAGIC;
+    }
+
+    @Override
+    public byte[] toBytes(Object value) {
+        ByteBuffer buf = scratch.get();
+        while (true) {
+            try {
+                write(buf, value);
+                break;
+            } catch (BufferOverflowException e) {
+                // крупный FairSnap — растим scratch-буфер потока и пишем заново
+                buf = ByteBuffer.allocate(buf.capacity() * 2).order(ByteOrder.LITTLE_ENDIAN);
+                scratch.set(buf);
+            }
+        }
+        byte[] out = new byte[buf.position()];
+        buf.flip();
+        buf.get(out);
+        return out;
+    }
+
+    @Override
+    public <T> T fromBytes(byte[] bytes, Class<T> type) {
+        return fromBytes(bytes, 0, bytes.length, type);
+    }
+
+    /** Декодирование прямо из участка чужого буфера (без копии). */
+    @Override
+    public <T> T fromBytes(byte[] bytes, int offset, int length, Class<T> type) {
+        ByteBuffer buf = ByteBuffer.wrap(bytes, offset, length).slice().order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            byte t = readHeader(buf);
+            Object v = switch (t) {
+                case TYPE_TICK -> readTick(buf);
+                case TYPE_FAIR_SNAP -> readFairSnap(buf);
+                case TYPE_ALERT -> readAlert(buf);
+                default -> throw new IllegalArgumentException("unknown binary event type: " + t);
+            };
+            return type.cast(v);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("truncated binary event", e);
+        }
+    }
+
+    // ---- запись ----
+
+    private void write(ByteBuffer buf, Object value) {
+        buf.clear();
+        if (value instanceof Tick t) {
+            writeHeader(buf, TYPE_TICK);
+            putTime(buf, t.ts());
+            putTime(buf, t.heartbeatTs());
+            putRef(buf, assets, t.asset());
+            putRef(buf, venues, t.venue());
+            putRef(buf, kinds, t.kind());
+            putPrice(buf, t.bid());
+            putPrice(buf, t.ask());
+            putPrice(buf, t.mid());
+            putPrice(buf, t.depthUsd50());
+            putString(buf, t.marketId());
+            putString(buf, t.nativeSymbol());
+        } else if (value instanceof FairSnap s) {
+            writeHeader(buf, TYPE_FAIR_SNAP);
+            putTime(buf, s.ts());
+            putRef(buf, assets, s.asset());
+            putPrice(buf, s.fair());
+            List<FairSnap.Source> sources = s.sources() == null ? List.of() : s.sources();
+            if (sources.size() > 0xFFFF) {
+                throw new IllegalArgumentException("too many FairSnap sources: " + sources.size());
+            }
+            buf.putShort((short) sources.size());
+            for (FairSnap.Source src : sources) {
+                putString(buf, src.marketId());
+                putPrice(buf, src.mid());
+                putPrice(buf, src.weight());
+            }
+        } else if (value instanceof AlertEvent a) {
+            writeHeader(buf, TYPE_ALERT);
+            putTime(buf, a.ts());
+            putRef(buf, assets, a.asset());
+            putString(buf, a.marketId());
+            putPrice(buf, a.devPct());
+            putPrice(buf, a.price());
+            putPrice(buf, a.fair());
+            putPrice(buf, a.bias());
+            putPrice(buf, a.thresholdPct());
+            putRef(buf, STATES, a.state());
+        } else {
+            throw new IllegalArgumentException("BinaryEventCodec does not support "
+                    + (value == null ? "null" : value.getClass().getName()));
+        }
+    }
+
+    private void writeHeader(ByteBuffer buf, byte type) {
+        buf.put(MAGIC).put(VERSION).put(type).put((byte) 0).putInt(fingerprint);
+    }
+
+    private static void putTime(ByteBuffer buf, Instant ts) {
+        buf.putLong(ts == null ? TIME_NULL : ts.getEpochSecond() * 1_000_000_000L + ts.getNano());
+    }
+
+    private static void putPrice(ByteBuffer buf, BigDecimal v) {
+        if (v == null) {
+            buf.putLong(0L).put(SCALE_NULL);
+            return;
+        }
+        if (!fitsLong(v)) v = v.stripTrailingZeros();
+        if (!fitsLong(v)) v = v.round(LONG_DIGITS).stripTrailingZeros();
+        if (!fitsLong(v)) throw new IllegalArgumentException("price out of range: " + v);
+        buf.putLong(v.unscaledValue().longValue()).put((byte) v.scale());
+    }
+
+    private static void putPrice(ByteBuffer buf, Price p) {
+        if (p == null) {
+            buf.putLong(0L).put(SCALE_NULL);
+        } else {
+            buf.putLong(p.mantissa()).put((byte) p.scale());
+        }
+    }
+
+    private static boolean fitsLong(BigDecimal v) {
+        int scale = v.scale();
+        return scale > Byte.MIN_VALUE && scale <= Byte.MAX_VALUE && v.unscaledValue().bitLength() <= 63;
+    }
+
+    private static void putRef(ByteBuffer buf, CodecDictionary dict, String value) {
+        if (value == null) {
+            buf.putShort((short) REF_NULL);
+            return;
+        }
+        int id = dict.idOf(value);
+        if (id >= 0) {
+            buf.putShort((short) id);
+        } else {
+            buf.putShort((short) REF_INLINE);
+            putString(buf, value);
+        }
+    }
+
+    private static void putString(ByteBuffer buf, String s) {
+        if (s == null) {
+            buf.putShort((short) STR_NULL);
+            return;
+        }
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        if (b.length >= STR_NULL) throw new IllegalArgumentException("string too long: " + b.length);
+        buf.putShort((short) b.length).put(b);
+    }
+
+    // ---- чтение ----
+
+    private byte readHeader(ByteBuffer buf) {
+        if (buf.get() != MAGIC) throw new IllegalArgumentException("not a binary event (bad magic)");
+        byte version = buf.get();
+        if (version != VERSION) throw new IllegalArgumentException("unsupported binary event version: " + version);
+        byte type = buf.get();
+        buf.get(); // reserved
+        int fp = buf.getInt();
+        if (fp != fingerprint) {
+            throw new IllegalStateException("binary event dictionary mismatch: frame=" + fp + ", local=" + fingerprint);
+        }
+        return type;
+    }
+
+    private Tick readTick(ByteBuffer buf) {
+        Instant ts = getTime(buf);
+        Instant hb = getTime(buf);
+        String asset = getRef(buf, assets);
+        String venue = getRef(buf, venues);
+        String kind = getRef(buf, kinds);
+        Price bid = getFixed(buf);
+        Price ask = getFixed(buf);
+        Price mid = getFixed(buf);
+        BigDecimal depth = getPrice(buf);
+        String marketId = getString(buf);
+        String nativeSymbol = getString(buf);
+        return new Tick(ts, asset, venue, kind, bid, ask, mid, depth, hb, marketId, nativeSymbol);
+    }
+
+    private FairSnap readFairSnap(ByteBuffer buf) {
+        Instant ts = getTime(buf);
+        String asset = getRef(buf, assets);
+        Price fair = getFixed(buf);
+        int n = Short.toUnsignedInt(buf.getShort());
+        var sources = new ArrayList<FairSnap.Source>(n);
+        for (int i = 0; i < n; i++) {
+            sources.add(new FairSnap.Source(getString(buf), getFixed(buf), getPrice(buf)));
+        }
+        return new FairSnap(ts, asset, fair, List.copyOf(sources));
+    }
+
+    private AlertEvent readAlert(ByteBuffer buf) {
+        Instant ts = getTime(buf);
+        String asset = getRef(buf, assets);
+        String marketId = getString(buf);
+        BigDecimal devPct = getPrice(buf);
+        Price price = getFixed(buf);
+        Price fair = getFixed(buf);
+        BigDecimal bias = getPrice(buf);
+        BigDecimal threshold = getPrice(buf);
+        String state = getRef(buf, STATES);
+        return new AlertEvent(ts, asset, marketId, devPct, price, fair, bias, threshold, state);
+    }
+
+    private static Instant getTime(ByteBuffer buf) {
+        long nanos = buf.getLong();
+        if (nanos == TIME_NULL) return null;
+        return Instant.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L), Math.floorMod(nanos, 1_000_000_000L));
+    }
+
+    /** Цена как {@link Price}: мантисса и масштаб кладутся как есть. */
+    private static Price getFixed(ByteBuffer buf) {
+        long mantissa = buf.getLong();
+        byte scale = buf.get();
+        if (scale == SCALE_NULL) return null;
+        if (scale >= 0 && scale <= FixedPoint.MAX_SCALE) return Price.of(mantissa, scale);
+        return Price.of(BigDecimal.valueOf(mantissa, scale)); // кадр старого публикатора
+    }
+
+    private static BigDecimal getPrice(ByteBuffer buf) {
+        long mantissa = buf.getLong();
+        byte scale = buf.get();
+        return scale == SCALE_NULL ? null : BigDecimal.valueOf(mantissa, scale);
+    }
+
+    private static String getRef(ByteBuffer buf, CodecDictionary dict) {
+        int id = Short.toUnsignedInt(buf.getShort());
+        if (id == REF_NULL) return null;
+        if (id == REF_INLINE) return getString(buf);
+        return dict.valueOf(id);
+    }
+
+    private static String getString(ByteBuffer buf) {
+        int len = Short.toUnsignedInt(buf.getShort());
+        if (len == STR_NULL) return null;
+        if (len > buf.remaining()) throw new BufferUnderflowException();
+        String s = new String(buf.array(), buf.arrayOffset() + buf.position(), len, StandardCharsets.UTF_8);
+        buf.position(buf.position() + len);
+        return s;
+    }
+}
@@ -0,0 +1,24 @@
+package com.suhoi.bus;
+
+/**
+ * Имена и значения заголовков сообщений шины (NATS headers).
+ */
+public final class BusHeaders {
+    private BusHeaders() {
+    }
+
+    /** Кодировка полезной нагрузки. Отсутствие заголовка = JSON (обратная совместимость). */
+    public static final String CONTENT_TYPE = "Content-Type";
+
+    public static final String CONTENT_TYPE_JSON = "application/json";
+    public static final String CONTENT_TYPE_BINARY = "application/x-suhoi-event";
+
+    /** Маркер микробатча: значение — число сообщений в кадре. */
+    public static final String BATCH = "Suhoi-Batch";
+
+    /**
+     * Время публикации, epoch-микросекунды (десятичная строка). Ставится при включённом
+     * {@code stampPublishTime} публикатора; для микробатча — время отправки кадра.
+     */
+    public static final String PUBLISHED_AT = "Suhoi-Published-At";
+}
@@ -0,0 +1,44 @@
+package com.suhoi.bus;
+
+/**
+ * Точка подключения метрик шины. Методы вызываются на горячем пути (каждая публикация,
+ * каждый вызов handler) — реализации должны быть wait-free и не аллоцировать.
+ * <p>По умолчанию {@link #NOOP}: шина тогда не снимает время вовсе.</p>
+ *
+ * @see com.suhoi.bus.metrics.HdrBusMetrics
+ */
+public interface BusMetrics {
+    BusMetrics NOOP = new BusMetrics() {};
+
+    /** Опубликовано сообщение (до батчинга). */
+    default void published(String subject, int bytes) {}
+
+    /**
+     * Обработано сообщение подписки.
+     *
+     * @param subscription  имя подписки (шаблон subject, с {@code @group} для queue group)
+     * @param handlerNanos  время работы handler
+     */
+    default void handled(String subscription, long handlerNanos) {}
+
+    /**
+     * Сообщение дошло до подписки.
+     *
+     * @param latencyMicros время от публикации (по заголовку {@link BusHeaders#PUBLISHED_AT}) до
+     *                      передачи подписке; часы публикатора и подписчика должны быть синхронизированы.
+     *                      Без заголовка метод не вызывается
+     */
+    default void received(String subscription, long latencyMicros) {}
+
+    /**
+     * Подписка создана — для gauge'ей pending/dropped ({@link Subscription}). Подписки с одним
+     * именем (несколько handler на один шаблон) — разные хэндлы одной строки метрик.
+     */
+    default void subscribed(String subscription, Subscription handle) {}
+
+    /**
+     * Подписка закрыта: уходит только этот хэндл, остальные подписки с тем же именем остаются;
+     * накопленные счётчики строки метрик не сбрасываются.
+     */
+    default void unsubscribed(String subscription, Subscription handle) {}
+}
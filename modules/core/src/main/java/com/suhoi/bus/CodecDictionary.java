@@ -0,0 +1,80 @@
+package com.suhoi.bus;
+
+import com.suhoi.market.MarketKind;
+import com.suhoi.market.Venues;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Иммутабельный словарь строка ↔ плотный id (u16) для {@link BinaryEventCodec}.
+ * <p>
+ * Публикатор и потребитель обязаны строить словарь из одного и того же упорядоченного
+ * источника (например, {@code instruments} по asset). Для защиты от рассинхрона в каждый
+ * кадр пишется {@link #fingerprint()}, а строки вне словаря кодируются inline.
+ */
+public final class CodecDictionary {
+    /** Максимальный id; значения выше зарезервированы под маркеры inline/null. */
+    public static final int MAX_ID = 0xFFFD;
+
+    private final String[] byId;
+    private final Map<String, Integer> ids;
+    private final int fingerprint;
+
+    private CodecDictionary(List<String> values) {
+        if (values.size() > MAX_ID + 1) {
+            throw new IllegalArgumentException("dictionary too large: " + values.size());
+        }
+        this.byId = values.toArray(new String[0]);
+        this.ids = new HashMap<>(values.size() * 2);
+        int h = 1;
+        for (int i = 0; i < byId.length; i++) {
+            if (ids.putIfAbsent(byId[i], i) != null) {
+                throw new IllegalArgumentException("duplicate dictionary entry: " + byId[i]);
+            }
+            h = 31 * h + byId[i].hashCode();
+        }
+        this.fingerprint = h;
+    }
+
+    /** Словарь в порядке итерации коллекции. */
+    public static CodecDictionary of(Collection<String> values) {
+        return new CodecDictionary(new ArrayList<>(values));
+    }
+
+    public static CodecDictionary empty() {
+        return new CodecDictionary(List.of());
+    }
+
+    /** Площадки из {@link Venues}. */
+    public static CodecDictionary venues() {
+        return of(List.of(Venues.BINANCE, Venues.BYBIT, Venues.BITGET, Venues.GATE, Venues.MEXC, Venues.DEXSCREENER));
+    }
+
+    /** Типы рынков из {@link MarketKind} (по ordinal). */
+    public static CodecDictionary kinds() {
+        var out = new ArrayList<String>();
+        for (MarketKind k : MarketKind.values()) out.add(k.name());
+        return of(out);
+    }
+
+    /** @return id или -1, если строки нет в словаре. */
+    public int idOf(String value) {
+        Integer id = ids.get(value);
+        return id == null ? -1 : id;
+    }
+
+    public String valueOf(int id) {
+        if (id < 0 || id >= byId.length) {
+            throw new IllegalArgumentException("unknown dictionary id: " + id);
+        }
+        return byId[id];
+    }
+
+    public int size() { return byId.length; }
+
+    public int fingerprint() { return fingerprint; }
+}
@@ -0,0 +1,106 @@
+package com.suhoi.bus;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Lock-free буфер «последнее значение по ключу» (conflation).
+ * <p>
+ * На каждый ключ — один слот с последним значением. Слот попадает в очередь на выдачу
+ * только при переходе «пусто → есть значение»; пока слот ждёт выдачи, новые значения
+ * просто перезаписывают его, а вытесненные считаются в {@link #superseded()}.
+ * Так потребитель, отстающий от источника, получает по каждому ключу только свежайшее.
+ * </p>
+ * Потокобезопасность: {@link #offer} — из любых потоков; {@link #drain}/{@link #poll} —
+ * из любых, но порядок выдачи гарантирован только при одном потребителе.
+ *
+ * @param <K> ключ (для тиков — {@link com.suhoi.events.TickKey})
+ * @param <V> значение
+ */
+public final class ConflatingBuffer<K, V> {
+
+    private final Map<K, Slot<V>> slots = new ConcurrentHashMap<>();
+    private final Queue<Slot<V>> ready = new ConcurrentLinkedQueue<>();
+
+    private final LongAdder offered = new LongAdder();
+    private final LongAdder superseded = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+
+    /**
+     * Кладёт значение в слот ключа.
+     *
+     * @return true — слот стал «готов к выдаче» (можно будить потребителя);
+     *         false — значение вытеснило ещё не выданное.
+     */
+    public boolean offer(K key, V value) {
+        Objects.requireNonNull(value, "value");
+        offered.increment();
+        Slot<V> slot = slots.get(key);
+        if (slot == null) {
+            slot = slots.computeIfAbsent(key, k -> new Slot<>());
+        }
+        if (slot.value.getAndSet(value) == null) {
+            ready.add(slot);
+            return true;
+        }
+        superseded.increment();
+        return false;
+    }
+
+    /** Забирает одно готовое значение или null. */
+    public V poll() {
+        Slot<V> slot;
+        while ((slot = ready.poll()) != null) {
+            V v = slot.value.getAndSet(null);
+            if (v != null) {
+                delivered.increment();
+                return v;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Выдаёт до {@code max} готовых значений в sink.
+     *
+     * @return сколько значений выдано
+     */
+    public int drain(Consumer<? super V> sink, int max) {
+        int n = 0;
+        V v;
+        while (n < max && (v = poll()) != null) {
+            sink.accept(v);
+            n++;
+        }
+        return n;
+    }
+
+    /** Приблизительное число слотов, ожидающих выдачи. */
+    public int pending() { return ready.size(); }
+
+    /** Число отслеживаемых ключей. */
+    public int keys() { return slots.size(); }
+
+    public long offered() { return offered.sum(); }
+
+    /** Сколько значений было вытеснено более свежими до выдачи. */
+    public long superseded() { return superseded.sum(); }
+
+    public long delivered() { return delivered.sum(); }
+
+    /** Забыть ключ (например, рынок отписан). Невыданное значение теряется. */
+    public void remove(K key) {
+        Slot<V> slot = slots.remove(key);
+        if (slot != null) slot.value.set(null);
+    }
+
+    private static final class Slot<V> {
+        final AtomicReference<V> value = new AtomicReference<>();
+    }
+}
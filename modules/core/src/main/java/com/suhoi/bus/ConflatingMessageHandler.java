@@ -0,0 +1,66 @@
+package com.suhoi.bus;
+
+import com.suhoi.events.Tick;
+import com.suhoi.events.TickKey;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Conflation на стороне потребителя (fairprice/bias/detector): обёртка над {@link MessageHandler}
+ * для subjects с тиками. Поток диспетчера шины только кладёт сообщение в слот рынка,
+ * а делегат вызывается из отдельного потока — по каждому рынку только последнее сообщение.
+ * <p>Payload декодируется в {@link Tick} один раз, в потоке диспетчера: из тика берётся ключ рынка,
+ * и он же уходит делегату — повторно делегат ничего не разбирает. Сообщения, которые не удалось
+ * разобрать, пропускаются и считаются ({@link #rejected()}).</p>
+ *
+ * <pre>{@code
+ * var h = new ConflatingMessageHandler("fair-ticks", codec, (subject, tick) -> ...);
+ * bus.subscribe(Subjects.TICKS_ALL, h);
+ * }</pre>
+ */
+public final class ConflatingMessageHandler implements MessageHandler, AutoCloseable {
+    private final EventBus.JsonCodec codec;
+    private final ConflatingBuffer<TickKey, Pending> buffer = new ConflatingBuffer<>();
+    private final ConflationWorker<Pending> worker;
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param name     имя потока выгрузки
+     * @param delegate получатель (subject, тик) — вызывается из потока выгрузки
+     */
+    public ConflatingMessageHandler(String name, EventBus.JsonCodec codec, BiConsumer<String, Tick> delegate) {
+        this.codec = Objects.requireNonNull(codec, "codec");
+        Objects.requireNonNull(delegate, "delegate");
+        this.worker = new ConflationWorker<>(name, buffer, p -> delegate.accept(p.subject, p.tick));
+    }
+
+    @Override
+    public void onMessage(String subject, byte[] payload) {
+        Tick tick;
+        try {
+            tick = codec.fromBytes(payload, Tick.class);
+        } catch (RuntimeException notATick) {
+            rejected.increment();
+            return;
+        }
+        if (buffer.offer(TickKey.of(tick), new Pending(subject, tick))) {
+            worker.signal();
+        }
+    }
+
+    /** Сообщений, которые не разобрались как {@link Tick} и были пропущены. */
+    public long rejected() { return rejected.sum(); }
+
+    /** Буфер — для метрик (superseded/pending). */
+    public ConflatingBuffer<TickKey, ?> buffer() { return buffer; }
+
+    /** Дочитывает накопленные тики в делегат и останавливает поток выгрузки. */
+    @Override
+    public void close() {
+        worker.close();
+    }
+
+    private record Pending(String subject, Tick tick) {}
+}
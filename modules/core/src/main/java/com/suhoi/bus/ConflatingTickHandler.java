@@ -0,0 +1,48 @@
+package com.suhoi.bus;
+
+import com.suhoi.api.adapter.TickHandler;
+import com.suhoi.events.Tick;
+import com.suhoi.events.TickKey;
+
+import java.util.Objects;
+
+/**
+ * Conflation на стороне публикации (stream-router): адаптеры отдают тики сюда,
+ * а downstream (обычно публикация в шину) получает их из отдельного потока —
+ * по каждому рынку только последний, если downstream не успевает.
+ *
+ * <pre>{@code
+ * var stage = new ConflatingTickHandler("ticks-publisher",
+ *         t -> bus.publishJson(Subjects.ticks(t.asset()), t, codec));
+ * adapter.spotStream().subscribeBookTicker(symbols, stage);
+ * }</pre>
+ */
+public final class ConflatingTickHandler implements TickHandler, AutoCloseable {
+    private final ConflatingBuffer<TickKey, Tick> buffer = new ConflatingBuffer<>();
+    private final ConflationWorker<Tick> worker;
+
+    /**
+     * @param name       имя потока выгрузки
+     * @param downstream получатель свежих тиков (вызывается из потока выгрузки)
+     */
+    public ConflatingTickHandler(String name, TickHandler downstream) {
+        Objects.requireNonNull(downstream, "downstream");
+        this.worker = new ConflationWorker<>(name, buffer, downstream::onTick);
+    }
+
+    @Override
+    public void onTick(Tick tick) {
+        if (buffer.offer(TickKey.of(tick), tick)) {
+            worker.signal();
+        }
+    }
+
+    /** Буфер — для метрик (superseded/pending). */
+    public ConflatingBuffer<TickKey, Tick> buffer() { return buffer; }
+
+    /** Дочитывает накопленные значения в downstream и останавливает поток выгрузки. */
+    @Override
+    public void close() {
+        worker.close();
+    }
+}
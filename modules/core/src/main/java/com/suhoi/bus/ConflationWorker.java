@@ -0,0 +1,71 @@
+package com.suhoi.bus;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Поток-выгрузчик {@link ConflatingBuffer}: забирает свежие значения и отдаёт их в sink,
+ * как только sink освободился. Пока sink занят, буфер копит (и схлопывает) значения.
+ * <p>{@link #close()} дочитывает значения, положенные до него; положенные после — не выдаются.</p>
+ */
+final class ConflationWorker<V> implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ConflationWorker.class);
+    private static final int DRAIN_CHUNK = 256;
+
+    private final ConflatingBuffer<?, V> buffer;
+    private final Consumer<? super V> sink;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    ConflationWorker(String name, ConflatingBuffer<?, V> buffer, Consumer<? super V> sink) {
+        this.buffer = buffer;
+        this.sink = sink;
+        this.thread = Thread.ofPlatform().name(name).daemon().start(this::loop);
+    }
+
+    /** Будит поток после того, как в буфере появился новый готовый слот. */
+    void signal() {
+        LockSupport.unpark(thread);
+    }
+
+    private void loop() {
+        while (running) {
+            int n = buffer.drain(this::deliver, DRAIN_CHUNK);
+            if (n == 0) {
+                // страховочный таймаут на случай гонки signal()/park()
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(50));
+            }
+        }
+        // close(): отдать то, что успели положить до остановки
+        while (buffer.drain(this::deliver, DRAIN_CHUNK) > 0) {
+            // следующий кусок
+        }
+    }
+
+    private void deliver(V v) {
+        try {
+            sink.accept(v);
+        } catch (Throwable t) {
+            log.warn("Conflated delivery failed: {}", t.toString(), t);
+        }
+    }
+
+    /**
+     * Останавливает поток, предварительно выдав в sink всё накопленное. Ждёт не дольше 2с:
+     * если sink так и не освободился, остаток выдаётся в фоне уже после возврата.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,22 +1,119 @@
 package com.suhoi.bus;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+
 /**
  * Минимальная абстракция pub/sub.
- * Реализацию (NATS) добавим на этапе A4.
+ * Реализации: {@link com.suhoi.bus.nats.NatsEventBus} (межсервисная) и
+ * {@link com.suhoi.bus.inproc.InProcessEventBus} (все сервисы в одной JVM, тесты).
  */
 public interface EventBus extends AutoCloseable {
 
     void publish(String subject, byte[] payload);
 
+    /**
+     * Публикация с заголовками. Реализации без поддержки заголовков их игнорируют.
+     */
+    default void publish(String subject, Map<String, String> headers, byte[] payload) {
+        publish(subject, payload);
+    }
+
     Subscription subscribe(String subject, MessageHandler handler);
 
+    /**
+     * Подписка в queue group: каждое сообщение получает ровно один участник группы
+     * (горизонтальное масштабирование потребителей вместо дублирования обработки).
+     * Для привязки связанных сообщений к одному участнику см. {@link KeyAffinity}.
+     *
+     * @param queueGroup имя группы; участники с одинаковым именем делят поток
+     */
+    Subscription subscribe(String subject, String queueGroup, MessageHandler handler);
+
+    /**
+     * Подписка с явными параметрами доставки (буфер, политика переполнения, поток обработчика).
+     * Реализации без поддержки {@link SubscriptionOptions} игнорируют их.
+     *
+     * @param queueGroup группа или null для fan-out
+     */
+    default Subscription subscribe(String subject, String queueGroup, SubscriptionOptions options, MessageHandler handler) {
+        return queueGroup == null ? subscribe(subject, handler) : subscribe(subject, queueGroup, handler);
+    }
+
+    /**
+     * Подписка без копий: handler получает переиспользуемый {@link MessageView} в потоке
+     * клиента шины (без буфера подписки — view нельзя передать в другой поток).
+     * Реализация по умолчанию адаптирует обычную подписку и копий не экономит.
+     *
+     * @param queueGroup группа или null для fan-out
+     */
+    default Subscription subscribeView(String subject, String queueGroup, MessageViewHandler handler) {
+        MessageHandler adapter = (s, payload) -> handler.onMessage(new MessageView()
+                .setSubject(s, s.getBytes(StandardCharsets.UTF_8))
+                .setPayload(payload, 0, payload.length));
+        return subscribe(subject, queueGroup, SubscriptionOptions.direct(), adapter);
+    }
+
+    /**
+     * Типизированная подписка: payload декодируется кодеком в {@code type}.
+     * Реализации в одном процессе с публикатором могут отдавать опубликованный объект
+     * без сериализации (см. {@link #publishJson}).
+     *
+     * @param queueGroup группа или null для fan-out
+     */
+    default <T> Subscription subscribeJson(String subject, String queueGroup, Class<T> type, JsonCodec codec,
+                                           BiConsumer<String, T> handler) {
+        MessageHandler decoding = (s, payload) -> handler.accept(s, codec.fromBytes(payload, type));
+        return queueGroup == null ? subscribe(subject, decoding) : subscribe(subject, queueGroup, decoding);
+    }
+
+    /**
+     * Точечный запрос к сервису-владельцу состояния (request/reply).
+     * Future завершается ответом первого ответчика или исключением
+     * ({@link java.util.concurrent.TimeoutException} — никто не ответил за {@code timeout};
+     * {@link IllegalStateException} — на subject нет ни одного ответчика).
+     */
+    CompletableFuture<byte[]> request(String subject, byte[] payload, Duration timeout);
+
+    /**
+     * Регистрирует ответчика на subject (шаблоны допустимы).
+     *
+     * @param queueGroup реплики с одной группой делят запросы; null — отвечают все
+     */
+    Subscription reply(String subject, String queueGroup, ReplyHandler handler);
+
+    /**
+     * Сериализует payload кодеком. Для не-JSON кодеков кодировка помечается заголовком
+     * {@link BusHeaders#CONTENT_TYPE}; JSON уходит как раньше, без заголовков.
+     */
     default <T> void publishJson(String subject, T payload, JsonCodec codec) {
-        publish(subject, codec.toBytes(payload));
+        String contentType = codec.contentType();
+        if (BusHeaders.CONTENT_TYPE_JSON.equals(contentType)) {
+            publish(subject, codec.toBytes(payload));
+        } else {
+            publish(subject, Map.of(BusHeaders.CONTENT_TYPE, contentType), codec.toBytes(payload));
+        }
     }
 
     interface JsonCodec {
         byte[] toBytes(Object value);
         <T> T fromBytes(byte[] bytes, Class<T> type);
+
+        /**
+         * Декодирует участок массива (например, из {@link MessageView}).
+         * По умолчанию копирует участок, если он не совпадает с массивом целиком.
+         */
+        default <T> T fromBytes(byte[] bytes, int offset, int length, Class<T> type) {
+            if (offset == 0 && length == bytes.length) return fromBytes(bytes, type);
+            return fromBytes(Arrays.copyOfRange(bytes, offset, offset + length), type);
+        }
+
+        /** Значение заголовка {@link BusHeaders#CONTENT_TYPE} для этого кодека. */
+        default String contentType() { return BusHeaders.CONTENT_TYPE_JSON; }
     }
 
     @Override
@@ -1,19 +1,25 @@
 package com.suhoi.bus;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.suhoi.config.ObjectMapperFactory;
 
-/** Jackson-обёртка под EventBus.JsonCodec. */
+/**
+ * Jackson-обёртка под EventBus.JsonCodec.
+ * <p>Reader/writer берутся готовыми из {@link ObjectMapperFactory#reader}/{@link ObjectMapperFactory#writer}
+ * — без поиска (де)сериализатора на каждом сообщении.</p>
+ */
 public final class JacksonJsonCodec implements EventBus.JsonCodec {
-    private final ObjectMapper om = ObjectMapperFactory.get();
 
     @Override public byte[] toBytes(Object value) {
-        try { return om.writeValueAsBytes(value); }
+        try { return ObjectMapperFactory.writer(value.getClass()).writeValueAsBytes(value); }
         catch (JsonProcessingException e) { throw new RuntimeException(e); }
     }
     @Override public <T> T fromBytes(byte[] bytes, Class<T> type) {
-        try { return om.readValue(bytes, type); }
+        try { return ObjectMapperFactory.reader(type).readValue(bytes); }
+        catch (Exception e) { throw new RuntimeException(e); }
+    }
+    @Override public <T> T fromBytes(byte[] bytes, int offset, int length, Class<T> type) {
+        try { return ObjectMapperFactory.reader(type).readValue(bytes, offset, length); }
         catch (Exception e) { throw new RuntimeException(e); }
     }
 }
@@ -0,0 +1,81 @@
+package com.suhoi.bus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Привязка связанных сообщений (например, всех тиков одного asset) к одному участнику queue group.
+ * <p>
+ * Queue group в NATS раздаёт сообщения случайно, поэтому состояние «по asset» разъехалось бы
+ * между инстансами. Решение — слот в subject: публикатор пишет в {@code <prefix>.s<slot>.<key>},
+ * где {@code slot = hash(key) mod slots}, а участник {@code i} из {@code n} подписывается только
+ * на свои слоты ({@code slot mod n == i}) в queue group. Разные индексы никогда не видят чужих ключей.
+ * </p>
+ * <p>
+ * Реплики с одинаковым индексом в одной queue group — не резерв: NATS делит между ними сообщения
+ * слота, и состояние по ключу у них расходится. Для состояния по ключу держите одного участника
+ * на индекс; единственного владельца слота с переездом при уходе участника даёт
+ * {@link ShardCoordinator} (те же subjects).
+ * </p>
+ * Хеш стабилен между JVM и версиями (не зависит от {@code String.hashCode} рантайма).
+ */
+public final class KeyAffinity {
+    private KeyAffinity() {}
+
+    /** Стабильный неотрицательный хеш ключа (FNV-1a 32 по UTF-16 + финальное перемешивание murmur3). */
+    public static int hash(String key) {
+        int h = 0x811C9DC5;
+        for (int i = 0, n = key.length(); i < n; i++) {
+            h ^= key.charAt(i);
+            h *= 0x01000193;
+        }
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h & 0x7FFFFFFF;
+    }
+
+    /** Слот ключа из {@code slots}. */
+    public static int slot(String key, int slots) {
+        if (slots <= 0) throw new IllegalArgumentException("slots must be > 0");
+        return hash(key) % slots;
+    }
+
+    /** Subject публикации с привязкой: {@code <prefix>.s<slot>.<key>}. */
+    public static String pinnedSubject(String prefix, String key, int slots) {
+        return prefix + ".s" + slot(key, slots) + "." + key;
+    }
+
+    /** Wildcard всех ключей слота: {@code <prefix>.s<slot>.>}. */
+    public static String slotSubject(String prefix, int slot) {
+        return prefix + ".s" + slot + ".>";
+    }
+
+    /**
+     * Подписывает участника {@code memberIndex} из {@code memberCount} на его слоты.
+     *
+     * @param prefix     префикс subject (например, {@code "ticks"})
+     * @param queueGroup queue group участника (реплики с одним индексом делят сообщения, а не состояние)
+     * @param slots      общее число слотов (одинаково у публикаторов и потребителей)
+     * @return составная подписка на все слоты участника
+     */
+    public static Subscription subscribeMember(EventBus bus, String prefix, String queueGroup,
+                                               int memberIndex, int memberCount, int slots,
+                                               MessageHandler handler) {
+        Objects.requireNonNull(bus, "bus");
+        if (memberCount <= 0 || memberIndex < 0 || memberIndex >= memberCount) {
+            throw new IllegalArgumentException("bad member " + memberIndex + "/" + memberCount);
+        }
+        if (slots < memberCount) {
+            throw new IllegalArgumentException("slots (" + slots + ") must be >= memberCount (" + memberCount + ")");
+        }
+        List<Subscription> subs = new ArrayList<>();
+        for (int s = memberIndex; s < slots; s += memberCount) {
+            subs.add(bus.subscribe(slotSubject(prefix, s), queueGroup, handler));
+        }
+        return () -> subs.forEach(Subscription::close);
+    }
+}
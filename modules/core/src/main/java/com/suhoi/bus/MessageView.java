@@ -0,0 +1,126 @@
+package com.suhoi.bus;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Переиспользуемое окно на входящее сообщение для {@link MessageViewHandler}.
+ * <p>
+ * Subject и payload отдаются как участки чужих массивов (буфер клиента шины или кадр
+ * микробатча) — без копирования и без создания {@link String}. Экземпляр принадлежит
+ * подписке и перезаполняется на каждое сообщение: <b>валиден только внутри вызова</b>
+ * {@link MessageViewHandler#onMessage(MessageView)}; массивы нельзя изменять, а чтобы
+ * сохранить данные дольше — {@link #copyPayload()} / {@link #subject()}.
+ * </p>
+ * Методы {@code set*} предназначены для реализаций {@link EventBus}.
+ */
+public final class MessageView {
+
+    /** Доступ к заголовкам текущего сообщения без построения Map. */
+    @FunctionalInterface
+    public interface Headers {
+        Headers NONE = name -> null;
+
+        /** Первое значение заголовка или null. */
+        String first(String name);
+    }
+
+    private String subject;          // null — ещё не материализован из байтов
+    private byte[] subjectBytes;
+    private int subjectOffset;
+    private int subjectLength;
+
+    private byte[] payload;
+    private int payloadOffset;
+    private int payloadLength;
+
+    private Headers headers = Headers.NONE;
+
+    /** Subject, уже известный строкой (и его байты, обычно из кэша подписки). */
+    public MessageView setSubject(String subject, byte[] bytes) {
+        this.subject = subject;
+        this.subjectBytes = bytes;
+        this.subjectOffset = 0;
+        this.subjectLength = bytes.length;
+        return this;
+    }
+
+    /** Subject как участок массива (ASCII/UTF-8); строка создаётся лениво в {@link #subject()}. */
+    public MessageView setSubject(byte[] buf, int offset, int length) {
+        this.subject = null;
+        this.subjectBytes = buf;
+        this.subjectOffset = offset;
+        this.subjectLength = length;
+        return this;
+    }
+
+    public MessageView setPayload(byte[] buf, int offset, int length) {
+        this.payload = buf;
+        this.payloadOffset = offset;
+        this.payloadLength = length;
+        return this;
+    }
+
+    public MessageView setHeaders(Headers headers) {
+        this.headers = headers == null ? Headers.NONE : headers;
+        return this;
+    }
+
+    // ---- subject ----
+
+    /** Subject строкой. Для записей микробатча создаётся при первом обращении. */
+    public String subject() {
+        String s = subject;
+        if (s == null) {
+            s = new String(subjectBytes, subjectOffset, subjectLength, StandardCharsets.UTF_8);
+            subject = s;
+        }
+        return s;
+    }
+
+    public byte[] subjectBytes() { return subjectBytes; }
+    public int subjectOffset() { return subjectOffset; }
+    public int subjectLength() { return subjectLength; }
+
+    /** Побайтовое сравнение subject с заранее закодированным значением. */
+    public boolean subjectEquals(byte[] expected) {
+        return Arrays.equals(subjectBytes, subjectOffset, subjectOffset + subjectLength,
+                expected, 0, expected.length);
+    }
+
+    /** Сопоставление subject с шаблоном NATS без создания строки. */
+    public boolean subjectMatches(String pattern) {
+        return SubjectMatcher.matches(pattern, subjectBytes, subjectOffset, subjectLength);
+    }
+
+    // ---- payload ----
+
+    public byte[] payload() { return payload; }
+    public int payloadOffset() { return payloadOffset; }
+    public int payloadLength() { return payloadLength; }
+
+    /** Read-only окно на payload (аллоцирует только обёртку, не данные). */
+    public ByteBuffer payloadBuffer() {
+        return ByteBuffer.wrap(payload, payloadOffset, payloadLength).slice().asReadOnlyBuffer();
+    }
+
+    /** Копия payload — для передачи за пределы колбэка. */
+    public byte[] copyPayload() {
+        return Arrays.copyOfRange(payload, payloadOffset, payloadOffset + payloadLength);
+    }
+
+    /** Декодирует payload кодеком прямо из буфера. */
+    public <T> T decode(EventBus.JsonCodec codec, Class<T> type) {
+        return codec.fromBytes(payload, payloadOffset, payloadLength, type);
+    }
+
+    // ---- headers ----
+
+    /** Первое значение заголовка или null. */
+    public String header(String name) {
+        return headers.first(name);
+    }
+
+    public Headers headers() { return headers; }
+}
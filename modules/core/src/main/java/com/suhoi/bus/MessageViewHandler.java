@@ -0,0 +1,11 @@
+package com.suhoi.bus;
+
+/**
+ * Колбек обработки сообщения без копий: получает переиспользуемый {@link MessageView}.
+ * <p>Вызывается в потоке клиента шины; view валиден только на время вызова.
+ * Для горячих подписчиков, которые декодируют payload сразу (fairprice и т.п.).</p>
+ */
+@FunctionalInterface
+public interface MessageViewHandler {
+    void onMessage(MessageView view);
+}
@@ -0,0 +1,21 @@
+package com.suhoi.bus;
+
+/**
+ * Поведение буфера подписки ({@link SubscriptionMailbox}) при переполнении.
+ */
+public enum OverflowPolicy {
+    /** Выбросить самое старое сообщение очереди и принять новое (свежесть важнее полноты). */
+    DROP_OLDEST,
+    /** Отбросить входящее сообщение, очередь не трогать. */
+    DROP_NEWEST,
+    /**
+     * Новое сообщение заменяет ещё не обработанное с тем же ключом (см. {@link SubscriptionOptions#conflationKey()});
+     * если такого нет и буфер полон — выбрасывается самое старое.
+     */
+    CONFLATE_BY_KEY,
+    /**
+     * Поток доставки ждёт освобождения места. Давление уходит в клиент шины —
+     * дальше решают его собственные лимиты (для NATS — slow consumer).
+     */
+    BLOCK
+}
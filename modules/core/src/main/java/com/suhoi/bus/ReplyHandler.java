@@ -0,0 +1,13 @@
+package com.suhoi.bus;
+
+/**
+ * Обработчик запросов {@link EventBus#request}: отвечает из памяти сервиса-владельца состояния
+ * (fair/bias/последняя котировка). Вызывается в потоке клиента шины — должен быть быстрым.
+ */
+@FunctionalInterface
+public interface ReplyHandler {
+    /**
+     * @return тело ответа; null — не отвечать (запрос дождётся другого ответчика или таймаута)
+     */
+    byte[] onRequest(String subject, byte[] payload);
+}
@@ -0,0 +1,243 @@
+package com.suhoi.bus;
+
+import com.suhoi.events.Subjects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Владение партициями внутри группы сервисов (fairprice/bias/detector) без внешнего координатора.
+ * <p>
+ * Механика:
+ * <ul>
+ *   <li>каждый участник раз в {@code heartbeat} публикует себя в {@link Subjects#shardControl(String)};
+ *       участник, не слышанный {@code 3 × heartbeat}, считается ушедшим; при close() шлётся LEAVE;</li>
+ *   <li>партиции раздаются rendezvous-хешированием (HRW): партиция {@code p} принадлежит участнику
+ *       с максимальным {@code hash(memberId#p)} — при входе/выходе участника переезжает только
+ *       ~{@code 1/n} партиций;</li>
+ *   <li>партиция — слот {@link KeyAffinity}: публикаторы пишут в
+ *       {@link KeyAffinity#pinnedSubject(String, String, int) pinnedSubject(prefix, key, partitions)},
+ *       на свои партиции координатор сам подписывает handler
+ *       ({@link KeyAffinity#slotSubject(String, int) slotSubject(prefix, p)}), на отданные — отписывает;
+ *       {@link Listener} узнаёт о смене, чтобы поднять/сбросить состояние.</li>
+ * </ul>
+ * Первое распределение выполняется через {@code 2 × heartbeat} после старта, чтобы успеть услышать
+ * уже живых участников. При перебалансировке возможен короткий разрыв/перекрытие доставки
+ * (core NATS — at-most-once); для тиков это приемлемо.
+ * <p>Все изменения состояния выполняются в одном служебном потоке.</p>
+ */
+public final class ShardCoordinator implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ShardCoordinator.class);
+
+    /** Уведомления о смене владения (вызываются из служебного потока координатора). */
+    public interface Listener {
+        void onAssigned(int partition);
+
+        void onRevoked(int partition);
+    }
+
+    private final EventBus bus;
+    private final String group;
+    private final String memberId;
+    private final int partitions;
+    private final Duration heartbeat;
+    private final String subjectPrefix;
+    private final MessageHandler handler;
+    private final Listener listener;
+
+    private final ScheduledExecutorService exec;
+    private final Map<String, Long> lastSeenNanos = new HashMap<>();
+    private final Map<Integer, Subscription> owned = new TreeMap<>();
+    private volatile Set<Integer> ownedView = Set.of();
+    private volatile Set<String> membersView = Set.of();
+    private Subscription control;
+    private boolean settled;
+    private volatile boolean closed;
+
+    private ShardCoordinator(Builder b) {
+        this.bus = Objects.requireNonNull(b.bus, "bus");
+        this.group = Objects.requireNonNull(b.group, "group");
+        this.memberId = Objects.requireNonNull(b.memberId, "memberId");
+        this.partitions = b.partitions;
+        this.heartbeat = b.heartbeat;
+        this.subjectPrefix = Objects.requireNonNull(b.subjectPrefix, "subjectPrefix");
+        this.handler = Objects.requireNonNull(b.handler, "handler");
+        this.listener = b.listener;
+        if (memberId.indexOf('\n') >= 0) throw new IllegalArgumentException("memberId must be single-line");
+        this.exec = Executors.newSingleThreadScheduledExecutor(r -> {
+            var t = new Thread(r, "shards-" + group);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public static Builder builder() { return new Builder(); }
+
+    /** Начинает участие в группе. */
+    public ShardCoordinator start() {
+        control = bus.subscribe(Subjects.shardControl(group), (subject, payload) -> onControl(payload));
+        long hbMs = heartbeat.toMillis();
+        exec.execute(() -> lastSeenNanos.put(memberId, System.nanoTime()));
+        exec.scheduleAtFixedRate(this::tick, 0, hbMs, TimeUnit.MILLISECONDS);
+        exec.schedule(() -> { settled = true; rebalance(); }, 2 * hbMs, TimeUnit.MILLISECONDS);
+        return this;
+    }
+
+    /** Текущие партиции этого участника. */
+    public Set<Integer> owned() { return ownedView; }
+
+    /** Текущий состав группы (включая себя). */
+    public Set<String> members() { return membersView; }
+
+    public String memberId() { return memberId; }
+
+    private void tick() {
+        if (closed) return;
+        try {
+            publishControl(false);
+            long now = System.nanoTime();
+            long ttl = heartbeat.toNanos() * 3;
+            lastSeenNanos.put(memberId, now);
+            boolean changed = lastSeenNanos.entrySet().removeIf(e ->
+                    !e.getKey().equals(memberId) && now - e.getValue() > ttl);
+            if (changed) rebalance();
+        } catch (Exception e) {
+            log.warn("Shard heartbeat failed for group {}: {}", group, e.toString());
+        }
+    }
+
+    private void onControl(byte[] payload) {
+        String text = new String(payload, StandardCharsets.UTF_8);
+        int nl = text.indexOf('\n');
+        String id = nl < 0 ? text : text.substring(0, nl);
+        boolean leaving = nl >= 0 && "LEAVE".equals(text.substring(nl + 1));
+        if (id.isEmpty() || id.equals(memberId) || closed) return;
+        try {
+            exec.execute(() -> {
+                boolean changed = leaving
+                        ? lastSeenNanos.remove(id) != null
+                        : lastSeenNanos.put(id, System.nanoTime()) == null;
+                if (changed) rebalance();
+            });
+        } catch (RejectedExecutionException ignore) {
+            // координатор закрывается
+        }
+    }
+
+    private void publishControl(boolean leaving) {
+        String msg = leaving ? memberId + "\nLEAVE" : memberId;
+        bus.publish(Subjects.shardControl(group), msg.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void rebalance() {
+        membersView = Collections.unmodifiableSet(new TreeSet<>(lastSeenNanos.keySet()));
+        if (!settled || closed) return;
+
+        Set<Integer> target = new HashSet<>();
+        for (int p = 0; p < partitions; p++) {
+            if (memberId.equals(ownerOf(p, lastSeenNanos.keySet()))) target.add(p);
+        }
+        owned.keySet().removeIf(p -> {
+            if (target.contains(p)) return false;
+            revoke(p, owned.get(p));
+            return true;
+        });
+        for (int p : target) {
+            if (!owned.containsKey(p)) {
+                owned.put(p, bus.subscribe(KeyAffinity.slotSubject(subjectPrefix, p), handler));
+                if (listener != null) safely(() -> listener.onAssigned(p));
+            }
+        }
+        ownedView = Collections.unmodifiableSet(new TreeSet<>(owned.keySet()));
+        log.info("Shard group {} member {}: {} members, owns {}/{} partitions",
+                group, memberId, lastSeenNanos.size(), owned.size(), partitions);
+    }
+
+    private void revoke(int p, Subscription sub) {
+        try { sub.close(); } catch (Exception ignore) {}
+        if (listener != null) safely(() -> listener.onRevoked(p));
+    }
+
+    /** Rendezvous-владелец партиции (детерминирован для одинакового состава группы). */
+    static String ownerOf(int partition, Set<String> members) {
+        String best = null;
+        int bestScore = -1;
+        for (String m : members) {
+            int score = KeyAffinity.hash(m + "#" + partition);
+            if (score > bestScore || (score == bestScore && m.compareTo(best) < 0)) {
+                best = m;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    private static void safely(Runnable r) {
+        try { r.run(); } catch (Exception e) { log.warn("Shard listener failed: {}", e.toString(), e); }
+    }
+
+    /** Отдаёт партиции, сообщает группе LEAVE и останавливает служебный поток. */
+    @Override
+    public void close() {
+        if (closed) return;
+        try {
+            exec.submit(() -> {
+                closed = true;
+                owned.forEach(this::revoke);
+                owned.clear();
+                ownedView = Set.of();
+                try { publishControl(true); } catch (Exception ignore) {}
+            }).get(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            closed = true;
+            log.debug("Shard coordinator close: {}", e.toString());
+        }
+        if (control != null) control.close();
+        exec.shutdownNow();
+    }
+
+    /**
+     * Builder; по умолчанию — тики: префикс {@link Subjects#TICKS}, партиций
+     * {@link Subjects#DEFAULT_TICK_PARTITIONS}, heartbeat 2с.
+     */
+    public static final class Builder {
+        private EventBus bus;
+        private String group;
+        private String memberId;
+        private int partitions = Subjects.DEFAULT_TICK_PARTITIONS;
+        private Duration heartbeat = Duration.ofSeconds(2);
+        private String subjectPrefix = Subjects.TICKS;
+        private MessageHandler handler;
+        private Listener listener;
+
+        public Builder bus(EventBus bus) { this.bus = bus; return this; }
+        public Builder group(String group) { this.group = group; return this; }
+        public Builder memberId(String memberId) { this.memberId = memberId; return this; }
+        public Builder partitions(int n) { this.partitions = n; return this; }
+        public Builder heartbeat(Duration d) { this.heartbeat = d; return this; }
+        /** Префикс subjects {@link KeyAffinity}; {@code partitions} — его число слотов у публикаторов. */
+        public Builder subjectPrefix(String prefix) { this.subjectPrefix = prefix; return this; }
+        public Builder handler(MessageHandler h) { this.handler = h; return this; }
+        public Builder listener(Listener l) { this.listener = l; return this; }
+
+        public ShardCoordinator build() {
+            if (partitions <= 0) throw new IllegalArgumentException("partitions must be > 0");
+            if (heartbeat.toMillis() <= 0) throw new IllegalArgumentException("heartbeat must be > 0");
+            return new ShardCoordinator(this);
+        }
+    }
+}
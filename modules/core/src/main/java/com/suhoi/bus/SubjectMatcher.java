@@ -0,0 +1,92 @@
+package com.suhoi.bus;
+
+/**
+ * Сопоставление subject с шаблоном по правилам NATS:
+ * токены через '.', {@code *} — ровно один токен, {@code >} — один и более хвостовых токенов.
+ * Без аллокаций (посимвольный проход).
+ */
+public final class SubjectMatcher {
+    private SubjectMatcher() {
+    }
+
+    /** @return true, если шаблон содержит wildcard-токены. */
+    public static boolean isWildcard(String pattern) {
+        int n = pattern.length();
+        for (int i = 0; i < n; i++) {
+            char c = pattern.charAt(i);
+            if ((c == '*' || c == '>')
+                    && (i == 0 || pattern.charAt(i - 1) == '.')
+                    && (i == n - 1 || pattern.charAt(i + 1) == '.')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static boolean matches(String pattern, String subject) {
+        int pn = pattern.length();
+        int sn = subject.length();
+        int p = 0;
+        int s = 0;
+        while (p < pn) {
+            if (s > sn) return false;
+            int pe = tokenEnd(pattern, p);
+            int plen = pe - p;
+            if (plen == 1 && pattern.charAt(p) == '>') {
+                // '>' требует хотя бы один оставшийся токен
+                return s < sn;
+            }
+            if (s == sn) return false;
+            int se = tokenEnd(subject, s);
+            if (!(plen == 1 && pattern.charAt(p) == '*')) {
+                if (plen != se - s || !pattern.regionMatches(p, subject, s, plen)) return false;
+            }
+            p = pe + 1;
+            s = se + 1;
+        }
+        // шаблон исчерпан: subject тоже должен быть исчерпан
+        return s == sn + 1;
+    }
+
+    /**
+     * То же для subject, заданного участком массива (без создания строки).
+     * Литеральные токены шаблона сравниваются побайтно — рассчитано на ASCII-subjects.
+     */
+    public static boolean matches(String pattern, byte[] subject, int offset, int length) {
+        int pn = pattern.length();
+        int sn = offset + length;
+        int p = 0;
+        int s = offset;
+        while (p < pn) {
+            if (s > sn) return false;
+            int pe = tokenEnd(pattern, p);
+            int plen = pe - p;
+            if (plen == 1 && pattern.charAt(p) == '>') {
+                return s < sn;
+            }
+            if (s == sn) return false;
+            int se = tokenEnd(subject, s, sn);
+            if (!(plen == 1 && pattern.charAt(p) == '*')) {
+                if (plen != se - s) return false;
+                for (int i = 0; i < plen; i++) {
+                    if (pattern.charAt(p + i) != (char) (subject[s + i] & 0xFF)) return false;
+                }
+            }
+            p = pe + 1;
+            s = se + 1;
+        }
+        return s == sn + 1;
+    }
+
+    private static int tokenEnd(byte[] buf, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (buf[i] == '.') return i;
+        }
+        return end;
+    }
+
+    private static int tokenEnd(String str, int from) {
+        int i = str.indexOf('.', from);
+        return i < 0 ? str.length() : i;
+    }
+}
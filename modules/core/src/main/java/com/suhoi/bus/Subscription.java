@@ -2,8 +2,19 @@ package com.suhoi.bus;
 
 /**
  * Хэндл подписки.
+ * <p>Счётчики — буфер подписки ({@link SubscriptionOptions#capacity()} > 0) и очередь самого
+ * клиента шины, если реализация её видит (NATS — очередь dispatcher'а); иначе нули.</p>
  */
 public interface Subscription extends AutoCloseable {
     @Override
     void close();
+
+    /** Сообщений в буфере подписки, ещё не отданных обработчику. */
+    default int pending() { return 0; }
+
+    /** Сообщений, отброшенных политикой переполнения (включая заменённые при conflation). */
+    default long dropped() { return 0L; }
+
+    /** Сообщений, отданных обработчику. */
+    default long delivered() { return 0L; }
 }
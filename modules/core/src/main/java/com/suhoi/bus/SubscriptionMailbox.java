@@ -0,0 +1,220 @@
+package com.suhoi.bus;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ограниченный кольцевой буфер подписки со своим потоком обработчика.
+ * <p>
+ * Поток клиента шины только кладёт сообщение ({@link #offer}); {@link MessageHandler} вызывается
+ * из собственного потока mailbox'а (виртуального или платформенного). При переполнении
+ * работает {@link OverflowPolicy}; глубина и счётчики доступны для метрик.
+ * </p>
+ * Кольцо — параллельные массивы под одним локом: производитель обычно один (диспетчер подписки),
+ * так что конкуренция за лок минимальна, а политики DROP_OLDEST/CONFLATE требуют
+ * согласованно двигать голову очереди.
+ */
+public final class SubscriptionMailbox implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(SubscriptionMailbox.class);
+
+    private final String name;
+    private final MessageHandler handler;
+    private final OverflowPolicy policy;
+    private final SubscriptionOptions options;
+
+    private final String[] subjects;
+    private final byte[][] payloads;
+    private final Object[] keys;              // только для CONFLATE_BY_KEY
+    private final Map<Object, Integer> keyIndex; // ключ → индекс ещё не выданного сообщения
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private int head;
+    private int size;
+
+    private volatile long delivered; // пишет только поток обработчика
+    private long dropped;
+    private long conflated;
+    private int maxDepth;
+
+    private volatile boolean closed;
+    private final Thread consumer;
+
+    public SubscriptionMailbox(String name, SubscriptionOptions options, MessageHandler handler) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.options = Objects.requireNonNull(options, "options");
+        this.handler = Objects.requireNonNull(handler, "handler");
+        if (options.capacity() <= 0) throw new IllegalArgumentException("mailbox capacity must be > 0");
+        this.policy = options.overflow();
+        int cap = options.capacity();
+        this.subjects = new String[cap];
+        this.payloads = new byte[cap][];
+        boolean conflate = policy == OverflowPolicy.CONFLATE_BY_KEY;
+        this.keys = conflate ? new Object[cap] : null;
+        this.keyIndex = conflate ? new HashMap<>() : null;
+        Thread.Builder tb = options.virtualThread() ? Thread.ofVirtual() : Thread.ofPlatform().daemon();
+        this.consumer = tb.name("sub-" + name).start(this::loop);
+    }
+
+    /**
+     * Кладёт сообщение по правилам {@link OverflowPolicy}.
+     *
+     * @return false, если сообщение отброшено (DROP_NEWEST или mailbox закрыт)
+     */
+    public boolean offer(String subject, byte[] payload) {
+        Object key = keyIndex != null ? options.conflationKey().apply(subject, payload) : null;
+        lock.lock();
+        try {
+            if (closed) return false;
+            if (key != null) {
+                Integer idx = keyIndex.get(key);
+                if (idx != null) {
+                    subjects[idx] = subject;
+                    payloads[idx] = payload;
+                    conflated++;
+                    dropped++;
+                    return true;
+                }
+            }
+            if (size == subjects.length) {
+                switch (policy) {
+                    case DROP_NEWEST -> {
+                        dropped++;
+                        return false;
+                    }
+                    case DROP_OLDEST, CONFLATE_BY_KEY -> {
+                        removeHead();
+                        dropped++;
+                    }
+                    case BLOCK -> {
+                        while (size == subjects.length && !closed) {
+                            notFull.awaitUninterruptibly();
+                        }
+                        if (closed) return false;
+                    }
+                }
+            }
+            int tail = (head + size) % subjects.length;
+            subjects[tail] = subject;
+            payloads[tail] = payload;
+            if (key != null) {
+                keys[tail] = key;
+                keyIndex.put(key, tail);
+            }
+            size++;
+            if (size > maxDepth) maxDepth = size;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void loop() {
+        String subject;
+        byte[] payload;
+        while (true) {
+            lock.lock();
+            try {
+                while (size == 0) {
+                    if (closed) return;
+                    try {
+                        notEmpty.await(100, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        if (closed) return;
+                    }
+                }
+                subject = subjects[head];
+                payload = payloads[head];
+                removeHead();
+                notFull.signal();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                handler.onMessage(subject, payload);
+            } catch (Throwable t) {
+                log.warn("Handler error on subscription {}: {}", name, t.toString(), t);
+            }
+            delivered++;
+        }
+    }
+
+    /** Под локом: снять голову очереди. */
+    private void removeHead() {
+        if (keys != null) {
+            Object k = keys[head];
+            Integer idx = keyIndex.get(k);
+            if (idx != null && idx == head) keyIndex.remove(k);
+            keys[head] = null;
+        }
+        subjects[head] = null;
+        payloads[head] = null;
+        head = (head + 1) % subjects.length;
+        size--;
+    }
+
+    /** Текущая глубина очереди. */
+    public int depth() {
+        lock.lock();
+        try { return size; } finally { lock.unlock(); }
+    }
+
+    /** Максимальная глубина с момента создания. */
+    public int maxDepth() {
+        lock.lock();
+        try { return maxDepth; } finally { lock.unlock(); }
+    }
+
+    public int capacity() { return subjects.length; }
+
+    public long delivered() { return delivered; }
+
+    /** Все отброшенные сообщения (включая заменённые при conflation). */
+    public long dropped() {
+        lock.lock();
+        try { return dropped; } finally { lock.unlock(); }
+    }
+
+    /** Из них заменены более свежими с тем же ключом. */
+    public long conflated() {
+        lock.lock();
+        try { return conflated; } finally { lock.unlock(); }
+    }
+
+    /**
+     * Останавливает приём, даёт потоку доработать уже принятые сообщения (до {@code timeoutMs})
+     * и завершает его.
+     */
+    public void close(long timeoutMs) {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            if (!consumer.join(Duration.ofMillis(timeoutMs))) {
+                consumer.interrupt();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        close(2000);
+    }
+}
@@ -0,0 +1,72 @@
+package com.suhoi.bus;
+
+import java.util.Objects;
+import java.util.function.BiFunction;
+
+/**
+ * Иммутабельные параметры доставки для одной подписки.
+ * <p>{@code capacity > 0} — сообщения проходят через собственный ограниченный буфер
+ * {@link SubscriptionMailbox} и отдельный поток обработчика; {@code capacity == 0} — handler
+ * вызывается прямо в потоке клиента шины. По умолчанию — прямая доставка; буфер включается
+ * явно ({@link #mailbox(int)} или {@link Builder#capacity(int)}).</p>
+ */
+public final class SubscriptionOptions {
+    private final int capacity;
+    private final OverflowPolicy overflow;
+    private final BiFunction<String, byte[], Object> conflationKey;
+    private final boolean virtualThread;
+    private final long pendingMessageLimit;
+    private final long pendingByteLimit;
+
+    private SubscriptionOptions(Builder b) {
+        this.capacity = b.capacity;
+        this.overflow = b.overflow;
+        this.conflationKey = b.conflationKey;
+        this.virtualThread = b.virtualThread;
+        this.pendingMessageLimit = b.pendingMessageLimit;
+        this.pendingByteLimit = b.pendingByteLimit;
+    }
+
+    /** Без буфера: handler в потоке клиента шины. */
+    public static SubscriptionOptions direct() { return builder().build(); }
+
+    /** Буфер на {@code capacity} сообщений, DROP_OLDEST, виртуальный поток. */
+    public static SubscriptionOptions mailbox(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("mailbox capacity must be > 0");
+        return builder().capacity(capacity).build();
+    }
+
+    public int capacity() { return capacity; }
+    public OverflowPolicy overflow() { return overflow; }
+    /** Ключ для {@link OverflowPolicy#CONFLATE_BY_KEY}; по умолчанию — subject. */
+    public BiFunction<String, byte[], Object> conflationKey() { return conflationKey; }
+    public boolean virtualThread() { return virtualThread; }
+    /** Лимит очереди самого клиента шины (для NATS — pending limits диспетчера); 0 — дефолт клиента. */
+    public long pendingMessageLimit() { return pendingMessageLimit; }
+    public long pendingByteLimit() { return pendingByteLimit; }
+
+    public static Builder builder() { return new Builder(); }
+
+    public static final class Builder {
+        private int capacity = 0;
+        private OverflowPolicy overflow = OverflowPolicy.DROP_OLDEST;
+        private BiFunction<String, byte[], Object> conflationKey = (subject, payload) -> subject;
+        private boolean virtualThread = true;
+        private long pendingMessageLimit = 0;
+        private long pendingByteLimit = 0;
+
+        public Builder capacity(int n) { this.capacity = n; return this; }
+        public Builder overflow(OverflowPolicy p) { this.overflow = p; return this; }
+        public Builder conflationKey(BiFunction<String, byte[], Object> f) { this.conflationKey = f; return this; }
+        public Builder virtualThread(boolean v) { this.virtualThread = v; return this; }
+        public Builder pendingMessageLimit(long n) { this.pendingMessageLimit = n; return this; }
+        public Builder pendingByteLimit(long n) { this.pendingByteLimit = n; return this; }
+
+        public SubscriptionOptions build() {
+            if (capacity < 0) throw new IllegalArgumentException("capacity must be >= 0");
+            Objects.requireNonNull(overflow, "overflow");
+            Objects.requireNonNull(conflationKey, "conflationKey");
+            return new SubscriptionOptions(this);
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.suhoi.bus.inproc;
+
+import com.suhoi.bus.BusHeaders;
+import com.suhoi.bus.EventBus;
+import com.suhoi.bus.MessageHandler;
+import com.suhoi.bus.MessageView;
+import com.suhoi.bus.MessageViewHandler;
+import com.suhoi.bus.ReplyHandler;
+import com.suhoi.bus.SubjectMatcher;
+import com.suhoi.bus.Subscription;
+import com.suhoi.bus.SubscriptionOptions;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * EventBus внутри одной JVM — для all-in-one развёртывания (stream-router, fairprice, bias,
+ * detector в одном процессе) и для прогона пайплайна в CI без брокера.
+ * <p>
+ * Свойства:
+ * <ul>
+ *   <li>у каждой подписки своё предвыделенное кольцо ({@link RingSubscription}) и поток
+ *       потребителя; публикатор не аллоцирует на сообщение;</li>
+ *   <li>шаблоны subject по правилам NATS ({@code *}, {@code >}); маршрут subject → подписки
+ *       кэшируется до следующего subscribe/close;</li>
+ *   <li>queue group — сообщение получает один участник группы (round-robin);</li>
+ *   <li>{@link #publishJson} не сериализует: типизированные подписчики ({@link #subscribeJson})
+ *       получают тот же объект, байты кодируются один раз и только если есть байтовые подписчики;</li>
+ *   <li>request/reply — ответчик вызывается на виртуальном потоке, таймаут через future.</li>
+ * </ul>
+ * Объекты, опубликованные через {@code publishJson}, разделяются между потоками подписчиков —
+ * события должны быть неизменяемыми (record'ы из {@code com.suhoi.events} такие).
+ */
+public final class InProcessEventBus implements EventBus {
+    private static final int ROUTE_CACHE_MAX = 65_536;
+    private static final int SUBJECT_CACHE_MAX = 4096;
+
+    private final InProcessEventBusConfig cfg;
+    private final List<RingSubscription> subs = new CopyOnWriteArrayList<>();
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+    private final List<Responder> responders = new CopyOnWriteArrayList<>();
+    private final ExecutorService requestExec = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile int version; // меняется при каждом subscribe/close — сбрасывает кэш маршрутов
+    private volatile boolean closed;
+
+    public InProcessEventBus() {
+        this(InProcessEventBusConfig.builder().build());
+    }
+
+    public InProcessEventBus(InProcessEventBusConfig cfg) {
+        this.cfg = Objects.requireNonNull(cfg, "config");
+    }
+
+    @Override
+    public void publish(String subject, byte[] payload) {
+        Objects.requireNonNull(payload, "payload");
+        dispatch(subject, null, payload, null, null);
+    }
+
+    @Override
+    public void publish(String subject, Map<String, String> headers, byte[] payload) {
+        Objects.requireNonNull(payload, "payload");
+        dispatch(subject, headers == null || headers.isEmpty() ? null : headers, payload, null, null);
+    }
+
+    /** Публикация объекта без сериализации (байты — только для байтовых подписчиков). */
+    @Override
+    public <T> void publishJson(String subject, T payload, JsonCodec codec) {
+        Objects.requireNonNull(payload, "payload");
+        Objects.requireNonNull(codec, "codec");
+        String contentType = codec.contentType();
+        Map<String, String> headers = BusHeaders.CONTENT_TYPE_JSON.equals(contentType)
+                ? null : Map.of(BusHeaders.CONTENT_TYPE, contentType);
+        dispatch(subject, headers, null, payload, codec);
+    }
+
+    private void dispatch(String subject, Map<String, String> headers, byte[] payload, Object value, JsonCodec codec) {
+        Objects.requireNonNull(subject, "subject");
+        if (closed) throw new IllegalStateException("InProcessEventBus is closed");
+        Route route = route(subject);
+        for (RingSubscription s : route.fanout) {
+            payload = offer(s, subject, headers, payload, value, codec);
+        }
+        for (RingSubscription[] group : route.groups) {
+            RingSubscription s = group[Math.floorMod(route.rr.getAndIncrement(), group.length)];
+            payload = offer(s, subject, headers, payload, value, codec);
+        }
+    }
+
+    /** @return payload (закодированный при необходимости — переиспользуется следующими подписчиками). */
+    private static byte[] offer(RingSubscription s, String subject, Map<String, String> headers,
+                                byte[] payload, Object value, JsonCodec codec) {
+        if (payload == null && s.sink.needsBytes(value)) {
+            payload = codec.toBytes(value);
+        }
+        s.offer(subject, headers, payload, value);
+        return payload;
+    }
+
+    private Route route(String subject) {
+        Route r = routes.get(subject);
+        if (r != null) return r;
+        int v = version;
+        List<RingSubscription> fanout = new ArrayList<>();
+        Map<String, List<RingSubscription>> groups = new LinkedHashMap<>();
+        for (RingSubscription s : subs) {
+            if (!s.matches(subject)) continue;
+            if (s.queueGroup == null) {
+                fanout.add(s);
+            } else {
+                groups.computeIfAbsent(s.queueGroup, g -> new ArrayList<>()).add(s);
+            }
+        }
+        r = new Route(fanout.toArray(RingSubscription[]::new),
+                groups.values().stream().map(l -> l.toArray(RingSubscription[]::new)).toArray(RingSubscription[][]::new));
+        if (routes.size() >= ROUTE_CACHE_MAX) routes.clear();
+        routes.put(subject, r);
+        if (v != version) routes.remove(subject); // состав подписок поменялся во время расчёта
+        return r;
+    }
+
+    // ---- подписки ----
+
+    @Override
+    public Subscription subscribe(String subject, MessageHandler handler) {
+        return subscribe(subject, null, cfg.subscriptionDefaults(), handler);
+    }
+
+    @Override
+    public Subscription subscribe(String subject, String queueGroup, MessageHandler handler) {
+        return subscribe(subject, queueGroup, cfg.subscriptionDefaults(), handler);
+    }
+
+    @Override
+    public Subscription subscribe(String subject, String queueGroup, SubscriptionOptions options, MessageHandler handler) {
+        Objects.requireNonNull(handler, "handler");
+        return register(subject, queueGroup, options, new RingSubscription.Sink() {
+            @Override public boolean needsBytes(Object value) { return true; }
+
+            @Override public void deliver(String s, Map<String, String> headers, byte[] payload, Object value) {
+                handler.onMessage(s, payload);
+            }
+        });
+    }
+
+    /**
+     * View-подписка. Handler вызывается в потоке кольца подписки (при {@code capacity > 0}
+     * в настройках по умолчанию) — view переиспользуется; при прямой доставке создаётся на вызов.
+     */
+    @Override
+    public Subscription subscribeView(String subject, String queueGroup, MessageViewHandler handler) {
+        Objects.requireNonNull(handler, "handler");
+        SubscriptionOptions options = cfg.subscriptionDefaults();
+        boolean reuse = options.capacity() > 0;
+        MessageView shared = new MessageView();
+        Map<String, byte[]> subjectBytes = new HashMap<>();
+        return register(subject, queueGroup, options, new RingSubscription.Sink() {
+            @Override public boolean needsBytes(Object value) { return true; }
+
+            @Override public void deliver(String s, Map<String, String> headers, byte[] payload, Object value) {
+                MessageView view = reuse ? shared : new MessageView();
+                byte[] sb = reuse ? subjectBytes.get(s) : null;
+                if (sb == null) {
+                    sb = s.getBytes(StandardCharsets.UTF_8);
+                    if (reuse) {
+                        if (subjectBytes.size() >= SUBJECT_CACHE_MAX) subjectBytes.clear();
+                        subjectBytes.put(s, sb);
+                    }
+                }
+                view.setSubject(s, sb)
+                        .setPayload(payload, 0, payload.length)
+                        .setHeaders(headers == null ? null : headers::get);
+                handler.onMessage(view);
+            }
+        });
+    }
+
+    /** Типизированная подписка: объекты нужного типа из {@link #publishJson} приходят без сериализации. */
+    @Override
+    public <T> Subscription subscribeJson(String subject, String queueGroup, Class<T> type, JsonCodec codec,
+                                          BiConsumer<String, T> handler) {
+        Objects.requireNonNull(type, "type");
+        Objects.requireNonNull(codec, "codec");
+        Objects.requireNonNull(handler, "handler");
+        return register(subject, queueGroup, cfg.subscriptionDefaults(), new RingSubscription.Sink() {
+            @Override public boolean needsBytes(Object value) { return !type.isInstance(value); }
+
+            @Override public void deliver(String s, Map<String, String> headers, byte[] payload, Object value) {
+                handler.accept(s, type.isInstance(value) ? type.cast(value) : codec.fromBytes(payload, type));
+            }
+        });
+    }
+
+    private Subscription register(String subject, String queueGroup, SubscriptionOptions options, RingSubscription.Sink sink) {
+        Objects.requireNonNull(subject, "subject");
+        Objects.requireNonNull(options, "options");
+        if (closed) throw new IllegalStateException("InProcessEventBus is closed");
+        RingSubscription s = new RingSubscription(subject, queueGroup, options, cfg.spinIterations(), sink, this::unregister);
+        subs.add(s);
+        invalidateRoutes();
+        return s;
+    }
+
+    private void unregister(RingSubscription s) {
+        subs.remove(s);
+        invalidateRoutes();
+    }
+
+    private synchronized void invalidateRoutes() {
+        version++;
+        routes.clear();
+    }
+
+    // ---- request/reply ----
+
+    /**
+     * Запрос к ответчику в этом же процессе. Как и в NATS, ответ даёт один ответчик
+     * (первый fan-out или очередной участник queue group); null от ответчика — ждём таймаута.
+     */
+    @Override
+    public CompletableFuture<byte[]> request(String subject, byte[] payload, Duration timeout) {
+        Objects.requireNonNull(subject, "subject");
+        Objects.requireNonNull(payload, "payload");
+        Objects.requireNonNull(timeout, "timeout");
+        if (closed) return CompletableFuture.failedFuture(new IllegalStateException("InProcessEventBus is closed"));
+        Responder r = responderFor(subject);
+        if (r == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("no responders for " + subject));
+        }
+        return CompletableFuture.supplyAsync(() -> r.handler.onRequest(subject, payload), requestExec)
+                .thenCompose(answer -> answer != null ? CompletableFuture.completedFuture(answer) : new CompletableFuture<byte[]>())
+                .orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private Responder responderFor(String subject) {
+        Responder grouped = null;
+        int groupedCount = 0;
+        for (Responder r : responders) {
+            if (!r.matches(subject)) continue;
+            if (r.queueGroup == null) return r;
+            groupedCount++;
+            if (grouped == null) grouped = r;
+        }
+        if (grouped == null || groupedCount == 1) return grouped;
+        // round-robin среди участников групп
+        int pick = Math.floorMod(grouped.rr.getAndIncrement(), groupedCount);
+        for (Responder r : responders) {
+            if (r.queueGroup != null && r.matches(subject) && pick-- == 0) return r;
+        }
+        return grouped;
+    }
+
+    @Override
+    public Subscription reply(String subject, String queueGroup, ReplyHandler handler) {
+        Objects.requireNonNull(subject, "subject");
+        Objects.requireNonNull(handler, "handler");
+        if (closed) throw new IllegalStateException("InProcessEventBus is closed");
+        Responder r = new Responder(subject, queueGroup, handler);
+        responders.add(r);
+        return () -> responders.remove(r);
+    }
+
+    /** Закрывает все подписки (каждая дочитывает своё кольцо) и ответчиков. */
+    @Override
+    public void close() {
+        closed = true;
+        for (RingSubscription s : List.copyOf(subs)) {
+            s.close();
+        }
+        responders.clear();
+        requestExec.shutdownNow();
+    }
+
+    private static final class Responder {
+        final String pattern;
+        final boolean wildcard;
+        final String queueGroup;
+        final ReplyHandler handler;
+        final AtomicInteger rr = new AtomicInteger();
+
+        Responder(String pattern, String queueGroup, ReplyHandler handler) {
+            this.pattern = pattern;
+            this.wildcard = SubjectMatcher.isWildcard(pattern);
+            this.queueGroup = queueGroup;
+            this.handler = handler;
+        }
+
+        boolean matches(String subject) {
+            return wildcard ? SubjectMatcher.matches(pattern, subject) : pattern.equals(subject);
+        }
+    }
+
+    /** Маршрут subject: fan-out подписчики и queue group'ы. */
+    private static final class Route {
+        final RingSubscription[] fanout;
+        final RingSubscription[][] groups;
+        final AtomicInteger rr = new AtomicInteger();
+
+        Route(RingSubscription[] fanout, RingSubscription[][] groups) {
+            this.fanout = fanout;
+            this.groups = groups;
+        }
+    }
+}
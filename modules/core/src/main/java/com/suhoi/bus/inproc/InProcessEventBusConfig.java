@@ -0,0 +1,47 @@
+package com.suhoi.bus.inproc;
+
+import com.suhoi.bus.OverflowPolicy;
+import com.suhoi.bus.SubscriptionOptions;
+
+import java.util.Objects;
+
+/**
+ * Иммутабельная конфигурация {@link InProcessEventBus}.
+ */
+public final class InProcessEventBusConfig {
+    private final SubscriptionOptions subscriptionDefaults;
+    private final int spinIterations;
+
+    private InProcessEventBusConfig(Builder b) {
+        this.subscriptionDefaults = b.subscriptionDefaults;
+        this.spinIterations = b.spinIterations;
+    }
+
+    /**
+     * Параметры подписок без явных {@link SubscriptionOptions}: {@code capacity} — размер кольца
+     * (округляется вверх до степени двойки), {@code 0} — вызов handler прямо в потоке публикатора.
+     */
+    public SubscriptionOptions subscriptionDefaults() { return subscriptionDefaults; }
+
+    /** Сколько итераций потребитель крутится на пустом кольце перед парковкой. */
+    public int spinIterations() { return spinIterations; }
+
+    public static Builder builder() { return new Builder(); }
+
+    public static final class Builder {
+        private SubscriptionOptions subscriptionDefaults = SubscriptionOptions.builder()
+                .capacity(16_384)
+                .overflow(OverflowPolicy.BLOCK)
+                .build();
+        private int spinIterations = 1_000;
+
+        public Builder subscriptionDefaults(SubscriptionOptions o) { this.subscriptionDefaults = o; return this; }
+        public Builder spinIterations(int n) { this.spinIterations = n; return this; }
+
+        public InProcessEventBusConfig build() {
+            Objects.requireNonNull(subscriptionDefaults, "subscriptionDefaults");
+            if (spinIterations < 0) throw new IllegalArgumentException("spinIterations must be >= 0");
+            return new InProcessEventBusConfig(this);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.suhoi.bus.inproc;
+
+import com.suhoi.bus.OverflowPolicy;
+import com.suhoi.bus.SubjectMatcher;
+import com.suhoi.bus.Subscription;
+import com.suhoi.bus.SubscriptionOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Подписка {@link InProcessEventBus} с кольцом в стиле disruptor.
+ * <p>
+ * Слоты выделяются один раз при создании; публикатор захватывает номер через {@code cursor},
+ * заполняет слот и публикует его записью {@code slot.seq} (volatile), потребитель читает слоты
+ * строго по порядку номеров. Захват в режиме {@link OverflowPolicy#BLOCK} ждёт освобождения
+ * слота (обратное давление на публикатора), в остальных режимах переполненное кольцо
+ * отбрасывает новое сообщение — вытеснять уже захваченные слоты без лока нельзя.
+ * </p>
+ * {@code capacity == 0} — кольца нет, handler вызывается в потоке публикатора.
+ */
+final class RingSubscription implements Subscription {
+    private static final Logger log = LoggerFactory.getLogger(RingSubscription.class);
+
+    /** Адресат доставки: байтовый, view или типизированный handler. */
+    interface Sink {
+        /** Нужны ли байты, если опубликован объект, который sink не принимает как есть. */
+        boolean needsBytes(Object value);
+
+        void deliver(String subject, Map<String, String> headers, byte[] payload, Object value);
+    }
+
+    private static final class Slot {
+        String subject;
+        Map<String, String> headers;
+        byte[] payload;
+        Object value;
+        volatile long seq = -1;
+    }
+
+    final String pattern;
+    final boolean wildcard;
+    final String queueGroup;
+    final Sink sink;
+
+    private final Consumer<RingSubscription> onClose;
+    private final Slot[] slots;   // null — прямая доставка
+    private final int mask;
+    private final boolean block;
+    private final int spinIterations;
+    private final AtomicLong cursor = new AtomicLong();   // следующий номер для захвата
+    private final AtomicLong consumed = new AtomicLong(); // следующий номер для чтения
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Thread consumer;
+    private volatile boolean waiting;
+    private volatile boolean closed;
+
+    RingSubscription(String pattern, String queueGroup, SubscriptionOptions options, int spinIterations,
+                     Sink sink, Consumer<RingSubscription> onClose) {
+        this.pattern = pattern;
+        this.wildcard = SubjectMatcher.isWildcard(pattern);
+        this.queueGroup = queueGroup;
+        this.sink = sink;
+        this.onClose = onClose;
+        this.spinIterations = spinIterations;
+        this.block = options.overflow() == OverflowPolicy.BLOCK;
+        if (options.capacity() > 0) {
+            int size = Integer.highestOneBit(Math.max(2, options.capacity() - 1)) << 1;
+            this.slots = new Slot[size];
+            for (int i = 0; i < size; i++) slots[i] = new Slot();
+            this.mask = size - 1;
+            Thread.Builder tb = options.virtualThread() ? Thread.ofVirtual() : Thread.ofPlatform().daemon();
+            this.consumer = tb.name("inproc-" + pattern).start(this::loop);
+        } else {
+            this.slots = null;
+            this.mask = 0;
+            this.consumer = null;
+        }
+    }
+
+    boolean matches(String subject) {
+        return wildcard ? SubjectMatcher.matches(pattern, subject) : pattern.equals(subject);
+    }
+
+    /** @return false, если сообщение отброшено (кольцо полно или подписка закрыта). */
+    boolean offer(String subject, Map<String, String> headers, byte[] payload, Object value) {
+        if (closed) return false;
+        if (slots == null) {
+            deliver(subject, headers, payload, value);
+            return true;
+        }
+        long seq = block ? claimBlocking() : tryClaim();
+        if (seq < 0) {
+            dropped.increment();
+            return false;
+        }
+        Slot s = slots[(int) (seq & mask)];
+        s.subject = subject;
+        s.headers = headers;
+        s.payload = payload;
+        s.value = value;
+        s.seq = seq; // публикация слота
+        if (waiting) LockSupport.unpark(consumer);
+        return true;
+    }
+
+    private long tryClaim() {
+        while (true) {
+            long c = cursor.get();
+            if (c - consumed.get() >= slots.length) return -1;
+            if (cursor.compareAndSet(c, c + 1)) return c;
+        }
+    }
+
+    /**
+     * Ждёт свободный слот и только потом захватывает номер: захваченный номер публикуется сразу,
+     * а закрытие во время ожидания ничего не оставляет в кольце — потребитель не ждёт слот,
+     * который никто не заполнит.
+     */
+    private long claimBlocking() {
+        int spins = 0;
+        while (true) {
+            long c = cursor.get();
+            if (c - consumed.get() < slots.length) {
+                if (cursor.compareAndSet(c, c + 1)) return c;
+                continue;
+            }
+            if (closed) return -1;
+            if (++spins < spinIterations) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(10_000);
+            }
+        }
+    }
+
+    private void loop() {
+        long next = 0;
+        int spins = 0;
+        while (true) {
+            Slot s = slots[(int) (next & mask)];
+            if (s.seq == next) {
+                String subject = s.subject;
+                Map<String, String> headers = s.headers;
+                byte[] payload = s.payload;
+                Object value = s.value;
+                s.subject = null;
+                s.headers = null;
+                s.payload = null;
+                s.value = null;
+                consumed.setRelease(++next); // слот свободен для публикатора
+                deliver(subject, headers, payload, value);
+                spins = 0;
+                continue;
+            }
+            if (closed && (cursor.get() <= next || Thread.interrupted())) return;
+            if (spins < spinIterations) {
+                spins++;
+                Thread.onSpinWait();
+            } else {
+                waiting = true;
+                if (s.seq != next && !closed) LockSupport.parkNanos(1_000_000);
+                waiting = false;
+            }
+        }
+    }
+
+    private void deliver(String subject, Map<String, String> headers, byte[] payload, Object value) {
+        try {
+            sink.deliver(subject, headers, payload, value);
+        } catch (Throwable t) {
+            log.warn("Handler error on subject {}: {}", pattern, t.toString(), t);
+        }
+        delivered.increment();
+    }
+
+    @Override public int pending() { return (int) Math.max(0, cursor.get() - consumed.get()); }
+    @Override public long dropped() { return dropped.sum(); }
+    @Override public long delivered() { return delivered.sum(); }
+
+    /** Снимает подписку с маршрутов и даёт потребителю дочитать кольцо (до 2с). */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        onClose.accept(this);
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+            try {
+                if (!consumer.join(Duration.ofSeconds(2))) consumer.interrupt();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.suhoi.bus.metrics;
+
+import com.suhoi.bus.BusMetrics;
+import com.suhoi.bus.Subscription;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link BusMetrics} на HdrHistogram — можно держать включённым в проде.
+ * <p>
+ * Запись: счётчики {@link LongAdder} и {@link Recorder#recordValue(long)} (wait-free, без аллокаций);
+ * единственный поиск — по {@code ConcurrentHashMap} с уже закэшированным хешем строки.
+ * Чтение: {@link #snapshot()} забирает интервальные гистограммы (с прошлого снимка) — его зовут
+ * из репортера раз в N секунд, перцентили относятся к этому интервалу.
+ * </p>
+ * Публикации агрегируются по префиксу subject — первым {@code prefixTokens} токенам
+ * ({@code ticks.s3.BTC} → {@code ticks} при 1). Подписки с одним именем — одна строка:
+ * pending суммируется по живым хэндлам, dropped — по живым и уже закрытым. Строка живёт до конца
+ * процесса: после закрытия последнего хэндла она остаётся неактивной ({@code active == false})
+ * с накопленными счётчиками, а повторная подписка под тем же именем продолжает их.
+ */
+public final class HdrBusMetrics implements BusMetrics {
+    private static final long MAX_HANDLER_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(10);
+    private static final int SUBJECT_CACHE_MAX = 16_384;
+
+    private final int prefixTokens;
+    private final Map<String, Counter> byPrefix = new ConcurrentHashMap<>();
+    private final Map<String, Counter> bySubject = new ConcurrentHashMap<>();
+    private final Map<String, SubStats> subscriptions = new ConcurrentHashMap<>();
+
+    public HdrBusMetrics() {
+        this(1);
+    }
+
+    public HdrBusMetrics(int prefixTokens) {
+        if (prefixTokens < 1) throw new IllegalArgumentException("prefixTokens must be >= 1");
+        this.prefixTokens = prefixTokens;
+    }
+
+    // ---- запись ----
+
+    @Override
+    public void published(String subject, int bytes) {
+        Counter c = bySubject.get(subject);
+        if (c == null) c = counterFor(subject);
+        c.count.increment();
+        c.bytes.add(bytes);
+    }
+
+    private Counter counterFor(String subject) {
+        Counter c = byPrefix.computeIfAbsent(prefixOf(subject), p -> new Counter());
+        if (bySubject.size() >= SUBJECT_CACHE_MAX) bySubject.clear();
+        bySubject.put(subject, c);
+        return c;
+    }
+
+    String prefixOf(String subject) {
+        int end = -1;
+        for (int i = 0; i < prefixTokens; i++) {
+            end = subject.indexOf('.', end + 1);
+            if (end < 0) return subject;
+        }
+        return subject.substring(0, end);
+    }
+
+    @Override
+    public void handled(String subscription, long handlerNanos) {
+        SubStats s = stats(subscription);
+        s.handled.increment();
+        s.handler.recordValue(Math.min(Math.max(handlerNanos, 0), MAX_HANDLER_NANOS));
+    }
+
+    @Override
+    public void received(String subscription, long latencyMicros) {
+        // рассинхрон часов может дать отрицательное значение — считаем его нулём
+        stats(subscription).latency.recordValue(Math.min(Math.max(latencyMicros, 0), MAX_LATENCY_MICROS));
+    }
+
+    @Override
+    public void subscribed(String subscription, Subscription handle) {
+        stats(subscription).handles.add(handle);
+    }
+
+    @Override
+    public synchronized void unsubscribed(String subscription, Subscription handle) {
+        // под тем же монитором, что и snapshot(): хэндл не попадёт в dropped дважды
+        SubStats s = subscriptions.get(subscription);
+        if (s != null && s.handles.remove(handle)) s.retiredDropped.add(handle.dropped());
+    }
+
+    private SubStats stats(String subscription) {
+        SubStats s = subscriptions.get(subscription);
+        return s != null ? s : subscriptions.computeIfAbsent(subscription, k -> new SubStats());
+    }
+
+    // ---- чтение ----
+
+    /** Снимок: счётчики публикаций нарастающим итогом, перцентили — за интервал с прошлого снимка. */
+    public synchronized Snapshot snapshot() {
+        List<PublishStats> publish = new ArrayList<>();
+        new TreeMap<>(byPrefix).forEach((prefix, c) ->
+                publish.add(new PublishStats(prefix, c.count.sum(), c.bytes.sum())));
+        List<SubscriptionStats> subs = new ArrayList<>();
+        new TreeMap<>(subscriptions).forEach((name, s) -> {
+            s.handlerInterval = s.handler.getIntervalHistogram(s.handlerInterval);
+            s.latencyInterval = s.latency.getIntervalHistogram(s.latencyInterval);
+            long pending = 0, dropped = s.retiredDropped.sum();
+            for (Subscription h : s.handles) {
+                pending += h.pending();
+                dropped += h.dropped();
+            }
+            subs.add(new SubscriptionStats(name, !s.handles.isEmpty(), s.handled.sum(),
+                    (int) Math.min(pending, Integer.MAX_VALUE), dropped,
+                    Percentiles.of(s.handlerInterval), Percentiles.of(s.latencyInterval)));
+        });
+        return new Snapshot(List.copyOf(publish), List.copyOf(subs));
+    }
+
+    public record Snapshot(List<PublishStats> publish, List<SubscriptionStats> subscriptions) {}
+
+    /** Публикации по префиксу (нарастающим итогом). */
+    public record PublishStats(String prefix, long messages, long bytes) {}
+
+    /**
+     * @param active        есть живые хэндлы; false — все закрыты, счётчики — итог за прошлые подписки
+     * @param dropped       нарастающим итогом, включая закрытые хэндлы
+     * @param handlerNanos  время handler, нс
+     * @param latencyMicros публикация → подписка, мкс (пусто без {@code stampPublishTime} у публикатора)
+     */
+    public record SubscriptionStats(String subscription, boolean active, long handled, int pending, long dropped,
+                                    Percentiles handlerNanos, Percentiles latencyMicros) {}
+
+    public record Percentiles(long count, long p50, long p90, long p99, long p999, long max) {
+        static Percentiles of(Histogram h) {
+            return new Percentiles(h.getTotalCount(),
+                    h.getValueAtPercentile(50), h.getValueAtPercentile(90), h.getValueAtPercentile(99),
+                    h.getValueAtPercentile(99.9), h.getMaxValue());
+        }
+    }
+
+    private static final class Counter {
+        final LongAdder count = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+    }
+
+    private static final class SubStats {
+        final LongAdder handled = new LongAdder();
+        final Recorder handler = new Recorder(MAX_HANDLER_NANOS, 2);
+        final Recorder latency = new Recorder(MAX_LATENCY_MICROS, 2);
+        final Set<Subscription> handles = ConcurrentHashMap.newKeySet();
+        final LongAdder retiredDropped = new LongAdder(); // dropped закрытых хэндлов
+        Histogram handlerInterval; // переиспользуются snapshot()
+        Histogram latencyInterval;
+    }
+}
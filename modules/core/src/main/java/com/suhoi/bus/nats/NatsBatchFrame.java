@@ -0,0 +1,110 @@
+package com.suhoi.bus.nats;
+
+import com.suhoi.bus.MessageView;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Формат кадра микробатча (little-endian):
+ * <pre>
+ * u16 count | count × ( u16 subjectLen | subject UTF-8 | i32 payloadLen | payload )
+ * </pre>
+ * {@code subjectLen = 0} — сообщение опубликовано в subject самого кадра (батч per-subject).
+ */
+final class NatsBatchFrame {
+    static final int MAX_MESSAGES = 0xFFFF;
+
+    private NatsBatchFrame() {}
+
+    /** Размер записи в кадре. */
+    static int entrySize(byte[] subjectBytes, int payloadLen) {
+        return 2 + (subjectBytes == null ? 0 : subjectBytes.length) + 4 + payloadLen;
+    }
+
+    /** Пишет запись с позиции {@code off}; возвращает новую позицию. */
+    static int writeEntry(byte[] dst, int off, byte[] subjectBytes, byte[] payload) {
+        ByteBuffer bb = ByteBuffer.wrap(dst, off, dst.length - off).order(ByteOrder.LITTLE_ENDIAN);
+        if (subjectBytes == null) {
+            bb.putShort((short) 0);
+        } else {
+            bb.putShort((short) subjectBytes.length).put(subjectBytes);
+        }
+        bb.putInt(payload.length).put(payload);
+        return bb.position();
+    }
+
+    static void writeCount(byte[] dst, int count) {
+        dst[0] = (byte) count;
+        dst[1] = (byte) (count >>> 8);
+    }
+
+    /**
+     * Распаковывает кадр, вызывая consumer на каждое сообщение.
+     *
+     * @param frameSubject subject, в который пришёл кадр (для записей без собственного subject)
+     */
+    static void unpack(byte[] frame, String frameSubject, BiConsumer<String, byte[]> consumer) {
+        ByteBuffer bb = ByteBuffer.wrap(frame).order(ByteOrder.LITTLE_ENDIAN);
+        int count = Short.toUnsignedInt(bb.getShort());
+        for (int i = 0; i < count; i++) {
+            int slen = Short.toUnsignedInt(bb.getShort());
+            String subject = frameSubject;
+            if (slen > 0) {
+                subject = new String(frame, bb.position(), slen, StandardCharsets.UTF_8);
+                bb.position(bb.position() + slen);
+            }
+            int plen = bb.getInt();
+            if (plen < 0 || plen > bb.remaining()) {
+                throw new IllegalArgumentException("corrupted batch frame: payloadLen=" + plen);
+            }
+            byte[] payload = new byte[plen];
+            bb.get(payload);
+            consumer.accept(subject, payload);
+        }
+    }
+
+    /**
+     * Распаковка без копий: {@code view} по очереди указывает на записи внутри {@code frame}.
+     * Заголовки view не трогаются.
+     *
+     * @param frameSubject      subject кадра
+     * @param frameSubjectBytes он же в байтах (для записей без собственного subject)
+     */
+    static void unpackInto(byte[] frame, String frameSubject, byte[] frameSubjectBytes,
+                           MessageView view, Consumer<MessageView> consumer) {
+        int n = frame.length;
+        if (n < 2) throw new IllegalArgumentException("corrupted batch frame: too short");
+        int count = u16(frame, 0);
+        int pos = 2;
+        for (int i = 0; i < count; i++) {
+            if (pos + 2 > n) throw new IllegalArgumentException("corrupted batch frame: truncated");
+            int slen = u16(frame, pos);
+            pos += 2;
+            if (slen > 0) {
+                if (pos + slen > n) throw new IllegalArgumentException("corrupted batch frame: subjectLen=" + slen);
+                view.setSubject(frame, pos, slen);
+                pos += slen;
+            } else {
+                view.setSubject(frameSubject, frameSubjectBytes);
+            }
+            if (pos + 4 > n) throw new IllegalArgumentException("corrupted batch frame: truncated");
+            int plen = (frame[pos] & 0xFF) | (frame[pos + 1] & 0xFF) << 8
+                    | (frame[pos + 2] & 0xFF) << 16 | (frame[pos + 3] & 0xFF) << 24;
+            pos += 4;
+            if (plen < 0 || plen > n - pos) {
+                throw new IllegalArgumentException("corrupted batch frame: payloadLen=" + plen);
+            }
+            view.setPayload(frame, pos, plen);
+            pos += plen;
+            consumer.accept(view);
+        }
+    }
+
+    private static int u16(byte[] b, int off) {
+        return (b[off] & 0xFF) | (b[off + 1] & 0xFF) << 8;
+    }
+}
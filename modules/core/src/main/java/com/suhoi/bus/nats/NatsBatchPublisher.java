@@ -0,0 +1,326 @@
+package com.suhoi.bus.nats;
+
+import com.suhoi.bus.BusHeaders;
+import com.suhoi.bus.SubjectMatcher;
+import io.nats.client.impl.Headers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Микробатчинг публикаций для {@link NatsEventBus} (opt-in через {@link NatsEventBusConfig#batching()}).
+ * <p>
+ * Сообщения копятся по subject (или по префиксу) и уходят одним кадром {@link NatsBatchFrame}
+ * с заголовком {@link BusHeaders#BATCH}, когда сработал один из порогов:
+ * <ul>
+ *   <li>прошло {@code batchFlushInterval} с первого сообщения батча;</li>
+ *   <li>набралось {@code batchMaxMessages} сообщений;</li>
+ *   <li>кадр достиг {@code batchMaxBytes}.</li>
+ * </ul>
+ * Батч из одного сообщения публикуется как есть, без кадра.
+ * Порядок сообщений внутри одного ключа батча сохраняется (публикация под локом батча).
+ * <p>
+ * В режиме per-prefix subjects слотов {@link com.suhoi.bus.KeyAffinity} ({@code <prefix>s<N>.<key>})
+ * копятся отдельно по слоту и уходят в {@code <prefix>s<N>._batch}: кадр ловит сама подписка слота
+ * ({@code <prefix>s<N>.>}), в том числе в queue group, и в кадре нет записей чужих слотов.
+ * </p>
+ */
+final class NatsBatchPublisher implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(NatsBatchPublisher.class);
+
+    /** Куда уходят готовые кадры (обычно {@code Connection.publish}). */
+    @FunctionalInterface
+    interface Sink {
+        void publish(String subject, Headers headers, byte[] body);
+    }
+
+    private final Sink sink;
+    private final long flushNanos;
+    private final int maxMessages;
+    private final int maxBytes;
+    private final List<String> prefixes;
+    private final boolean byPrefix;
+
+    /** Максимальный номер слота, который получает собственный кадр; выше — общий кадр префикса. */
+    static final int MAX_SLOT = 9999;
+
+    private final Map<String, Batch> batches = new ConcurrentHashMap<>(); // все батчи — для flushAll
+    private final Map<String, SlotBatches> slotBatches = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        var t = new Thread(r, "nats-batch-flusher");
+        t.setDaemon(true);
+        return t;
+    });
+
+    NatsBatchPublisher(NatsEventBusConfig cfg, Sink sink) {
+        this.sink = Objects.requireNonNull(sink, "sink");
+        this.flushNanos = cfg.batchFlushInterval().toNanos();
+        this.maxMessages = Math.min(cfg.batchMaxMessages(), NatsBatchFrame.MAX_MESSAGES);
+        this.maxBytes = cfg.batchMaxBytes();
+        this.prefixes = cfg.batchSubjectPrefixes();
+        this.byPrefix = cfg.batchByPrefix();
+    }
+
+    /**
+     * Ставит сообщение в батч.
+     *
+     * @return false, если subject не попадает под батчинг или батчер закрыт — вызывающий публикует сам.
+     */
+    boolean offer(String subject, Map<String, String> headers, byte[] payload) {
+        if (closed) return false;
+        String prefix = matchPrefix(subject);
+        if (prefix == null) return false;
+
+        Batch b;
+        if (!byPrefix) {
+            b = batches.computeIfAbsent(subject, Batch::new);
+        } else {
+            int slot = slotOf(prefix, subject, prefix.length());
+            b = slot < 0
+                    ? batches.computeIfAbsent(prefix, k -> new Batch(frameSubject(k)))
+                    : slotBatches.computeIfAbsent(prefix, SlotBatches::new).get(slot);
+        }
+        b.add(subject, headers == null || headers.isEmpty() ? null : headers, payload);
+        return true;
+    }
+
+    /** Немедленно отправляет все накопленные батчи. */
+    void flushAll() {
+        for (Batch b : batches.values()) {
+            b.flush(-1L);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        flusher.shutdownNow();
+        flushAll();
+    }
+
+    /** Subject кадра per-prefix батча ({@link NatsEventBusConfig#batchByPrefix()}). */
+    static String frameSubject(String prefix) {
+        return prefix + "_batch";
+    }
+
+    /** Subject кадра слота {@code slot} под префиксом: {@code <prefix>s<slot>._batch}. */
+    static String slotFrameSubject(String prefix, int slot) {
+        return prefix + "s" + slot + "._batch";
+    }
+
+    /**
+     * Номер слота {@link com.suhoi.bus.KeyAffinity}, если {@code subject} с позиции {@code from}
+     * (сразу за префиксом) имеет вид {@code s<N>.<хвост>}; иначе -1. Префикс должен заканчиваться
+     * точкой, номер — без ведущих нулей и не больше {@link #MAX_SLOT}. Без аллокаций.
+     */
+    static int slotOf(String prefix, String subject, int from) {
+        int n = subject.length();
+        if (!prefix.endsWith(".") || from + 3 >= n || subject.charAt(from) != 's') return -1;
+        int i = from + 1;
+        int slot = 0;
+        while (i < n && subject.charAt(i) >= '0' && subject.charAt(i) <= '9') {
+            if (i > from + 1 && slot == 0) return -1; // ведущий ноль
+            slot = slot * 10 + (subject.charAt(i) - '0');
+            if (slot > MAX_SLOT) return -1;
+            i++;
+        }
+        if (i == from + 1 || i + 1 >= n || subject.charAt(i) != '.') return -1;
+        return slot;
+    }
+
+    /**
+     * Кадры per-prefix, на которые подписчику шаблона {@code pattern} нужно подписаться дополнительно:
+     * его сообщения могут лежать в кадре, который сам шаблон не ловит (точный {@code ticks.BTC}
+     * против {@code ticks._batch}). Шаблон слота ({@code ticks.s5.>}) ловит свой кадр
+     * {@code ticks.s5._batch} сам, а точный subject слота ({@code ticks.s5.BTC}) слушает только его.
+     * Wildcard на месте слота ({@code ticks.*.BTC}) слушает кадры всех слотов шаблоном
+     * {@code <prefix>*._batch}. Пусто, если per-prefix батчинг выключен.
+     */
+    static List<String> frameSubjectsFor(NatsEventBusConfig cfg, String pattern) {
+        if (!cfg.batching() || !cfg.batchByPrefix()) return List.of();
+        var out = new ArrayList<String>(2);
+        for (String prefix : cfg.batchSubjectPrefixes()) {
+            if (!mayMatchUnder(pattern, prefix)) continue;
+            boolean plain = true;
+            boolean anySlot = prefix.endsWith(".");
+            String slotFrame = null;
+            if (pattern.startsWith(prefix)) {
+                int from = prefix.length();
+                int slot = slotOf(prefix, pattern, from);
+                if (slot >= 0) {
+                    // все subjects шаблона — в кадре одного слота
+                    plain = false;
+                    anySlot = false;
+                    slotFrame = slotFrameSubject(prefix, slot);
+                } else if (!pattern.startsWith("*.", from) && !pattern.startsWith(">", from)) {
+                    // первый токен за префиксом — литерал, не слот
+                    anySlot = false;
+                }
+            }
+            addFrame(out, pattern, plain ? frameSubject(prefix) : null);
+            addFrame(out, pattern, slotFrame);
+            addFrame(out, pattern, anySlot ? prefix + "*._batch" : null);
+        }
+        return out;
+    }
+
+    /** Добавляет кадр, если шаблон не ловит его сам (для wildcard-кадра — посимвольно как литерал). */
+    private static void addFrame(List<String> out, String pattern, String frame) {
+        if (frame != null && !SubjectMatcher.matches(pattern, frame)) out.add(frame);
+    }
+
+    /** Может ли шаблон совпасть с каким-нибудь subject, начинающимся с {@code prefix} (с запасом). */
+    private static boolean mayMatchUnder(String pattern, String prefix) {
+        if (!SubjectMatcher.isWildcard(pattern)) return pattern.startsWith(prefix);
+        int w = 0;
+        while (w < pattern.length()) {
+            char c = pattern.charAt(w);
+            if ((c == '*' || c == '>') && (w == 0 || pattern.charAt(w - 1) == '.')
+                    && (w == pattern.length() - 1 || pattern.charAt(w + 1) == '.')) break;
+            w++;
+        }
+        String head = pattern.substring(0, w); // литеральные токены до первого wildcard
+        return head.startsWith(prefix) || prefix.startsWith(head);
+    }
+
+    private String matchPrefix(String subject) {
+        for (int i = 0; i < prefixes.size(); i++) {
+            String p = prefixes.get(i);
+            if (subject.startsWith(p)) return p;
+        }
+        return null;
+    }
+
+    /** Батчи слотов одного префикса: массив по номеру слота, чтобы не строить ключ на каждое сообщение. */
+    private final class SlotBatches {
+        private final String prefix;
+        private volatile Batch[] slots = new Batch[0];
+
+        SlotBatches(String prefix) {
+            this.prefix = prefix;
+        }
+
+        Batch get(int slot) {
+            Batch[] s = slots;
+            Batch b = slot < s.length ? s[slot] : null;
+            return b != null ? b : create(slot);
+        }
+
+        private synchronized Batch create(int slot) {
+            Batch[] s = slots;
+            if (slot < s.length && s[slot] != null) return s[slot];
+            Batch[] grown = Arrays.copyOf(s, Math.max(s.length, slot + 1));
+            Batch b = batches.computeIfAbsent(slotFrameSubject(prefix, slot), Batch::new);
+            grown[slot] = b;
+            slots = grown;
+            return b;
+        }
+    }
+
+    /** Накопитель одного ключа батча. Все мутации — под монитором экземпляра. */
+    private final class Batch {
+        private final String frameSubject;
+
+        private byte[] buf = new byte[1024];
+        private int len = 2; // первые 2 байта — count
+        private int count;
+        private Map<String, String> headers;
+        private long generation;
+
+        // первое сообщение — для публикации без кадра, если оно окажется единственным
+        private String firstSubject;
+        private byte[] firstPayload;
+
+        Batch(String frameSubject) {
+            this.frameSubject = frameSubject;
+        }
+
+        synchronized void add(String subject, Map<String, String> hdrs, byte[] payload) {
+            if (count > 0 && !Objects.equals(headers, hdrs)) {
+                // заголовки общие на кадр — смена заголовков закрывает текущий батч
+                flushLocked();
+            }
+            byte[] subjectBytes = subject.equals(frameSubject) ? null : subject.getBytes(StandardCharsets.UTF_8);
+            int need = NatsBatchFrame.entrySize(subjectBytes, payload.length);
+            if (count > 0 && len + need > maxBytes) {
+                flushLocked();
+            }
+            if (2 + need > maxBytes) {
+                // одиночное сообщение больше порога кадра — отправляем напрямую
+                sink.publish(subject, toNatsHeaders(hdrs, 0), payload);
+                return;
+            }
+            if (len + need > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(len + need, Math.min(buf.length * 2, maxBytes)));
+            }
+            len = NatsBatchFrame.writeEntry(buf, len, subjectBytes, payload);
+            if (count == 0) {
+                headers = hdrs;
+                firstSubject = subject;
+                firstPayload = payload;
+                long gen = generation;
+                try {
+                    flusher.schedule(() -> flush(gen), flushNanos, TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    // батчер закрылся между offer и add — таймера уже не будет, отправляем сразу
+                    count++;
+                    flushLocked();
+                    return;
+                }
+            }
+            count++;
+            if (count >= maxMessages) {
+                flushLocked();
+            }
+        }
+
+        /**
+         * @param expectedGeneration поколение, для которого ставился таймер; -1 — сбросить безусловно
+         */
+        synchronized void flush(long expectedGeneration) {
+            if (expectedGeneration >= 0 && expectedGeneration != generation) return;
+            flushLocked();
+        }
+
+        private void flushLocked() {
+            if (count == 0) return;
+            try {
+                if (count == 1) {
+                    sink.publish(firstSubject, toNatsHeaders(headers, 0), firstPayload);
+                } else {
+                    NatsBatchFrame.writeCount(buf, count);
+                    sink.publish(frameSubject, toNatsHeaders(headers, count), Arrays.copyOf(buf, len));
+                }
+            } catch (Exception e) {
+                log.warn("NATS batch publish failed for {} ({} msgs): {}", frameSubject, count, e.toString());
+            } finally {
+                len = 2;
+                count = 0;
+                headers = null;
+                firstSubject = null;
+                firstPayload = null;
+                generation++;
+            }
+        }
+    }
+
+    private static Headers toNatsHeaders(Map<String, String> hdrs, int batchCount) {
+        if (hdrs == null && batchCount == 0) return null;
+        Headers h = new Headers();
+        if (hdrs != null) hdrs.forEach(h::put);
+        if (batchCount > 0) h.put(BusHeaders.BATCH, Integer.toString(batchCount));
+        return h;
+    }
+}
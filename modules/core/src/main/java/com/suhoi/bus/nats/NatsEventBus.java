@@ -1,20 +1,42 @@
 package com.suhoi.bus.nats;
 
+import com.suhoi.bus.BusHeaders;
+import com.suhoi.bus.BusMetrics;
 import com.suhoi.bus.EventBus;
 import com.suhoi.bus.MessageHandler;
+import com.suhoi.bus.MessageView;
+import com.suhoi.bus.MessageViewHandler;
+import com.suhoi.bus.ReplyHandler;
+import com.suhoi.bus.SubjectMatcher;
 import com.suhoi.bus.Subscription;
+import com.suhoi.bus.SubscriptionMailbox;
+import com.suhoi.bus.SubscriptionOptions;
+import com.suhoi.util.Clocks;
 import io.nats.client.Connection;
 import io.nats.client.Consumer;
 import io.nats.client.Dispatcher;
 import io.nats.client.ErrorListener;
+import io.nats.client.JetStreamStatusException;
+import io.nats.client.Message;
 import io.nats.client.Nats;
 import io.nats.client.Options;
+import io.nats.client.impl.Headers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 
 /**
  * EventBus-наслойка над NATS (core NATS, без JetStream).
@@ -24,6 +46,16 @@ import java.util.Objects;
  *   <li>Автоматическое переподключение (maxReconnects, reconnectWait)</li>
  *   <li>Асинхронные подписки через {@link Dispatcher}</li>
  *   <li>Чистое завершение: flush(+drain) перед закрытием соединения</li>
+ *   <li>Опциональный микробатчинг публикаций ({@link NatsBatchPublisher}); подписчики
+ *       распаковывают кадры прозрачно — handler по-прежнему получает одно сообщение. Кадры
+ *       per-prefix, которые шаблон подписки сам не ловит, шина слушает один раз и раздаёт
+ *       записи своим подписчикам локально ({@link FrameFanout})</li>
+ *   <li>Подписки без копий ({@link #subscribeView}) — handler читает subject/payload прямо
+ *       из буфера сообщения или кадра микробатча</li>
+ *   <li>Request/reply поверх NATS inbox ({@link #request}, {@link #reply}) — асинхронно,
+ *       через общий inbox-мультиплексор соединения</li>
+ *   <li>Метрики через {@link BusMetrics} ({@link NatsEventBusConfig#metrics()}): публикации по
+ *       subject, время handler, латентность публикация → подписка, pending/dropped подписок</li>
  * </ul>
  *
  * <b>Семантика доставki:</b> Core NATS — это at-most-once best effort. Если consumer оффлайн —
@@ -35,6 +67,14 @@ public final class NatsEventBus implements EventBus {
 
     private final NatsEventBusConfig cfg;
     private final Connection nc;
+    private final NatsBatchPublisher batcher; // null, если батчинг выключен
+    private final BusMetrics metrics;
+    private final boolean instrumented;     // false — ни одного System.nanoTime() на сообщение
+
+    // общие подписки на кадры per-prefix: одна на subject кадра, записи раздаются локально
+    private final Object frameLock = new Object();
+    private final Map<String, FrameFanout> frameFanouts = new HashMap<>(); // под frameLock
+    private Dispatcher frameDispatcher;                                    // под frameLock, лениво
 
     /**
      * Создаёт и открывает соединение с NATS по заданной конфигурации.
@@ -44,12 +84,16 @@ public final class NatsEventBus implements EventBus {
      */
     public NatsEventBus(NatsEventBusConfig cfg) {
         this.cfg = Objects.requireNonNull(cfg, "config");
+        this.metrics = cfg.metrics();
+        this.instrumented = metrics != BusMetrics.NOOP;
         try {
             Options.Builder ob = new Options.Builder()
                     .connectionTimeout(cfg.connectTimeout())
                     .pingInterval(cfg.pingInterval())
                     .reconnectWait(cfg.reconnectWait())
-                    .maxReconnects(cfg.maxReconnects());
+                    .maxReconnects(cfg.maxReconnects())
+                    // 503 «нет ответчиков» — исключением future, а не отменой (иначе не отличить от таймаута)
+                    .reportNoResponders();
 
             for (String s : cfg.servers()) {
                 ob.server(s);
@@ -81,6 +125,7 @@ public final class NatsEventBus implements EventBus {
         } catch (IOException | InterruptedException e) {
             throw new RuntimeException("Failed to connect to NATS", e);
         }
+        this.batcher = cfg.batching() ? new NatsBatchPublisher(cfg, this::send) : null;
     }
 
     /**
@@ -91,38 +136,323 @@ public final class NatsEventBus implements EventBus {
     public void publish(String subject, byte[] payload) {
         Objects.requireNonNull(subject, "subject");
         Objects.requireNonNull(payload, "payload");
+        if (instrumented) metrics.published(subject, payload.length);
+        if (batcher != null && batcher.offer(subject, null, payload)) return;
+        try {
+            send(subject, null, payload);
+        } catch (Exception e) {
+            throw new RuntimeException("NATS publish failed for subject " + subject, e);
+        }
+    }
+
+    /**
+     * Публикует нагрузку с NATS-заголовками (например, {@code Content-Type} бинарного кодека).
+     * Пустые заголовки не отправляются — кадр остаётся совместим с клиентами без HPUB.
+     */
+    @Override
+    public void publish(String subject, Map<String, String> headers, byte[] payload) {
+        Objects.requireNonNull(subject, "subject");
+        Objects.requireNonNull(payload, "payload");
+        if (headers == null || headers.isEmpty()) {
+            publish(subject, payload);
+            return;
+        }
+        if (instrumented) metrics.published(subject, payload.length);
+        if (batcher != null && batcher.offer(subject, headers, payload)) return;
+        Headers h = new Headers();
+        headers.forEach(h::put);
         try {
-            nc.publish(subject, payload);
+            send(subject, h, payload);
         } catch (Exception e) {
             throw new RuntimeException("NATS publish failed for subject " + subject, e);
         }
     }
 
+    /** Отправка в соединение (напрямую или кадром батчера) с отметкой времени публикации. */
+    private void send(String subject, Headers headers, byte[] body) {
+        if (cfg.stampPublishTime()) {
+            if (headers == null) headers = new Headers();
+            headers.put(BusHeaders.PUBLISHED_AT, Long.toString(Clocks.epochMicros()));
+        }
+        if (headers == null) {
+            nc.publish(subject, body);
+        } else {
+            nc.publish(subject, headers, body);
+        }
+    }
+
+    /** Латентность по заголовку {@link BusHeaders#PUBLISHED_AT}; при его отсутствии ничего не пишет. */
+    private void recordLatency(String name, Message msg) {
+        if (!msg.hasHeaders()) return;
+        String ts = msg.getHeaders().getFirst(BusHeaders.PUBLISHED_AT);
+        if (ts == null) return;
+        try {
+            metrics.received(name, Clocks.epochMicros() - Long.parseLong(ts));
+        } catch (NumberFormatException ignore) {
+            // чужой или испорченный заголовок — не метрика
+        }
+    }
+
+    private MessageHandler timed(String name, MessageHandler handler) {
+        return (s, p) -> {
+            long t0 = System.nanoTime();
+            try {
+                handler.onMessage(s, p);
+            } finally {
+                metrics.handled(name, System.nanoTime() - t0);
+            }
+        };
+    }
+
     /**
      * Создаёт асинхронную подписку на subject с обработчиком сообщений.
      * Подписка изолирована собственным Dispatcher для чистого закрытия.
      */
     @Override
     public Subscription subscribe(String subject, MessageHandler handler) {
+        return subscribe(subject, null, handler);
+    }
+
+    /**
+     * Подписка в NATS queue group: сервер раздаёт сообщения subject между участниками группы.
+     * {@code queueGroup == null} — обычная fan-out подписка.
+     */
+    @Override
+    public Subscription subscribe(String subject, String queueGroup, MessageHandler handler) {
+        return subscribe(subject, queueGroup, cfg.subscriptionDefaults(), handler);
+    }
+
+    /**
+     * Подписка с явными параметрами доставки. При {@code capacity > 0} поток диспетчера только
+     * кладёт сообщения в {@link SubscriptionMailbox}, а handler крутится в собственном потоке
+     * подписки; переполнение решает {@link SubscriptionOptions#overflow()}, а не молчаливый
+     * drop внутри jnats.
+     */
+    @Override
+    public Subscription subscribe(String subject, String queueGroup, SubscriptionOptions options, MessageHandler handler) {
         Objects.requireNonNull(subject, "subject");
+        Objects.requireNonNull(options, "options");
         Objects.requireNonNull(handler, "handler");
+        List<String> frames = frameSubjects(cfg, subject, queueGroup);
+
+        String name = queueGroup == null ? subject : subject + "@" + queueGroup;
+        MessageHandler h = instrumented ? timed(name, handler) : handler;
+        SubscriptionMailbox mailbox = options.capacity() > 0 ? new SubscriptionMailbox(name, options, h) : null;
+        MessageHandler target = mailbox != null ? mailbox::offer : h;
+        if (mailbox == null && !frames.isEmpty()) {
+            // handler зовут и свой dispatcher, и общий fan-out кадров — сохраняем последовательность вызовов
+            MessageHandler direct = target;
+            Object lock = new Object();
+            target = (s, p) -> {
+                synchronized (lock) {
+                    direct.onMessage(s, p);
+                }
+            };
+        }
+        MessageHandler deliver = target;
 
         // Отдельный dispatcher под одного handler — проще управлять жизненным циклом
         Dispatcher dispatcher = nc.createDispatcher(msg -> {});
-        dispatcher.subscribe(subject, msg -> {
+        if (options.pendingMessageLimit() > 0 || options.pendingByteLimit() > 0) {
+            dispatcher.setPendingLimits(options.pendingMessageLimit(), options.pendingByteLimit());
+        }
+        io.nats.client.MessageHandler natsHandler = msg -> {
             try {
-                handler.onMessage(msg.getSubject(), msg.getData());
+                if (instrumented) recordLatency(name, msg);
+                if (isBatch(msg)) {
+                    NatsBatchFrame.unpack(msg.getData(), msg.getSubject(), (s, p) -> {
+                        // кадр per-prefix может нести subjects вне нашего шаблона
+                        if (s.equals(msg.getSubject()) || SubjectMatcher.matches(subject, s)) {
+                            deliver.onMessage(s, p);
+                        }
+                    });
+                } else {
+                    deliver.onMessage(msg.getSubject(), msg.getData());
+                }
             } catch (Throwable t) {
                 log.warn("Handler error on subject {}: {}", subject, t.toString(), t);
             }
-        });
+        };
+        subscribe(dispatcher, subject, queueGroup, natsHandler);
+        FrameListener frameListener = frames.isEmpty() ? null : new FrameListener() {
+            @Override public String pattern() { return subject; }
+            @Override public void onFrame(Message frame) {
+                if (instrumented) recordLatency(name, frame);
+            }
+            @Override public void onEntry(MessageView entry) {
+                deliver.onMessage(entry.subject(), entry.copyPayload());
+            }
+        };
+        return register(name, new NatsSubscription(nc, dispatcher, subject, mailbox, metrics, name,
+                attachFrames(frames, frameListener)));
+    }
+
+    private Subscription register(String name, NatsSubscription sub) {
+        if (instrumented) metrics.subscribed(name, sub);
+        return sub;
+    }
+
+    /**
+     * Подписка без копий. Handler вызывается в потоке dispatcher'а с одним переиспользуемым
+     * {@link MessageView}: payload — {@code msg.getData()} как есть, записи микробатча —
+     * участки кадра (без распаковки в отдельные массивы и без строк subject). Байты subject
+     * обычных сообщений берутся из кэша подписки, заголовки читаются лениво.
+     */
+    @Override
+    public Subscription subscribeView(String subject, String queueGroup, MessageViewHandler handler) {
+        Objects.requireNonNull(subject, "subject");
+        Objects.requireNonNull(handler, "handler");
+        List<String> frames = frameSubjects(cfg, subject, queueGroup);
+
+        String name = queueGroup == null ? subject : subject + "@" + queueGroup;
+        Dispatcher dispatcher = nc.createDispatcher(msg -> {});
+        ViewDispatch natsHandler = new ViewDispatch(subject, name, handler, instrumented ? this : null, !frames.isEmpty());
+        subscribe(dispatcher, subject, queueGroup, natsHandler);
+        return register(name, new NatsSubscription(nc, dispatcher, subject, null, metrics, name,
+                attachFrames(frames, frames.isEmpty() ? null : natsHandler)));
+    }
+
+    private static void subscribe(Dispatcher dispatcher, String subject, String queueGroup,
+                                  io.nats.client.MessageHandler natsHandler) {
+        if (queueGroup == null) {
+            dispatcher.subscribe(subject, natsHandler);
+        } else {
+            dispatcher.subscribe(subject, queueGroup, natsHandler);
+        }
+    }
+
+    /**
+     * Кадры per-prefix батчей, в которых могут лежать сообщения подписки, но которые её шаблон
+     * сам не ловит ({@link NatsBatchPublisher#frameSubjectsFor}): их шина слушает через общий
+     * {@link FrameFanout}. Queue group с такими кадрами несовместима: NATS отдал бы кадр одному
+     * участнику группы, и записи остальных участников пропали бы. Шаблоны слотов
+     * {@link com.suhoi.bus.KeyAffinity} ловят кадр своего слота сами и в группе работают.
+     *
+     * @throws IllegalArgumentException queue group на subject, которому нужны кадры per-prefix
+     */
+    static List<String> frameSubjects(NatsEventBusConfig cfg, String subject, String queueGroup) {
+        List<String> frames = NatsBatchPublisher.frameSubjectsFor(cfg, subject);
+        if (queueGroup != null && !frames.isEmpty()) {
+            throw new IllegalArgumentException("queue group " + queueGroup + " on " + subject
+                    + " would lose entries of per-prefix batch frames " + frames
+                    + "; subscribe to a KeyAffinity slot subject or disable batchByPrefix");
+        }
+        return frames;
+    }
+
+    /**
+     * Добавляет слушателя в общие подписки на кадры (создавая их при первом слушателе).
+     *
+     * @return отписка слушателя; последняя отписка снимает подписку на кадр
+     */
+    private Runnable attachFrames(List<String> frames, FrameListener listener) {
+        if (frames.isEmpty()) return () -> {};
+        synchronized (frameLock) {
+            if (frameDispatcher == null) frameDispatcher = nc.createDispatcher(msg -> {});
+            for (String f : frames) {
+                FrameFanout fo = frameFanouts.get(f);
+                if (fo == null) {
+                    fo = new FrameFanout();
+                    fo.sub = frameDispatcher.subscribe(f, fo);
+                    frameFanouts.put(f, fo);
+                }
+                fo.add(listener);
+            }
+        }
+        return () -> {
+            synchronized (frameLock) {
+                for (String f : frames) {
+                    FrameFanout fo = frameFanouts.get(f);
+                    if (fo != null && fo.remove(listener)) {
+                        frameFanouts.remove(f);
+                        try {
+                            frameDispatcher.unsubscribe(fo.sub);
+                        } catch (Exception ignore) {}
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Асинхронный запрос через NATS request/reply (мультиплексированный inbox, без отдельной
+     * подписки на каждый запрос). Таймаут ({@link TimeoutException}) и отсутствие ответчиков
+     * ({@link IllegalStateException}) приходят исключением future.
+     */
+    @Override
+    public CompletableFuture<byte[]> request(String subject, byte[] payload, Duration timeout) {
+        Objects.requireNonNull(subject, "subject");
+        Objects.requireNonNull(payload, "payload");
+        Objects.requireNonNull(timeout, "timeout");
+        if (instrumented) metrics.published(subject, payload.length);
+        CompletableFuture<Message> f;
+        try {
+            f = nc.requestWithTimeout(subject, payload, timeout);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(new RuntimeException("NATS request failed for subject " + subject, e));
+        }
+        return f.handle((msg, err) -> replyData(subject, msg, err));
+    }
+
+    /**
+     * Итог запроса jnats → ответ или исключение контракта {@link EventBus#request}. jnats завершает
+     * future отменой по таймауту, а при {@code reportNoResponders} — {@link JetStreamStatusException}
+     * со статусом 503, если на subject никто не подписан.
+     */
+    static byte[] replyData(String subject, Message msg, Throwable err) {
+        Throwable cause = err instanceof CompletionException && err.getCause() != null ? err.getCause() : err;
+        if (cause instanceof CancellationException) {
+            throw new CompletionException(new TimeoutException("NATS request timed out: " + subject));
+        }
+        if (cause instanceof JetStreamStatusException se && se.getStatus().isNoResponders()) {
+            throw new CompletionException(new IllegalStateException("no responders for " + subject, se));
+        }
+        if (cause != null) {
+            throw new CompletionException(cause);
+        }
+        return msg.getData();
+    }
+
+    /**
+     * Ответчик на запросы: ответ публикуется в reply-to входящего сообщения.
+     * Handler вызывается в потоке собственного dispatcher'а (без буфера подписки — ответ важнее
+     * пропускной способности).
+     */
+    @Override
+    public Subscription reply(String subject, String queueGroup, ReplyHandler handler) {
+        Objects.requireNonNull(subject, "subject");
+        Objects.requireNonNull(handler, "handler");
+        String name = queueGroup == null ? subject : subject + "@" + queueGroup;
+        Dispatcher dispatcher = nc.createDispatcher(msg -> {});
+        io.nats.client.MessageHandler natsHandler = msg -> {
+            try {
+                if (instrumented) recordLatency(name, msg);
+                long t0 = instrumented ? System.nanoTime() : 0L;
+                byte[] answer = handler.onRequest(msg.getSubject(), msg.getData());
+                if (instrumented) metrics.handled(name, System.nanoTime() - t0);
+                if (answer != null && msg.getReplyTo() != null) {
+                    nc.publish(msg.getReplyTo(), answer);
+                }
+            } catch (Throwable t) {
+                log.warn("Reply handler error on subject {}: {}", subject, t.toString(), t);
+            }
+        };
+        if (queueGroup == null) {
+            dispatcher.subscribe(subject, natsHandler);
+        } else {
+            dispatcher.subscribe(subject, queueGroup, natsHandler);
+        }
+        return register(name, new NatsSubscription(nc, dispatcher, subject, null, metrics, name, () -> {}));
+    }
 
-        return new NatsSubscription(nc, dispatcher, subject);
+    private static boolean isBatch(Message msg) {
+        return msg.hasHeaders() && msg.getHeaders().getFirst(BusHeaders.BATCH) != null;
     }
 
     /**
      * Корректно завершаем соединение:
      * <ol>
+     *     <li>Досылка накопленных микробатчей</li>
      *     <li>Опциональный flush — дождаться отсылки публикаций</li>
      *     <li>Опциональный drain — попросить NATS «докрутить» обработку</li>
      *     <li>Закрыть соединение</li>
@@ -131,6 +461,9 @@ public final class NatsEventBus implements EventBus {
     @Override
     public void close() {
         try {
+            if (batcher != null) {
+                batcher.close(); // дослать незакрытые батчи до flush
+            }
             if (cfg.flushOnClose()) {
                 try {
                     nc.flush(Duration.ofSeconds(2));
@@ -149,29 +482,238 @@ public final class NatsEventBus implements EventBus {
         }
     }
 
+    /** Подписчик общего кадра per-prefix: получает только записи, подходящие под его шаблон. */
+    private interface FrameListener {
+        String pattern();
+
+        /** Кадр пришёл (для метрик латентности), до раздачи записей. */
+        void onFrame(Message frame);
+
+        /** Запись кадра; view валиден только внутри вызова, заголовки — кадра. */
+        void onEntry(MessageView entry);
+    }
+
+    /**
+     * Общая подписка на один subject кадра per-prefix: кадр распаковывается один раз, записи
+     * раздаются слушателям, чей шаблон их ловит. Вызывается потоком общего dispatcher'а кадров;
+     * его очередь не входит в pending/dropped отдельных подписок.
+     */
+    private static final class FrameFanout implements io.nats.client.MessageHandler, MessageView.Headers {
+        private static final FrameListener[] NONE = new FrameListener[0];
+
+        private final MessageView view = new MessageView();
+        private volatile FrameListener[] listeners = NONE; // copy-on-write под frameLock шины
+        private io.nats.client.Subscription sub;
+        private Headers current;
+
+        FrameFanout() {
+            view.setHeaders(this);
+        }
+
+        void add(FrameListener l) {
+            FrameListener[] ls = Arrays.copyOf(listeners, listeners.length + 1);
+            ls[ls.length - 1] = l;
+            listeners = ls;
+        }
+
+        /** @return true, если слушателей не осталось */
+        boolean remove(FrameListener l) {
+            var rest = new ArrayList<FrameListener>(Arrays.asList(listeners));
+            rest.remove(l);
+            listeners = rest.toArray(NONE);
+            return rest.isEmpty();
+        }
+
+        @Override
+        public void onMessage(Message msg) {
+            FrameListener[] ls = listeners;
+            // одиночные сообщения уходят в свой subject, в subject кадра — только кадры
+            if (ls.length == 0 || !isBatch(msg)) return;
+            try {
+                current = msg.getHeaders();
+                for (FrameListener l : ls) l.onFrame(msg);
+                String subject = msg.getSubject();
+                NatsBatchFrame.unpackInto(msg.getData(), subject, subject.getBytes(StandardCharsets.UTF_8), view, v -> {
+                    for (FrameListener l : ls) {
+                        if (!v.subjectMatches(l.pattern())) continue;
+                        try {
+                            l.onEntry(v);
+                        } catch (Throwable t) {
+                            log.warn("Handler error on subject {}: {}", l.pattern(), t.toString(), t);
+                        }
+                    }
+                });
+            } catch (Throwable t) {
+                log.warn("Batch frame error on subject {}: {}", msg.getSubject(), t.toString(), t);
+            } finally {
+                current = null;
+            }
+        }
+
+        @Override
+        public String first(String name) {
+            return current == null ? null : current.getFirst(name);
+        }
+    }
+
+    /**
+     * NATS-обработчик для {@link #subscribeView}. Вызывается одним потоком dispatcher'а,
+     * поэтому view, кэш subjects и текущие заголовки — обычные поля. Если подписка слушает ещё и
+     * общие кадры ({@code shared}), вызовы handler'а из обоих потоков идут под монитором.
+     */
+    private static final class ViewDispatch implements io.nats.client.MessageHandler, MessageView.Headers, FrameListener {
+        private static final int SUBJECT_CACHE_MAX = 4096;
+
+        private final String pattern;
+        private final String name;
+        private final MessageViewHandler handler;
+        private final NatsEventBus instrumentation; // null — без метрик
+        private final boolean shared;
+        private final MessageView view = new MessageView();
+        private final Map<String, byte[]> subjectBytes = new HashMap<>();
+        private Headers current;
+
+        ViewDispatch(String pattern, String name, MessageViewHandler handler, NatsEventBus instrumentation,
+                     boolean shared) {
+            this.pattern = pattern;
+            this.name = name;
+            this.handler = handler;
+            this.instrumentation = instrumentation;
+            this.shared = shared;
+            view.setHeaders(this);
+        }
+
+        @Override
+        public void onMessage(Message msg) {
+            if (!shared) {
+                dispatch(msg);
+                return;
+            }
+            synchronized (this) {
+                dispatch(msg);
+            }
+        }
+
+        @Override
+        public String pattern() {
+            return pattern;
+        }
+
+        @Override
+        public void onFrame(Message frame) {
+            if (instrumentation != null) instrumentation.recordLatency(name, frame);
+        }
+
+        @Override
+        public synchronized void onEntry(MessageView entry) {
+            call(entry);
+        }
+
+        private void dispatch(Message msg) {
+            try {
+                if (instrumentation != null) instrumentation.recordLatency(name, msg);
+                String subject = msg.getSubject();
+                byte[] sb = bytesOf(subject);
+                current = msg.hasHeaders() ? msg.getHeaders() : null;
+                byte[] data = msg.getData();
+                if (current != null && current.getFirst(BusHeaders.BATCH) != null) {
+                    NatsBatchFrame.unpackInto(data, subject, sb, view, v -> {
+                        // кадр per-prefix может нести subjects вне нашего шаблона
+                        if (v.subjectBytes() == sb || v.subjectMatches(pattern)) {
+                            call(v);
+                        }
+                    });
+                } else {
+                    call(view.setSubject(subject, sb).setPayload(data, 0, data.length));
+                }
+            } catch (Throwable t) {
+                log.warn("Handler error on subject {}: {}", pattern, t.toString(), t);
+            } finally {
+                current = null;
+            }
+        }
+
+        private void call(MessageView v) {
+            if (instrumentation == null) {
+                handler.onMessage(v);
+                return;
+            }
+            long t0 = System.nanoTime();
+            try {
+                handler.onMessage(v);
+            } finally {
+                instrumentation.metrics.handled(name, System.nanoTime() - t0);
+            }
+        }
+
+        @Override
+        public String first(String name) {
+            return current == null ? null : current.getFirst(name);
+        }
+
+        private byte[] bytesOf(String subject) {
+            byte[] b = subjectBytes.get(subject);
+            if (b == null) {
+                // wildcard-подписка на высококардинальные subjects не должна раздувать кэш
+                if (subjectBytes.size() >= SUBJECT_CACHE_MAX) subjectBytes.clear();
+                b = subject.getBytes(StandardCharsets.UTF_8);
+                subjectBytes.put(subject, b);
+            }
+            return b;
+        }
+    }
+
     /**
-     * Хэндл подписки, знающий свой dispatcher и subject.
+     * Хэндл подписки, знающий свой dispatcher и subjects.
      */
     private static final class NatsSubscription implements Subscription {
         private final Connection nc;
         private final Dispatcher dispatcher;
         private final String subject;
+        private final SubscriptionMailbox mailbox; // null — прямая доставка
+        private final BusMetrics metrics;
+        private final String name;
+        private final Runnable detachFrames; // отписка от общих кадров per-prefix
         private volatile boolean closed = false;
 
-        NatsSubscription(Connection nc, Dispatcher dispatcher, String subject) {
+        NatsSubscription(Connection nc, Dispatcher dispatcher, String subject, SubscriptionMailbox mailbox,
+                         BusMetrics metrics, String name, Runnable detachFrames) {
             this.nc = nc;
             this.dispatcher = dispatcher;
             this.subject = subject;
+            this.mailbox = mailbox;
+            this.metrics = metrics;
+            this.name = name;
+            this.detachFrames = detachFrames;
+        }
+
+        /** Очередь dispatcher'а jnats (лимиты {@code setPendingLimits}) плюс буфер подписки. */
+        @Override
+        public int pending() {
+            long n = dispatcher.getPendingMessageCount() + (mailbox == null ? 0 : mailbox.depth());
+            return (int) Math.min(n, Integer.MAX_VALUE);
+        }
+
+        /** Отброшенные jnats при переполнении dispatcher'а плюс политикой буфера подписки. */
+        @Override
+        public long dropped() {
+            return dispatcher.getDroppedCount() + (mailbox == null ? 0L : mailbox.dropped());
+        }
+
+        @Override
+        public long delivered() {
+            return mailbox == null ? dispatcher.getDeliveredCount() : mailbox.delivered();
         }
 
         /**
-         * Отписывает subject и мягко дренит dispatcher.
+         * Отписывает subject, мягко дренит dispatcher и буфер подписки.
          * Соединение не закрывает.
          */
         @Override
         public void close() {
             if (closed) return;
             closed = true;
+            detachFrames.run();
             try {
                 dispatcher.unsubscribe(subject);
             } catch (Exception ignore) {}
@@ -184,6 +726,11 @@ public final class NatsEventBus implements EventBus {
                 // В jnats это делает Connection, явного stop() у Dispatcher нет.
                 nc.closeDispatcher(dispatcher);
             } catch (Exception ignore) {}
+            if (mailbox != null) {
+                // доработать то, что уже в буфере подписки
+                mailbox.close();
+            }
+            metrics.unsubscribed(name, this);
         }
     }
 }
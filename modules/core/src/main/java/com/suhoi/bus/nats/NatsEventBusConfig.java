@@ -1,5 +1,8 @@
 package com.suhoi.bus.nats;
 
+import com.suhoi.bus.BusMetrics;
+import com.suhoi.bus.SubscriptionOptions;
+
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -16,6 +19,15 @@ public final class NatsEventBusConfig {
     private final int maxReconnects;
     private final Duration pingInterval;
     private final boolean flushOnClose;
+    private final boolean batching;
+    private final Duration batchFlushInterval;
+    private final int batchMaxMessages;
+    private final int batchMaxBytes;
+    private final List<String> batchSubjectPrefixes;
+    private final boolean batchByPrefix;
+    private final SubscriptionOptions subscriptionDefaults;
+    private final BusMetrics metrics;
+    private final boolean stampPublishTime;
 
     private NatsEventBusConfig(Builder b) {
         this.servers = Collections.unmodifiableList(new ArrayList<>(b.servers));
@@ -24,6 +36,15 @@ public final class NatsEventBusConfig {
         this.maxReconnects = b.maxReconnects;
         this.pingInterval = b.pingInterval;
         this.flushOnClose = b.flushOnClose;
+        this.batching = b.batching;
+        this.batchFlushInterval = b.batchFlushInterval;
+        this.batchMaxMessages = b.batchMaxMessages;
+        this.batchMaxBytes = b.batchMaxBytes;
+        this.batchSubjectPrefixes = Collections.unmodifiableList(new ArrayList<>(b.batchSubjectPrefixes));
+        this.batchByPrefix = b.batchByPrefix;
+        this.subscriptionDefaults = b.subscriptionDefaults;
+        this.metrics = b.metrics;
+        this.stampPublishTime = b.stampPublishTime;
     }
 
     public List<String> servers() { return servers; }
@@ -32,6 +53,38 @@ public final class NatsEventBusConfig {
     public int maxReconnects() { return maxReconnects; }
     public Duration pingInterval() { return pingInterval; }
     public boolean flushOnClose() { return flushOnClose; }
+    /** Включён ли микробатчинг публикаций (opt-in). */
+    public boolean batching() { return batching; }
+    /** Максимальное время удержания сообщения в батче. */
+    public Duration batchFlushInterval() { return batchFlushInterval; }
+    public int batchMaxMessages() { return batchMaxMessages; }
+    /** Порог размера кадра; должен быть заметно меньше max_payload сервера (1 MB по умолчанию). */
+    public int batchMaxBytes() { return batchMaxBytes; }
+    /** Какие subjects батчатся (по префиксу); остальные публикуются напрямую. */
+    public List<String> batchSubjectPrefixes() { return batchSubjectPrefixes; }
+    /**
+     * true — один батч на префикс (кадр уходит в {@code <prefix>_batch}), а subjects слотов
+     * {@link com.suhoi.bus.KeyAffinity} — по батчу на слот ({@code <prefix>s<N>._batch}, кадр ловит
+     * сама подписка слота, в том числе в queue group). Кадры, которые шаблон подписки сам не
+     * ловит, шина слушает один раз и раздаёт записи своим подписчикам, так что точные подписчики
+     * ({@code ticks.BTC}) получают свои сообщения; queue group на таких subjects запрещена.
+     * Подписчики в других процессах должны использовать ту же настройку, иначе точные подписки
+     * кадров не увидят.
+     * false — один батч на subject (прозрачно для любых подписчиков).
+     */
+    public boolean batchByPrefix() { return batchByPrefix; }
+    /**
+     * Параметры доставки для подписок без явных {@link SubscriptionOptions}. По умолчанию
+     * {@link SubscriptionOptions#direct()} — handler в потоке dispatcher'а, как до буферов подписок.
+     */
+    public SubscriptionOptions subscriptionDefaults() { return subscriptionDefaults; }
+    /** Приёмник метрик шины; {@link BusMetrics#NOOP} — без замеров. */
+    public BusMetrics metrics() { return metrics; }
+    /**
+     * Ставить ли заголовок {@link com.suhoi.bus.BusHeaders#PUBLISHED_AT} на публикации
+     * (нужен подписчикам для end-to-end латентности; +~40 байт на сообщение/кадр).
+     */
+    public boolean stampPublishTime() { return stampPublishTime; }
 
     public static Builder builder() { return new Builder(); }
 
@@ -45,6 +98,15 @@ public final class NatsEventBusConfig {
         private int maxReconnects = -1; // -1 = бесконечные попытки
         private Duration pingInterval = Duration.ofSeconds(10);
         private boolean flushOnClose = true;
+        private boolean batching = false;
+        private Duration batchFlushInterval = Duration.ofNanos(500_000); // 500 µs
+        private int batchMaxMessages = 256;
+        private int batchMaxBytes = 64 * 1024;
+        private final List<String> batchSubjectPrefixes = new ArrayList<>();
+        private boolean batchByPrefix = false;
+        private SubscriptionOptions subscriptionDefaults = SubscriptionOptions.direct();
+        private BusMetrics metrics = BusMetrics.NOOP;
+        private boolean stampPublishTime = false;
 
         public Builder server(String url) { this.servers.add(url); return this; }
         public Builder servers(List<String> urls) { this.servers.addAll(urls); return this; }
@@ -53,11 +115,27 @@ public final class NatsEventBusConfig {
         public Builder maxReconnects(int n) { this.maxReconnects = n; return this; }
         public Builder pingInterval(Duration d) { this.pingInterval = d; return this; }
         public Builder flushOnClose(boolean v) { this.flushOnClose = v; return this; }
+        public Builder batching(boolean v) { this.batching = v; return this; }
+        public Builder batchFlushInterval(Duration d) { this.batchFlushInterval = d; return this; }
+        public Builder batchMaxMessages(int n) { this.batchMaxMessages = n; return this; }
+        public Builder batchMaxBytes(int n) { this.batchMaxBytes = n; return this; }
+        public Builder batchSubjectPrefix(String prefix) { this.batchSubjectPrefixes.add(prefix); return this; }
+        public Builder batchByPrefix(boolean v) { this.batchByPrefix = v; return this; }
+        public Builder subscriptionDefaults(SubscriptionOptions o) { this.subscriptionDefaults = o; return this; }
+        public Builder metrics(BusMetrics m) { this.metrics = m == null ? BusMetrics.NOOP : m; return this; }
+        public Builder stampPublishTime(boolean v) { this.stampPublishTime = v; return this; }
 
         public NatsEventBusConfig build() {
             if (servers.isEmpty()) {
                 servers.add("nats://127.0.0.1:4222");
             }
+            if (batching) {
+                if (batchFlushInterval.isNegative() || batchFlushInterval.isZero())
+                    throw new IllegalArgumentException("batchFlushInterval must be > 0");
+                if (batchMaxMessages < 1) throw new IllegalArgumentException("batchMaxMessages must be >= 1");
+                if (batchMaxBytes < 1024) throw new IllegalArgumentException("batchMaxBytes must be >= 1024");
+                if (batchSubjectPrefixes.isEmpty()) batchSubjectPrefixes.add("ticks.");
+            }
             return new NatsEventBusConfig(this);
         }
     }
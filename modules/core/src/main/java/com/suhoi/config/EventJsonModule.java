@@ -0,0 +1,257 @@
+package com.suhoi.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.suhoi.events.AlertEvent;
+import com.suhoi.events.FairSnap;
+import com.suhoi.events.Price;
+import com.suhoi.events.Tick;
+import com.suhoi.math.FixedPoint;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Рукописные потоковые сериализаторы для событий горячего пути: {@link Tick}, {@link FairSnap},
+ * {@link AlertEvent}.
+ * <p>
+ * Формат тот же, что даёт {@link ObjectMapperFactory} через рефлексию: snake_case, null-поля
+ * пишутся как null, {@link Instant} — ISO-8601 ({@code 2025-10-16T18:01:23.456Z}), цены — числом.
+ * Отличия от общего пути: имена полей заранее закодированы ({@link SerializedString}), время и
+ * {@link Price} форматируются в char-буфер без промежуточных строк/{@link BigDecimal}.
+ * Цена пишется без экспоненты ({@code 0.00000001}, а не {@code 1E-8}) — значение то же.
+ * </p>
+ * Десериализация остаётся на databind (с Blackbird), см. {@link ObjectMapperFactory#reader}.
+ */
+public final class EventJsonModule extends SimpleModule {
+
+    public EventJsonModule() {
+        super("suhoi-events");
+        addSerializer(Tick.class, new TickSerializer());
+        addSerializer(FairSnap.class, new FairSnapSerializer());
+        addSerializer(AlertEvent.class, new AlertEventSerializer());
+    }
+
+    private static final SerializedString TS = new SerializedString("ts");
+    private static final SerializedString ASSET = new SerializedString("asset");
+    private static final SerializedString VENUE = new SerializedString("venue");
+    private static final SerializedString KIND = new SerializedString("kind");
+    private static final SerializedString BID = new SerializedString("bid");
+    private static final SerializedString ASK = new SerializedString("ask");
+    private static final SerializedString MID = new SerializedString("mid");
+    private static final SerializedString DEPTH_USD50 = new SerializedString("depth_usd50");
+    private static final SerializedString HEARTBEAT_TS = new SerializedString("heartbeat_ts");
+    private static final SerializedString MARKET_ID = new SerializedString("market_id");
+    private static final SerializedString NATIVE_SYMBOL = new SerializedString("native_symbol");
+    private static final SerializedString FAIR = new SerializedString("fair");
+    private static final SerializedString SOURCES = new SerializedString("sources");
+    private static final SerializedString WEIGHT = new SerializedString("weight");
+    private static final SerializedString DEV_PCT = new SerializedString("dev_pct");
+    private static final SerializedString PRICE = new SerializedString("price");
+    private static final SerializedString BIAS = new SerializedString("bias");
+    private static final SerializedString THRESHOLD_PCT = new SerializedString("threshold_pct");
+    private static final SerializedString STATE = new SerializedString("state");
+
+    /** Буфер форматирования на поток: ISO-время (до 30 символов) и цена ({@link FixedPoint#MAX_CHARS}). */
+    private static final ThreadLocal<char[]> SCRATCH = ThreadLocal.withInitial(() -> new char[32]);
+
+    static final class TickSerializer extends StdSerializer<Tick> {
+        TickSerializer() { super(Tick.class); }
+
+        @Override
+        public void serialize(Tick t, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            char[] buf = SCRATCH.get();
+            gen.writeStartObject(t);
+            gen.writeFieldName(TS);
+            writeInstant(gen, t.ts(), buf);
+            gen.writeFieldName(ASSET);
+            gen.writeString(t.asset());
+            gen.writeFieldName(VENUE);
+            gen.writeString(t.venue());
+            gen.writeFieldName(KIND);
+            gen.writeString(t.kind());
+            gen.writeFieldName(BID);
+            writePrice(gen, t.bid(), buf);
+            gen.writeFieldName(ASK);
+            writePrice(gen, t.ask(), buf);
+            gen.writeFieldName(MID);
+            writePrice(gen, t.mid(), buf);
+            gen.writeFieldName(DEPTH_USD50);
+            gen.writeNumber(t.depthUsd50());
+            gen.writeFieldName(HEARTBEAT_TS);
+            writeInstant(gen, t.heartbeatTs(), buf);
+            gen.writeFieldName(MARKET_ID);
+            gen.writeString(t.marketId());
+            gen.writeFieldName(NATIVE_SYMBOL);
+            gen.writeString(t.nativeSymbol());
+            gen.writeEndObject();
+        }
+    }
+
+    static final class FairSnapSerializer extends StdSerializer<FairSnap> {
+        FairSnapSerializer() { super(FairSnap.class); }
+
+        @Override
+        public void serialize(FairSnap s, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            char[] buf = SCRATCH.get();
+            gen.writeStartObject(s);
+            gen.writeFieldName(TS);
+            writeInstant(gen, s.ts(), buf);
+            gen.writeFieldName(ASSET);
+            gen.writeString(s.asset());
+            gen.writeFieldName(FAIR);
+            writePrice(gen, s.fair(), buf);
+            gen.writeFieldName(SOURCES);
+            List<FairSnap.Source> sources = s.sources();
+            if (sources == null) {
+                gen.writeNull();
+            } else {
+                gen.writeStartArray(sources, sources.size());
+                for (int i = 0, n = sources.size(); i < n; i++) {
+                    FairSnap.Source src = sources.get(i);
+                    if (src == null) {
+                        gen.writeNull();
+                        continue;
+                    }
+                    gen.writeStartObject(src);
+                    gen.writeFieldName(MARKET_ID);
+                    gen.writeString(src.marketId());
+                    gen.writeFieldName(MID);
+                    writePrice(gen, src.mid(), buf);
+                    gen.writeFieldName(WEIGHT);
+                    gen.writeNumber(src.weight());
+                    gen.writeEndObject();
+                }
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    static final class AlertEventSerializer extends StdSerializer<AlertEvent> {
+        AlertEventSerializer() { super(AlertEvent.class); }
+
+        @Override
+        public void serialize(AlertEvent a, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            char[] buf = SCRATCH.get();
+            gen.writeStartObject(a);
+            gen.writeFieldName(TS);
+            writeInstant(gen, a.ts(), buf);
+            gen.writeFieldName(ASSET);
+            gen.writeString(a.asset());
+            gen.writeFieldName(MARKET_ID);
+            gen.writeString(a.marketId());
+            gen.writeFieldName(DEV_PCT);
+            gen.writeNumber(a.devPct());
+            gen.writeFieldName(PRICE);
+            writePrice(gen, a.price(), buf);
+            gen.writeFieldName(FAIR);
+            writePrice(gen, a.fair(), buf);
+            gen.writeFieldName(BIAS);
+            gen.writeNumber(a.bias());
+            gen.writeFieldName(THRESHOLD_PCT);
+            gen.writeNumber(a.thresholdPct());
+            gen.writeFieldName(STATE);
+            gen.writeString(a.state());
+            gen.writeEndObject();
+        }
+    }
+
+    // ---- значения ----
+
+    private static void writePrice(JsonGenerator gen, Price p, char[] buf) throws IOException {
+        if (p == null) {
+            gen.writeNull();
+            return;
+        }
+        int len = FixedPoint.formatTo(buf, 0, p.mantissa(), p.scale());
+        gen.writeNumber(buf, 0, len);
+    }
+
+    private static void writeInstant(JsonGenerator gen, Instant t, char[] buf) throws IOException {
+        if (t == null) {
+            gen.writeNull();
+            return;
+        }
+        int len = formatInstant(buf, t.getEpochSecond(), t.getNano());
+        if (len < 0) {
+            gen.writeString(t.toString()); // год вне 0000..9999 — как у ISO_INSTANT
+        } else {
+            gen.writeString(buf, 0, len);
+        }
+    }
+
+    private static final long MIN_SECOND = -62_167_219_200L;  // 0000-01-01T00:00:00Z
+    private static final long MAX_SECOND = 253_402_300_799L;  // 9999-12-31T23:59:59Z
+
+    /**
+     * ISO-8601 UTC как у {@link java.time.format.DateTimeFormatter#ISO_INSTANT}: доли секунды
+     * группами по 3 цифры, сколько нужно. {@code -1} — год вне 0000..9999.
+     */
+    static int formatInstant(char[] buf, long epochSecond, int nano) {
+        if (epochSecond < MIN_SECOND || epochSecond > MAX_SECOND) return -1;
+        long days = Math.floorDiv(epochSecond, 86_400L);
+        int secOfDay = (int) Math.floorMod(epochSecond, 86_400L);
+
+        // civil_from_days (H. Hinnant): эпоха сдвинута на 0000-03-01
+        long z = days + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        int doe = (int) (z - era * 146_097);
+        int yoe = (doe - doe / 1460 + doe / 36_524 - doe / 146_096) / 365;
+        int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        int mp = (5 * doy + 2) / 153;
+        int day = doy - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = (int) (yoe + era * 400) + (month <= 2 ? 1 : 0);
+
+        put4(buf, 0, year);
+        buf[4] = '-';
+        put2(buf, 5, month);
+        buf[7] = '-';
+        put2(buf, 8, day);
+        buf[10] = 'T';
+        put2(buf, 11, secOfDay / 3600);
+        buf[13] = ':';
+        put2(buf, 14, secOfDay / 60 % 60);
+        buf[16] = ':';
+        put2(buf, 17, secOfDay % 60);
+        int p = 19;
+        if (nano != 0) {
+            buf[p++] = '.';
+            int digits;
+            int frac;
+            if (nano % 1_000_000 == 0) {
+                digits = 3;
+                frac = nano / 1_000_000;
+            } else if (nano % 1_000 == 0) {
+                digits = 6;
+                frac = nano / 1_000;
+            } else {
+                digits = 9;
+                frac = nano;
+            }
+            for (int i = p + digits - 1; i >= p; i--) {
+                buf[i] = (char) ('0' + frac % 10);
+                frac /= 10;
+            }
+            p += digits;
+        }
+        buf[p++] = 'Z';
+        return p;
+    }
+
+    private static void put2(char[] buf, int off, int v) {
+        buf[off] = (char) ('0' + v / 10);
+        buf[off + 1] = (char) ('0' + v % 10);
+    }
+
+    private static void put4(char[] buf, int off, int v) {
+        put2(buf, off, v / 100);
+        put2(buf, off + 2, v % 100);
+    }
+}
@@ -1,12 +1,21 @@
 package com.suhoi.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.PropertyNamingStrategies;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
 
 /**
  * Централизованный ObjectMapper: snake_case, JavaTime, ISO-8601.
+ * <p>
+ * Доступ к свойствам через Blackbird (LambdaMetafactory вместо рефлексии), события горячего
+ * пути пишутся рукописными сериализаторами {@link EventJsonModule}. Для кодеков — готовые
+ * {@link #reader(Class)}/{@link #writer(Class)}: (де)сериализатор типа найден один раз,
+ * а не при каждом {@code readValue}/{@code writeValueAsBytes}.
+ * </p>
  */
 public final class ObjectMapperFactory {
     private static volatile ObjectMapper INSTANCE;
@@ -19,6 +28,8 @@ public final class ObjectMapperFactory {
                 if (INSTANCE == null) {
                     ObjectMapper om = new ObjectMapper();
                     om.registerModule(new JavaTimeModule());
+                    om.registerModule(new BlackbirdModule());
+                    om.registerModule(new EventJsonModule());
                     om.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
                     om.setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
                     INSTANCE = om;
@@ -27,4 +38,28 @@ public final class ObjectMapperFactory {
         }
         return INSTANCE;
     }
+
+    private static final ClassValue<ObjectReader> READERS = new ClassValue<>() {
+        @Override
+        protected ObjectReader computeValue(Class<?> type) {
+            return ObjectMapperFactory.get().readerFor(type);
+        }
+    };
+
+    private static final ClassValue<ObjectWriter> WRITERS = new ClassValue<>() {
+        @Override
+        protected ObjectWriter computeValue(Class<?> type) {
+            return ObjectMapperFactory.get().writerFor(type);
+        }
+    };
+
+    /** Потокобезопасный reader типа с заранее найденным десериализатором (кэшируется на тип). */
+    public static ObjectReader reader(Class<?> type) {
+        return READERS.get(type);
+    }
+
+    /** Потокобезопасный writer типа с заранее найденным сериализатором (кэшируется на тип). */
+    public static ObjectWriter writer(Class<?> type) {
+        return WRITERS.get(type);
+    }
 }
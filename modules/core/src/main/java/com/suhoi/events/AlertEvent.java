@@ -40,9 +40,13 @@ public record AlertEvent(
         String asset,
         String marketId,
         BigDecimal devPct,
-        BigDecimal price,
-        BigDecimal fair,
+        Price price,
+        Price fair,
         BigDecimal bias,
         BigDecimal thresholdPct,
         String state // OPEN | CLOSE
-) {}
+) {
+    public BigDecimal priceDecimal() { return price == null ? null : price.toBigDecimal(); }
+
+    public BigDecimal fairDecimal() { return fair == null ? null : fair.toBigDecimal(); }
+}
@@ -32,9 +32,13 @@ import java.util.List;
 public record FairSnap(
         Instant ts,
         String asset,
-        BigDecimal fair,
+        Price fair,
         List<Source> sources
 ) {
+    public BigDecimal fairDecimal() { return fair == null ? null : fair.toBigDecimal(); }
+
     /** Вклад конкретного рынка в FAIR: его mid и вес. */
-    public record Source(String marketId, BigDecimal mid, BigDecimal weight) {}
+    public record Source(String marketId, Price mid, BigDecimal weight) {
+        public BigDecimal midDecimal() { return mid == null ? null : mid.toBigDecimal(); }
+    }
 }
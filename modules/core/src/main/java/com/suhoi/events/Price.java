@@ -0,0 +1,123 @@
+package com.suhoi.events;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.suhoi.math.FixedPoint;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Цена с фиксированной точкой: {@code mantissa × 10^-scale}, {@code 0 ≤ scale ≤ 18}.
+ * <p>
+ * Заменяет {@link BigDecimal} в событиях на горячем пути: один объект с двумя примитивами,
+ * разбор котировки без промежуточных строк/BigInteger, mid без деления. Масштаб рынка —
+ * {@code VenueListing.priceScale} (число знаков по tickSize); без него берётся масштаб записи.
+ * </p>
+ * На границах (JSON, persistence) цена выглядит как {@link BigDecimal}: Jackson пишет/читает
+ * её числом через {@link #toBigDecimal()} / {@link #of(BigDecimal)}.
+ * <p>Равенство и хеш — по числовому значению ({@code 1.50 == 1.5}), согласованы с {@link #compareTo}.</p>
+ */
+public record Price(long mantissa, int scale) implements Comparable<Price> {
+
+    public Price {
+        if (scale < 0 || scale > FixedPoint.MAX_SCALE) {
+            throw new IllegalArgumentException("price scale out of range: " + scale);
+        }
+    }
+
+    public static Price of(long mantissa, int scale) {
+        return new Price(mantissa, scale);
+    }
+
+    /** Из BigDecimal; больше 18 знаков после точки — округление half-up. null → null. */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Price of(BigDecimal v) {
+        if (v == null) return null;
+        if (v.scale() < 0) v = v.setScale(0, RoundingMode.UNNECESSARY);
+        if (v.scale() > FixedPoint.MAX_SCALE) v = v.setScale(FixedPoint.MAX_SCALE, RoundingMode.HALF_UP);
+        return new Price(v.unscaledValue().longValueExact(), v.scale());
+    }
+
+    /** Разбор с масштабом рынка (лишние знаки — half-up). */
+    public static Price parse(CharSequence s, int scale) {
+        return new Price(FixedPoint.parse(s, scale), scale);
+    }
+
+    /** Разбор с масштабом записи ({@code "60123.40"} → scale 2). */
+    public static Price parse(CharSequence s) {
+        return parse(s, FixedPoint.scaleOf(s));
+    }
+
+    /** Разбор ASCII-байтов из буфера с масштабом рынка. */
+    public static Price parse(byte[] b, int off, int len, int scale) {
+        return new Price(FixedPoint.parse(b, off, len, scale), scale);
+    }
+
+    /** null/пустая строка → null, иначе {@link #parse(CharSequence)} — частый случай у бирж. */
+    public static Price parseOrNull(String s) {
+        return s == null || s.isEmpty() ? null : parse(s);
+    }
+
+    /**
+     * Точная середина {@code (a + b) / 2}: на масштабе на единицу больше общего (если не упирается
+     * в 18), иначе half-up. Лишний ноль в конце отбрасывается.
+     */
+    public static Price mid(Price a, Price b) {
+        int s = Math.max(a.scale, b.scale);
+        long x = FixedPoint.rescale(a.mantissa, a.scale, s);
+        long y = FixedPoint.rescale(b.mantissa, b.scale, s);
+        if (s < FixedPoint.MAX_SCALE) {
+            long m = FixedPoint.midAtNextScale(x, y);
+            return m % 10 == 0 ? new Price(m / 10, s) : new Price(m, s + 1);
+        }
+        long sum = Math.addExact(x, y);
+        return new Price(sum / 2 + (sum % 2), s); // half-up от нуля
+    }
+
+    /** Та же цена на другом масштабе (уменьшение — half-up). */
+    public Price withScale(int newScale) {
+        return newScale == scale ? this : new Price(FixedPoint.rescale(mantissa, scale, newScale), newScale);
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(mantissa, scale);
+    }
+
+    public double doubleValue() {
+        return FixedPoint.toDouble(mantissa, scale);
+    }
+
+    public int signum() {
+        return Long.signum(mantissa);
+    }
+
+    @Override
+    public int compareTo(Price o) {
+        return FixedPoint.compare(mantissa, scale, o.mantissa, o.scale);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Price p && compareTo(p) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        // хеш нормализованной формы: без хвостовых нулей
+        long m = mantissa;
+        int s = scale;
+        while (s > 0 && m % 10 == 0) {
+            m /= 10;
+            s--;
+        }
+        return Long.hashCode(m) * 31 + s;
+    }
+
+    /** Десятичная запись без экспоненты, с полным масштабом ({@code 60123.50}). */
+    @Override
+    public String toString() {
+        return FixedPoint.format(mantissa, scale);
+    }
+}
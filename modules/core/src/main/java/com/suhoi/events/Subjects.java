@@ -1,14 +1,38 @@
 package com.suhoi.events;
 
+import com.suhoi.bus.KeyAffinity;
+
 /**
  * Хелперы для NATS subjects.
+ * <p>Партиционированные тики — схема {@link KeyAffinity} с префиксом {@link #TICKS}:
+ * {@code ticks.s{N}.{asset}}, {@code N = KeyAffinity.slot(asset, partitions)}. Срез партиции —
+ * {@code ticks.s{N}.>}; его берёт либо участник {@link KeyAffinity#subscribeMember}, либо владелец
+ * партиции {@link com.suhoi.bus.ShardCoordinator} — публикаторы одни и те же.</p>
  */
 public final class Subjects {
     private Subjects() {
     }
 
+    /** Префикс subjects тиков. */
+    public static final String TICKS = "ticks";
+
     public static String ticks(String asset) {
-        return "ticks." + asset;
+        return TICKS + "." + asset;
+    }
+
+    /** {@code ticks.s{N}.{asset}} — {@link KeyAffinity#pinnedSubject} с префиксом {@link #TICKS}. */
+    public static String ticks(String asset, int partitions) {
+        return KeyAffinity.pinnedSubject(TICKS, asset, partitions);
+    }
+
+    /** Wildcard всех тиков партиции: {@code ticks.s{N}.>}. */
+    public static String ticksPartition(int partition) {
+        return KeyAffinity.slotSubject(TICKS, partition);
+    }
+
+    /** Канал членства/heartbeat координатора шардов группы. */
+    public static String shardControl(String group) {
+        return "control.shards." + group;
     }
 
     public static String fairSnap(String asset) {
@@ -19,14 +43,35 @@ public final class Subjects {
         return "alerts." + asset;
     }
 
+    /** Запрос текущего fair по asset (request/reply, отвечает fairprice-service). */
+    public static String queryFair(String asset) {
+        return "query.fair." + asset;
+    }
+
+    /** Запрос текущего bias по asset (отвечает bias-service). */
+    public static String queryBias(String asset) {
+        return "query.bias." + asset;
+    }
+
+    /** Запрос последней котировки по asset (отвечает stream-router). */
+    public static String queryQuote(String asset) {
+        return "query.quote." + asset;
+    }
+
     public static String echo(String asset) {
         return "echo." + asset;
     }
 
     public static final String CONTROL_ECHO = "control.echo";
 
+    /** Число партиций тиков по умолчанию (менять только одновременно на всех узлах). */
+    public static final int DEFAULT_TICK_PARTITIONS = 64;
+
     public static final String TICKS_ALL = "ticks.>";
     public static final String FAIR_ALL  = "fair.snap.>";
     public static final String ALERTS_ALL= "alerts.>";
+    public static final String QUERY_FAIR_ALL  = "query.fair.*";
+    public static final String QUERY_BIAS_ALL  = "query.bias.*";
+    public static final String QUERY_QUOTE_ALL = "query.quote.*";
 
 }
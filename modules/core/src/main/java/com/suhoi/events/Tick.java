@@ -13,7 +13,7 @@ import java.time.Instant;
  *   <li><b>asset</b> — каноническая база инструмента (например, {@code BTC}). Всегда против {@code USDT} в MVP.</li>
  *   <li><b>venue</b> — код площадки (BINANCE/BYBIT/...). См. таблицу {@code venues}.</li>
  *   <li><b>kind</b> — тип рынка: SPOT | PERP | FUTURES | DEX.</li>
- *   <li><b>bid</b>/<b>ask</b> — лучшие цены стакана, если доступны из источника.</li>
+ *   <li><b>bid</b>/<b>ask</b> — лучшие цены стакана, если доступны из источника ({@link Price}, масштаб рынка).</li>
  *   <li><b>mid</b> — средняя цена {@code (bid+ask)/2}. Если один из спредов недоступен, может быть равна лучшей доступной котировке.</li>
  *   <li><b>depthUsd50</b> — оценка глубины стакана в долларах до $50 нотионала (для весов FAIR). Может быть null, если источник не дал depth.</li>
  *   <li><b>heartbeatTs</b> — последний «пульс» источника по этому рынку (для детекта живости).</li>
@@ -43,11 +43,18 @@ public record Tick(
         String asset,
         String venue,
         String kind,
-        BigDecimal bid,
-        BigDecimal ask,
-        BigDecimal mid,
+        Price bid,
+        Price ask,
+        Price mid,
         BigDecimal depthUsd50,
         Instant heartbeatTs,
         String marketId,
         String nativeSymbol
-) {}
+) {
+    /** Цены как BigDecimal — для persistence и расчётов вне горячего пути. */
+    public BigDecimal bidDecimal() { return bid == null ? null : bid.toBigDecimal(); }
+
+    public BigDecimal askDecimal() { return ask == null ? null : ask.toBigDecimal(); }
+
+    public BigDecimal midDecimal() { return mid == null ? null : mid.toBigDecimal(); }
+}
@@ -0,0 +1,12 @@
+package com.suhoi.events;
+
+/**
+ * Идентичность рынка в потоке тиков: (venue, kind, nativeSymbol).
+ * <p>Используется как ключ «последнего значения» (conflation, кэши котировок).</p>
+ */
+public record TickKey(String venue, String kind, String nativeSymbol) {
+
+    public static TickKey of(Tick t) {
+        return new TickKey(t.venue(), t.kind(), t.nativeSymbol());
+    }
+}
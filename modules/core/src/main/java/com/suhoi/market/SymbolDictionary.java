@@ -0,0 +1,399 @@
+package com.suhoi.market;
+
+import com.suhoi.api.adapter.VenueListing;
+import com.suhoi.bus.CodecDictionary;
+import com.suhoi.events.Subjects;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Иммутабельный словарь рынков: плотные int-идентификаторы вместо строк на горячем пути.
+ * <p>
+ * Строится из строк таблицы {@code markets} и/или {@link VenueListing} дискавери. Каждый рынок
+ * {@code (venue, kind, nativeSymbol)} получает плотный {@code marketIndex ∈ [0, size)}, а asset
+ * и venue — свои плотные id; kind — {@link MarketKind#ordinal()}. Атрибуты рынка хранятся
+ * массивами по индексу (struct-of-arrays), subjects тиков посчитаны заранее.
+ * </p>
+ * Поиск по сырому символу — {@link Table}: идеальный хеш (hash-and-displace) на площадку и тип
+ * рынка, без аллокаций, без учёта регистра ASCII ({@code btcusdt} = {@code BTCUSDT}).
+ * Поиск — прямо по тексту или байтам кадра, без подстрок; состояние по рынку ключуется int'ом.
+ * Адаптеры ищут символы кадров так же — по словарю подписок клиента ({@link com.suhoi.api.adapter.SymbolCache}).
+ */
+public final class SymbolDictionary {
+    /** Нет такого рынка/asset/venue. */
+    public static final int NONE = -1;
+
+    private final String[] assetNames;
+    private final String[] venueNames;
+    private final Map<String, Integer> assetIds;
+    private final Map<String, Integer> venueIds;
+
+    // атрибуты рынков по marketIndex
+    private final int[] assetOf;
+    private final int[] venueOf;
+    private final MarketKind[] kindOf;
+    private final String[] nativeSymbolOf;
+    private final long[] dbMarketIdOf;
+    private final String[] dbMarketIdStringOf;
+    private final int[] priceScaleOf;
+    private final String[] ticksSubjectOf;
+    private final String[] partitionedTicksSubjectOf;
+    private final int tickPartitions;
+
+    private final Table[] tables; // [venueId * KINDS + kind.ordinal()], null — рынков нет
+
+    private static final MarketKind[] KINDS = MarketKind.values();
+
+    private SymbolDictionary(Builder b) {
+        List<Builder.Row> rows = new ArrayList<>(b.rows.values());
+        // детерминированный порядок: одинаковый словарь на всех узлах при одинаковых данных
+        rows.sort(Comparator.comparing((Builder.Row r) -> r.venue)
+                .thenComparing(r -> r.kind)
+                .thenComparing(r -> r.nativeSymbol));
+
+        this.assetNames = rows.stream().map(r -> r.asset).distinct().sorted().toArray(String[]::new);
+        this.venueNames = rows.stream().map(r -> r.venue).distinct().sorted().toArray(String[]::new);
+        this.assetIds = indexOf(assetNames);
+        this.venueIds = indexOf(venueNames);
+        this.tickPartitions = b.tickPartitions;
+
+        int n = rows.size();
+        assetOf = new int[n];
+        venueOf = new int[n];
+        kindOf = new MarketKind[n];
+        nativeSymbolOf = new String[n];
+        dbMarketIdOf = new long[n];
+        dbMarketIdStringOf = new String[n];
+        priceScaleOf = new int[n];
+        ticksSubjectOf = new String[n];
+        partitionedTicksSubjectOf = new String[n];
+
+        Map<Integer, List<Integer>> byTable = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            Builder.Row r = rows.get(i);
+            assetOf[i] = assetIds.get(r.asset);
+            venueOf[i] = venueIds.get(r.venue);
+            kindOf[i] = r.kind;
+            nativeSymbolOf[i] = r.nativeSymbol;
+            dbMarketIdOf[i] = r.dbMarketId;
+            dbMarketIdStringOf[i] = r.dbMarketId > 0 ? Long.toString(r.dbMarketId) : null;
+            priceScaleOf[i] = r.priceScale;
+            ticksSubjectOf[i] = Subjects.ticks(r.asset);
+            partitionedTicksSubjectOf[i] = Subjects.ticks(r.asset, tickPartitions);
+            byTable.computeIfAbsent(venueOf[i] * KINDS.length + r.kind.ordinal(), k -> new ArrayList<>()).add(i);
+        }
+        this.tables = new Table[venueNames.length * KINDS.length];
+        byTable.forEach((slot, markets) -> tables[slot] = new Table(markets, nativeSymbolOf));
+    }
+
+    private static Map<String, Integer> indexOf(String[] names) {
+        Map<String, Integer> m = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) m.put(names[i], i);
+        return Map.copyOf(m);
+    }
+
+    public static Builder builder() { return new Builder(); }
+
+    // ---- поиск ----
+
+    /** Таблица символов площадки и типа рынка или null, если таких рынков нет. */
+    public Table table(String venue, MarketKind kind) {
+        Integer v = venueIds.get(venue);
+        return v == null ? null : tables[v * KINDS.length + kind.ordinal()];
+    }
+
+    public Table table(int venueId, MarketKind kind) {
+        return tables[venueId * KINDS.length + kind.ordinal()];
+    }
+
+    /** marketIndex по нативному символу или {@link #NONE}. */
+    public int marketIndex(String venue, MarketKind kind, CharSequence nativeSymbol) {
+        Table t = table(venue, kind);
+        return t == null ? NONE : t.find(nativeSymbol);
+    }
+
+    public int size() { return assetOf.length; }
+
+    // ---- asset / venue ----
+
+    public int assetCount() { return assetNames.length; }
+    public int venueCount() { return venueNames.length; }
+
+    public int assetId(String asset) {
+        Integer id = assetIds.get(asset);
+        return id == null ? NONE : id;
+    }
+
+    public int venueId(String venue) {
+        Integer id = venueIds.get(venue);
+        return id == null ? NONE : id;
+    }
+
+    public String assetName(int assetId) { return assetNames[assetId]; }
+    public String venueName(int venueId) { return venueNames[venueId]; }
+
+    /** Словарь asset'ов для {@link com.suhoi.bus.BinaryEventCodec} (одинаков у всех узлов с теми же данными). */
+    public CodecDictionary assetCodecDictionary() {
+        return CodecDictionary.of(Arrays.asList(assetNames));
+    }
+
+    // ---- атрибуты рынка ----
+
+    public int assetIdOf(int market) { return assetOf[market]; }
+    public String assetOf(int market) { return assetNames[assetOf[market]]; }
+    public int venueIdOf(int market) { return venueOf[market]; }
+    public String venueOf(int market) { return venueNames[venueOf[market]]; }
+    public MarketKind kindOf(int market) { return kindOf[market]; }
+    public String nativeSymbolOf(int market) { return nativeSymbolOf[market]; }
+
+    /** {@code markets.market_id} или 0, если рынок известен только из листинга. */
+    public long dbMarketIdOf(int market) { return dbMarketIdOf[market]; }
+
+    /** {@code markets.market_id} строкой (как в {@link com.suhoi.events.Tick#marketId()}) или null. */
+    public String marketIdStringOf(int market) { return dbMarketIdStringOf[market]; }
+
+    /** Знаков цены по tickSize или {@link #NONE}, если листинга не было. */
+    public int priceScaleOf(int market) { return priceScaleOf[market]; }
+
+    /** {@code ticks.{asset}}. */
+    public String ticksSubjectOf(int market) { return ticksSubjectOf[market]; }
+
+    /** {@code ticks.s{N}.{asset}} ({@link Subjects#ticks(String, int)}) для {@link #tickPartitions()}. */
+    public String partitionedTicksSubjectOf(int market) { return partitionedTicksSubjectOf[market]; }
+
+    public int tickPartitions() { return tickPartitions; }
+
+    /**
+     * Идеальный хеш символов одной площадки и типа рынка.
+     * <p>Ключи распределены по корзинам первым хешем; для каждой корзины подобран сдвиг
+     * (seed второго хеша), при котором её ключи занимают свободные слоты. Поиск — два хеша,
+     * одно сравнение байтов; отсутствующий символ отсекается сравнением.</p>
+     */
+    public static final class Table {
+        private static final int BUCKET_SEED = 0x9E3779B9;
+
+        private final int[] displacement; // по корзине
+        private final int[] slotMarket;   // по слоту, NONE — пусто
+        private final byte[][] slotKey;   // символ в верхнем регистре
+        private final int mask;
+
+        Table(List<Integer> markets, String[] symbols) {
+            int n = markets.size();
+            int size = Integer.highestOneBit(Math.max(2, n) - 1) << 2; // загрузка ≤ 0.5
+            this.mask = size - 1;
+            this.slotMarket = new int[size];
+            Arrays.fill(slotMarket, NONE);
+            this.slotKey = new byte[size][];
+            int buckets = Math.max(1, n / 2);
+            this.displacement = new int[buckets];
+
+            // ключи проверяются заранее: не-ASCII символ или дубль (с точностью до регистра) дали бы
+            // одинаковые байты, и поиск смещения для их корзины не закончился бы никогда
+            byte[][] keys = new byte[n][];
+            Set<String> seen = new HashSet<>(n * 2);
+            List<List<Integer>> byBucket = new ArrayList<>(buckets);
+            for (int b = 0; b < buckets; b++) byBucket.add(new ArrayList<>());
+            for (int i = 0; i < n; i++) {
+                String symbol = symbols[markets.get(i)];
+                keys[i] = asciiUpper(symbol);
+                if (!seen.add(new String(keys[i], StandardCharsets.US_ASCII))) {
+                    throw new IllegalArgumentException("duplicate symbol (case-insensitive): " + symbol);
+                }
+                byBucket.get(bucket(hash(keys[i], 0, keys[i].length, BUCKET_SEED), buckets)).add(i);
+            }
+            Integer[] order = new Integer[buckets];
+            for (int b = 0; b < buckets; b++) order[b] = b;
+            Arrays.sort(order, (x, y) -> byBucket.get(y).size() - byBucket.get(x).size());
+
+            int[] placed = new int[16];
+            for (int b : order) {
+                List<Integer> members = byBucket.get(b);
+                if (members.isEmpty()) continue;
+                if (placed.length < members.size()) placed = new int[members.size()];
+                for (int d = 1; ; d++) {
+                    if (d == Integer.MAX_VALUE) throw new IllegalStateException("perfect hash construction failed");
+                    int k = 0;
+                    boolean ok = true;
+                    for (int i : members) {
+                        int slot = hash(keys[i], 0, keys[i].length, d) & mask;
+                        if (slotMarket[slot] != NONE || contains(placed, k, slot)) {
+                            ok = false;
+                            break;
+                        }
+                        placed[k++] = slot;
+                    }
+                    if (!ok) continue;
+                    for (int j = 0; j < members.size(); j++) {
+                        int i = members.get(j);
+                        slotMarket[placed[j]] = markets.get(i);
+                        slotKey[placed[j]] = keys[i];
+                    }
+                    displacement[b] = d;
+                    break;
+                }
+            }
+        }
+
+        /** Символ в верхнем регистре ASCII; не-ASCII не сворачивается однозначно — отказ. */
+        static byte[] asciiUpper(String symbol) {
+            byte[] out = new byte[symbol.length()];
+            for (int i = 0; i < out.length; i++) {
+                char c = symbol.charAt(i);
+                if (c > 0x7F) throw new IllegalArgumentException("non-ASCII symbol: " + symbol);
+                out[i] = upper((byte) c);
+            }
+            return out;
+        }
+
+        private static boolean contains(int[] a, int n, int v) {
+            for (int i = 0; i < n; i++) if (a[i] == v) return true;
+            return false;
+        }
+
+        /** marketIndex по ASCII-байтам символа (регистр не важен) или {@link #NONE}. */
+        public int find(byte[] b, int off, int len) {
+            int d = displacement[bucket(hash(b, off, len, BUCKET_SEED), displacement.length)];
+            int slot = hash(b, off, len, d) & mask;
+            byte[] key = slotKey[slot];
+            if (key == null || key.length != len) return NONE;
+            for (int i = 0; i < len; i++) {
+                if (key[i] != upper(b[off + i])) return NONE;
+            }
+            return slotMarket[slot];
+        }
+
+        /** То же по строке (ASCII). */
+        public int find(CharSequence s) {
+            return find(s, 0, s.length());
+        }
+
+        /** То же по участку строки — символ прямо из текста кадра, без подстроки. */
+        public int find(CharSequence s, int off, int len) {
+            int d = displacement[bucket(hash(s, off, len, BUCKET_SEED), displacement.length)];
+            int slot = hash(s, off, len, d) & mask;
+            byte[] key = slotKey[slot];
+            if (key == null || key.length != len) return NONE;
+            for (int i = 0; i < len; i++) {
+                char c = s.charAt(off + i);
+                if (c > 0x7F || key[i] != upper((byte) c)) return NONE;
+            }
+            return slotMarket[slot];
+        }
+
+        private static int bucket(int h, int buckets) {
+            return (h & 0x7FFFFFFF) % buckets;
+        }
+
+        private static byte upper(byte c) {
+            return c >= 'a' && c <= 'z' ? (byte) (c - 32) : c;
+        }
+
+        // FNV-1a с seed'ом + финальное перемешивание murmur3; регистр ASCII свёрнут
+        private static int hash(byte[] b, int off, int len, int seed) {
+            int h = 0x811C9DC5 ^ seed;
+            for (int i = off, end = off + len; i < end; i++) {
+                h ^= upper(b[i]) & 0xFF;
+                h *= 0x01000193;
+            }
+            return fmix(h);
+        }
+
+        private static int hash(CharSequence s, int off, int len, int seed) {
+            int h = 0x811C9DC5 ^ seed;
+            for (int i = off, end = off + len; i < end; i++) {
+                h ^= upper((byte) s.charAt(i)) & 0xFF;
+                h *= 0x01000193;
+            }
+            return fmix(h);
+        }
+
+        private static int fmix(int h) {
+            h ^= h >>> 16;
+            h *= 0x85EBCA6B;
+            h ^= h >>> 13;
+            h *= 0xC2B2AE35;
+            h ^= h >>> 16;
+            return h;
+        }
+    }
+
+    /**
+     * Builder: рынки из БД ({@link #market}) и листинги дискавери ({@link #listing}).
+     * Один и тот же рынок {@code (venue, kind, nativeSymbol)} из обоих источников склеивается:
+     * id берётся из БД, priceScale — из листинга.
+     */
+    public static final class Builder {
+        private final Map<String, Row> rows = new HashMap<>();
+        private int tickPartitions = Subjects.DEFAULT_TICK_PARTITIONS;
+
+        private static final class Row {
+            String asset;
+            String venue;
+            MarketKind kind;
+            String nativeSymbol;
+            long dbMarketId;
+            int priceScale = NONE;
+        }
+
+        /** Строка таблицы {@code markets}. */
+        public Builder market(long marketId, String asset, String venue, MarketKind kind, String nativeSymbol) {
+            Row r = row(asset, venue, kind, nativeSymbol);
+            r.dbMarketId = marketId;
+            return this;
+        }
+
+        /** Листинг дискавери; только USDT-пары со статусом торгов учитываются вызывающей стороной. */
+        public Builder listing(VenueListing l) {
+            Row r = row(l.base, l.venue, MarketKind.valueOf(l.kind), l.nativeSymbol);
+            r.priceScale = l.priceScale;
+            return this;
+        }
+
+        public Builder listings(Collection<VenueListing> ls) {
+            ls.forEach(this::listing);
+            return this;
+        }
+
+        public Builder tickPartitions(int n) { this.tickPartitions = n; return this; }
+
+        private Row row(String asset, String venue, MarketKind kind, String nativeSymbol) {
+            Objects.requireNonNull(asset, "asset");
+            Objects.requireNonNull(venue, "venue");
+            Objects.requireNonNull(kind, "kind");
+            Objects.requireNonNull(nativeSymbol, "nativeSymbol");
+            for (int i = 0; i < nativeSymbol.length(); i++) {
+                if (nativeSymbol.charAt(i) > 0x7F) {
+                    throw new IllegalArgumentException("non-ASCII symbol for " + venue + "/" + kind + ": " + nativeSymbol);
+                }
+            }
+            String key = venue + '\u0000' + kind + '\u0000' + nativeSymbol.toUpperCase(Locale.ROOT);
+            Row r = rows.computeIfAbsent(key, k -> new Row());
+            if (r.asset != null && !r.asset.equals(asset)) {
+                throw new IllegalArgumentException("conflicting asset for " + venue + "/" + kind + "/"
+                        + nativeSymbol + ": " + r.asset + " vs " + asset);
+            }
+            r.asset = asset;
+            r.venue = venue;
+            r.kind = kind;
+            if (r.nativeSymbol == null) r.nativeSymbol = nativeSymbol;
+            return r;
+        }
+
+        public SymbolDictionary build() {
+            if (tickPartitions <= 0) throw new IllegalArgumentException("tickPartitions must be > 0");
+            return new SymbolDictionary(this);
+        }
+    }
+}
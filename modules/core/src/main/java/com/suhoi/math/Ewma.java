@@ -5,6 +5,7 @@ import java.math.MathContext;
 
 /**
  * Простой EWMA-аккумулятор для оценки bias.
+ * Для многих рынков и нерегулярных тиков — {@link EwmaBank}.
  */
 public final class Ewma {
     private final BigDecimal alpha; // (0,1]
@@ -0,0 +1,210 @@
+package com.suhoi.math;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Банк EWMA по рынкам: состояние — примитивные массивы (struct-of-arrays), индекс — плотный
+ * {@code marketIndex} из {@link com.suhoi.market.SymbolDictionary}.
+ * <p>
+ * Затухание по времени для нерегулярных тиков: {@code alpha(dt) = 1 - exp(-dt/tau)}, т.е. вклад
+ * прошлого значения убывает в {@code e} раз за {@code tau} независимо от частоты тиков.
+ * Первое значение рынка принимается как есть. Тик со временем не позже предыдущего
+ * ({@code dt ≤ 0}) значение не двигает (alpha = 0), время рынка не откатывается.
+ * </p>
+ * <b>Потоки:</b> один писатель ({@link #update}, {@link #reset}, {@link #restore}) без блокировок;
+ * читателей сколько угодно. Каждая запись рынка защищена seqlock'ом: читатель видит согласованную
+ * тройку value/ts/count и повторяет чтение, если попал на запись. {@link #snapshot()} согласован
+ * по каждому рынку (не единый срез всех рынков — писатель не останавливается).
+ */
+public final class EwmaBank {
+    private static final VarHandle SEQ = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private final double tauMillis;
+    private final double[] value;
+    private final long[] lastMillis;
+    private final long[] count;
+    private final long[] seq; // нечётный — идёт запись
+
+    public EwmaBank(int capacity, Duration tau) {
+        if (capacity < 0) throw new IllegalArgumentException("capacity must be >= 0");
+        if (tau.isNegative() || tau.isZero()) throw new IllegalArgumentException("tau must be > 0");
+        this.tauMillis = tau.toNanos() / 1_000_000.0;
+        this.value = new double[capacity];
+        this.lastMillis = new long[capacity];
+        this.count = new long[capacity];
+        this.seq = new long[capacity];
+        Arrays.fill(value, Double.NaN);
+        Arrays.fill(lastMillis, NEVER);
+    }
+
+    public int capacity() { return value.length; }
+
+    public Duration tau() { return Duration.ofNanos(Math.round(tauMillis * 1_000_000)); }
+
+    /** Вес нового наблюдения через {@code dtMillis} после предыдущего. */
+    public double alpha(long dtMillis) {
+        return dtMillis <= 0 ? 0.0 : -Math.expm1(-dtMillis / tauMillis);
+    }
+
+    // ---- писатель ----
+
+    /**
+     * Добавляет наблюдение {@code x} рынка в момент {@code tsMillis}.
+     *
+     * @return новое значение EWMA
+     */
+    public double update(int market, double x, long tsMillis) {
+        long prev = lastMillis[market];
+        double v;
+        long ts;
+        if (prev == NEVER) {
+            v = x;
+            ts = tsMillis;
+        } else {
+            double a = alpha(tsMillis - prev);
+            v = value[market];
+            v += a * (x - v);
+            ts = Math.max(prev, tsMillis);
+        }
+        long s = beginWrite(market);
+        value[market] = v;
+        lastMillis[market] = ts;
+        count[market]++;
+        endWrite(market, s);
+        return v;
+    }
+
+    /** Забыть рынок (следующее наблюдение станет начальным значением). */
+    public void reset(int market) {
+        long s = beginWrite(market);
+        value[market] = Double.NaN;
+        lastMillis[market] = NEVER;
+        count[market] = 0;
+        endWrite(market, s);
+    }
+
+    /** Задать состояние рынка явно (например, из persistence). */
+    public void reset(int market, double v, long tsMillis) {
+        long s = beginWrite(market);
+        value[market] = v;
+        lastMillis[market] = tsMillis;
+        count[market] = 1;
+        endWrite(market, s);
+    }
+
+    /**
+     * Восстанавливает состояние из снимка (индексы рынков должны совпадать).
+     * Рынки за пределами снимка сбрасываются.
+     */
+    public void restore(Snapshot snap) {
+        int n = snap.values().length;
+        if (n > capacity()) {
+            throw new IllegalArgumentException("snapshot has " + n + " markets, capacity is " + capacity());
+        }
+        for (int i = 0; i < capacity(); i++) {
+            if (i < n && snap.timestamps()[i] != NEVER) {
+                long s = beginWrite(i);
+                value[i] = snap.values()[i];
+                lastMillis[i] = snap.timestamps()[i];
+                count[i] = snap.counts()[i];
+                endWrite(i, s);
+            } else {
+                reset(i);
+            }
+        }
+    }
+
+    private long beginWrite(int i) {
+        long s = seq[i]; // писатель один — своё значение читаем без барьеров
+        SEQ.setOpaque(seq, i, s + 1);
+        VarHandle.storeStoreFence();
+        return s;
+    }
+
+    private void endWrite(int i, long s) {
+        SEQ.setRelease(seq, i, s + 2);
+    }
+
+    // ---- читатели ----
+
+    /** Текущее значение или NaN, если наблюдений не было. */
+    public double value(int market) {
+        for (;;) {
+            long s = (long) SEQ.getAcquire(seq, market);
+            if ((s & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            double v = value[market];
+            VarHandle.loadLoadFence();
+            if ((long) SEQ.getOpaque(seq, market) == s) return v;
+        }
+    }
+
+    /** Время последнего наблюдения (epoch millis) или {@link Long#MIN_VALUE}. */
+    public long lastUpdateMillis(int market) {
+        for (;;) {
+            long s = (long) SEQ.getAcquire(seq, market);
+            if ((s & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long ts = lastMillis[market];
+            VarHandle.loadLoadFence();
+            if ((long) SEQ.getOpaque(seq, market) == s) return ts;
+        }
+    }
+
+    /** Снимок всех рынков в новые массивы. */
+    public Snapshot snapshot() {
+        int n = capacity();
+        var snap = new Snapshot(new double[n], new long[n], new long[n]);
+        snapshotInto(snap);
+        return snap;
+    }
+
+    /** Снимок в готовые массивы (без аллокаций; длина массивов — не меньше {@link #capacity()}). */
+    public void snapshotInto(Snapshot out) {
+        double[] vs = out.values();
+        long[] ts = out.timestamps();
+        long[] cs = out.counts();
+        for (int i = 0, n = capacity(); i < n; i++) {
+            for (;;) {
+                long s = (long) SEQ.getAcquire(seq, i);
+                if ((s & 1) != 0) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                double v = value[i];
+                long t = lastMillis[i];
+                long c = count[i];
+                VarHandle.loadLoadFence();
+                if ((long) SEQ.getOpaque(seq, i) == s) {
+                    vs[i] = v;
+                    ts[i] = t;
+                    cs[i] = c;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Состояние банка по индексу рынка.
+     *
+     * @param values     EWMA (NaN — наблюдений не было)
+     * @param timestamps время последнего наблюдения, epoch millis ({@link Long#MIN_VALUE} — не было)
+     * @param counts     число наблюдений
+     */
+    public record Snapshot(double[] values, long[] timestamps, long[] counts) {
+        public Snapshot {
+            if (values.length != timestamps.length || values.length != counts.length) {
+                throw new IllegalArgumentException("snapshot arrays must have equal length");
+            }
+        }
+    }
+}
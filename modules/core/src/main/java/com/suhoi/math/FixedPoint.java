@@ -0,0 +1,311 @@
+package com.suhoi.math;
+
+import java.math.BigDecimal;
+
+/**
+ * Арифметика цен с фиксированной точкой: значение = {@code mantissa × 10^-scale},
+ * {@code 0 ≤ scale ≤ }{@link #MAX_SCALE}. Всё на примитивах, без аллокаций — для горячего пути
+ * (парсинг котировок в адаптерах, mid, сравнения). Обёртка-значение — {@link com.suhoi.events.Price}.
+ * <p>Переполнение long ({@code > 9.2e18} в единицах последнего знака) в арифметике —
+ * {@link ArithmeticException}; при разборе — {@link NumberFormatException}, как и любой неверный ввод.</p>
+ */
+public final class FixedPoint {
+    private FixedPoint() {}
+
+    public static final int MAX_SCALE = 18;
+
+    private static final long[] POW10 = new long[MAX_SCALE + 1];
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i <= MAX_SCALE; i++) POW10[i] = POW10[i - 1] * 10;
+    }
+    private static final long HALF_POW19 = 5 * POW10[MAX_SCALE]; // 10^19 / 2
+
+    /** 10^n для {@code 0 ≤ n ≤ 18}. */
+    public static long pow10(int n) {
+        return POW10[n];
+    }
+
+    // ---- парсинг ----
+
+    /**
+     * Разбирает десятичную строку ({@code -123.45}, {@code 1e-5}) в мантиссу с масштабом {@code scale};
+     * лишние знаки округляются half-up. Дробные цифры сверх разрядности long (больше 18–19 значащих)
+     * отбрасываются — на округление до {@code scale} они уже не влияют.
+     *
+     * @throws NumberFormatException при неверном формате или если значение не помещается в long на {@code scale}
+     */
+    public static long parse(CharSequence s, int scale) {
+        return parse(s, 0, s.length(), scale);
+    }
+
+    public static long parse(CharSequence s, int off, int len, int scale) {
+        checkScale(scale);
+        return scan(s, off, len, scale, false);
+    }
+
+    /** То же для ASCII-байтов (прямо из буфера сообщения). */
+    public static long parse(byte[] b, int off, int len, int scale) {
+        checkScale(scale);
+        return parseAscii(b, off, len, scale, false);
+    }
+
+    /**
+     * Масштаб, с которым число записано в строке (число знаков после точки с учётом экспоненты),
+     * ограниченный {@code [0, MAX_SCALE]}.
+     */
+    public static int scaleOf(CharSequence s) {
+        return scaleOf(s, 0, s.length());
+    }
+
+    public static int scaleOf(CharSequence s, int off, int len) {
+        return clampScale((int) scan(s, off, len, 0, true));
+    }
+
+    public static int scaleOf(byte[] b, int off, int len) {
+        return clampScale((int) parseAscii(b, off, len, 0, true));
+    }
+
+    private static int clampScale(int raw) {
+        return Math.max(0, Math.min(MAX_SCALE, raw));
+    }
+
+    /** Один проход: мантисса на масштабе {@code scale} или (wantScale) «сырой» масштаб записи. */
+    private static long scan(CharSequence s, int off, int len, int scale, boolean wantScale) {
+        int end = off + len;
+        int i = off;
+        if (i == end) throw new NumberFormatException("empty number");
+        boolean neg = false;
+        char c = s.charAt(i);
+        if (c == '-' || c == '+') {
+            neg = c == '-';
+            i++;
+        }
+        long m = 0;
+        int frac = 0;
+        int digits = 0;
+        boolean dot = false;
+        for (; i < end; i++) {
+            c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+                if (fitsDigit(m, c - '0')) {
+                    m = m * 10 + (c - '0');
+                    if (dot) frac++;
+                } else if (!dot) {
+                    throw new NumberFormatException("number out of range: " + s.subSequence(off, end));
+                } // иначе дробная цифра за разрядностью long — отбрасывается
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) throw new NumberFormatException("not a number: " + s.subSequence(off, end));
+        int exp = 0;
+        if (i < end) {
+            c = s.charAt(i);
+            if (c != 'e' && c != 'E') throw new NumberFormatException("not a number: " + s.subSequence(off, end));
+            i++;
+            boolean eneg = false;
+            if (i < end && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+                eneg = s.charAt(i) == '-';
+                i++;
+            }
+            if (i == end) throw new NumberFormatException("bad exponent: " + s.subSequence(off, end));
+            for (; i < end; i++) {
+                c = s.charAt(i);
+                if (c < '0' || c > '9' || exp > 1000) throw new NumberFormatException("bad exponent: " + s.subSequence(off, end));
+                exp = exp * 10 + (c - '0');
+            }
+            if (eneg) exp = -exp;
+        }
+        int raw = frac - exp;
+        if (wantScale) return raw;
+        return toScale(neg ? -m : m, raw, scale);
+    }
+
+    private static long parseAscii(byte[] b, int off, int len, int scale, boolean wantScale) {
+        int end = off + len;
+        int i = off;
+        if (i == end) throw new NumberFormatException("empty number");
+        boolean neg = false;
+        if (b[i] == '-' || b[i] == '+') {
+            neg = b[i] == '-';
+            i++;
+        }
+        long m = 0;
+        int frac = 0;
+        int digits = 0;
+        boolean dot = false;
+        for (; i < end; i++) {
+            byte c = b[i];
+            if (c >= '0' && c <= '9') {
+                digits++;
+                if (fitsDigit(m, c - '0')) {
+                    m = m * 10 + (c - '0');
+                    if (dot) frac++;
+                } else if (!dot) {
+                    throw new NumberFormatException("number out of range");
+                }
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) throw new NumberFormatException("not a number");
+        int exp = 0;
+        if (i < end) {
+            if (b[i] != 'e' && b[i] != 'E') throw new NumberFormatException("not a number");
+            i++;
+            boolean eneg = false;
+            if (i < end && (b[i] == '-' || b[i] == '+')) {
+                eneg = b[i] == '-';
+                i++;
+            }
+            if (i == end) throw new NumberFormatException("bad exponent");
+            for (; i < end; i++) {
+                if (b[i] < '0' || b[i] > '9' || exp > 1000) throw new NumberFormatException("bad exponent");
+                exp = exp * 10 + (b[i] - '0');
+            }
+            if (eneg) exp = -exp;
+        }
+        int raw = frac - exp;
+        if (wantScale) return raw;
+        return toScale(neg ? -m : m, raw, scale);
+    }
+
+    /** Можно ли дописать цифру к мантиссе без переполнения long. */
+    private static boolean fitsDigit(long m, int d) {
+        return m < Long.MAX_VALUE / 10 || (m == Long.MAX_VALUE / 10 && d <= Long.MAX_VALUE % 10);
+    }
+
+    private static long toScale(long m, int raw, int scale) {
+        try {
+            return rescale(m, raw, scale);
+        } catch (ArithmeticException overflow) {
+            throw new NumberFormatException("number out of range at scale " + scale);
+        }
+    }
+
+    // ---- арифметика ----
+
+    /**
+     * Перевод мантиссы между масштабами; при уменьшении масштаба — округление half-up
+     * (от нуля на половине). {@code from} может выходить за {@code [0, 18]} (экспонента в строке).
+     */
+    public static long rescale(long m, int from, int to) {
+        if (from == to || m == 0) return m;
+        if (from < to) {
+            int d = to - from;
+            if (d > MAX_SCALE) throw new ArithmeticException("fixed-point overflow");
+            return Math.multiplyExact(m, POW10[d]);
+        }
+        int d = from - to;
+        if (d > MAX_SCALE) {
+            // 10^19 уже не помещается в long: половина (5·10^18) достижима только при d == 19,
+            // дальше любая мантисса long меньше половины последнего знака
+            if (d == MAX_SCALE + 1 && (m >= HALF_POW19 || m <= -HALF_POW19)) return Long.signum(m);
+            return 0;
+        }
+        long p = POW10[d];
+        long q = m / p;
+        long r = m % p;
+        if (Math.abs(r) * 2 >= p) q += Long.signum(m);
+        return q;
+    }
+
+    /** Сравнение значений с разными масштабами. */
+    public static int compare(long a, int scaleA, long b, int scaleB) {
+        if (scaleA == scaleB) return Long.compare(a, b);
+        if (Long.signum(a) != Long.signum(b)) return Integer.compare(Long.signum(a), Long.signum(b));
+        int s = Math.max(scaleA, scaleB);
+        try {
+            return Long.compare(rescale(a, scaleA, s), rescale(b, scaleB, s));
+        } catch (ArithmeticException overflow) {
+            return BigDecimal.valueOf(a, scaleA).compareTo(BigDecimal.valueOf(b, scaleB));
+        }
+    }
+
+    /**
+     * Мантисса {@code (a + b) / 2} на масштабе {@code scale + 1} — точно, без округления
+     * (оба слагаемых уже приведены к общему {@code scale}).
+     */
+    public static long midAtNextScale(long a, long b) {
+        return Math.multiplyExact(Math.addExact(a, b), 5);
+    }
+
+    /** Значение как double (для статистики; точность double). */
+    public static double toDouble(long m, int scale) {
+        return scale == 0 ? m : (double) m / POW10[scale];
+    }
+
+    public static BigDecimal toBigDecimal(long m, int scale) {
+        return BigDecimal.valueOf(m, scale);
+    }
+
+    // ---- форматирование ----
+
+    /** Десятичная запись без экспоненты: {@code 60123.50} при scale = 2. */
+    public static String format(long m, int scale) {
+        return appendTo(new StringBuilder(24), m, scale).toString();
+    }
+
+    public static StringBuilder appendTo(StringBuilder sb, long m, int scale) {
+        if (scale == 0) return sb.append(m);
+        if (m < 0) {
+            sb.append('-');
+            if (m == Long.MIN_VALUE) return sb.append(BigDecimal.valueOf(m, scale).negate().toPlainString());
+            m = -m;
+        }
+        long p = POW10[scale];
+        sb.append(m / p).append('.');
+        long frac = m % p;
+        for (long d = p / 10; d > frac && d > 1; d /= 10) sb.append('0');
+        return sb.append(frac);
+    }
+
+    /** Максимальная длина записи {@link #formatTo}: знак, 19 цифр, точка и ведущий ноль. */
+    public static final int MAX_CHARS = 22;
+
+    /**
+     * Та же запись, что {@link #format}, в {@code buf} с позиции {@code off} без аллокаций
+     * (нужно {@link #MAX_CHARS} свободных символов).
+     *
+     * @return позиция после последнего записанного символа
+     */
+    public static int formatTo(char[] buf, int off, long m, int scale) {
+        if (m == Long.MIN_VALUE) {
+            String s = format(m, scale);
+            s.getChars(0, s.length(), buf, off);
+            return off + s.length();
+        }
+        if (m < 0) {
+            buf[off++] = '-';
+            m = -m;
+        }
+        int end = off + Math.max(digits(m), scale + 1) + (scale > 0 ? 1 : 0);
+        int p = end;
+        for (int i = 0; i < scale; i++) {
+            buf[--p] = (char) ('0' + m % 10);
+            m /= 10;
+        }
+        if (scale > 0) buf[--p] = '.';
+        do {
+            buf[--p] = (char) ('0' + m % 10);
+            m /= 10;
+        } while (m != 0);
+        return end;
+    }
+
+    private static int digits(long m) {
+        int n = 1;
+        while (n <= MAX_SCALE && m >= POW10[n]) n++;
+        return n;
+    }
+
+    private static void checkScale(int scale) {
+        if (scale < 0 || scale > MAX_SCALE) throw new IllegalArgumentException("scale out of range: " + scale);
+    }
+}
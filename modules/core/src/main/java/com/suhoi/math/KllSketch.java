@@ -0,0 +1,233 @@
+package com.suhoi.math;
+
+import java.util.Arrays;
+
+/**
+ * Компактный KLL-скетч квантилей над {@code double} (Karnin, Lang, Liberty, 2016).
+ * <p>
+ * Иерархия компакторов: уровень {@code h} хранит элементы с весом {@code 2^h}; переполненный
+ * уровень сортируется, и каждый второй элемент (случайный сдвиг) уходит уровнем выше.
+ * Ёмкость уровней убывает как {@code k·(2/3)^(H-h)}, всего хранится ~{@code 3k} значений,
+ * ошибка ранга ~{@code 1.65/k} (k = 200 → ~1%). Скетчи сливаются ({@link #merge}) — на этом
+ * построено окно {@link WindowedQuantiles}.
+ * </p>
+ * Не потокобезопасен: один писатель. Запросы кэшируют отсортированное представление до
+ * следующего изменения — серия {@link #quantile} после одного обновления стоит один проход.
+ */
+public final class KllSketch {
+    public static final int DEFAULT_K = 200;
+    private static final int MIN_LEVEL_CAPACITY = 8;
+    private static final int MAX_LEVELS = 61;
+    private static final double[] TWO_THIRDS_POW = new double[MAX_LEVELS];
+    static {
+        TWO_THIRDS_POW[0] = 1;
+        for (int i = 1; i < MAX_LEVELS; i++) TWO_THIRDS_POW[i] = TWO_THIRDS_POW[i - 1] * (2.0 / 3.0);
+    }
+
+    private final int k;
+    private double[][] levels = new double[1][];
+    private int[] sizes = new int[1];
+    private int numLevels = 1;
+    private long n;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private long rnd;
+
+    // кэш для запросов: все элементы по возрастанию + накопленный вес
+    private double[] sortedValues = new double[0];
+    private long[] cumWeights = new long[0];
+    private int sortedCount;
+    private boolean sortedValid;
+
+    public KllSketch() {
+        this(DEFAULT_K);
+    }
+
+    public KllSketch(int k) {
+        this(k, 0x9E3779B97F4A7C15L);
+    }
+
+    /** @param seed seed генератора сдвигов компакции (детерминизм в тестах/бенчмарках) */
+    public KllSketch(int k, long seed) {
+        if (k < MIN_LEVEL_CAPACITY) throw new IllegalArgumentException("k must be >= " + MIN_LEVEL_CAPACITY);
+        this.k = k;
+        this.rnd = seed == 0 ? 1 : seed;
+        levels[0] = new double[MIN_LEVEL_CAPACITY];
+    }
+
+    public int k() { return k; }
+
+    /** Число добавленных наблюдений. */
+    public long count() { return n; }
+
+    public boolean isEmpty() { return n == 0; }
+
+    public double min() { return min; }
+
+    public double max() { return max; }
+
+    public void clear() {
+        Arrays.fill(sizes, 0);
+        numLevels = 1;
+        n = 0;
+        min = max = Double.NaN;
+        sortedValid = false;
+    }
+
+    /** Добавляет наблюдение; NaN игнорируется. */
+    public void add(double x) {
+        if (Double.isNaN(x)) return;
+        if (n == 0) {
+            min = max = x;
+        } else {
+            if (x < min) min = x;
+            if (x > max) max = x;
+        }
+        n++;
+        append(0, x);
+        if (sizes[0] >= capacity(0)) compress();
+        sortedValid = false;
+    }
+
+    /** Вливает другой скетч (он не меняется). */
+    public void merge(KllSketch other) {
+        if (other.n == 0) return;
+        while (numLevels < other.numLevels) addLevel();
+        for (int h = 0; h < other.numLevels; h++) {
+            double[] src = other.levels[h];
+            for (int i = 0, s = other.sizes[h]; i < s; i++) append(h, src[i]);
+        }
+        if (n == 0) {
+            min = other.min;
+            max = other.max;
+        } else {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+        n += other.n;
+        compress();
+        sortedValid = false;
+    }
+
+    /**
+     * Оценка квантиля {@code q ∈ [0,1]}: наименьшее значение, ранг которого не меньше {@code q·n}.
+     * NaN для пустого скетча.
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) throw new IllegalArgumentException("q must be in [0,1]");
+        if (n == 0) return Double.NaN;
+        if (q == 0) return min;
+        if (q == 1) return max;
+        ensureSorted();
+        double target = q * n;
+        int lo = 0, hi = sortedCount - 1;
+        while (lo < hi) { // первый индекс с cumWeight ≥ target
+            int mid = (lo + hi) >>> 1;
+            if (cumWeights[mid] < target) lo = mid + 1; else hi = mid;
+        }
+        return sortedValues[lo];
+    }
+
+    /** Оценка ранга: доля наблюдений {@code ≤ x}. */
+    public double rank(double x) {
+        if (n == 0) return Double.NaN;
+        ensureSorted();
+        int lo = 0, hi = sortedCount;
+        while (lo < hi) { // первый индекс со значением > x
+            int mid = (lo + hi) >>> 1;
+            if (sortedValues[mid] <= x) lo = mid + 1; else hi = mid;
+        }
+        return lo == 0 ? 0.0 : (double) cumWeights[lo - 1] / n;
+    }
+
+    // ---- компакция ----
+
+    private int capacity(int h) {
+        int depth = numLevels - 1 - h;
+        if (depth >= MAX_LEVELS) return MIN_LEVEL_CAPACITY;
+        return Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(k * TWO_THIRDS_POW[depth]));
+    }
+
+    private void compress() {
+        for (int h = 0; h < numLevels; h++) {
+            if (sizes[h] >= capacity(h)) compact(h);
+        }
+    }
+
+    private void compact(int h) {
+        if (h + 1 == numLevels) addLevel();
+        double[] lv = levels[h];
+        int s = sizes[h];
+        Arrays.sort(lv, 0, s);
+        int even = s & ~1;
+        int offset = nextBit();
+        for (int i = offset; i < even; i += 2) append(h + 1, lv[i]);
+        if ((s & 1) != 0) {
+            lv[0] = lv[s - 1]; // нечётный остаток остаётся на уровне
+            sizes[h] = 1;
+        } else {
+            sizes[h] = 0;
+        }
+    }
+
+    private void addLevel() {
+        if (numLevels == levels.length) {
+            levels = Arrays.copyOf(levels, numLevels * 2);
+            sizes = Arrays.copyOf(sizes, numLevels * 2);
+        }
+        if (levels[numLevels] == null) levels[numLevels] = new double[MIN_LEVEL_CAPACITY];
+        sizes[numLevels] = 0;
+        numLevels++;
+    }
+
+    private void append(int h, double x) {
+        double[] lv = levels[h];
+        int s = sizes[h];
+        if (s == lv.length) levels[h] = lv = Arrays.copyOf(lv, s * 2);
+        lv[s] = x;
+        sizes[h] = s + 1;
+    }
+
+    private int nextBit() {
+        long x = rnd; // xorshift64
+        x ^= x << 13;
+        x ^= x >>> 7;
+        x ^= x << 17;
+        rnd = x;
+        return (int) (x >>> 63);
+    }
+
+    // ---- запросы ----
+
+    private void ensureSorted() {
+        if (sortedValid) return;
+        int total = 0;
+        for (int h = 0; h < numLevels; h++) {
+            Arrays.sort(levels[h], 0, sizes[h]);
+            total += sizes[h];
+        }
+        if (sortedValues.length < total) {
+            sortedValues = new double[total];
+            cumWeights = new long[total];
+        }
+        // слияние отсортированных уровней: уровней немного (~log n), линейный выбор минимума
+        int[] pos = new int[numLevels];
+        long cum = 0;
+        for (int out = 0; out < total; out++) {
+            int best = -1;
+            double bv = 0;
+            for (int h = 0; h < numLevels; h++) {
+                if (pos[h] < sizes[h] && (best < 0 || levels[h][pos[h]] < bv)) {
+                    best = h;
+                    bv = levels[h][pos[h]];
+                }
+            }
+            pos[best]++;
+            cum += 1L << best;
+            sortedValues[out] = bv;
+            cumWeights[out] = cum;
+        }
+        sortedCount = total;
+        sortedValid = true;
+    }
+}
@@ -0,0 +1,226 @@
+package com.suhoi.math;
+
+/**
+ * Робастный взвешенный центр по нескольким площадкам: mids и веса — примитивные {@code double[]}.
+ * <p>
+ * Всё на выборе (quickselect с трёхпутевым разбиением), без сортировки: O(n) в среднем.
+ * Входные массивы не меняются — работа идёт в собственных буферах, которые растут до
+ * максимального n и дальше переиспользуются, т.е. один экземпляр на поток (например, на
+ * пересчёт fair) работает без аллокаций. {@code weights == null} — равные веса.
+ * </p>
+ * Взвешенный квантиль {@code q} — наименьшее значение, накопленный вес до которого (включительно)
+ * не меньше {@code q·W}; медиана — «нижняя» при ровном делении веса.
+ * Не потокобезопасен.
+ */
+public final class RobustAggregator {
+    /** MAD → σ для нормального распределения. */
+    public static final double MAD_TO_SIGMA = 1.4826;
+
+    private double[] v = new double[16];
+    private double[] w = new double[16];
+    private double bandCenter;
+    private double bandLimit;
+
+    // ---- квантили ----
+
+    /** Взвешенная медиана; NaN при {@code n == 0} или нулевом суммарном весе. */
+    public double weightedMedian(double[] values, double[] weights, int n) {
+        return weightedQuantile(values, weights, n, 0.5);
+    }
+
+    /** Взвешенный квантиль {@code q ∈ [0,1]}. */
+    public double weightedQuantile(double[] values, double[] weights, int n, double q) {
+        if (q < 0 || q > 1) throw new IllegalArgumentException("q must be in [0,1]");
+        double total = load(values, weights, n);
+        if (!(total > 0)) return Double.NaN;
+        return select(0, n - 1, q * total);
+    }
+
+    // ---- средние ----
+
+    /**
+     * Усечённое взвешенное среднее: с каждого хвоста отбрасывается доля {@code trim} суммарного
+     * веса (граничные значения входят частично). {@code trim = 0} — обычное взвешенное среднее,
+     * {@code trim → 0.5} — медиана.
+     */
+    public double trimmedMean(double[] values, double[] weights, int n, double trim) {
+        if (trim < 0 || trim >= 0.5) throw new IllegalArgumentException("trim must be in [0,0.5)");
+        double total = load(values, weights, n);
+        if (!(total > 0)) return Double.NaN;
+        double loW = trim * total;
+        double hiW = (1 - trim) * total;
+        double lo = select(0, n - 1, loW);
+        load(values, weights, n);
+        double hi = select(0, n - 1, hiW);
+
+        double below = 0, atLo = 0, atHi = 0, above = 0, insideSum = 0, insideW = 0;
+        for (int i = 0; i < n; i++) {
+            double x = values[i];
+            double wi = weight(weights, i);
+            if (x < lo) below += wi;
+            else if (x > hi) above += wi;
+            else if (x == lo) atLo += wi;
+            else if (x == hi) atHi += wi;
+            else {
+                insideSum += wi * x;
+                insideW += wi;
+            }
+        }
+        if (lo == hi) return lo;
+        // доли граничных групп, попадающие в [loW, hiW] по накопленному весу
+        double loPart = clampPositive(Math.min(below + atLo, hiW) - Math.max(below, loW));
+        double hiStart = total - above - atHi;
+        double hiPart = clampPositive(Math.min(total - above, hiW) - Math.max(hiStart, loW));
+        double sw = insideW + loPart + hiPart;
+        return (insideSum + loPart * lo + hiPart * hi) / sw;
+    }
+
+    /**
+     * Winsorized взвешенное среднее: значения ограничиваются взвешенными квантилями
+     * {@code q} и {@code 1-q}, затем обычное взвешенное среднее.
+     */
+    public double winsorizedMean(double[] values, double[] weights, int n, double q) {
+        if (q < 0 || q >= 0.5) throw new IllegalArgumentException("q must be in [0,0.5)");
+        double total = load(values, weights, n);
+        if (!(total > 0)) return Double.NaN;
+        double lo = select(0, n - 1, q * total);
+        load(values, weights, n);
+        double hi = select(0, n - 1, (1 - q) * total);
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            double x = Math.min(Math.max(values[i], lo), hi);
+            sum += weight(weights, i) * x;
+        }
+        return sum / total;
+    }
+
+    // ---- MAD ----
+
+    /**
+     * Отбраковка по MAD: остаются точки с {@code |x - median| ≤ k·1.4826·MAD}; они копируются
+     * в {@code outValues}/{@code outWeights} (могут совпадать с входными массивами).
+     * При MAD = 0 (больше половины веса в одной точке) остаются только точки, равные медиане.
+     *
+     * @return число оставшихся точек
+     */
+    public int madReject(double[] values, double[] weights, int n, double k,
+                         double[] outValues, double[] outWeights) {
+        if (!madBand(values, weights, n, k)) return 0;
+        double med = bandCenter, limit = bandLimit;
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            double x = values[i];
+            if (Math.abs(x - med) <= limit) {
+                double wi = weight(weights, i);
+                outValues[kept] = x;
+                if (outWeights != null) outWeights[kept] = wi;
+                kept++;
+            }
+        }
+        return kept;
+    }
+
+    /** Взвешенное среднее точек, прошедших {@link #madReject}; NaN, если не осталось ни одной. */
+    public double madMean(double[] values, double[] weights, int n, double k) {
+        if (!madBand(values, weights, n, k)) return Double.NaN;
+        double med = bandCenter, limit = bandLimit;
+        double sum = 0, sw = 0;
+        for (int i = 0; i < n; i++) {
+            double x = values[i];
+            if (Math.abs(x - med) <= limit) {
+                double wi = weight(weights, i);
+                sum += wi * x;
+                sw += wi;
+            }
+        }
+        return sw > 0 ? sum / sw : Double.NaN;
+    }
+
+    /** Медиана и допуск {@code k·1.4826·MAD} в {@link #bandCenter}/{@link #bandLimit}; false — нет веса. */
+    private boolean madBand(double[] values, double[] weights, int n, double k) {
+        double total = load(values, weights, n);
+        if (!(total > 0)) return false;
+        double med = select(0, n - 1, 0.5 * total);
+        for (int i = 0; i < n; i++) {
+            v[i] = Math.abs(values[i] - med);
+            w[i] = weight(weights, i);
+        }
+        bandCenter = med;
+        bandLimit = k * MAD_TO_SIGMA * select(0, n - 1, 0.5 * total);
+        return true;
+    }
+
+    // ---- выбор ----
+
+    /** Копирует вход в рабочие буферы; возвращает суммарный вес. */
+    private double load(double[] values, double[] weights, int n) {
+        if (n < 0 || n > values.length || (weights != null && n > weights.length)) {
+            throw new IllegalArgumentException("bad n: " + n);
+        }
+        if (v.length < n) {
+            int cap = Math.max(n, v.length * 2);
+            v = new double[cap];
+            w = new double[cap];
+        }
+        double total = 0;
+        for (int i = 0; i < n; i++) {
+            double wi = weight(weights, i);
+            if (wi < 0 || Double.isNaN(values[i])) throw new IllegalArgumentException("negative weight or NaN value at " + i);
+            v[i] = values[i];
+            w[i] = wi;
+            total += wi;
+        }
+        return total;
+    }
+
+    /**
+     * Взвешенный quickselect по {@code v/w[lo..hi]}: значение, на котором накопленный вес
+     * достигает {@code target}. Трёхпутевое разбиение — дубликаты не портят O(n).
+     */
+    private double select(int lo, int hi, double target) {
+        while (true) {
+            if (lo >= hi) return v[lo];
+            double p = medianOf3(v[lo], v[(lo + hi) >>> 1], v[hi]);
+            // [lo, lt) < p, [lt, i) == p, (gt, hi] > p
+            int lt = lo, i = lo, gt = hi;
+            double wl = 0, we = 0;
+            while (i <= gt) {
+                double x = v[i];
+                if (x < p) {
+                    wl += w[i];
+                    swap(lt++, i++);
+                } else if (x > p) {
+                    swap(i, gt--);
+                } else {
+                    we += w[i];
+                    i++;
+                }
+            }
+            if (target <= wl && lt > lo) {
+                hi = lt - 1;
+            } else if (target <= wl + we || gt >= hi) {
+                return p;
+            } else {
+                target -= wl + we;
+                lo = gt + 1;
+            }
+        }
+    }
+
+    private void swap(int a, int b) {
+        double t = v[a]; v[a] = v[b]; v[b] = t;
+        t = w[a]; w[a] = w[b]; w[b] = t;
+    }
+
+    private static double medianOf3(double a, double b, double c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    private static double weight(double[] weights, int i) {
+        return weights == null ? 1.0 : weights[i];
+    }
+
+    private static double clampPositive(double x) {
+        return x > 0 ? x : 0;
+    }
+}
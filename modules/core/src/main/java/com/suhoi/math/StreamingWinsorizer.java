@@ -0,0 +1,106 @@
+package com.suhoi.math;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Потоковый winsorize по ключу (рынок или asset — плотный индекс): границы квантилей
+ * {@code [lowerQ, upperQ]} по скользящему окну ({@link WindowedQuantiles}) пересчитываются
+ * инкрементально, а проверка значения — O(1) чтение двух double.
+ * <p>
+ * Границы обновляются при смене корзины окна и не реже чем раз в {@value #REFRESH_EVERY}
+ * наблюдений ключа. Пока в окне меньше {@value #MIN_SAMPLES} наблюдений (разогрев) — границ нет
+ * и значения не ограничиваются.
+ * </p>
+ * Не потокобезопасен: один писатель (поток, владеющий состоянием рынков).
+ */
+public final class StreamingWinsorizer {
+    static final int REFRESH_EVERY = 256;
+    static final int MIN_SAMPLES = 20;
+
+    private final double[] qs;
+    private final Duration window;
+    private final int bucketCount;
+    private final int k;
+    private final long bucketMillis;
+
+    private final WindowedQuantiles[] windows; // создаются лениво
+    private final double[] lower;
+    private final double[] upper;
+    private final long[] refreshedEpoch;
+    private final int[] sinceRefresh;
+    private final double[] scratch = new double[2];
+
+    public StreamingWinsorizer(int capacity, double lowerQ, double upperQ, Duration window, int bucketCount) {
+        this(capacity, lowerQ, upperQ, window, bucketCount, 64);
+    }
+
+    /**
+     * @param capacity число ключей (индексы {@code 0..capacity-1})
+     * @param k        точность KLL на корзину (64 — ~2.5% ранга при малой памяти на рынок)
+     */
+    public StreamingWinsorizer(int capacity, double lowerQ, double upperQ, Duration window, int bucketCount, int k) {
+        if (!(lowerQ >= 0 && lowerQ < upperQ && upperQ <= 1)) {
+            throw new IllegalArgumentException("need 0 <= lowerQ < upperQ <= 1");
+        }
+        this.qs = new double[]{lowerQ, upperQ};
+        this.window = window;
+        this.bucketCount = bucketCount;
+        this.k = k;
+        if (bucketCount < 1 || window.toMillis() < bucketCount) {
+            throw new IllegalArgumentException("need bucketCount >= 1 and window >= bucketCount ms");
+        }
+        this.bucketMillis = window.toMillis() / bucketCount; // как в WindowedQuantiles
+        this.windows = new WindowedQuantiles[capacity];
+        this.lower = new double[capacity];
+        this.upper = new double[capacity];
+        this.refreshedEpoch = new long[capacity];
+        this.sinceRefresh = new int[capacity];
+        Arrays.fill(lower, Double.NaN);
+        Arrays.fill(upper, Double.NaN);
+        Arrays.fill(refreshedEpoch, Long.MIN_VALUE);
+    }
+
+    /**
+     * Учитывает наблюдение ключа и возвращает его winsorized-значение
+     * (ограниченное текущими границами).
+     */
+    public double add(int key, double x, long tsMillis) {
+        WindowedQuantiles w = windows[key];
+        if (w == null) windows[key] = w = new WindowedQuantiles(window, bucketCount, k);
+        w.add(x, tsMillis);
+        long epoch = Math.floorDiv(tsMillis, bucketMillis);
+        boolean warm = !Double.isNaN(lower[key]);
+        if (!warm || epoch != refreshedEpoch[key] || ++sinceRefresh[key] >= REFRESH_EVERY) {
+            if (w.count(tsMillis) < MIN_SAMPLES) {
+                lower[key] = upper[key] = Double.NaN;
+            } else {
+                w.quantiles(qs, tsMillis, scratch);
+                lower[key] = scratch[0];
+                upper[key] = scratch[1];
+            }
+            refreshedEpoch[key] = epoch;
+            sinceRefresh[key] = 0;
+        }
+        return clamp(key, x);
+    }
+
+    /** Значение, ограниченное границами ключа (как есть — пока границ нет). */
+    public double clamp(int key, double x) {
+        double lo = lower[key], hi = upper[key];
+        if (x < lo) return lo;
+        if (x > hi) return hi;
+        return x;
+    }
+
+    public double lower(int key) { return lower[key]; }
+
+    public double upper(int key) { return upper[key]; }
+
+    public void reset(int key) {
+        if (windows[key] != null) windows[key].clear();
+        lower[key] = upper[key] = Double.NaN;
+        refreshedEpoch[key] = Long.MIN_VALUE;
+        sinceRefresh[key] = 0;
+    }
+}
@@ -0,0 +1,106 @@
+package com.suhoi.math;
+
+import java.time.Duration;
+
+/**
+ * Квантили по скользящему окну времени: кольцо {@link KllSketch}-корзин фиксированной длительности.
+ * <p>
+ * Наблюдение попадает в корзину своего времени; корзина, вышедшая из окна, очищается при
+ * повторном использовании слота — без удаления отдельных элементов. Запрос сливает живые
+ * корзины в рабочий скетч (кэшируется до следующего изменения/смены корзины). Окно
+ * «ступенчатое»: покрывает от {@code window - bucket} до {@code window} последних миллисекунд.
+ * </p>
+ * Наблюдения старше окна (относительно самого свежего) отбрасываются.
+ * Не потокобезопасен: один писатель.
+ */
+public final class WindowedQuantiles {
+    private final long bucketMillis;
+    private final KllSketch[] buckets;
+    private final long[] epochs; // номер корзины (ts / bucketMillis) в слоте
+    private final KllSketch merged;
+    private long newestEpoch = Long.MIN_VALUE;
+    private long mergedEpoch = Long.MIN_VALUE;
+    private boolean dirty;
+
+    public WindowedQuantiles(Duration window, int bucketCount) {
+        this(window, bucketCount, KllSketch.DEFAULT_K);
+    }
+
+    /**
+     * @param window      длина окна
+     * @param bucketCount число корзин (точность сдвига окна = window / bucketCount)
+     * @param k           параметр точности KLL для корзин
+     */
+    public WindowedQuantiles(Duration window, int bucketCount, int k) {
+        if (bucketCount < 1) throw new IllegalArgumentException("bucketCount must be >= 1");
+        long w = window.toMillis();
+        if (w < bucketCount) throw new IllegalArgumentException("window must be >= bucketCount ms");
+        this.bucketMillis = w / bucketCount;
+        this.buckets = new KllSketch[bucketCount];
+        this.epochs = new long[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new KllSketch(k, 0x9E3779B97F4A7C15L + i);
+            epochs[i] = Long.MIN_VALUE;
+        }
+        this.merged = new KllSketch(k);
+    }
+
+    public Duration window() { return Duration.ofMillis(bucketMillis * buckets.length); }
+
+    public Duration bucket() { return Duration.ofMillis(bucketMillis); }
+
+    /** Добавляет наблюдение {@code x} с временем {@code tsMillis}; NaN игнорируется. */
+    public void add(double x, long tsMillis) {
+        if (Double.isNaN(x)) return;
+        long e = Math.floorDiv(tsMillis, bucketMillis);
+        if (newestEpoch != Long.MIN_VALUE && e <= newestEpoch - buckets.length) return; // старше окна
+        int i = (int) Math.floorMod(e, (long) buckets.length);
+        if (epochs[i] != e) {
+            buckets[i].clear();
+            epochs[i] = e;
+        }
+        buckets[i].add(x);
+        if (e > newestEpoch) newestEpoch = e;
+        dirty = true;
+    }
+
+    /** Оценка квантиля по окну, заканчивающемуся в {@code nowMillis}; NaN — окно пусто. */
+    public double quantile(double q, long nowMillis) {
+        return refresh(nowMillis).quantile(q);
+    }
+
+    /** Несколько квантилей за одно слияние корзин. */
+    public void quantiles(double[] qs, long nowMillis, double[] out) {
+        KllSketch s = refresh(nowMillis);
+        for (int i = 0; i < qs.length; i++) out[i] = s.quantile(qs[i]);
+    }
+
+    /** Число наблюдений в окне. */
+    public long count(long nowMillis) {
+        return refresh(nowMillis).count();
+    }
+
+    public void clear() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i].clear();
+            epochs[i] = Long.MIN_VALUE;
+        }
+        newestEpoch = mergedEpoch = Long.MIN_VALUE;
+        merged.clear();
+        dirty = false;
+    }
+
+    private KllSketch refresh(long nowMillis) {
+        long now = Math.floorDiv(nowMillis, bucketMillis);
+        if (!dirty && now == mergedEpoch) return merged;
+        merged.clear();
+        long oldest = now - buckets.length;
+        for (int i = 0; i < buckets.length; i++) {
+            long e = epochs[i];
+            if (e > oldest && e <= now) merged.merge(buckets[i]);
+        }
+        mergedEpoch = now;
+        dirty = false;
+        return merged;
+    }
+}
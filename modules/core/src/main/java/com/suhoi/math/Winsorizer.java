@@ -4,8 +4,9 @@ import java.math.BigDecimal;
 import java.util.List;
 
 /**
- * Примитивный winsorize по заданным квантилям.
- * Для MVP достаточно; в проде вероятно будет скользящее окно.
+ * Примитивный winsorize по заданным квантилям (сортировка на каждый вызов, O(n log n)).
+ * Для потока тиков — {@link StreamingWinsorizer}: границы по скользящему окну обновляются
+ * инкрементально, проверка значения — O(1).
  */
 public final class Winsorizer {
     private Winsorizer() {}
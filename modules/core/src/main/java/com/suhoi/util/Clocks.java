@@ -3,20 +3,150 @@ package com.suhoi.util;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
 
 /**
  * Утилиты для работы со временем (удобно стабилизировать в тестах).
+ * <p>
+ * Кроме {@link Clock}/{@link Instant} — примитивное время без аллокаций для горячего пути:
+ * <ul>
+ *   <li>{@link #epochNanos()}/{@link #epochMicros()} — точное время: {@link System#nanoTime()},
+ *       привязанный к настенным часам и пересинхронизируемый раз в {@value #RESYNC_MILLIS} мс;</li>
+ *   <li>{@link #coarseMillis()} — кэшированное время, которое обновляет фоновый поток раз в
+ *       ~{@value #COARSE_TICK_MILLIS} мс (одно volatile-чтение);</li>
+ *   <li>{@link #monotonicNanos()} — для интервалов.</li>
+ * </ul>
+ * Эпохальное время (точное и грубое) идёт за настенными часами и при их переводе назад (NTP)
+ * тоже сдвигается назад; интервалы и дедлайны меряют только по {@link #monotonicNanos()}.
+ * {@link #set(TimeSource)} с {@link VirtualTimeSource} подменяет всё сразу (и {@link #now()},
+ * и {@link #monotonicNanos()}) — для реплея и тестов. {@link #set(Clock)} подменяет только
+ * настенное время: интервалы по-прежнему меряет {@link System#nanoTime()}.
  */
 public final class Clocks {
+    static final long RESYNC_MILLIS = 1_000;
+    static final long COARSE_TICK_MILLIS = 1;
+
+    private static final SystemTimeSource SYSTEM = new SystemTimeSource();
+
     private static volatile Clock clock = Clock.systemUTC();
+    private static volatile TimeSource source = SYSTEM;
 
     private Clocks() {}
 
     public static Clock get() { return clock; }
 
-    public static void set(Clock c) { clock = c; }
+    /**
+     * Подменяет часы; примитивное эпохальное время идёт от них же (системные часы — от
+     * {@link #system()}), а {@link #monotonicNanos()} остаётся {@link System#nanoTime()}.
+     */
+    public static void set(Clock c) {
+        clock = c;
+        source = c.equals(Clock.systemUTC()) ? SYSTEM : TimeSource.of(c);
+    }
+
+    /** Подменяет источник времени; {@link #get()}/{@link #now()} идут от него же. */
+    public static void set(TimeSource s) {
+        source = s;
+        clock = s == SYSTEM ? Clock.systemUTC() : s.asClock();
+    }
+
+    /** Вернуть системное время. */
+    public static void reset() { set(SYSTEM); }
+
+    /** Системный источник: nanoTime, привязанный к настенным часам, и грубые часы с фоновым тикером. */
+    public static TimeSource system() { return SYSTEM; }
+
+    public static TimeSource source() { return source; }
 
     public static Instant now() { return clock.instant(); }
 
     public static ZoneId zone() { return clock.getZone(); }
+
+    public static long epochNanos() { return source.epochNanos(); }
+
+    public static long epochMicros() { return source.epochMicros(); }
+
+    public static long epochMillis() { return source.epochMillis(); }
+
+    /** Дешёвое время в мс с точностью до тика фонового потока; не монотонно (см. класс). */
+    public static long coarseMillis() { return source.coarseEpochMillis(); }
+
+    public static long monotonicNanos() { return source.monotonicNanos(); }
+
+    /**
+     * Системное время. Точное: {@code wall0 + (nanoTime - nano0)}; якорь {@code (wall0, nano0)}
+     * обновляется при чтении раз в {@link #RESYNC_MILLIS} — дрейф nanoTime и переводы часов
+     * (NTP) подтягиваются; между пересинхронизациями время монотонно, на пересинхронизации может
+     * шагнуть назад.
+     * Грубое: volatile-поле, которое обновляет демон-поток {@code clocks-ticker} (стартует лениво) —
+     * копия настенных часов на каждом тике, без привязки к nanoTime; монотонности не обещает.
+     */
+    static final class SystemTimeSource implements TimeSource {
+        private static final long RESYNC_NANOS = TimeUnit.MILLISECONDS.toNanos(RESYNC_MILLIS);
+
+        private record Anchor(long wallNanos, long monoNanos) {}
+
+        private final Clock wall;
+        private final LongSupplier mono;
+        private volatile Anchor anchor;
+        private volatile long coarseMillis;
+        private volatile boolean tickerStarted;
+
+        SystemTimeSource() {
+            this(Clock.systemUTC(), System::nanoTime);
+        }
+
+        /** Для тестов привязки: настенные часы и монотонный счётчик подставляются. */
+        SystemTimeSource(Clock wall, LongSupplier mono) {
+            this.wall = wall;
+            this.mono = mono;
+            this.anchor = anchorNow();
+            this.coarseMillis = wall.millis();
+        }
+
+        @Override
+        public long epochNanos() {
+            long mono = this.mono.getAsLong();
+            Anchor a = anchor;
+            long elapsed = mono - a.monoNanos;
+            if (elapsed >= RESYNC_NANOS) {
+                a = anchorNow(); // гонка читателей безобидна: любой свежий якорь корректен
+                anchor = a;
+                elapsed = mono - a.monoNanos;
+            }
+            return a.wallNanos + elapsed;
+        }
+
+        @Override
+        public long monotonicNanos() { return mono.getAsLong(); }
+
+        @Override
+        public long coarseEpochMillis() {
+            if (!tickerStarted) startTicker();
+            return coarseMillis;
+        }
+
+        private Anchor anchorNow() {
+            Instant w = wall.instant();
+            long m = mono.getAsLong();
+            return new Anchor(w.getEpochSecond() * 1_000_000_000L + w.getNano(), m);
+        }
+
+        private synchronized void startTicker() {
+            if (tickerStarted) return;
+            Thread t = new Thread(() -> {
+                long park = TimeUnit.MILLISECONDS.toNanos(COARSE_TICK_MILLIS);
+                while (true) {
+                    coarseMillis = wall.millis();
+                    LockSupport.parkNanos(park);
+                }
+            }, "clocks-ticker");
+            t.setDaemon(true);
+            t.start();
+            coarseMillis = wall.millis();
+            tickerStarted = true;
+        }
+    }
 }
@@ -0,0 +1,56 @@
+package com.suhoi.util;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+/**
+ * Источник времени в примитивах — без {@link Instant} на каждый вызов.
+ * Системная реализация — {@link Clocks#system()}, для реплея и тестов — {@link VirtualTimeSource}.
+ */
+public interface TimeSource {
+    /** Текущее время UTC, наносекунды от эпохи. */
+    long epochNanos();
+
+    /** Монотонные наносекунды для измерения интервалов (начало отсчёта произвольное). */
+    long monotonicNanos();
+
+    default long epochMicros() {
+        return Math.floorDiv(epochNanos(), 1_000L);
+    }
+
+    default long epochMillis() {
+        return Math.floorDiv(epochNanos(), 1_000_000L);
+    }
+
+    /**
+     * Грубое время в миллисекундах — для меток «получено в», где точность до тика таймера
+     * не важна, а вызов должен быть дешёвым. По умолчанию совпадает с {@link #epochMillis()}.
+     * Не монотонно: идёт за настенными часами, в том числе назад.
+     */
+    default long coarseEpochMillis() {
+        return epochMillis();
+    }
+
+    /** Представление как {@link Clock} (UTC) для API на {@code java.time}. */
+    default Clock asClock() {
+        return new TimeSourceClock(this, ZoneOffset.UTC);
+    }
+
+    /**
+     * Источник поверх произвольного {@link Clock} (аллоцирует Instant; для тестов и адаптации).
+     * Монотонное время остаётся {@link System#nanoTime()}: фиксированные или прыгающие часы не
+     * должны замораживать таймауты и паузы. Виртуальные интервалы — у {@link VirtualTimeSource}.
+     */
+    static TimeSource of(Clock clock) {
+        return new TimeSource() {
+            @Override public long epochNanos() {
+                Instant i = clock.instant();
+                return i.getEpochSecond() * 1_000_000_000L + i.getNano();
+            }
+            @Override public long monotonicNanos() { return System.nanoTime(); }
+            @Override public long epochMillis() { return clock.millis(); }
+            @Override public Clock asClock() { return clock; }
+        };
+    }
+}
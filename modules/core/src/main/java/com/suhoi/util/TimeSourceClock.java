@@ -0,0 +1,33 @@
+package com.suhoi.util;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+
+/** {@link Clock} поверх {@link TimeSource}: {@code java.time}-код видит то же время, что и примитивный. */
+final class TimeSourceClock extends Clock {
+    private final TimeSource source;
+    private final ZoneId zone;
+
+    TimeSourceClock(TimeSource source, ZoneId zone) {
+        this.source = source;
+        this.zone = zone;
+    }
+
+    @Override
+    public ZoneId getZone() { return zone; }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return zone.equals(this.zone) ? this : new TimeSourceClock(source, zone);
+    }
+
+    @Override
+    public long millis() { return source.epochMillis(); }
+
+    @Override
+    public Instant instant() {
+        long n = source.epochNanos();
+        return Instant.ofEpochSecond(Math.floorDiv(n, 1_000_000_000L), Math.floorMod(n, 1_000_000_000L));
+    }
+}
@@ -0,0 +1,48 @@
+package com.suhoi.util;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Управляемое время для детерминированного реплея и тестов: стоит на месте, пока его не сдвинут.
+ * <pre>{@code
+ * var vt = new VirtualTimeSource(Instant.parse("2025-10-16T18:00:00Z"));
+ * Clocks.set(vt);          // Clocks.now()/epochNanos()/coarseMillis() — виртуальные
+ * vt.advance(Duration.ofMillis(250));
+ * }</pre>
+ * Потокобезопасен; монотонное время совпадает с эпохальным.
+ */
+public final class VirtualTimeSource implements TimeSource {
+    private final AtomicLong nanos;
+
+    public VirtualTimeSource(long epochNanos) {
+        this.nanos = new AtomicLong(epochNanos);
+    }
+
+    public VirtualTimeSource(Instant start) {
+        this(toNanos(start));
+    }
+
+    @Override
+    public long epochNanos() { return nanos.get(); }
+
+    @Override
+    public long monotonicNanos() { return nanos.get(); }
+
+    /** Установить время (например, время очередного события при реплее). */
+    public void set(long epochNanos) { nanos.set(epochNanos); }
+
+    public void set(Instant t) { nanos.set(toNanos(t)); }
+
+    /** Сдвинуть время вперёд, но не назад: удобно при реплее событий с неупорядоченными метками. */
+    public void advanceTo(long epochNanos) { nanos.accumulateAndGet(epochNanos, Math::max); }
+
+    public long advance(long deltaNanos) { return nanos.addAndGet(deltaNanos); }
+
+    public long advance(Duration d) { return advance(d.toNanos()); }
+
+    private static long toNanos(Instant t) {
+        return Math.addExact(Math.multiplyExact(t.getEpochSecond(), 1_000_000_000L), t.getNano());
+    }
+}
@@ -0,0 +1,137 @@
+package com.suhoi.api.adapter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.suhoi.api.adapter.JsonScanner.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link JsonScanner}: токены и глубина, строки с escape, пропуск вложенного, числа по месту.
+ */
+class JsonScannerTest {
+
+    private final JsonScanner js = new JsonScanner();
+
+    @Test
+    void tokensAndDepthOfNestedDocument() {
+        js.reset(" {\"a\": 1, \"b\" : [true,false,null], \"c\":{\"d\":\"x\"}}\n");
+        assertEquals(List.of(
+                "START_OBJECT@1", "FIELD:a@1", "NUMBER:1@1",
+                "FIELD:b@1", "START_ARRAY@2", "TRUE@2", "FALSE@2", "NULL@2", "END_ARRAY@1",
+                "FIELD:c@1", "START_OBJECT@2", "FIELD:d@2", "STRING:x@2", "END_OBJECT@1",
+                "END_OBJECT@0", "EOF@0"), tokens());
+    }
+
+    @Test
+    void escapedQuotesAndBackslashesDoNotEndString() {
+        js.reset("{\"s\":\"a\\\"b\\\\\",\"t\":\"\\u0041:\",\"u\":\"\"}");
+        assertEquals(START_OBJECT, js.next());
+        assertEquals(FIELD, js.next());
+        assertEquals(STRING, js.next());
+        assertEquals("a\\\"b\\\\", text(), "границы — сырой текст, escape не раскрывается");
+        assertEquals(FIELD, js.next());
+        assertTrue(js.is("t"), "поле после строки с \\\\ в конце не потеряно");
+        assertEquals(STRING, js.next(), "двоеточие внутри строки — не имя поля");
+        assertEquals("\\u0041:", text());
+        assertEquals(FIELD, js.next());
+        assertEquals(STRING, js.next());
+        assertEquals(0, js.length(), "пустая строка");
+    }
+
+    @Test
+    void skipValueSkipsNestedObjectsAndArrays() {
+        js.reset("{\"x\":{\"y\":[1,{\"z\":[2,3]}],\"w\":\"}\"},\"s\":\"BTCUSDT\"}");
+        js.next();
+        assertEquals(FIELD, js.next());
+        js.skipValue();
+        assertEquals(FIELD, js.next());
+        assertTrue(js.is("s"), "скобка в строке не сбивает глубину");
+        assertEquals(1, js.depth());
+        assertEquals(STRING, js.next());
+
+        js.reset("[[1,2],[3]]");
+        js.next();
+        js.next();
+        js.skipValue();
+        assertEquals(START_ARRAY, js.next());
+        assertEquals(NUMBER, js.next());
+        assertEquals(3, js.longValue());
+    }
+
+    @Test
+    void numbersAreReadInPlace() {
+        js.reset("[1695702438018,\"1695702438018\",-42,12.99,-0.5e-3,\"\",\"abc\",99999999999999999999]");
+        js.next();
+        js.next();
+        assertEquals(1_695_702_438_018L, js.longValue());
+        assertEquals(STRING, js.next());
+        assertEquals(1_695_702_438_018L, js.longValue(), "число в строке");
+        js.next();
+        assertEquals(-42, js.longValue());
+        js.next();
+        assertEquals(12, js.longValue(), "дробная часть отбрасывается");
+        assertEquals(NUMBER, js.next());
+        assertEquals("-0.5e-3", text(), "экспонента — один токен");
+        js.next();
+        assertThrows(NumberFormatException.class, js::longValue);
+        js.next();
+        assertThrows(NumberFormatException.class, js::longValue);
+        js.next();
+        assertThrows(ArithmeticException.class, js::longValue, "переполнение long");
+    }
+
+    @Test
+    void comparisonsWorkOnTokenText() {
+        js.reset("{\"channel\":\"Ticker\",\"topic\":\"tickers.BTCUSDT\"}");
+        js.next();
+        js.next();
+        assertTrue(js.is("channel"));
+        assertFalse(js.is("chan"));
+        js.next();
+        assertTrue(js.isIgnoreCase("ticker"));
+        assertFalse(js.is("ticker"));
+        js.next();
+        js.next();
+        assertTrue(js.startsWith("tickers."));
+        assertFalse(js.startsWith("orderbook."));
+        assertTrue(js.isScalar());
+    }
+
+    @Test
+    void malformedInputFailsOrEndsCleanly() {
+        assertEquals(EOF, js.reset("").next());
+        assertEquals(EOF, js.reset("  ,: ").next());
+        js.reset("{\"s\":\"BTC");
+        js.next();
+        js.next();
+        assertThrows(IllegalArgumentException.class, js::next, "незакрытая строка");
+        js.reset("{@}");
+        js.next();
+        assertThrows(IllegalArgumentException.class, js::next);
+        js.reset("{\"a\":tr");
+        js.next();
+        js.next();
+        assertEquals(TRUE, js.next(), "обрезанный литерал не выходит за конец кадра");
+        assertEquals(EOF, js.next());
+    }
+
+    private String text() {
+        return js.source().subSequence(js.start(), js.start() + js.length()).toString();
+    }
+
+    private List<String> tokens() {
+        String[] names = {"EOF", "START_OBJECT", "END_OBJECT", "START_ARRAY", "END_ARRAY",
+                "FIELD", "STRING", "NUMBER", "TRUE", "FALSE", "NULL"};
+        List<String> out = new ArrayList<>();
+        int t;
+        do {
+            t = js.next();
+            String value = t == FIELD || t == STRING || t == NUMBER ? ":" + text() : "";
+            out.add(names[t] + value + "@" + js.depth());
+        } while (t != EOF);
+        return out;
+    }
+}
@@ -0,0 +1,50 @@
+package com.suhoi.api.adapter;
+
+import com.suhoi.events.Price;
+import com.suhoi.market.SymbolDictionary;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link TickView}: mid по bid/ask и приведение цен, разобранных с масштабом записи, к масштабу рынка.
+ */
+class TickViewTest {
+
+    @Test
+    void priceScaleNormalizesRecordScaleToMarketScale() {
+        var view = new TickView().bid("60123.4").ask("60123.65");
+        assertTrue(view.completeMid());
+        assertEquals(Price.of(60_123_525, 3), view.toTick().mid());
+
+        view.priceScale(2);
+        var t = view.toTick();
+        assertEquals(Price.of(6_012_340, 2), t.bid());
+        assertEquals(2, t.bid().scale(), "масштаб рынка, а не записи");
+        assertEquals(Price.of(6_012_365, 2), t.ask());
+        assertEquals(60_123_525, t.mid().mantissa(), "mid точен на scale + 1");
+        assertEquals(3, t.mid().scale());
+    }
+
+    @Test
+    void priceScaleRoundsHalfUpAndSkipsUnknownScale() {
+        var view = new TickView().bid("0.123456789").ask("0.12345");
+        view.priceScale(SymbolDictionary.NONE);
+        assertEquals(9, view.bidScale(), "масштаб рынка неизвестен — цены как есть");
+
+        view.priceScale(4);
+        assertEquals(1235, view.bidMantissa());
+        assertEquals(1235, view.askMantissa(), "половина — от нуля");
+        assertFalse(view.hasMid());
+        assertThrows(IllegalArgumentException.class, () -> view.priceScale(19));
+    }
+
+    @Test
+    void priceScaleKeepsMidWithinMaxScale() {
+        var view = new TickView().bid(1, 18).ask(3, 18);
+        view.completeMid();
+        view.priceScale(18);
+        assertEquals(18, view.midScale());
+        assertEquals(2, view.midMantissa());
+    }
+}
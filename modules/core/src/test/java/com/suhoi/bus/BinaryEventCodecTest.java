@@ -0,0 +1,99 @@
+package com.suhoi.bus;
+
+import com.suhoi.events.AlertEvent;
+import com.suhoi.events.FairSnap;
+import com.suhoi.events.Price;
+import com.suhoi.events.Tick;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link BinaryEventCodec}: круговой путь событий, null-поля, словари, повреждённые кадры.
+ */
+class BinaryEventCodecTest {
+
+    private static final Instant TS = Instant.parse("2025-10-16T18:01:24.123456789Z");
+
+    private final BinaryEventCodec codec = new BinaryEventCodec(CodecDictionary.of(List.of("BTC", "ETH")));
+
+    @Test
+    void tickRoundTrip() {
+        var tick = new Tick(TS, "BTC", "BINANCE", "PERP", Price.parse("60123.4"), Price.parse("60123.50"),
+                Price.parse("60123.45"), new BigDecimal("1250000.5"), TS.plusSeconds(1), "101", "BTCUSDT");
+        byte[] bytes = codec.toBytes(tick);
+        assertTrue(BinaryEventCodec.isBinary(bytes));
+        var back = codec.fromBytes(bytes, Tick.class);
+        assertEquals(tick, back);
+        assertEquals(2, back.ask().scale(), "масштаб цены сохраняется");
+    }
+
+    @Test
+    void nullFieldsAndValuesOutsideDictionariesSurvive() {
+        var tick = new Tick(null, "DOGE", "NEWVENUE", null, null, Price.of(-5, 18), null, null, null, null, "Ünïcode");
+        assertEquals(tick, codec.fromBytes(codec.toBytes(tick), Tick.class));
+    }
+
+    @Test
+    void fairSnapAndAlertRoundTrip() {
+        var snap = new FairSnap(TS, "ETH", Price.parse("2500.125"), List.of(
+                new FairSnap.Source("101", Price.parse("2500.1"), new BigDecimal("0.62")),
+                new FairSnap.Source("202", null, null)));
+        assertEquals(snap, codec.fromBytes(codec.toBytes(snap), FairSnap.class));
+
+        var alert = new AlertEvent(TS, "BTC", "101", new BigDecimal("0.0342"), Price.parse("60020.0"),
+                Price.parse("62020.0"), new BigDecimal("-50.0"), new BigDecimal("0.03"), "OPEN");
+        assertEquals(alert, codec.fromBytes(codec.toBytes(alert), AlertEvent.class));
+    }
+
+    @Test
+    void largeFairSnapGrowsScratchBuffer() {
+        var sources = new ArrayList<FairSnap.Source>();
+        for (int i = 0; i < 500; i++) sources.add(new FairSnap.Source("m" + i, Price.of(i, 2), BigDecimal.ONE));
+        var snap = new FairSnap(TS, "BTC", Price.of(1, 0), sources);
+        assertEquals(snap, codec.fromBytes(codec.toBytes(snap), FairSnap.class));
+    }
+
+    @Test
+    void decodesFromSliceOfForeignBuffer() {
+        var tick = new Tick(TS, "BTC", "BYBIT", "SPOT", Price.parse("1.5"), Price.parse("1.6"), null, null,
+                null, "7", "BTCUSDT");
+        byte[] frame = codec.toBytes(tick);
+        byte[] buf = new byte[frame.length + 10];
+        System.arraycopy(frame, 0, buf, 7, frame.length);
+        assertTrue(BinaryEventCodec.isBinary(buf, 7, frame.length));
+        assertEquals(tick, codec.fromBytes(buf, 7, frame.length, Tick.class));
+    }
+
+    @Test
+    void wideBigDecimalIsRoundedToEighteenDigits() {
+        var alert = new AlertEvent(TS, "BTC", "1", new BigDecimal("0.123456789012345678901234"), null, null,
+                new BigDecimal("1000000000000000000000"), null, "CLOSE");
+        var back = codec.fromBytes(codec.toBytes(alert), AlertEvent.class);
+        assertEquals(0, new BigDecimal("0.123456789012345679").compareTo(back.devPct()));
+        assertEquals(0, new BigDecimal("1E+21").compareTo(back.bias()));
+    }
+
+    @Test
+    void corruptOrForeignFramesAreRejected() {
+        byte[] frame = codec.toBytes(new Tick(TS, "BTC", "GATE", "SPOT", null, null, null, null, null, "1", "BTC_USDT"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> codec.fromBytes(Arrays.copyOf(frame, frame.length - 3), Tick.class), "обрезанный кадр");
+        byte[] badMagic = frame.clone();
+        badMagic[0] = '{';
+        assertThrows(IllegalArgumentException.class, () -> codec.fromBytes(badMagic, Tick.class));
+        byte[] badVersion = frame.clone();
+        badVersion[1] = 99;
+        assertThrows(IllegalArgumentException.class, () -> codec.fromBytes(badVersion, Tick.class));
+        assertThrows(IllegalStateException.class,
+                () -> new BinaryEventCodec().fromBytes(frame, Tick.class), "другой словарь активов");
+        assertThrows(IllegalArgumentException.class, () -> codec.toBytes("not an event"));
+    }
+}
@@ -0,0 +1,126 @@
+package com.suhoi.bus;
+
+import com.suhoi.events.Price;
+import com.suhoi.events.Tick;
+import com.suhoi.events.TickKey;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link ConflatingBuffer} и {@link ConflatingTickHandler}: при застрявшем потребителе по каждому
+ * {@link TickKey} доходит только последний тик; {@code close()} дочитывает накопленное.
+ */
+class ConflatingTickHandlerTest {
+
+    @Test
+    void bufferKeepsLatestValuePerKeyInFirstReadyOrder() {
+        var buf = new ConflatingBuffer<String, Integer>();
+        assertTrue(buf.offer("a", 1), "пустой слот → готов к выдаче");
+        assertTrue(buf.offer("b", 2));
+        assertFalse(buf.offer("a", 3), "вытеснил невыданное");
+        assertFalse(buf.offer("a", 4));
+        assertEquals(2, buf.pending());
+        assertEquals(2, buf.superseded());
+
+        var out = new ArrayList<Integer>();
+        assertEquals(2, buf.drain(out::add, 10));
+        assertEquals(List.of(4, 2), out);
+        assertNull(buf.poll());
+        assertTrue(buf.offer("a", 5), "после выдачи слот снова пуст");
+        assertEquals(5, buf.offered());
+        assertEquals(2, buf.delivered());
+        assertEquals(2, buf.keys());
+    }
+
+    @Test
+    void bufferRemoveForgetsPendingValue() {
+        var buf = new ConflatingBuffer<String, Integer>();
+        buf.offer("a", 1);
+        buf.offer("b", 2);
+        buf.remove("a");
+        assertEquals(2, buf.poll());
+        assertNull(buf.poll(), "значение отписанного ключа не выдаётся");
+        assertEquals(1, buf.keys());
+    }
+
+    @Test
+    void stalledConsumerReceivesOnlyLatestTickPerMarket() throws Exception {
+        var gate = new CountDownLatch(1);
+        var entered = new CountDownLatch(1);
+        var got = new CopyOnWriteArrayList<Tick>();
+        try (var stage = new ConflatingTickHandler("conflate-test", t -> {
+            entered.countDown();
+            await(gate);
+            got.add(t);
+        })) {
+            stage.onTick(tick("BINANCE", "SPOT", "BTCUSDT", 0));
+            assertTrue(entered.await(5, TimeUnit.SECONDS), "первый тик у потребителя");
+
+            for (int i = 1; i <= 100; i++) {
+                stage.onTick(tick("BINANCE", "SPOT", "BTCUSDT", i));
+                stage.onTick(tick("BINANCE", "PERP", "BTCUSDT", 1_000 + i)); // тот же символ, другой рынок
+                if (i <= 50) stage.onTick(tick("BYBIT", "SPOT", "ETHUSDT", 2_000 + i));
+            }
+            assertEquals(3, stage.buffer().pending(), "по слоту на рынок");
+            assertEquals(250 - 3, stage.buffer().superseded());
+
+            gate.countDown();
+            waitFor(() -> got.size() == 4);
+            Thread.sleep(50);
+            assertEquals(4, got.size(), "вытесненные тики не доставляются");
+
+            Map<TickKey, Long> last = new HashMap<>();
+            for (Tick t : got.subList(1, 4)) last.put(TickKey.of(t), t.mid().mantissa());
+            assertEquals(Map.of(
+                    new TickKey("BINANCE", "SPOT", "BTCUSDT"), 100L,
+                    new TickKey("BINANCE", "PERP", "BTCUSDT"), 1_100L,
+                    new TickKey("BYBIT", "SPOT", "ETHUSDT"), 2_050L), last);
+        }
+    }
+
+    @Test
+    void closeDeliversTicksOfferedBeforeIt() {
+        var got = new CopyOnWriteArrayList<Tick>();
+        var stage = new ConflatingTickHandler("conflate-close", got::add);
+        int markets = 5_000;
+        for (int i = 0; i < markets; i++) stage.onTick(tick("BINANCE", "SPOT", "S" + i, i));
+        stage.close();
+        assertEquals(markets, got.size(), "close не теряет недочитанные значения");
+        assertEquals(0, stage.buffer().pending());
+    }
+
+    // ---- вспомогательное ----
+
+    private static Tick tick(String venue, String kind, String symbol, long mantissa) {
+        Price p = Price.of(mantissa, 2);
+        Instant now = Instant.now();
+        return new Tick(now, "BTC", venue, kind, p, p, p, null, now, null, symbol);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("condition not reached in 5s");
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.suhoi.bus;
+
+import com.suhoi.bus.inproc.InProcessEventBus;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link KeyAffinity}: стабильный хеш, формат subjects слота, разбиение слотов между участниками.
+ */
+class KeyAffinityTest {
+
+    @Test
+    void hashIsPinnedAcrossJvmsAndReleases() {
+        // публикаторы и потребители разных версий должны попадать в одни слоты
+        assertEquals(125_114_879, KeyAffinity.hash("BTC"));
+        assertEquals(1_689_966_077, KeyAffinity.hash("ETH"));
+        assertEquals(725_515_275, KeyAffinity.hash(""));
+        assertEquals(63, KeyAffinity.slot("BTC", 64));
+    }
+
+    @Test
+    void hashIsNonNegativeAndSlotInRange() {
+        for (int i = 0; i < 10_000; i++) {
+            String key = "K" + i;
+            assertTrue(KeyAffinity.hash(key) >= 0);
+            int slot = KeyAffinity.slot(key, 7);
+            assertTrue(slot >= 0 && slot < 7, key + " → " + slot);
+        }
+        assertThrows(IllegalArgumentException.class, () -> KeyAffinity.slot("BTC", 0));
+    }
+
+    @Test
+    void subjectsCarrySlotAndKey() {
+        assertEquals("ticks.s63.BTC", KeyAffinity.pinnedSubject("ticks", "BTC", 64));
+        assertEquals("ticks.s61.ETH", KeyAffinity.pinnedSubject("ticks", "ETH", 64));
+        assertEquals("ticks.s3.>", KeyAffinity.slotSubject("ticks", 3));
+        assertEquals("fair.s0.>", KeyAffinity.slotSubject("fair", 0));
+    }
+
+    @Test
+    void membersSplitKeysWithoutOverlap() throws Exception {
+        try (var bus = new InProcessEventBus()) {
+            int slots = 8;
+            var seen0 = ConcurrentHashMap.<String>newKeySet();
+            var seen1 = ConcurrentHashMap.<String>newKeySet();
+            try (var m0 = KeyAffinity.subscribeMember(bus, "ticks", "fair", 0, 2, slots, record(seen0));
+                 var m1 = KeyAffinity.subscribeMember(bus, "ticks", "fair", 1, 2, slots, record(seen1))) {
+                int keys = 200;
+                for (int i = 0; i < keys; i++) {
+                    String key = "A" + i;
+                    bus.publish(KeyAffinity.pinnedSubject("ticks", key, slots), key.getBytes(StandardCharsets.UTF_8));
+                }
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (seen0.size() + seen1.size() < keys && System.nanoTime() < deadline) Thread.sleep(1);
+
+                assertEquals(keys, seen0.size() + seen1.size(), "каждый ключ дошёл ровно до одного участника");
+                for (String k : seen0) assertEquals(0, KeyAffinity.slot(k, slots) % 2, k);
+                for (String k : seen1) assertEquals(1, KeyAffinity.slot(k, slots) % 2, k);
+            }
+            assertThrows(IllegalArgumentException.class,
+                    () -> KeyAffinity.subscribeMember(bus, "ticks", "g", 0, 4, 2, (s, p) -> {}),
+                    "слотов меньше участников");
+        }
+    }
+
+    private static MessageHandler record(Set<String> seen) {
+        return (subject, payload) -> seen.add(new String(payload, StandardCharsets.UTF_8));
+    }
+}
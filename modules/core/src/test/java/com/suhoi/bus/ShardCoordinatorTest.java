@@ -0,0 +1,143 @@
+package com.suhoi.bus;
+
+import com.suhoi.bus.inproc.InProcessEventBus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link ShardCoordinator}: HRW-владение партициями детерминировано и при входе/выходе участника
+ * переезжает только доля ~{@code 1/n}; живая группа на {@link InProcessEventBus} делит партиции
+ * без пересечений и забирает партиции ушедшего.
+ */
+class ShardCoordinatorTest {
+
+    private static final int PARTITIONS = 600;
+
+    @Test
+    void ownerDoesNotDependOnMembershipOrder() {
+        var members = List.of("fair-3", "fair-1", "fair-2", "fair-0");
+        var reversed = new ArrayList<>(members);
+        Collections.reverse(reversed);
+        Map<Integer, String> a = owners(new LinkedHashSet<>(members));
+        assertEquals(a, owners(new LinkedHashSet<>(reversed)));
+        assertEquals(a, owners(new TreeSet<>(members)));
+        assertEquals(a, owners(new HashSet<>(members)));
+        assertNull(ShardCoordinator.ownerOf(0, Set.of()));
+    }
+
+    @Test
+    void ownershipIsBalanced() {
+        Map<String, Integer> counts = new HashMap<>();
+        owners(members(6)).values().forEach(m -> counts.merge(m, 1, Integer::sum));
+        assertEquals(6, counts.size());
+        for (int c : counts.values()) {
+            assertTrue(c > PARTITIONS / 6 / 2 && c < PARTITIONS / 6 * 2, "перекос: " + counts);
+        }
+    }
+
+    @Test
+    void joiningMemberTakesOnlyItsShareAndNothingElseMoves() {
+        Set<String> before = members(5);
+        Map<Integer, String> was = owners(before);
+        Set<String> after = new HashSet<>(before);
+        after.add("m5");
+        Map<Integer, String> now = owners(after);
+
+        int moved = 0;
+        for (int p = 0; p < PARTITIONS; p++) {
+            if (!was.get(p).equals(now.get(p))) {
+                assertEquals("m5", now.get(p), "партиция " + p + " переехала не к новому участнику");
+                moved++;
+            }
+        }
+        assertTrue(moved > PARTITIONS / 6 / 2 && moved < PARTITIONS / 6 * 2,
+                "новый участник берёт ~1/6, переехало " + moved);
+    }
+
+    @Test
+    void leavingMemberReleasesOnlyItsPartitions() {
+        Set<String> before = members(5);
+        Map<Integer, String> was = owners(before);
+        Set<String> after = new HashSet<>(before);
+        after.remove("m2");
+        Map<Integer, String> now = owners(after);
+
+        for (int p = 0; p < PARTITIONS; p++) {
+            if (was.get(p).equals("m2")) {
+                assertNotEquals("m2", now.get(p));
+            } else {
+                assertEquals(was.get(p), now.get(p), "партиция " + p + " оставшегося участника переехала");
+            }
+        }
+    }
+
+    @Test
+    void liveGroupSplitsPartitionsAndTakesOverOnLeave() throws Exception {
+        try (var bus = new InProcessEventBus()) {
+            var a = coordinator(bus, "a").start();
+            var b = coordinator(bus, "b").start();
+            try {
+                await(() -> a.members().size() == 2 && b.members().size() == 2
+                        && a.owned().size() + b.owned().size() == 16);
+                Set<Integer> both = new HashSet<>(a.owned());
+                both.retainAll(b.owned());
+                assertTrue(both.isEmpty(), "партиция у двух владельцев: " + both);
+                for (int p : a.owned()) assertEquals("a", ShardCoordinator.ownerOf(p, Set.of("a", "b")));
+
+                b.close();
+                assertTrue(b.owned().isEmpty());
+                await(() -> a.owned().size() == 16 && a.members().equals(Set.of("a")));
+            } finally {
+                a.close();
+                b.close();
+            }
+        }
+    }
+
+    // ---- вспомогательное ----
+
+    private static ShardCoordinator coordinator(EventBus bus, String id) {
+        return ShardCoordinator.builder()
+                .bus(bus)
+                .group("test")
+                .memberId(id)
+                .partitions(16)
+                .heartbeat(Duration.ofMillis(50))
+                .handler((subject, payload) -> {})
+                .build();
+    }
+
+    private static Set<String> members(int n) {
+        Set<String> out = new HashSet<>();
+        for (int i = 0; i < n; i++) out.add("m" + i);
+        return out;
+    }
+
+    private static Map<Integer, String> owners(Set<String> members) {
+        Map<Integer, String> out = new HashMap<>();
+        for (int p = 0; p < PARTITIONS; p++) out.put(p, ShardCoordinator.ownerOf(p, members));
+        return out;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("condition not reached in 5s");
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.suhoi.bus;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link SubscriptionMailbox}: что каждая {@link OverflowPolicy} делает с полным кольцом — отбрасывает
+ * новое/старое, заменяет по ключу на месте или держит производителя; дочитывание при {@code close()}.
+ * <p>
+ * Во всех сценариях обработчик держит первое сообщение, пока тест не откроет {@code gate}, так что
+ * кольцо на 3 заполняется детерминированно.
+ * </p>
+ */
+class SubscriptionMailboxTest {
+
+    private final CountDownLatch gate = new CountDownLatch(1);
+    private final Recorder rec = new Recorder(gate);
+    private SubscriptionMailbox mailbox;
+
+    @AfterEach
+    void tearDown() {
+        gate.countDown();
+        if (mailbox != null) mailbox.close();
+    }
+
+    @Test
+    void dropNewestRejectsIncomingAndKeepsQueue() throws Exception {
+        start(OverflowPolicy.DROP_NEWEST);
+        assertTrue(offer("q", "1"));
+        assertTrue(offer("q", "2"));
+        assertTrue(offer("q", "3"));
+        assertFalse(offer("q", "4"), "кольцо полно — новое отброшено");
+        assertFalse(offer("q", "5"));
+        assertEquals(3, mailbox.depth());
+        assertEquals(2, mailbox.dropped());
+        assertEquals(0, mailbox.conflated());
+
+        gate.countDown();
+        await(() -> mailbox.delivered() == 4);
+        assertEquals(List.of("q=0", "q=1", "q=2", "q=3"), rec.got());
+    }
+
+    @Test
+    void dropOldestEvictsHeadAndAcceptsIncoming() throws Exception {
+        start(OverflowPolicy.DROP_OLDEST);
+        for (int i = 1; i <= 5; i++) assertTrue(offer("q", Integer.toString(i)), "новое принимается всегда");
+        assertEquals(3, mailbox.depth());
+        assertEquals(2, mailbox.dropped());
+
+        gate.countDown();
+        await(() -> mailbox.delivered() == 4);
+        assertEquals(List.of("q=0", "q=3", "q=4", "q=5"), rec.got(), "выброшены самые старые");
+    }
+
+    @Test
+    void conflateByKeyReplacesPendingValueInPlace() throws Exception {
+        start(OverflowPolicy.CONFLATE_BY_KEY);
+        assertTrue(offer("a", "1"));
+        assertTrue(offer("b", "2"));
+        assertTrue(offer("a", "3"));
+        assertTrue(offer("c", "4"));
+        assertTrue(offer("a", "5"));
+        assertEquals(3, mailbox.depth(), "повтор ключа не занимает слот");
+        assertEquals(2, mailbox.conflated());
+        assertEquals(2, mailbox.dropped(), "заменённые считаются и в dropped");
+
+        gate.countDown();
+        await(() -> mailbox.delivered() == 4);
+        assertEquals(List.of("q=0", "a=5", "b=2", "c=4"), rec.got(),
+                "последнее значение ключа — на месте первого появления");
+    }
+
+    @Test
+    void conflateByKeyEvictsOldestKeyWhenFullAndKeepsIndexConsistent() throws Exception {
+        start(OverflowPolicy.CONFLATE_BY_KEY);
+        offer("a", "1");
+        offer("b", "2");
+        offer("c", "3");
+        assertTrue(offer("d", "4"), "новый ключ при полном кольце вытесняет голову");
+        assertTrue(offer("a", "5"), "ключ вытесненной головы — снова новый");
+        assertTrue(offer("d", "6"), "индекс ключей после сдвига головы указывает на верный слот");
+        assertEquals(3, mailbox.depth());
+        assertEquals(1, mailbox.conflated());
+        assertEquals(3, mailbox.dropped());
+
+        gate.countDown();
+        await(() -> mailbox.delivered() == 4);
+        assertEquals(List.of("q=0", "c=3", "d=6", "a=5"), rec.got());
+    }
+
+    @Test
+    void blockHoldsProducerUntilSlotFreesAndLosesNothing() throws Exception {
+        start(OverflowPolicy.BLOCK);
+        for (int i = 1; i <= 3; i++) assertTrue(offer("q", Integer.toString(i)));
+        var accepted = new AtomicReference<Boolean>();
+        Thread producer = Thread.ofPlatform().start(() -> accepted.set(offer("q", "4")));
+        producer.join(200);
+        assertTrue(producer.isAlive(), "кольцо полно — производитель ждёт");
+        assertEquals(0, mailbox.dropped());
+
+        gate.countDown();
+        producer.join(5_000);
+        assertFalse(producer.isAlive());
+        assertEquals(Boolean.TRUE, accepted.get());
+        await(() -> mailbox.delivered() == 5);
+        assertEquals(List.of("q=0", "q=1", "q=2", "q=3", "q=4"), rec.got());
+        assertEquals(0, mailbox.dropped());
+        assertEquals(3, mailbox.maxDepth());
+    }
+
+    @Test
+    void closeReleasesBlockedProducerAndDrainsAcceptedMessages() throws Exception {
+        start(OverflowPolicy.BLOCK);
+        for (int i = 1; i <= 3; i++) offer("q", Integer.toString(i));
+        var accepted = new AtomicReference<Boolean>();
+        Thread producer = Thread.ofPlatform().start(() -> accepted.set(offer("q", "4")));
+        await(() -> producer.getState() == Thread.State.WAITING);
+
+        Thread closer = Thread.ofPlatform().start(() -> mailbox.close(5_000));
+        producer.join(5_000);
+        assertFalse(producer.isAlive(), "close отпускает ждущего производителя");
+        assertEquals(Boolean.FALSE, accepted.get(), "сообщение, не попавшее в кольцо, не принято");
+        assertFalse(offer("q", "late"), "после close приём закрыт");
+
+        gate.countDown();
+        closer.join(5_000);
+        assertFalse(closer.isAlive());
+        assertEquals(List.of("q=0", "q=1", "q=2", "q=3"), rec.got(), "принятое до close дочитано");
+        assertEquals(0, mailbox.depth());
+    }
+
+    // ---- вспомогательное ----
+
+    private void start(OverflowPolicy policy) throws InterruptedException {
+        var options = SubscriptionOptions.builder().capacity(3).overflow(policy).build();
+        mailbox = new SubscriptionMailbox("test", options, rec);
+        assertTrue(offer("q", "0"));
+        assertTrue(rec.entered.await(5, TimeUnit.SECONDS), "первое сообщение у обработчика");
+    }
+
+    private boolean offer(String subject, String payload) {
+        return mailbox.offer(subject, payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("condition not reached in 5s");
+            Thread.sleep(1);
+        }
+    }
+
+    /** Пишет {@code subject=payload}; первое сообщение держит до открытия {@code gate}. */
+    private static final class Recorder implements MessageHandler {
+        final List<String> got = new CopyOnWriteArrayList<>();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch gate;
+
+        Recorder(CountDownLatch gate) { this.gate = gate; }
+
+        @Override
+        public void onMessage(String subject, byte[] payload) {
+            entered.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            got.add(subject + "=" + new String(payload, StandardCharsets.UTF_8));
+        }
+
+        List<String> got() { return List.copyOf(got); }
+    }
+}
@@ -0,0 +1,231 @@
+package com.suhoi.bus.inproc;
+
+import com.suhoi.bus.OverflowPolicy;
+import com.suhoi.bus.Subscription;
+import com.suhoi.bus.SubscriptionOptions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link InProcessEventBus}: маршрутизация по шаблонам, queue group, обратное давление BLOCK
+ * против счёта отброшенных, доставка вокруг {@code close()}.
+ */
+class InProcessEventBusTest {
+
+    private final InProcessEventBus bus = new InProcessEventBus();
+
+    @AfterEach
+    void tearDown() {
+        bus.close();
+    }
+
+    @Test
+    void exactAndWildcardSubscribersGetMatchingSubjects() throws Exception {
+        var exact = new Recorder();
+        var star = new Recorder();
+        var tail = new Recorder();
+        var leadingStar = new Recorder();
+        bus.subscribe("ticks.BTC", exact);
+        bus.subscribe("ticks.*", star);
+        bus.subscribe("ticks.>", tail);
+        bus.subscribe("*.ETH", leadingStar);
+
+        for (String s : new String[]{"ticks.BTC", "ticks.ETH", "ticks.BTC.SPOT", "fair.ETH", "ticks"}) {
+            bus.publish(s, bytes(s));
+        }
+        await(() -> tail.size() == 3 && leadingStar.size() == 2);
+        assertEquals(List.of("ticks.BTC"), exact.subjects());
+        assertEquals(List.of("ticks.BTC", "ticks.ETH"), star.subjects());
+        assertEquals(List.of("ticks.BTC", "ticks.ETH", "ticks.BTC.SPOT"), tail.subjects());
+        assertEquals(List.of("ticks.ETH", "fair.ETH"), leadingStar.subjects());
+        assertEquals("ticks.BTC.SPOT", tail.payloads().get(2), "payload доходит как есть");
+    }
+
+    @Test
+    void routeCacheSeesLaterSubscriptions() throws Exception {
+        var first = new Recorder();
+        bus.subscribe("ticks.BTC", first);
+        bus.publish("ticks.BTC", bytes("1")); // маршрут закэширован
+        var late = new Recorder();
+        bus.subscribe("ticks.>", late);
+        bus.publish("ticks.BTC", bytes("2"));
+        await(() -> first.size() == 2 && late.size() == 1);
+        assertEquals(List.of("2"), late.payloads());
+    }
+
+    @Test
+    void queueGroupDeliversEachMessageToOneMember() throws Exception {
+        var a = new Recorder();
+        var b = new Recorder();
+        var fanout = new Recorder();
+        bus.subscribe("jobs.*", "workers", a);
+        bus.subscribe("jobs.>", "workers", b);
+        bus.subscribe("jobs.*", fanout);
+
+        int n = 100;
+        for (int i = 0; i < n; i++) bus.publish("jobs.x", bytes(Integer.toString(i)));
+        await(() -> a.size() + b.size() == n && fanout.size() == n);
+        assertEquals(n / 2, a.size(), "round-robin внутри группы");
+        assertEquals(n / 2, b.size());
+        var all = new ArrayList<>(a.payloads());
+        all.addAll(b.payloads());
+        assertEquals(n, all.stream().distinct().count(), "каждое сообщение — ровно одному участнику");
+    }
+
+    @Test
+    void blockModeHoldsPublisherUntilConsumerFreesSlot() throws Exception {
+        var gate = new CountDownLatch(1);
+        var rec = new Recorder(gate);
+        Subscription sub = bus.subscribe("q", null, ring(4, OverflowPolicy.BLOCK), rec);
+
+        Thread publisher = Thread.ofPlatform().start(() -> {
+            for (int i = 0; i < 10; i++) bus.publish("q", bytes(Integer.toString(i)));
+        });
+        await(() -> sub.pending() == 4);
+        publisher.join(200);
+        assertTrue(publisher.isAlive(), "кольцо полно — публикатор ждёт");
+        assertEquals(0, sub.dropped());
+
+        gate.countDown();
+        publisher.join(5_000);
+        assertFalse(publisher.isAlive());
+        await(() -> rec.size() == 10);
+        assertEquals(numbers(0, 10), rec.payloads(), "ничего не потеряно, порядок сохранён");
+        assertEquals(0, sub.dropped());
+        assertEquals(10, sub.delivered());
+    }
+
+    @Test
+    void dropModeCountsRejectedMessagesWithoutBlocking() throws Exception {
+        var gate = new CountDownLatch(1);
+        var rec = new Recorder(gate);
+        Subscription sub = bus.subscribe("q", null, ring(4, OverflowPolicy.DROP_NEWEST), rec);
+
+        bus.publish("q", bytes("0"));
+        assertTrue(rec.entered.await(5, TimeUnit.SECONDS), "первое сообщение у handler'а");
+        for (int i = 1; i < 10; i++) bus.publish("q", bytes(Integer.toString(i))); // не блокирует
+        assertEquals(4, sub.pending());
+        assertEquals(5, sub.dropped(), "кольцо на 4 — остальные отброшены");
+
+        gate.countDown();
+        await(() -> rec.size() == 5);
+        assertEquals(numbers(0, 5), rec.payloads(), "отброшены новые, принятые — по порядку");
+        assertEquals(5, sub.delivered());
+    }
+
+    @Test
+    void closeWhileBlockedPublisherWaitsReleasesItAndDeliversOnlyRealMessages() throws Exception {
+        var gate = new CountDownLatch(1);
+        var rec = new Recorder(gate);
+        Subscription sub = bus.subscribe("q", null, ring(4, OverflowPolicy.BLOCK), rec);
+        Thread publisher = Thread.ofPlatform().start(() -> {
+            for (int i = 0; i < 10; i++) bus.publish("q", bytes(Integer.toString(i)));
+        });
+        await(() -> sub.pending() == 4);
+
+        Thread closer = Thread.ofPlatform().start(sub::close);
+        await(() -> closer.getState() != Thread.State.RUNNABLE || !closer.isAlive());
+        gate.countDown();
+        closer.join(1_000); // меньше таймаута join в close(): потребитель не ждёт незаполненный слот
+        publisher.join(5_000);
+        assertFalse(closer.isAlive(), "close дождался потребителя без прерывания");
+        assertFalse(publisher.isAlive(), "close отпускает публикатора, ждущего слот");
+
+        List<String> got = rec.payloads();
+        assertTrue(got.size() >= 5, "принятое до close дочитано: " + got);
+        assertEquals(numbers(0, got.size()), got, "без пустых слотов и пропусков");
+        assertEquals(got.size(), sub.delivered());
+    }
+
+    @Test
+    void closedSubscriptionDrainsAcceptedAndReceivesNothingAfter() throws Exception {
+        var rec = new Recorder();
+        Subscription sub = bus.subscribe("ticks.*", rec);
+        for (int i = 0; i < 3; i++) bus.publish("ticks.BTC", bytes(Integer.toString(i)));
+        sub.close();
+        assertEquals(numbers(0, 3), rec.payloads(), "close дочитывает кольцо");
+
+        bus.publish("ticks.BTC", bytes("late"));
+        Thread.sleep(50);
+        assertEquals(3, rec.size(), "после close — ничего");
+        assertEquals(3, sub.delivered());
+        sub.close(); // повторно — без эффекта
+
+        bus.close();
+        assertThrows(IllegalStateException.class, () -> bus.publish("ticks.BTC", bytes("x")));
+        assertThrows(IllegalStateException.class, () -> bus.subscribe("ticks.BTC", rec));
+    }
+
+    @Test
+    void directDeliveryRunsInPublisherThread() {
+        var rec = new Recorder();
+        bus.subscribe("d", null, SubscriptionOptions.direct(), rec);
+        bus.publish("d", bytes("x"));
+        assertEquals(List.of("x"), rec.payloads(), "capacity 0 — синхронно");
+        assertEquals(Thread.currentThread(), rec.lastThread);
+    }
+
+    // ---- вспомогательное ----
+
+    private static SubscriptionOptions ring(int capacity, OverflowPolicy policy) {
+        return SubscriptionOptions.builder().capacity(capacity).overflow(policy).build();
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> numbers(int from, int to) {
+        var out = new ArrayList<String>();
+        for (int i = from; i < to; i++) out.add(Integer.toString(i));
+        return out;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("condition not reached in 5s");
+            Thread.sleep(1);
+        }
+    }
+
+    /** Пишет subject/payload; с {@code gate} — первое сообщение держит handler до открытия. */
+    private static final class Recorder implements com.suhoi.bus.MessageHandler {
+        final List<String> subjects = new CopyOnWriteArrayList<>();
+        final List<String> payloads = new CopyOnWriteArrayList<>();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch gate;
+        volatile Thread lastThread;
+
+        Recorder() { this(new CountDownLatch(0)); }
+
+        Recorder(CountDownLatch gate) { this.gate = gate; }
+
+        @Override
+        public void onMessage(String subject, byte[] payload) {
+            entered.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            lastThread = Thread.currentThread();
+            subjects.add(subject);
+            payloads.add(new String(payload, StandardCharsets.UTF_8));
+        }
+
+        int size() { return payloads.size(); }
+        List<String> subjects() { return List.copyOf(subjects); }
+        List<String> payloads() { return List.copyOf(payloads); }
+    }
+}
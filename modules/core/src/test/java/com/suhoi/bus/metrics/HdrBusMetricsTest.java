@@ -0,0 +1,143 @@
+package com.suhoi.bus.metrics;
+
+import com.suhoi.bus.Subscription;
+import com.suhoi.bus.metrics.HdrBusMetrics.SubscriptionStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link HdrBusMetrics}: агрегация публикаций по префиксу, интервальные перцентили, строка
+ * подписки по нескольким хэндлам и её жизнь после закрытия последнего хэндла.
+ */
+class HdrBusMetricsTest {
+
+    @Test
+    void publishesAreAggregatedByPrefix() {
+        var metrics = new HdrBusMetrics(2);
+        assertEquals("ticks.s3", metrics.prefixOf("ticks.s3.BTC"));
+        assertEquals("ticks", metrics.prefixOf("ticks"), "токенов меньше — subject целиком");
+
+        metrics.published("ticks.s3.BTC", 100);
+        metrics.published("ticks.s3.ETH", 50);
+        metrics.published("ticks.s4.BTC", 10);
+        metrics.published("ticks.s3.BTC", 100);
+
+        var publish = metrics.snapshot().publish();
+        assertEquals(2, publish.size());
+        assertEquals(new HdrBusMetrics.PublishStats("ticks.s3", 3, 250), publish.get(0));
+        assertEquals(new HdrBusMetrics.PublishStats("ticks.s4", 1, 10), publish.get(1));
+        assertEquals(3, metrics.snapshot().publish().get(0).messages(), "нарастающим итогом");
+
+        assertThrows(IllegalArgumentException.class, () -> new HdrBusMetrics(0));
+    }
+
+    @Test
+    void percentilesCoverTheIntervalSinceLastSnapshot() {
+        var metrics = new HdrBusMetrics();
+        for (int i = 1; i <= 100; i++) {
+            metrics.handled("ticks.>", i * 1_000L);
+            metrics.received("ticks.>", i);
+        }
+        var s = only(metrics);
+        assertEquals(100, s.handled());
+        assertEquals(100, s.handlerNanos().count());
+        assertEquals(100_000, s.handlerNanos().max(), 100_000 / 100, "2 значащие цифры");
+        assertEquals(50, s.latencyMicros().p50(), 1);
+
+        metrics.handled("ticks.>", 7);
+        s = only(metrics);
+        assertEquals(101, s.handled(), "handled — нарастающим итогом");
+        assertEquals(1, s.handlerNanos().count(), "перцентили — только новый интервал");
+        assertEquals(0, s.latencyMicros().count());
+    }
+
+    @Test
+    void outOfRangeValuesAreClamped() {
+        var metrics = new HdrBusMetrics();
+        metrics.received("a", -5);
+        metrics.received("a", TimeUnit.DAYS.toMicros(1));
+        metrics.handled("a", -1);
+        var s = only(metrics);
+        assertEquals(2, s.latencyMicros().count());
+        assertEquals(0, s.latencyMicros().p50(), "рассинхрон часов — ноль");
+        assertTrue(s.latencyMicros().max() <= TimeUnit.MINUTES.toMicros(10) * 1.01);
+        assertEquals(0, s.handlerNanos().max());
+    }
+
+    @Test
+    void handlesWithTheSameNameShareOneRow() {
+        var metrics = new HdrBusMetrics();
+        var a = new StubSubscription(3, 10);
+        var b = new StubSubscription(4, 5);
+        metrics.subscribed("ticks.>", a);
+        metrics.subscribed("ticks.>", b);
+
+        var s = only(metrics);
+        assertTrue(s.active());
+        assertEquals(7, s.pending());
+        assertEquals(15, s.dropped());
+
+        metrics.unsubscribed("ticks.>", a);
+        a.dropped = 1_000; // после закрытия хэндл больше не читается
+        s = only(metrics);
+        assertTrue(s.active(), "остался второй хэндл");
+        assertEquals(4, s.pending());
+        assertEquals(15, s.dropped(), "dropped закрытого хэндла не пропадает");
+    }
+
+    @Test
+    void rowSurvivesLastUnsubscribeAndContinuesOnResubscribe() {
+        var metrics = new HdrBusMetrics();
+        var first = new StubSubscription(2, 8);
+        metrics.subscribed("svc.state", first);
+        metrics.handled("svc.state", 1_000);
+        metrics.handled("svc.state", 2_000);
+        metrics.unsubscribed("svc.state", first);
+        metrics.unsubscribed("svc.state", first);
+
+        var s = only(metrics);
+        assertEquals("svc.state", s.subscription());
+        assertFalse(s.active(), "строка остаётся, но неактивна");
+        assertEquals(2, s.handled());
+        assertEquals(0, s.pending());
+        assertEquals(8, s.dropped(), "повторное закрытие не считает хэндл дважды");
+        assertEquals(2, s.handlerNanos().count());
+
+        metrics.unsubscribed("unknown", first);
+        assertEquals(1, metrics.snapshot().subscriptions().size(), "закрытие без подписки строку не создаёт");
+
+        var second = new StubSubscription(1, 2);
+        metrics.subscribed("svc.state", second);
+        metrics.handled("svc.state", 3_000);
+        s = only(metrics);
+        assertTrue(s.active());
+        assertEquals(3, s.handled(), "счётчики продолжаются");
+        assertEquals(1, s.pending());
+        assertEquals(10, s.dropped());
+    }
+
+    // ---- вспомогательное ----
+
+    private static SubscriptionStats only(HdrBusMetrics metrics) {
+        var subs = metrics.snapshot().subscriptions();
+        assertEquals(1, subs.size());
+        return subs.get(0);
+    }
+
+    private static final class StubSubscription implements Subscription {
+        int pending;
+        long dropped;
+
+        StubSubscription(int pending, long dropped) {
+            this.pending = pending;
+            this.dropped = dropped;
+        }
+
+        @Override public void close() {}
+        @Override public int pending() { return pending; }
+        @Override public long dropped() { return dropped; }
+    }
+}
@@ -0,0 +1,150 @@
+package com.suhoi.bus.nats;
+
+import com.suhoi.bus.BusHeaders;
+import com.suhoi.bus.KeyAffinity;
+import com.suhoi.bus.SubjectMatcher;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Per-prefix батчинг: какие кадры слушает подписка и что она получает после распаковки (без сервера).
+ */
+class NatsBatchPublisherTest {
+
+    /** Таймер сброса не успевает сработать: кадры уходят только по {@code flushAll()}. */
+    private static NatsEventBusConfig byPrefix(boolean on) {
+        return NatsEventBusConfig.builder().batching(true).batchByPrefix(on).batchSubjectPrefix("ticks.")
+                .batchFlushInterval(Duration.ofSeconds(10)).build();
+    }
+
+    @Test
+    void exactAndForeignWildcardSubscribersListenToPrefixFrame() {
+        var cfg = byPrefix(true);
+        assertEquals(List.of("ticks._batch"), NatsBatchPublisher.frameSubjectsFor(cfg, "ticks.BTC"));
+        assertEquals(List.of("ticks._batch", "ticks.*._batch"), NatsBatchPublisher.frameSubjectsFor(cfg, "ticks.*.SPOT"));
+        assertEquals(List.of("ticks._batch", "ticks.*._batch"), NatsBatchPublisher.frameSubjectsFor(cfg, "*.BTC"));
+        assertEquals(List.of("ticks._batch"), NatsBatchPublisher.frameSubjectsFor(cfg, "ticks.*.>"), "кадры слотов ловит сам");
+        assertEquals(List.of(), NatsBatchPublisher.frameSubjectsFor(cfg, "ticks.>"), "шаблон ловит кадр сам");
+        assertEquals(List.of(), NatsBatchPublisher.frameSubjectsFor(cfg, "ticks.*"), "шаблон ловит кадр сам");
+        assertEquals(List.of(), NatsBatchPublisher.frameSubjectsFor(cfg, "signals.BTC"));
+        assertEquals(List.of(), NatsBatchPublisher.frameSubjectsFor(byPrefix(false), "ticks.BTC"), "батч на subject прозрачен");
+    }
+
+    @Test
+    void exactSubscriberReceivesOnlyItsEntriesFromPrefixFrame() {
+        var frames = new ArrayList<Object[]>();
+        try (var batcher = new NatsBatchPublisher(byPrefix(true), (s, h, body) -> frames.add(new Object[]{s, body}))) {
+            assertTrue(batcher.offer("ticks.BTC", null, bytes("b1")));
+            assertTrue(batcher.offer("ticks.ETH", null, bytes("e1")));
+            assertTrue(batcher.offer("ticks.BTC", null, bytes("b2")));
+            assertFalse(batcher.offer("signals.BTC", null, bytes("x")));
+            batcher.flushAll();
+        }
+        assertEquals(1, frames.size());
+        String frameSubject = (String) frames.get(0)[0];
+        assertEquals("ticks._batch", frameSubject);
+
+        // как фильтр распаковки в NatsEventBus.subscribe
+        String pattern = "ticks.BTC";
+        assertTrue(NatsBatchPublisher.frameSubjectsFor(byPrefix(true), pattern).contains(frameSubject));
+        var got = new ArrayList<String>();
+        NatsBatchFrame.unpack((byte[]) frames.get(0)[1], frameSubject, (s, p) -> {
+            if (SubjectMatcher.matches(pattern, s)) got.add(s + "=" + new String(p, StandardCharsets.UTF_8));
+        });
+        assertEquals(List.of("ticks.BTC=b1", "ticks.BTC=b2"), got);
+    }
+
+    @Test
+    void keyAffinitySlotsGetTheirOwnFrames() {
+        var cfg = byPrefix(true);
+        assertEquals(List.of(), NatsBatchPublisher.frameSubjectsFor(cfg, KeyAffinity.slotSubject("ticks", 5)), "ловит ticks.s5._batch сам");
+        assertEquals(List.of("ticks.s5._batch"), NatsBatchPublisher.frameSubjectsFor(cfg, "ticks.s5.BTC"));
+        assertEquals(List.of("ticks._batch"), NatsBatchPublisher.frameSubjectsFor(cfg, "ticks.s05.BTC"), "не номер слота");
+
+        var frames = new ArrayList<String>();
+        try (var batcher = new NatsBatchPublisher(cfg, (s, h, body) -> frames.add(s))) {
+            batcher.offer("ticks.s5.BTC", null, bytes("b1"));
+            batcher.offer("ticks.s5.ETH", null, bytes("e1"));
+            batcher.offer("ticks.s12.SOL", null, bytes("s1"));
+            batcher.offer("ticks.s12.DOGE", null, bytes("d1"));
+            batcher.offer("ticks.BTC", null, bytes("x1"));
+            batcher.offer("ticks.ETH", null, bytes("x2"));
+            batcher.flushAll();
+        }
+        frames.sort(null);
+        assertEquals(List.of("ticks._batch", "ticks.s12._batch", "ticks.s5._batch"), frames);
+    }
+
+    /**
+     * Участник KeyAffinity с двумя слотами в одной queue group: NATS отдаёт каждый кадр одной
+     * подписке группы, чей subject его ловит. Кадр слота ловит только подписка этого слота,
+     * так что после фильтра распаковки доставлен каждый тик.
+     */
+    @Test
+    void queueGroupSlotSubscriptionsReceiveEveryTick() {
+        var cfg = byPrefix(true);
+        int slots = 2;
+        List<String> patterns = List.of(KeyAffinity.slotSubject("ticks", 0), KeyAffinity.slotSubject("ticks", 1));
+        var listen = new ArrayList<List<String>>();
+        for (String p : patterns) {
+            var subjects = new ArrayList<String>();
+            subjects.add(p);
+            subjects.addAll(NatsEventBus.frameSubjects(cfg, p, "fairprice"));
+            listen.add(subjects);
+        }
+
+        var got = new ArrayList<String>();
+        var expected = new ArrayList<String>();
+        NatsBatchPublisher.Sink nats = (subject, headers, body) -> {
+            // queue group: сообщение получает одна подписка группы из тех, что ловят subject
+            for (int i = 0; i < patterns.size(); i++) {
+                String pattern = patterns.get(i);
+                if (listen.get(i).stream().noneMatch(s -> SubjectMatcher.matches(s, subject))) continue;
+                if (headers != null && headers.getFirst(BusHeaders.BATCH) != null) {
+                    NatsBatchFrame.unpack(body, subject, (s, p) -> {
+                        if (s.equals(subject) || SubjectMatcher.matches(pattern, s)) got.add(s);
+                    });
+                } else {
+                    got.add(subject);
+                }
+                return;
+            }
+        };
+        try (var batcher = new NatsBatchPublisher(cfg, nats)) {
+            for (String asset : List.of("BTC", "ETH", "SOL", "DOGE", "XRP", "ADA", "TON", "LINK")) {
+                String subject = KeyAffinity.pinnedSubject("ticks", asset, slots);
+                expected.add(subject);
+                batcher.offer(subject, null, bytes(asset));
+            }
+            batcher.flushAll();
+        }
+        expected.sort(null);
+        got.sort(null);
+        assertEquals(expected, got);
+    }
+
+    @Test
+    void queueGroupOnSubjectNeedingSharedFrameIsRefused() {
+        var cfg = byPrefix(true);
+        assertThrows(IllegalArgumentException.class, () -> NatsEventBus.frameSubjects(cfg, "ticks.BTC", "g"));
+        assertEquals(List.of("ticks._batch"), NatsEventBus.frameSubjects(cfg, "ticks.BTC", null));
+        assertEquals(List.of(), NatsEventBus.frameSubjects(byPrefix(false), "ticks.BTC", "g"));
+    }
+
+    @Test
+    void offerAfterCloseFallsBackToDirectPublish() {
+        var batcher = new NatsBatchPublisher(byPrefix(true), (s, h, body) -> {});
+        batcher.close();
+        assertFalse(batcher.offer("ticks.BTC", null, bytes("b1")));
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
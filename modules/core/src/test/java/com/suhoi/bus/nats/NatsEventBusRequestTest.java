@@ -0,0 +1,64 @@
+package com.suhoi.bus.nats;
+
+import io.nats.client.JetStreamStatusException;
+import io.nats.client.Message;
+import io.nats.client.impl.NatsMessage;
+import io.nats.client.support.Status;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Итоги {@code request()}: как исходы future jnats (ответ, отмена по таймауту, 503 при
+ * {@code reportNoResponders}) превращаются в исключения контракта {@link com.suhoi.bus.EventBus#request}.
+ */
+class NatsEventBusRequestTest {
+
+    @Test
+    void replyDataIsReturnedAsIs() throws Exception {
+        var msg = NatsMessage.builder().subject("_INBOX.x").data("pong".getBytes(StandardCharsets.UTF_8)).build();
+        var f = CompletableFuture.completedFuture((Message) msg)
+                .handle((m, err) -> NatsEventBus.replyData("svc.ping", m, err));
+        assertEquals("pong", new String(f.get(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void noRespondersStatusBecomesIllegalState() {
+        var noResponders = new JetStreamStatusException(new Status(Status.NO_RESPONDERS_CODE, Status.NO_RESPONDERS_TEXT));
+        Throwable cause = failWith("svc.state", noResponders);
+        assertInstanceOf(IllegalStateException.class, cause);
+        assertFalse(cause instanceof JetStreamStatusException, "наружу — тип контракта, а не jnats");
+        assertEquals("no responders for svc.state", cause.getMessage());
+        assertSame(noResponders, cause.getCause());
+    }
+
+    @Test
+    void cancellationIsTimeout() {
+        Throwable cause = failWith("svc.state", new CancellationException());
+        assertInstanceOf(TimeoutException.class, cause);
+        assertTrue(cause.getMessage().contains("svc.state"));
+    }
+
+    @Test
+    void otherStatusesAndErrorsPassThrough() {
+        var badRequest = new JetStreamStatusException(new Status(Status.BAD_REQUEST_CODE, "Bad Request"));
+        assertSame(badRequest, failWith("svc.state", badRequest));
+        var boom = new IllegalArgumentException("boom");
+        assertSame(boom, failWith("svc.state", new CompletionException(boom)));
+    }
+
+    /** Прогоняет исключение через тот же {@code handle}, что и {@code request()}, и отдаёт причину. */
+    private static Throwable failWith(String subject, Throwable err) {
+        var f = CompletableFuture.<Message>failedFuture(err)
+                .handle((m, e) -> NatsEventBus.replyData(subject, m, e));
+        var ex = assertThrows(ExecutionException.class, f::get);
+        return ex.getCause();
+    }
+}
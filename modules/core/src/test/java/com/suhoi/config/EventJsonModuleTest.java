@@ -0,0 +1,143 @@
+package com.suhoi.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.suhoi.bus.JacksonJsonCodec;
+import com.suhoi.events.AlertEvent;
+import com.suhoi.events.FairSnap;
+import com.suhoi.events.Price;
+import com.suhoi.events.Tick;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link EventJsonModule}: рукописные сериализаторы дают тот же JSON, что рефлексивный путь
+ * {@link ObjectMapperFactory} без модуля, и события проходят круговой путь через {@link JacksonJsonCodec}.
+ */
+class EventJsonModuleTest {
+
+    /** Настройки {@link ObjectMapperFactory} без {@link EventJsonModule}. */
+    private static final ObjectMapper REFLECTIVE = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
+
+    private static final List<Instant> INSTANTS = List.of(
+            Instant.parse("2025-10-16T18:01:23Z"),                 // nanos = 0
+            Instant.parse("2025-10-16T18:01:23.456Z"),             // мс
+            Instant.parse("2025-10-16T18:01:23.450Z"),             // мс с хвостовым нулём
+            Instant.parse("2025-10-16T18:01:23.000456Z"),          // мкс
+            Instant.parse("2025-10-16T18:01:23.456789Z"),
+            Instant.parse("2025-10-16T18:01:23.000000001Z"),       // нс
+            Instant.parse("2025-10-16T18:01:23.123456789Z"),
+            Instant.EPOCH,
+            Instant.parse("1969-12-31T23:59:59.999Z"),             // до 1970
+            Instant.parse("1900-03-01T00:00:00.5Z"),
+            Instant.parse("0000-01-01T00:00:00Z"),
+            Instant.parse("2024-02-29T12:00:00Z"),                 // високосный день
+            Instant.parse("2000-02-29T23:59:59.999999999Z"),
+            Instant.parse("2100-03-01T00:00:00Z"),                 // 2100 не високосный
+            Instant.parse("9999-12-31T23:59:59.999999999Z"),
+            Instant.parse("+10000-01-01T00:00:00Z"),               // год > 9999
+            Instant.MAX,
+            Instant.MIN);
+
+    @Test
+    void tickMatchesReflectiveJson() throws Exception {
+        for (Instant t : INSTANTS) {
+            assertSameJson(new Tick(t, "BTC", "BINANCE", "PERP", Price.parse("60123.4"), Price.parse("60123.50"),
+                    Price.parse("60123.45"), new BigDecimal("48.70"), t, "101", "BTCUSDT"));
+        }
+        assertSameJson(new Tick(null, null, null, null, null, null, null, null, null, null, null));
+        assertSameJson(new Tick(INSTANTS.get(1), "ETH", "MEXC", "SPOT", Price.parse("-0.5"), Price.of(0, 0),
+                Price.parse("123456789.123456789"), null, null, null, "Ünïcode \"q\""));
+    }
+
+    @Test
+    void fairSnapMatchesReflectiveJson() throws Exception {
+        for (Instant t : INSTANTS) {
+            assertSameJson(new FairSnap(t, "BTC", Price.parse("60123.52"), List.of(
+                    new FairSnap.Source("101", Price.parse("60123.5"), new BigDecimal("0.62")),
+                    new FairSnap.Source("202", Price.parse("60123.6"), new BigDecimal("0.38")))));
+        }
+        assertSameJson(new FairSnap(null, null, null, null));
+        assertSameJson(new FairSnap(INSTANTS.get(0), "ETH", Price.parse("2500"), List.of()));
+        assertSameJson(new FairSnap(INSTANTS.get(0), "ETH", null,
+                Arrays.asList(new FairSnap.Source(null, null, null), null)));
+    }
+
+    @Test
+    void alertEventMatchesReflectiveJson() throws Exception {
+        for (Instant t : INSTANTS) {
+            assertSameJson(new AlertEvent(t, "BTC", "101", new BigDecimal("0.0342"), Price.parse("60020.0"),
+                    Price.parse("62020.0"), new BigDecimal("-50.0"), new BigDecimal("0.03"), "OPEN"));
+        }
+        assertSameJson(new AlertEvent(null, null, null, null, null, null, null, null, null));
+    }
+
+    /** Рефлексивный путь пишет такие цены с экспонентой ({@code 1E-8}); модуль — без неё, число то же. */
+    @Test
+    void smallPricesDifferOnlyInNotation() throws Exception {
+        var tick = new Tick(INSTANTS.get(0), "PEPE", "GATE", "SPOT", Price.of(1, 8), Price.of(12, 10),
+                Price.of(5, 7), null, null, "7", "PEPE_USDT");
+        String module = ObjectMapperFactory.writer(Tick.class).writeValueAsString(tick);
+        assertTrue(module.contains("\"bid\":0.00000001"), module);
+        assertEquals(REFLECTIVE.readTree(REFLECTIVE.writeValueAsString(tick)), REFLECTIVE.readTree(module));
+    }
+
+    @Test
+    void formatInstantMatchesIsoInstantInRange() {
+        char[] buf = new char[32];
+        for (Instant t : INSTANTS) {
+            int len = EventJsonModule.formatInstant(buf, t.getEpochSecond(), t.getNano());
+            if (t.isAfter(Instant.parse("9999-12-31T23:59:59.999999999Z")) || t.isBefore(Instant.parse("0000-01-01T00:00:00Z"))) {
+                assertEquals(-1, len, t::toString);
+            } else {
+                assertEquals(t.toString(), new String(buf, 0, len));
+            }
+        }
+        // каждый 37-й день от 0000-01-01 до 9999-12-31: все месяцы, столетия и високосные годы
+        for (long day = -719_528; day <= 2_932_896; day += 37) {
+            Instant t = Instant.ofEpochSecond(day * 86_400L + 3_661, 7_000_000);
+            int len = EventJsonModule.formatInstant(buf, t.getEpochSecond(), t.getNano());
+            assertEquals(t.toString(), new String(buf, 0, len));
+        }
+    }
+
+    @Test
+    void eventsRoundTripThroughCodec() {
+        var codec = new JacksonJsonCodec();
+        for (Instant t : INSTANTS) {
+            var tick = new Tick(t, "BTC", "BINANCE", "PERP", Price.parse("60123.4"), Price.parse("60123.50"),
+                    Price.of(1, 8), new BigDecimal("48.70"), t, "101", "BTCUSDT");
+            assertEquals(tick, codec.fromBytes(codec.toBytes(tick), Tick.class));
+
+            var snap = new FairSnap(t, "BTC", Price.parse("60123.52"), Arrays.asList(
+                    new FairSnap.Source("101", Price.parse("60123.5"), new BigDecimal("0.62")),
+                    new FairSnap.Source("202", null, null)));
+            assertEquals(snap, codec.fromBytes(codec.toBytes(snap), FairSnap.class));
+
+            var alert = new AlertEvent(t, "BTC", "101", new BigDecimal("0.0342"), Price.parse("60020.0"),
+                    Price.parse("62020.0"), new BigDecimal("-50.0"), new BigDecimal("0.03"), "CLOSE");
+            assertEquals(alert, codec.fromBytes(codec.toBytes(alert), AlertEvent.class));
+        }
+        var empty = new Tick(null, null, null, null, null, null, null, null, null, null, null);
+        assertEquals(empty, codec.fromBytes(codec.toBytes(empty), Tick.class));
+        var noSources = new FairSnap(null, "ETH", null, null);
+        assertEquals(noSources, codec.fromBytes(codec.toBytes(noSources), FairSnap.class));
+    }
+
+    private static void assertSameJson(Object event) throws Exception {
+        String reflective = REFLECTIVE.writeValueAsString(event);
+        String module = ObjectMapperFactory.writer(event.getClass()).writeValueAsString(event);
+        assertEquals(reflective, module);
+    }
+}
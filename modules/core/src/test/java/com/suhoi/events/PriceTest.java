@@ -0,0 +1,90 @@
+package com.suhoi.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.suhoi.math.FixedPoint;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link Price}: разбор, mid, равенство по значению и граница с {@link BigDecimal}/JSON.
+ */
+class PriceTest {
+
+    @Test
+    void parseKeepsNotationScaleOrMarketScale() {
+        assertEquals(new Price(6012340, 2), Price.parse("60123.40"));
+        assertEquals(2, Price.parse("60123.40").scale());
+        assertEquals(new Price(60123400, 3), Price.parse("60123.4", 3));
+        byte[] b = "{\"p\":60123.455}".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(new Price(6012346, 2), Price.parse(b, 5, 9, 2));
+        assertNull(Price.parseOrNull(null));
+        assertNull(Price.parseOrNull(""));
+        assertThrows(NumberFormatException.class, () -> Price.parse("12345678901234567890.5"));
+    }
+
+    @Test
+    void scaleOutOfRangeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new Price(1, -1));
+        assertThrows(IllegalArgumentException.class, () -> new Price(1, FixedPoint.MAX_SCALE + 1));
+    }
+
+    @Test
+    void equalityAndHashFollowNumericValue() {
+        var a = Price.of(150, 2);
+        var b = Price.of(15, 1);
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertEquals(0, a.compareTo(b));
+        assertNotEquals(Price.of(151, 2), b);
+        assertTrue(Price.of(-1, 0).compareTo(Price.of(1, 18)) < 0);
+        assertEquals("1.50", a.toString(), "запись сохраняет масштаб");
+    }
+
+    @Test
+    void midIsExactAtNextScale() {
+        assertEquals("1.55", Price.mid(Price.parse("1.5"), Price.parse("1.6")).toString());
+        assertEquals("2", Price.mid(Price.parse("1"), Price.parse("3")).toString(), "лишний ноль отброшен");
+        assertEquals("60123.45", Price.mid(Price.parse("60123.4"), Price.parse("60123.50")).toString());
+        var top = Price.mid(Price.of(1, FixedPoint.MAX_SCALE), Price.of(2, FixedPoint.MAX_SCALE));
+        assertEquals(Price.of(2, FixedPoint.MAX_SCALE), top, "на масштабе 18 — half-up");
+    }
+
+    @Test
+    void midMatchesBigDecimal() {
+        var rnd = new Random(3);
+        for (int i = 0; i < 10_000; i++) {
+            var a = Price.of(rnd.nextInt(1_000_000_000), rnd.nextInt(10));
+            var b = Price.of(rnd.nextInt(1_000_000_000), rnd.nextInt(10));
+            BigDecimal expected = a.toBigDecimal().add(b.toBigDecimal()).divide(BigDecimal.TWO);
+            assertEquals(0, expected.compareTo(Price.mid(a, b).toBigDecimal()), a + " " + b);
+        }
+    }
+
+    @Test
+    void bigDecimalRoundTripAndRounding() {
+        var rnd = new Random(5);
+        for (int i = 0; i < 10_000; i++) {
+            var p = Price.of(rnd.nextLong(), rnd.nextInt(FixedPoint.MAX_SCALE + 1));
+            assertEquals(p, Price.of(p.toBigDecimal()));
+            assertEquals(p.scale(), Price.of(p.toBigDecimal()).scale());
+        }
+        assertEquals(Price.of(1, 0).withScale(2), Price.of(new BigDecimal("1E+0")));
+        assertEquals(new Price(100, 0), Price.of(new BigDecimal("1E+2")));
+        assertEquals(new Price(1, 18), Price.of(new BigDecimal("0.0000000000000000005")), "больше 18 знаков — half-up");
+        assertNull(Price.of((BigDecimal) null));
+        assertEquals(new Price(13, 1), Price.of(125, 2).withScale(1));
+    }
+
+    @Test
+    void jsonIsPlainNumber() throws Exception {
+        var mapper = new ObjectMapper();
+        assertEquals("60123.40", mapper.writeValueAsString(Price.parse("60123.40")));
+        assertEquals(Price.parse("60123.40"), mapper.readValue("60123.40", Price.class));
+        assertEquals(Price.parse("0.0001"), mapper.readValue("1e-4", Price.class));
+    }
+}
@@ -0,0 +1,82 @@
+package com.suhoi.market;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link SymbolDictionary}: поиск по идеальному хешу без учёта регистра и отказ на ключах,
+ * на которых построение таблицы не сошлось бы (не-ASCII, дубли).
+ */
+class SymbolDictionaryTest {
+
+    @Test
+    void findsEveryMarketByTextAndBytesIgnoringCase() {
+        var b = SymbolDictionary.builder();
+        for (int i = 0; i < 500; i++) b.market(i + 1, "A" + i, "BINANCE", MarketKind.SPOT, "A" + i + "USDT");
+        b.market(1_000, "BTC", "BYBIT", MarketKind.PERP, "BTCUSDT");
+        var dict = b.build();
+
+        var table = dict.table("BINANCE", MarketKind.SPOT);
+        for (int i = 0; i < 500; i++) {
+            String sym = "A" + i + "USDT";
+            int m = table.find(sym);
+            assertNotEquals(SymbolDictionary.NONE, m, sym);
+            assertEquals("A" + i, dict.assetOf(m));
+            assertEquals(m, table.find(sym.toLowerCase(Locale.ROOT)));
+            byte[] frame = ("{\"s\":\"" + sym + "\"}").getBytes(StandardCharsets.US_ASCII);
+            assertEquals(m, table.find(frame, 6, sym.length()), "прямо из байтов кадра");
+        }
+        assertEquals(SymbolDictionary.NONE, table.find("BTCUSDT"), "другая площадка");
+        assertEquals(SymbolDictionary.NONE, table.find("A1USDTX"));
+        assertEquals(SymbolDictionary.NONE, table.find("A1USDТ"), "кириллическая Т не совпадает с T");
+        assertEquals("BTC", dict.assetOf(dict.marketIndex("BYBIT", MarketKind.PERP, "btcusdt")));
+    }
+
+    @Test
+    void sameSymbolInDifferentCaseIsOneMarket() {
+        var dict = SymbolDictionary.builder()
+                .market(1, "BTC", "BINANCE", MarketKind.SPOT, "BTCUSDT")
+                .market(1, "BTC", "BINANCE", MarketKind.SPOT, "btcusdt")
+                .build();
+        assertEquals(1, dict.size());
+    }
+
+    @Test
+    @Timeout(5)
+    void nonAsciiSymbolIsRejectedUpFront() {
+        var b = SymbolDictionary.builder();
+        var e = assertThrows(IllegalArgumentException.class,
+                () -> b.market(1, "BTC", "BINANCE", MarketKind.SPOT, "BTCUSDТ"));
+        assertTrue(e.getMessage().contains("non-ASCII"), e.getMessage());
+        assertTrue(e.getMessage().contains("BINANCE"), e.getMessage());
+    }
+
+    @Test
+    @Timeout(5)
+    void tableRejectsDuplicateAndNonAsciiKeysInsteadOfSpinning() {
+        // раньше оба случая давали одинаковые байты ключа и бесконечный поиск смещения
+        var dup = assertThrows(IllegalArgumentException.class,
+                () -> new SymbolDictionary.Table(List.of(0, 1), new String[]{"ETHUSDT", "ethusdt"}));
+        assertTrue(dup.getMessage().contains("duplicate symbol"), dup.getMessage());
+
+        var nonAscii = assertThrows(IllegalArgumentException.class,
+                () -> new SymbolDictionary.Table(List.of(0, 1), new String[]{"BTC€", "BTC£"}));
+        assertTrue(nonAscii.getMessage().contains("non-ASCII"), nonAscii.getMessage());
+    }
+
+    @Test
+    void singleAndEmptyTablesWork() {
+        var one = new SymbolDictionary.Table(List.of(0), new String[]{"SOLUSDT"});
+        assertEquals(0, one.find("solusdt"));
+        assertEquals(SymbolDictionary.NONE, one.find("SOL"));
+        var none = new SymbolDictionary.Table(new ArrayList<>(), new String[0]);
+        assertEquals(SymbolDictionary.NONE, none.find("SOLUSDT"));
+    }
+}
@@ -0,0 +1,115 @@
+package com.suhoi.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link EwmaBank}: затухание по времени, тики не по порядку, снимок и восстановление.
+ */
+class EwmaBankTest {
+
+    private static final long TAU = 10_000;
+
+    private final EwmaBank bank = new EwmaBank(4, Duration.ofMillis(TAU));
+
+    @Test
+    void firstObservationIsTakenAsIs() {
+        assertTrue(Double.isNaN(bank.value(0)));
+        assertEquals(Long.MIN_VALUE, bank.lastUpdateMillis(0));
+        assertEquals(100.0, bank.update(0, 100.0, 1_000));
+        assertEquals(100.0, bank.value(0));
+        assertEquals(1_000, bank.lastUpdateMillis(0));
+    }
+
+    @Test
+    void decaysByEPerTau() {
+        bank.update(0, 0.0, 0);
+        double v = bank.update(0, 1.0, TAU);
+        assertEquals(1 - Math.exp(-1), v, 1e-12, "за tau вклад прошлого убывает в e раз");
+        assertEquals(0.0, bank.alpha(0));
+        assertEquals(0.0, bank.alpha(-5));
+        assertEquals(1.0, bank.alpha(Long.MAX_VALUE / 2), 1e-12);
+    }
+
+    @Test
+    void irregularTicksGiveSameResultAsOneStep() {
+        bank.update(0, 0.0, 0);
+        bank.update(1, 0.0, 0);
+        bank.update(0, 1.0, 9_000);
+        for (long t = 1_000; t <= 9_000; t += 1_000) bank.update(1, 1.0, t);
+        assertEquals(bank.value(0), bank.value(1), 1e-12, "к постоянному x — одинаково при любой частоте");
+    }
+
+    @Test
+    void outOfOrderTickDoesNotMoveValueOrClock() {
+        bank.update(0, 10.0, 5_000);
+        bank.update(0, 20.0, 6_000);
+        double v = bank.value(0);
+
+        assertEquals(v, bank.update(0, 1_000.0, 4_000), "тик из прошлого");
+        assertEquals(v, bank.update(0, 1_000.0, 6_000), "тик с тем же временем");
+        assertEquals(6_000, bank.lastUpdateMillis(0), "время рынка не откатывается");
+        assertEquals(4, bank.snapshot().counts()[0], "наблюдения считаются");
+
+        double a = bank.alpha(1_000);
+        assertEquals(v + a * (30.0 - v), bank.update(0, 30.0, 7_000), 1e-12, "dt — от последнего времени рынка");
+    }
+
+    @Test
+    void marketsAreIndependentAndResettable() {
+        bank.update(0, 1.0, 0);
+        bank.update(2, 5.0, 0);
+        bank.update(0, 3.0, 1_000);
+        assertEquals(5.0, bank.value(2));
+        assertTrue(Double.isNaN(bank.value(1)));
+
+        bank.reset(0);
+        assertTrue(Double.isNaN(bank.value(0)));
+        assertEquals(7.0, bank.update(0, 7.0, 2_000), "после reset — снова начальное значение");
+
+        bank.reset(3, 42.0, 100);
+        assertEquals(42.0, bank.value(3));
+        assertEquals(100, bank.lastUpdateMillis(3));
+    }
+
+    @Test
+    void snapshotRestoreContinuesIdentically() {
+        for (long t = 0; t < 50_000; t += 700) {
+            bank.update(0, Math.sin(t), t);
+            if (t % 1_400 == 0) bank.update(1, t, t);
+        }
+        var snap = bank.snapshot();
+        var copy = new EwmaBank(6, Duration.ofMillis(TAU));
+        copy.update(5, 1.0, 0);
+        copy.restore(snap);
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(bank.value(i), copy.value(i), 0.0);
+            assertEquals(bank.lastUpdateMillis(i), copy.lastUpdateMillis(i));
+        }
+        assertTrue(Double.isNaN(copy.value(5)), "рынки вне снимка сбрасываются");
+        assertArrayEquals(snap.counts(), Arrays.copyOf(copy.snapshot().counts(), 4));
+
+        assertEquals(bank.update(0, 2.0, 60_000), copy.update(0, 2.0, 60_000), 0.0);
+        assertEquals(bank.update(2, 2.0, 60_000), copy.update(2, 2.0, 60_000), 0.0, "пустой рынок — начальное значение");
+    }
+
+    @Test
+    void snapshotIntoReusesArraysAndRestoreChecksCapacity() {
+        bank.update(1, 3.0, 10);
+        var out = new EwmaBank.Snapshot(new double[4], new long[4], new long[4]);
+        bank.snapshotInto(out);
+        assertEquals(3.0, out.values()[1]);
+        assertEquals(10, out.timestamps()[1]);
+        assertEquals(Long.MIN_VALUE, out.timestamps()[0]);
+
+        var small = new EwmaBank(2, Duration.ofMillis(TAU));
+        assertThrows(IllegalArgumentException.class, () -> small.restore(out));
+        assertThrows(IllegalArgumentException.class, () -> new EwmaBank.Snapshot(new double[1], new long[2], new long[1]));
+        assertThrows(IllegalArgumentException.class, () -> new EwmaBank(1, Duration.ZERO));
+    }
+}
@@ -0,0 +1,139 @@
+package com.suhoi.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Разбор, округление и запись {@link FixedPoint}: сверка с {@link BigDecimal} и края long.
+ */
+class FixedPointTest {
+
+    @Test
+    void parsesPlainAndExponentNotation() {
+        assertEquals(6012345, FixedPoint.parse("60123.45", 2));
+        assertEquals(-6012345, FixedPoint.parse("-60123.45", 2));
+        assertEquals(6012345, FixedPoint.parse("+60123.45", 2));
+        assertEquals(1, FixedPoint.parse("1e-5", 5));
+        assertEquals(150, FixedPoint.parse("1.5E2", 0));
+        assertEquals(12, FixedPoint.parse(".12", 2));
+        assertEquals(100, FixedPoint.parse("1.", 2));
+        assertEquals(0, FixedPoint.parse("0", 18));
+    }
+
+    @Test
+    void extraDigitsRoundHalfUpAwayFromZero() {
+        assertEquals(13, FixedPoint.parse("1.25", 1));
+        assertEquals(12, FixedPoint.parse("1.249", 1));
+        assertEquals(-13, FixedPoint.parse("-1.25", 1));
+        assertEquals(0, FixedPoint.parse("1e-30", 18), "меньше половины последнего знака");
+    }
+
+    @Test
+    void charSequenceAndAsciiParsersAgree() {
+        var rnd = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            String s = BigDecimal.valueOf(rnd.nextLong() % 1_000_000_000_000L, rnd.nextInt(12)).toPlainString();
+            int scale = rnd.nextInt(7);
+            byte[] b = ("xx" + s + "yy").getBytes(StandardCharsets.US_ASCII);
+            long expected = new BigDecimal(s).setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            assertEquals(expected, FixedPoint.parse(s, scale), s);
+            assertEquals(expected, FixedPoint.parse(b, 2, s.length(), scale), s);
+            assertEquals(FixedPoint.scaleOf(s), FixedPoint.scaleOf(b, 2, s.length()), s);
+        }
+    }
+
+    @Test
+    void scaleOfFollowsNotationAndIsClamped() {
+        assertEquals(2, FixedPoint.scaleOf("60123.40"));
+        assertEquals(0, FixedPoint.scaleOf("60123"));
+        assertEquals(7, FixedPoint.scaleOf("1.5e-6"));
+        assertEquals(0, FixedPoint.scaleOf("1.5e6"));
+        assertEquals(FixedPoint.MAX_SCALE, FixedPoint.scaleOf("1e-40"));
+    }
+
+    @Test
+    void malformedInputIsNumberFormatException() {
+        for (String s : new String[]{"", "-", ".", "abc", "1.2.3", "1e", "1e+", "1x", "1e5x", "--1"}) {
+            assertThrows(NumberFormatException.class, () -> FixedPoint.parse(s, 2), s);
+        }
+        assertThrows(NumberFormatException.class, () -> FixedPoint.parse(new byte[0], 0, 0, 2));
+    }
+
+    @Test
+    void outOfRangeIsNumberFormatExceptionNotArithmetic() {
+        assertThrows(NumberFormatException.class, () -> FixedPoint.parse("12345678901234567890", 0), "20 цифр целой части");
+        assertThrows(NumberFormatException.class, () -> FixedPoint.parse("1234567890.123", 10), "переполнение на масштабе");
+        assertThrows(NumberFormatException.class, () -> FixedPoint.parse("1e30", 0));
+        byte[] b = "99999999999999999999".getBytes(StandardCharsets.US_ASCII);
+        assertThrows(NumberFormatException.class, () -> FixedPoint.parse(b, 0, b.length, 0));
+        assertEquals(Long.MAX_VALUE, FixedPoint.parse("9223372036854775807", 0), "граница long ещё разбирается");
+    }
+
+    @Test
+    void fractionalDigitsBeyondLongAreDroppedBeforeRounding() {
+        assertEquals(123456780, FixedPoint.parse("1.23456780000000000000000000", 8));
+        assertEquals(123, FixedPoint.parse("0.1234999999999999999999999", 3));
+        assertEquals(124, FixedPoint.parse("0.1235000000000000000000001", 3));
+    }
+
+    @Test
+    void rescaleRoundsHalfUpAndDetectsOverflow() {
+        assertEquals(12_300, FixedPoint.rescale(123, 1, 3));
+        assertEquals(13, FixedPoint.rescale(125, 2, 1));
+        assertEquals(-13, FixedPoint.rescale(-125, 2, 1));
+        assertEquals(0, FixedPoint.rescale(Long.MAX_VALUE, 40, 0));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.rescale(Long.MAX_VALUE / 2, 0, 1));
+    }
+
+    @Test
+    void rescaleByNineteenDigitsRoundsHalfOfTenPow19() {
+        // 10^19 не помещается в long, но половина последнего знака (5·10^18) — помещается
+        long half = 5_000_000_000_000_000_000L;
+        assertEquals(1, FixedPoint.rescale(half, 19, 0));
+        assertEquals(-1, FixedPoint.rescale(-half, 19, 0));
+        assertEquals(0, FixedPoint.rescale(half - 1, 19, 0));
+        assertEquals(0, FixedPoint.rescale(-(half - 1), 19, 0));
+        assertEquals(1, FixedPoint.rescale(Long.MAX_VALUE, 21, 2));
+        assertEquals(-1, FixedPoint.rescale(Long.MIN_VALUE, 19, 0));
+        assertEquals(0, FixedPoint.rescale(Long.MAX_VALUE, 20, 0));
+        for (long m : new long[]{half, half - 1, Long.MAX_VALUE, -half, Long.MIN_VALUE}) {
+            long expected = BigDecimal.valueOf(m, 19).setScale(0, RoundingMode.HALF_UP).longValueExact();
+            assertEquals(expected, FixedPoint.rescale(m, 19, 0), "как BigDecimal HALF_UP: " + m);
+        }
+    }
+
+    @Test
+    void compareAcrossScalesIncludingOverflow() {
+        assertEquals(0, FixedPoint.compare(150, 2, 15, 1));
+        assertTrue(FixedPoint.compare(-1, 0, 1, 18) < 0);
+        assertTrue(FixedPoint.compare(Long.MAX_VALUE, 0, 1, 18) > 0, "сверка через BigDecimal при переполнении");
+    }
+
+    @Test
+    void formatRoundTripsThroughParse() {
+        var rnd = new Random(11);
+        char[] buf = new char[FixedPoint.MAX_CHARS];
+        for (int i = 0; i < 10_000; i++) {
+            long m = rnd.nextLong() >> rnd.nextInt(64);
+            int scale = rnd.nextInt(FixedPoint.MAX_SCALE + 1);
+            String s = FixedPoint.format(m, scale);
+            assertEquals(BigDecimal.valueOf(m, scale).toPlainString(), s);
+            assertEquals(s, new String(buf, 0, FixedPoint.formatTo(buf, 0, m, scale)));
+            if (m != Long.MIN_VALUE) assertEquals(m, FixedPoint.parse(s, scale), s);
+        }
+        assertEquals(BigDecimal.valueOf(Long.MIN_VALUE, 4).toPlainString(), FixedPoint.format(Long.MIN_VALUE, 4));
+        assertEquals("-0.05", FixedPoint.format(-5, 2));
+    }
+
+    @Test
+    void midAtNextScaleIsExact() {
+        assertEquals(155, FixedPoint.midAtNextScale(15, 16)); // (1.5 + 1.6) / 2 = 1.55
+        assertThrows(ArithmeticException.class, () -> FixedPoint.midAtNextScale(Long.MAX_VALUE, 1));
+    }
+}
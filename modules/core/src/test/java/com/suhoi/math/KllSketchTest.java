@@ -0,0 +1,144 @@
+package com.suhoi.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link KllSketch}: ошибка ранга в пределах оценки для k, точность на малых n, слияние.
+ */
+class KllSketchTest {
+
+    private static final int K = 200;
+    /** Ошибка ранга ~1.65/k; тест держит запас в 2.5 раза на фиксированных seed. */
+    private static final double EPS = 2.5 * 1.65 / K;
+
+    @Test
+    void smallInputIsExact() {
+        var s = new KllSketch(K);
+        for (int i = 100; i >= 1; i--) s.add(i);
+        assertEquals(100, s.count());
+        assertEquals(1.0, s.min());
+        assertEquals(100.0, s.max());
+        assertEquals(50.0, s.quantile(0.5));
+        assertEquals(90.0, s.quantile(0.9));
+        assertEquals(1.0, s.quantile(0.0));
+        assertEquals(100.0, s.quantile(1.0));
+        assertEquals(0.25, s.rank(25.0));
+        assertEquals(0.0, s.rank(0.5));
+    }
+
+    @Test
+    void rankErrorIsWithinBoundForLargeStreams() {
+        for (long seed : new long[]{1, 2, 3}) {
+            var rnd = new Random(seed);
+            int n = 200_000;
+            double[] data = new double[n];
+            var s = new KllSketch(K, seed);
+            for (int i = 0; i < n; i++) {
+                data[i] = seed == 2 ? rnd.nextGaussian() : rnd.nextDouble() * 1_000;
+                s.add(data[i]);
+            }
+            double[] sorted = data.clone();
+            Arrays.sort(sorted);
+            assertRankError(s, sorted, "seed " + seed);
+        }
+    }
+
+    @Test
+    void sortedAndDuplicateHeavyStreamsStayWithinBound() {
+        int n = 100_000;
+        var ascending = new KllSketch(K);
+        var ties = new KllSketch(K);
+        double[] asc = new double[n];
+        double[] tie = new double[n];
+        var rnd = new Random(9);
+        for (int i = 0; i < n; i++) {
+            asc[i] = i;
+            tie[i] = rnd.nextInt(10);
+            ascending.add(asc[i]);
+            ties.add(tie[i]);
+        }
+        assertRankError(ascending, asc, "по возрастанию");
+        Arrays.sort(tie);
+        assertRankError(ties, tie, "10 различных значений");
+    }
+
+    @Test
+    void mergedSketchKeepsBound() {
+        var rnd = new Random(4);
+        var a = new KllSketch(K, 11);
+        var b = new KllSketch(K, 12);
+        int n = 100_000;
+        double[] data = new double[2 * n];
+        for (int i = 0; i < n; i++) {
+            data[i] = rnd.nextDouble();
+            data[n + i] = 0.5 + rnd.nextDouble(); // второй поток сдвинут
+            a.add(data[i]);
+            b.add(data[n + i]);
+        }
+        a.merge(b);
+        assertEquals(2L * n, a.count());
+        assertEquals(n, b.count(), "источник слияния не меняется");
+        Arrays.sort(data);
+        assertEquals(data[0], a.min());
+        assertEquals(data[data.length - 1], a.max());
+        assertRankError(a, data, "слияние");
+    }
+
+    @Test
+    void emptyNanAndClear() {
+        var s = new KllSketch();
+        assertTrue(Double.isNaN(s.quantile(0.5)));
+        assertTrue(Double.isNaN(s.rank(1)));
+        s.add(Double.NaN);
+        assertTrue(s.isEmpty());
+        s.add(3);
+        s.merge(new KllSketch());
+        assertEquals(3.0, s.quantile(0.5));
+        s.clear();
+        assertTrue(s.isEmpty());
+        assertTrue(Double.isNaN(s.min()));
+        assertThrows(IllegalArgumentException.class, () -> s.quantile(-0.1));
+        assertThrows(IllegalArgumentException.class, () -> new KllSketch(4));
+    }
+
+    /** |истинный ранг оценки квантиля − q| и |оценка ранга − истинный ранг| не больше {@link #EPS}. */
+    static void assertRankError(KllSketch s, double[] sorted, String what) {
+        int n = sorted.length;
+        for (int p = 1; p < 100; p++) {
+            double q = p / 100.0;
+            double est = s.quantile(q);
+            double lo = lowerRank(sorted, est), hi = upperRank(sorted, est);
+            // для повторяющихся значений подходит любой ранг из [lo, hi]
+            double err = q < lo ? lo - q : q > hi ? q - hi : 0;
+            assertTrue(err <= EPS, what + ": q=" + q + " rank error " + err);
+
+            double x = sorted[(int) (q * (n - 1))];
+            assertEquals(upperRank(sorted, x), s.rank(x), EPS, what + ": rank(" + x + ")");
+        }
+    }
+
+    /** Доля значений {@code < x}. */
+    private static double lowerRank(double[] sorted, double x) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < x) lo = mid + 1; else hi = mid;
+        }
+        return (double) lo / sorted.length;
+    }
+
+    /** Доля значений {@code ≤ x}. */
+    private static double upperRank(double[] sorted, double x) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] <= x) lo = mid + 1; else hi = mid;
+        }
+        return (double) lo / sorted.length;
+    }
+}
@@ -0,0 +1,77 @@
+package com.suhoi.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link P2Quantile}: точный ответ на разогреве, точность на длинных потоках, min/max.
+ */
+class P2QuantileTest {
+
+    @Test
+    void firstObservationsAreExact() {
+        var p = new P2Quantile(0.5);
+        assertTrue(Double.isNaN(p.value()));
+        p.add(30);
+        assertEquals(30.0, p.value());
+        p.add(10);
+        p.add(20);
+        assertEquals(20.0, p.value());
+        assertEquals(10.0, p.min());
+        assertEquals(30.0, p.max());
+        p.add(50);
+        p.add(40);
+        assertEquals(30.0, p.value(), "пять наблюдений — медиана точная");
+        assertEquals(5, p.count());
+    }
+
+    @Test
+    void uniformStreamConvergesToQuantile() {
+        for (double q : new double[]{0.1, 0.5, 0.9, 0.99}) {
+            var rnd = new Random(5);
+            var p = new P2Quantile(q);
+            for (int i = 0; i < 100_000; i++) p.add(rnd.nextDouble());
+            assertEquals(q, p.value(), 0.01, "равномерное [0,1): квантиль ≈ q, q=" + q);
+        }
+    }
+
+    @Test
+    void gaussianAndSortedStreams() {
+        var rnd = new Random(6);
+        var median = new P2Quantile(0.5);
+        var p90 = new P2Quantile(0.9);
+        for (int i = 0; i < 100_000; i++) {
+            double x = rnd.nextGaussian();
+            median.add(x);
+            p90.add(x);
+        }
+        assertEquals(0.0, median.value(), 0.02);
+        assertEquals(1.2816, p90.value(), 0.03, "z(0.9)");
+
+        var desc = new P2Quantile(0.5);
+        for (int i = 10_000; i >= 1; i--) desc.add(i);
+        assertEquals(5_000, desc.value(), 100, "по убыванию");
+        assertEquals(1.0, desc.min());
+        assertEquals(10_000.0, desc.max());
+    }
+
+    @Test
+    void nanIgnoredClearAndInvalidP() {
+        var p = new P2Quantile(0.5);
+        for (int i = 0; i < 10; i++) p.add(i);
+        p.add(Double.NaN);
+        assertEquals(10, p.count());
+        p.clear();
+        assertEquals(0, p.count());
+        assertTrue(Double.isNaN(p.value()));
+        assertTrue(Double.isNaN(p.min()));
+        p.add(7);
+        assertEquals(7.0, p.value(), "после clear — снова с нуля");
+        assertThrows(IllegalArgumentException.class, () -> new P2Quantile(0));
+        assertThrows(IllegalArgumentException.class, () -> new P2Quantile(1));
+        assertThrows(IllegalArgumentException.class, () -> new P2Quantile(Double.NaN));
+    }
+}
@@ -0,0 +1,173 @@
+package com.suhoi.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link RobustAggregator} против эталона на сортировке: случайные входы с дубликатами,
+ * целые веса (накопленные суммы точны — сравнение на границах квантилей без допуска).
+ */
+class RobustAggregatorTest {
+
+    private static final double[] QS = {0.0, 0.1, 0.25, 0.5, 0.75, 0.9, 1.0};
+
+    private final RobustAggregator agg = new RobustAggregator();
+
+    @Test
+    void quantilesMatchSortedReference() {
+        var rnd = new Random(1);
+        for (int iter = 0; iter < 2_000; iter++) {
+            Case c = randomCase(rnd);
+            for (double q : QS) {
+                assertEquals(refQuantile(c.values, c.weights, c.n, q),
+                        agg.weightedQuantile(c.values, c.weights, c.n, q), c + " q=" + q);
+            }
+            assertEquals(refQuantile(c.values, c.weights, c.n, 0.5), agg.weightedMedian(c.values, c.weights, c.n));
+        }
+    }
+
+    @Test
+    void trimmedAndWinsorizedMeansMatchSortedReference() {
+        var rnd = new Random(2);
+        for (int iter = 0; iter < 2_000; iter++) {
+            Case c = randomCase(rnd);
+            for (double t : new double[]{0.0, 0.1, 0.25, 0.4}) {
+                assertClose(refTrimmedMean(c, t), agg.trimmedMean(c.values, c.weights, c.n, t), c + " trim=" + t);
+                assertClose(refWinsorizedMean(c, t), agg.winsorizedMean(c.values, c.weights, c.n, t), c + " q=" + t);
+            }
+        }
+    }
+
+    @Test
+    void madRejectMatchesSortedReference() {
+        var rnd = new Random(3);
+        double[] outV = new double[64];
+        double[] outW = new double[64];
+        for (int iter = 0; iter < 2_000; iter++) {
+            Case c = randomCase(rnd);
+            double k = 1 + rnd.nextInt(3);
+            double med = refQuantile(c.values, c.weights, c.n, 0.5);
+            double[] dev = new double[c.n];
+            for (int i = 0; i < c.n; i++) dev[i] = Math.abs(c.values[i] - med);
+            double limit = k * RobustAggregator.MAD_TO_SIGMA * refQuantile(dev, c.weights, c.n, 0.5);
+
+            int kept = 0;
+            double sum = 0, sw = 0;
+            for (int i = 0; i < c.n; i++) {
+                if (Math.abs(c.values[i] - med) > limit) continue;
+                kept++;
+                sum += w(c.weights, i) * c.values[i];
+                sw += w(c.weights, i);
+            }
+            assertEquals(kept, agg.madReject(c.values, c.weights, c.n, k, outV, outW), c.toString());
+            assertClose(sum / sw, agg.madMean(c.values, c.weights, c.n, k), c.toString());
+        }
+    }
+
+    @Test
+    void inputIsNotModifiedAndBuffersGrow() {
+        double[] values = new double[100];
+        for (int i = 0; i < values.length; i++) values[i] = values.length - i;
+        double[] copy = values.clone();
+        assertEquals(50.0, agg.weightedMedian(values, null, values.length));
+        assertArrayEquals(copy, values);
+    }
+
+    @Test
+    void degenerateInputs() {
+        assertTrue(Double.isNaN(agg.weightedMedian(new double[0], null, 0)));
+        assertTrue(Double.isNaN(agg.weightedMedian(new double[]{1, 2}, new double[]{0, 0}, 2)), "нулевой вес");
+        assertEquals(7.0, agg.trimmedMean(new double[]{7, 7, 7}, null, 3, 0.25));
+        assertEquals(0, agg.madReject(new double[0], null, 0, 3, new double[0], null));
+        assertThrows(IllegalArgumentException.class, () -> agg.weightedMedian(new double[]{Double.NaN}, null, 1));
+        assertThrows(IllegalArgumentException.class, () -> agg.weightedMedian(new double[]{1}, new double[]{-1}, 1));
+        assertThrows(IllegalArgumentException.class, () -> agg.weightedQuantile(new double[]{1}, null, 1, 1.5));
+        assertThrows(IllegalArgumentException.class, () -> agg.weightedMedian(new double[]{1}, null, 2));
+    }
+
+    // ---- эталон ----
+
+    private record Case(double[] values, double[] weights, int n) {
+        @Override
+        public String toString() {
+            return "values=" + Arrays.toString(Arrays.copyOf(values, n))
+                    + " weights=" + (weights == null ? "null" : Arrays.toString(Arrays.copyOf(weights, n)));
+        }
+    }
+
+    /** Значения из узкого диапазона (много равных), веса 1..4 или null; массивы длиннее n. */
+    private static Case randomCase(Random rnd) {
+        int n = 1 + rnd.nextInt(40);
+        double[] values = new double[n + rnd.nextInt(3)];
+        double[] weights = rnd.nextInt(4) == 0 ? null : new double[values.length];
+        int range = 1 + rnd.nextInt(12);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = rnd.nextInt(range) * 0.5 - 2;
+            if (weights != null) weights[i] = 1 + rnd.nextInt(4);
+        }
+        return new Case(values, weights, n);
+    }
+
+    /** Наименьшее значение, накопленный вес до которого (включительно) не меньше {@code q·W}. */
+    private static double refQuantile(double[] values, double[] weights, int n, double q) {
+        Integer[] idx = sortedIndex(values, n);
+        double total = 0;
+        for (int i = 0; i < n; i++) total += w(weights, i);
+        double target = q * total, cum = 0;
+        for (int i : idx) {
+            cum += w(weights, i);
+            if (cum >= target) return values[i];
+        }
+        return values[idx[n - 1]];
+    }
+
+    /** Каждое значение входит долей веса, попавшей в [trim·W, (1-trim)·W] по накопленному весу. */
+    private static double refTrimmedMean(Case c, double trim) {
+        Integer[] idx = sortedIndex(c.values, c.n);
+        double total = 0;
+        for (int i = 0; i < c.n; i++) total += w(c.weights, i);
+        double lo = trim * total, hi = (1 - trim) * total;
+        double cum = 0, sum = 0, sw = 0;
+        for (int i : idx) {
+            double from = cum;
+            cum += w(c.weights, i);
+            double part = Math.min(cum, hi) - Math.max(from, lo);
+            if (part > 0) {
+                sum += part * c.values[i];
+                sw += part;
+            }
+        }
+        return sw > 0 ? sum / sw : refQuantile(c.values, c.weights, c.n, trim);
+    }
+
+    private static double refWinsorizedMean(Case c, double q) {
+        double lo = refQuantile(c.values, c.weights, c.n, q);
+        double hi = refQuantile(c.values, c.weights, c.n, 1 - q);
+        double sum = 0, total = 0;
+        for (int i = 0; i < c.n; i++) {
+            sum += w(c.weights, i) * Math.min(Math.max(c.values[i], lo), hi);
+            total += w(c.weights, i);
+        }
+        return sum / total;
+    }
+
+    private static Integer[] sortedIndex(double[] values, int n) {
+        Integer[] idx = new Integer[n];
+        for (int i = 0; i < n; i++) idx[i] = i;
+        Arrays.sort(idx, Comparator.comparingDouble(i -> values[i]));
+        return idx;
+    }
+
+    private static double w(double[] weights, int i) {
+        return weights == null ? 1.0 : weights[i];
+    }
+
+    private static void assertClose(double expected, double actual, String message) {
+        assertEquals(expected, actual, 1e-9 * Math.max(1, Math.abs(expected)), message);
+    }
+}
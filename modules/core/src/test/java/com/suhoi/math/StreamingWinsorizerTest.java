@@ -0,0 +1,80 @@
+package com.suhoi.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link StreamingWinsorizer}: разогрев, ограничение выбросов, когда пересчитываются границы,
+ * независимость ключей и выход окна.
+ */
+class StreamingWinsorizerTest {
+
+    /** Окно 10 с, корзина 1 с. */
+    private final StreamingWinsorizer w = new StreamingWinsorizer(3, 0.05, 0.95, Duration.ofSeconds(10), 10);
+
+    /** 0..19 в первую корзину ключа: ровно порог разогрева. */
+    private void warmUp(int key) {
+        for (int i = 0; i < StreamingWinsorizer.MIN_SAMPLES; i++) w.add(key, i, 0);
+    }
+
+    @Test
+    void noBoundsDuringWarmUp() {
+        for (int i = 0; i < StreamingWinsorizer.MIN_SAMPLES - 1; i++) {
+            assertEquals(1_000.0 * i, w.add(0, 1_000.0 * i, 0), "до разогрева значение как есть");
+        }
+        assertTrue(Double.isNaN(w.lower(0)));
+        assertEquals(-5.0, w.clamp(0, -5.0));
+    }
+
+    @Test
+    void boundsAreWindowQuantilesAndClampOutliers() {
+        warmUp(0);
+        var ref = new KllSketch(64);
+        for (int i = 0; i < StreamingWinsorizer.MIN_SAMPLES; i++) ref.add(i);
+        assertEquals(ref.quantile(0.05), w.lower(0));
+        assertEquals(ref.quantile(0.95), w.upper(0));
+        assertEquals(w.upper(0), w.add(0, 1_000.0, 10), "выброс ограничен верхней границей");
+        assertEquals(w.lower(0), w.clamp(0, -1_000.0));
+        assertEquals(10.0, w.clamp(0, 10.0));
+    }
+
+    @Test
+    void boundsRefreshAfterRefreshEveryObservations() {
+        warmUp(0);
+        double upper = w.upper(0);
+        for (int i = 1; i < StreamingWinsorizer.REFRESH_EVERY; i++) w.add(0, 1_000.0, 0);
+        assertEquals(upper, w.upper(0), "внутри корзины границы не пересчитываются до порога");
+        w.add(0, 1_000.0, 0);
+        assertEquals(1_000.0, w.upper(0), "на " + StreamingWinsorizer.REFRESH_EVERY + "-м наблюдении — пересчёт");
+    }
+
+    @Test
+    void boundsRefreshOnBucketRollAndRewarmAfterWindow() {
+        warmUp(0);
+        for (int i = 0; i < 40; i++) w.add(0, 1_000.0, 500); // та же корзина — без пересчёта
+        assertTrue(w.upper(0) < StreamingWinsorizer.MIN_SAMPLES, "границы — ещё по разогреву");
+        w.add(0, 1_000.0, 1_000);                            // новая корзина
+        assertEquals(1_000.0, w.upper(0));
+
+        assertEquals(5.0, w.add(0, 5.0, 30_000), "окно опустело — снова разогрев");
+        assertTrue(Double.isNaN(w.upper(0)));
+    }
+
+    @Test
+    void keysAreIndependentAndResettable() {
+        warmUp(0);
+        assertTrue(Double.isNaN(w.upper(1)));
+        assertEquals(1_000.0, w.add(1, 1_000.0, 0));
+
+        w.reset(0);
+        assertTrue(Double.isNaN(w.lower(0)));
+        assertEquals(1_000.0, w.add(0, 1_000.0, 100), "после reset — без границ");
+        assertThrows(IllegalArgumentException.class,
+                () -> new StreamingWinsorizer(1, 0.9, 0.1, Duration.ofSeconds(1), 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> new StreamingWinsorizer(1, 0.1, 0.9, Duration.ofMillis(5), 10));
+    }
+}
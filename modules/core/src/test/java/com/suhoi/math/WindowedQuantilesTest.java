@@ -0,0 +1,101 @@
+package com.suhoi.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link WindowedQuantiles}: выход корзин из окна, переиспользование слотов, опоздавшие
+ * наблюдения и точность по окну.
+ */
+class WindowedQuantilesTest {
+
+    /** Окно 10 с, корзина 1 с. */
+    private final WindowedQuantiles wq = new WindowedQuantiles(Duration.ofSeconds(10), 10);
+
+    @Test
+    void geometry() {
+        assertEquals(Duration.ofSeconds(10), wq.window());
+        assertEquals(Duration.ofSeconds(1), wq.bucket());
+        assertThrows(IllegalArgumentException.class, () -> new WindowedQuantiles(Duration.ofMillis(5), 10));
+        assertThrows(IllegalArgumentException.class, () -> new WindowedQuantiles(Duration.ofSeconds(1), 0));
+    }
+
+    @Test
+    void bucketsExpireAsWindowSlides() {
+        for (int i = 0; i < 100; i++) wq.add(1.0, i * 10);       // корзина 0
+        for (int i = 0; i < 100; i++) wq.add(2.0, 5_000 + i);    // корзина 5
+        assertEquals(200, wq.count(5_500));
+        assertEquals(1.0, wq.quantile(0.25, 5_500));
+        assertEquals(2.0, wq.quantile(0.75, 5_500));
+
+        assertEquals(200, wq.count(9_999), "корзина 0 ещё в окне");
+        assertEquals(100, wq.count(10_000), "корзина 0 вышла из окна");
+        assertEquals(2.0, wq.quantile(0.25, 10_000));
+        assertEquals(0, wq.count(15_000), "все корзины вышли");
+        assertTrue(Double.isNaN(wq.quantile(0.5, 15_000)));
+    }
+
+    @Test
+    void reusedSlotDropsOldBucket() {
+        wq.add(1.0, 500);     // корзина 0, слот 0
+        wq.add(3.0, 10_500);  // корзина 10, тот же слот
+        assertEquals(1, wq.count(10_600));
+        assertEquals(3.0, wq.quantile(0.5, 10_600));
+        assertEquals(0, wq.count(500), "запрос из прошлого не видит старую корзину: слот уже занят");
+    }
+
+    @Test
+    void observationsOlderThanWindowAreDropped() {
+        wq.add(5.0, 20_000);
+        wq.add(1.0, 10_999); // корзина 10 ≤ 20 - 10
+        wq.add(2.0, 11_000); // корзина 11 — в окне
+        assertEquals(2, wq.count(20_000));
+        assertEquals(2.0, wq.quantile(0.0, 20_000));
+        wq.add(Double.NaN, 20_000);
+        assertEquals(2, wq.count(20_000));
+    }
+
+    @Test
+    void cachedMergeIsRefreshedByNewData() {
+        wq.add(1.0, 0);
+        assertEquals(1.0, wq.quantile(1.0, 100));
+        wq.add(9.0, 50);
+        assertEquals(9.0, wq.quantile(1.0, 100), "добавление в ту же корзину сбрасывает кэш");
+        double[] out = new double[2];
+        wq.quantiles(new double[]{0.0, 1.0}, 100, out);
+        assertArrayEquals(new double[]{1.0, 9.0}, out);
+
+        wq.clear();
+        assertEquals(0, wq.count(100));
+    }
+
+    @Test
+    void quantilesOverWindowStayWithinKllBound() {
+        var rnd = new Random(8);
+        var w = new WindowedQuantiles(Duration.ofSeconds(60), 12, 200);
+        int perMs = 5;
+        long end = 120_000;
+        double[] inWindow = new double[(int) (60_000 * perMs)];
+        int k = 0;
+        for (long t = 0; t < end; t++) {
+            for (int j = 0; j < perMs; j++) {
+                double x = t < 60_000 ? 1_000 + rnd.nextDouble() : rnd.nextDouble(); // первая минута — вне окна
+                w.add(x, t);
+                if (t >= 60_000) inWindow[k++] = x;
+            }
+        }
+        assertEquals(k, w.count(end - 1));
+        double[] sorted = Arrays.copyOf(inWindow, k);
+        Arrays.sort(sorted);
+        for (double q : new double[]{0.01, 0.25, 0.5, 0.75, 0.99}) {
+            double est = w.quantile(q, end - 1);
+            assertTrue(est < 1, "старые корзины не влияют на квантиль: " + est);
+            assertEquals(q, est, 2.5 * 1.65 / 200 * 2, "равномерное [0,1): квантиль ≈ q");
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.suhoi.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link Clocks}: привязка nanoTime к настенным часам и пересинхронизация, грубые часы,
+ * {@link TimeSourceClock} и подмена времени через {@link Clock}.
+ */
+class ClocksTest {
+
+    private static final Instant WALL = Instant.parse("2025-10-16T18:00:00Z");
+    private static final long WALL_NANOS = WALL.toEpochMilli() * 1_000_000L;
+    private static final long RESYNC_NANOS = TimeUnit.MILLISECONDS.toNanos(Clocks.RESYNC_MILLIS);
+
+    private final VirtualTimeSource wall = new VirtualTimeSource(WALL);
+    private final AtomicLong mono = new AtomicLong(5_000_000_000L);
+    private final Clocks.SystemTimeSource system = new Clocks.SystemTimeSource(wall.asClock(), mono::get);
+
+    @AfterEach
+    void tearDown() {
+        Clocks.reset();
+    }
+
+    @Test
+    void epochNanosFollowsMonotonicBetweenResyncs() {
+        assertEquals(WALL_NANOS, system.epochNanos());
+        mono.addAndGet(123_456_789L);
+        assertEquals(WALL_NANOS + 123_456_789L, system.epochNanos());
+        assertEquals(5_123_456_789L, system.monotonicNanos());
+
+        wall.advance(Duration.ofSeconds(5)); // перевод часов (NTP) до пересинхронизации не виден
+        assertEquals(WALL_NANOS + 123_456_789L, system.epochNanos());
+        assertEquals(WALL_NANOS / 1_000L + 123_456L, system.epochMicros());
+    }
+
+    @Test
+    void resyncPicksUpWallClockAfterInterval() {
+        system.epochNanos();
+        wall.advance(Duration.ofSeconds(5));
+        mono.addAndGet(RESYNC_NANOS - 1);
+        assertEquals(WALL_NANOS + RESYNC_NANOS - 1, system.epochNanos(), "якорь ещё старый");
+
+        mono.addAndGet(1);
+        assertEquals(WALL_NANOS + 5_000_000_000L, system.epochNanos(), "новый якорь — от настенных часов");
+        mono.addAndGet(1_000);
+        assertEquals(WALL_NANOS + 5_000_001_000L, system.epochNanos());
+    }
+
+    @Test
+    void wallClockStepBackIsVisibleAfterResync() {
+        mono.addAndGet(RESYNC_NANOS - 1);
+        long last = system.epochNanos();
+        assertEquals(WALL_NANOS + RESYNC_NANOS - 1, last);
+
+        wall.set(WALL.minusSeconds(2)); // NTP перевёл часы назад
+        mono.addAndGet(1);
+        long resynced = system.epochNanos();
+        assertEquals(WALL_NANOS - 2_000_000_000L, resynced);
+        assertTrue(resynced < last, "эпохальное время на пересинхронизации не монотонно — это в контракте");
+    }
+
+    @Test
+    void coarseMillisIsUpdatedByTicker() throws InterruptedException {
+        assertEquals(WALL.toEpochMilli(), system.coarseEpochMillis());
+        wall.advance(Duration.ofMillis(40));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (system.coarseEpochMillis() != WALL.toEpochMilli() + 40 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(WALL.toEpochMilli() + 40, system.coarseEpochMillis());
+    }
+
+    @Test
+    void systemSourceIsCloseToWallClock() {
+        long diff = Math.abs(Clocks.system().epochMillis() - System.currentTimeMillis());
+        assertTrue(diff < 1_000, "расхождение " + diff + " мс");
+        long coarse = Math.abs(Clocks.system().coarseEpochMillis() - System.currentTimeMillis());
+        assertTrue(coarse < 1_000, "расхождение грубых часов " + coarse + " мс");
+    }
+
+    @Test
+    void timeSourceClockConvertsNanos() {
+        Clock c = new VirtualTimeSource(-1_500_000_000L).asClock();
+        assertEquals(Instant.ofEpochSecond(-2, 500_000_000), c.instant());
+        assertEquals(-1_500L, c.millis());
+        assertEquals(ZoneOffset.UTC, c.getZone());
+        assertSame(c, c.withZone(ZoneOffset.UTC));
+
+        ZoneId msk = ZoneId.of("Europe/Moscow");
+        Clock zoned = c.withZone(msk);
+        assertEquals(msk, zoned.getZone());
+        assertEquals(c.instant(), zoned.instant());
+    }
+
+    @Test
+    void timeSourceClockSeesSourceChanges() {
+        var vt = new VirtualTimeSource(WALL);
+        Clock c = vt.asClock();
+        vt.advance(1_234L);
+        assertEquals(WALL.plusNanos(1_234L), c.instant());
+    }
+
+    @Test
+    void fixedClockFreezesEpochButNotMonotonic() throws InterruptedException {
+        Clock fixed = Clock.fixed(WALL, ZoneOffset.UTC);
+        Clocks.set(fixed);
+        assertSame(fixed, Clocks.get());
+        assertSame(fixed, Clocks.source().asClock());
+        assertEquals(WALL, Clocks.now());
+        assertEquals(WALL.toEpochMilli(), Clocks.epochMillis());
+        assertEquals(WALL_NANOS, Clocks.epochNanos());
+
+        long m0 = Clocks.monotonicNanos();
+        Thread.sleep(5);
+        long elapsed = Clocks.monotonicNanos() - m0;
+        assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(5), "таймеры идут и при фиксированных часах: " + elapsed);
+        assertEquals(WALL_NANOS, Clocks.epochNanos());
+
+        Clocks.set(Clock.systemUTC());
+        assertSame(Clocks.system(), Clocks.source());
+    }
+}
@@ -0,0 +1,88 @@
+package com.suhoi.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link VirtualTimeSource}: стоит на месте, двигается только set/advance/advanceTo; через
+ * {@link Clocks#set(TimeSource)} подменяет и эпохальное, и монотонное время.
+ */
+class VirtualTimeSourceTest {
+
+    private static final Instant START = Instant.parse("2025-10-16T18:00:00Z");
+
+    private final VirtualTimeSource vt = new VirtualTimeSource(START);
+
+    @AfterEach
+    void tearDown() {
+        Clocks.reset();
+    }
+
+    @Test
+    void standsStillUntilMoved() {
+        long t0 = vt.epochNanos();
+        assertEquals(START.toEpochMilli() * 1_000_000L, t0);
+        assertEquals(t0, vt.epochNanos());
+        assertEquals(t0, vt.monotonicNanos(), "монотонное время совпадает с эпохальным");
+        assertEquals(START.toEpochMilli(), vt.epochMillis());
+        assertEquals(START.toEpochMilli(), vt.coarseEpochMillis());
+        assertEquals(START.toEpochMilli() * 1_000L, vt.epochMicros());
+    }
+
+    @Test
+    void setMovesBothWays() {
+        vt.set(START.plusSeconds(10));
+        assertEquals(START.plusSeconds(10), vt.asClock().instant());
+        vt.set(START.minusSeconds(10));
+        assertEquals(START.minusSeconds(10), vt.asClock().instant(), "set может вернуть время назад");
+        vt.set(42L);
+        assertEquals(42L, vt.epochNanos());
+    }
+
+    @Test
+    void advanceAddsDelta() {
+        long t0 = vt.epochNanos();
+        assertEquals(t0 + 250_000_000L, vt.advance(Duration.ofMillis(250)));
+        assertEquals(t0 + 250_000_001L, vt.advance(1));
+        assertEquals(t0 + 250_000_001L, vt.monotonicNanos());
+    }
+
+    @Test
+    void advanceToNeverGoesBack() {
+        long t0 = vt.epochNanos();
+        vt.advanceTo(t0 + 1_000);
+        assertEquals(t0 + 1_000, vt.epochNanos());
+        vt.advanceTo(t0 + 500);
+        assertEquals(t0 + 1_000, vt.epochNanos(), "неупорядоченная метка не откатывает время");
+    }
+
+    @Test
+    void preEpochTimeRoundsDown() {
+        var before = new VirtualTimeSource(-1L);
+        assertEquals(-1L, before.epochMicros());
+        assertEquals(-1L, before.epochMillis());
+        assertEquals(Instant.ofEpochSecond(-1, 999_999_999), before.asClock().instant());
+    }
+
+    @Test
+    void installedSourceDrivesClocks() {
+        Clocks.set(vt);
+        assertSame(vt, Clocks.source());
+        assertEquals(START, Clocks.now());
+        assertEquals(ZoneOffset.UTC, Clocks.zone());
+        long mono = Clocks.monotonicNanos();
+        vt.advance(Duration.ofSeconds(5));
+        assertEquals(5_000_000_000L, Clocks.monotonicNanos() - mono);
+        assertEquals(START.plusSeconds(5), Clocks.now());
+        assertEquals(START.plusSeconds(5).toEpochMilli(), Clocks.coarseMillis());
+
+        Clocks.reset();
+        assertSame(Clocks.system(), Clocks.source());
+    }
+}